@@ -0,0 +1,130 @@
+package com.udsilva.minhasfinancas.carga;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.udsilva.minhasfinancas.MinhasfinancasApplication;
+import com.udsilva.minhasfinancas.carga.DriverCarga.Sessao;
+
+/** Gerador de dados sinteticos e teste de carga da API. Os parametros sao passados como chave=valor:
+ *
+ *  modo=completo (padrao): sobe a aplicacao neste processo com o perfil test (H2 em memoria), gera os
+ *  dados e aplica a carga. Cliente e servidor dividem a CPU, o que serve para comparar versoes na mesma
+ *  maquina mas nao como numero absoluto de capacidade.
+ *  modo=gerar: so gera os dados no banco do perfil informado (perfil=, padrao o perfil padrao da aplicacao).
+ *  modo=carga: so aplica a carga em uma aplicacao ja em execucao (url=), com usuarios gerados antes pelo modo gerar.
+ *
+ *  usuarios=20, lancamentos=1000 (por usuario), meses=24, semente=42
+ *  taxa=200 (req/s), aquecimento=10 e duracao=30 (s), threads=64
+ *  mix=listar:30,pagina:10,condicional:15,saldo:20,serie:5,sugestoes:10,criar:5,status:5
+ *  saida=arquivo json com o resultado */
+public final class Carga {
+
+	private static final String MIX_PADRAO = "listar:30,pagina:10,condicional:15,saldo:20,serie:5,sugestoes:10,criar:5,status:5";
+
+	private Carga() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> parametros = lerParametros(args);
+		String modo = parametros.getOrDefault("modo", "completo");
+		int usuarios = inteiro(parametros, "usuarios", 20);
+
+		switch(modo){
+		case "completo":
+			try(ConfigurableApplicationContext contexto = iniciar("test", true)){
+				gerar(contexto, parametros, usuarios);
+				int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+				aplicarCarga("http://localhost:" + porta, parametros, usuarios);
+			}
+			break;
+		case "gerar":
+			try(ConfigurableApplicationContext contexto = iniciar(parametros.get("perfil"), false)){
+				gerar(contexto, parametros, usuarios);
+			}
+			break;
+		case "carga":
+			aplicarCarga(parametros.getOrDefault("url", "http://localhost:8080"), parametros, usuarios);
+			break;
+		default:
+			throw new IllegalArgumentException("Modo desconhecido: " + modo + " (completo, gerar ou carga)");
+		}
+	}
+
+	private static void gerar(ConfigurableApplicationContext contexto, Map<String, String> parametros, int usuarios) {
+		new GeradorDados(contexto, inteiro(parametros, "semente", 42), inteiro(parametros, "meses", 24))
+				.gerar(usuarios, inteiro(parametros, "lancamentos", 1000));
+	}
+
+	private static void aplicarCarga(String url, Map<String, String> parametros, int usuarios) throws Exception {
+		int threads = inteiro(parametros, "threads", 64);
+		// o HttpURLConnection guarda so 5 conexoes keep-alive por destino; lido na primeira conexao aberta
+		System.setProperty("http.maxConnections", String.valueOf(threads));
+		ClienteHttp cliente = new ClienteHttp(url);
+		List<Sessao> sessoes = DriverCarga.autenticar(cliente, usuarios);
+		DriverCarga driver = new DriverCarga(cliente, sessoes, DriverCarga.lerMix(parametros.getOrDefault("mix", MIX_PADRAO)));
+
+		ResultadoCarga resultado = driver.executar(inteiro(parametros, "taxa", 200), inteiro(parametros, "aquecimento", 10),
+				inteiro(parametros, "duracao", 30), threads);
+		resultado.imprimir(System.out);
+
+		String saida = parametros.get("saida");
+		if(saida != null){
+			new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(saida), resultado);
+			System.out.println("Resultado gravado em " + saida);
+		}
+	}
+
+	private static ConfigurableApplicationContext iniciar(String perfil, boolean web) {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.web(web ? WebApplicationType.SERVLET : WebApplicationType.NONE)
+				.properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+				// os testes estao no mesmo classpath: as @TestConfiguration deles ficam fora do component scan
+				.initializers(contexto -> contexto.getBeanFactory()
+						.registerSingleton(ExcluirConfiguracoesDeTeste.class.getName(), new ExcluirConfiguracoesDeTeste()));
+		if(perfil != null && !perfil.isEmpty()){
+			builder.profiles(perfil);
+		}
+		// como argumento para ter precedencia sobre a porta fixa do perfil test
+		return builder.run("--server.port=0");
+	}
+
+	private static Map<String, String> lerParametros(String[] args) {
+		Map<String, String> parametros = new HashMap<>();
+		for(String arg : args){
+			int separador = arg.indexOf('=');
+			if(separador <= 0){
+				throw new IllegalArgumentException("Parametro fora do formato chave=valor: " + arg);
+			}
+			parametros.put(arg.substring(0, separador), arg.substring(separador + 1));
+		}
+		return parametros;
+	}
+
+	private static int inteiro(Map<String, String> parametros, String chave, int padrao) {
+		String valor = parametros.get(chave);
+		return valor == null ? padrao : Integer.parseInt(valor);
+	}
+
+	private static final class ExcluirConfiguracoesDeTeste extends TypeExcludeFilter {
+
+		@Override
+		public boolean match(MetadataReader leitor, MetadataReaderFactory fabrica) {
+			return leitor.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.udsilva.minhasfinancas.carga;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/** Cliente HTTP minimo sobre o HttpURLConnection, que reaproveita as conexoes (keep-alive) desde que
+ *  o corpo de cada resposta seja lido ate o fim. */
+final class ClienteHttp {
+
+	private final String url;
+
+
+	ClienteHttp(String url) {
+		this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+	}
+
+	Resposta executar(String metodo, String caminho, String token, String corpoJson, String ifNoneMatch) throws IOException {
+		HttpURLConnection conexao = (HttpURLConnection) new URL(url + caminho).openConnection();
+		conexao.setRequestMethod(metodo);
+		conexao.setConnectTimeout(5000);
+		conexao.setReadTimeout(60000);
+		conexao.setRequestProperty("Accept", "application/json");
+		if(token != null){
+			conexao.setRequestProperty("Authorization", "Bearer " + token);
+		}
+		if(ifNoneMatch != null){
+			conexao.setRequestProperty("If-None-Match", ifNoneMatch);
+		}
+		if(corpoJson != null){
+			conexao.setDoOutput(true);
+			conexao.setRequestProperty("Content-Type", "application/json");
+			try(OutputStream saida = conexao.getOutputStream()){
+				saida.write(corpoJson.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		int status = conexao.getResponseCode();
+		InputStream entrada = status >= 400 ? conexao.getErrorStream() : conexao.getInputStream();
+		return new Resposta(status, conexao.getHeaderField("ETag"), ler(entrada));
+	}
+
+	private static String ler(InputStream entrada) throws IOException {
+		if(entrada == null){
+			return "";
+		}
+		try(InputStream in = entrada){
+			ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int lidos;
+			while((lidos = in.read(buffer)) != -1){
+				corpo.write(buffer, 0, lidos);
+			}
+			return new String(corpo.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	static final class Resposta {
+
+		final int status;
+		final String etag;
+		final String corpo;
+
+		Resposta(int status, String etag, String corpo) {
+			this.status = status;
+			this.etag = etag;
+			this.corpo = corpo;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.udsilva.minhasfinancas.carga;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udsilva.minhasfinancas.carga.ClienteHttp.Resposta;
+
+/** Gera carga em malha aberta: as requisicoes sao disparadas na taxa pedida, independente das respostas,
+ *  e a latencia e medida a partir do instante previsto para o envio (e nao do envio real). Assim o tempo
+ *  que uma requisicao espera por uma thread livre tambem entra no histograma, sem a omissao coordenada
+ *  de um cliente que so envia a proxima quando a anterior termina. */
+final class DriverCarga {
+
+	private static final long LATENCIA_MAXIMA_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+	private final ClienteHttp cliente;
+	private final List<Sessao> sessoes;
+	private final Map<Operacao, Integer> mix;
+	private final int pesoTotal;
+
+	private final Map<Operacao, Histogram> latencias = new EnumMap<>(Operacao.class);
+	private final Map<Operacao, AtomicLong> erros = new EnumMap<>(Operacao.class);
+
+
+	DriverCarga(ClienteHttp cliente, List<Sessao> sessoes, Map<Operacao, Integer> mix) {
+		this.cliente = cliente;
+		this.sessoes = sessoes;
+		this.mix = mix;
+		this.pesoTotal = mix.values().stream().mapToInt(Integer::intValue).sum();
+		for(Operacao operacao : mix.keySet()){
+			latencias.put(operacao, new ConcurrentHistogram(1, LATENCIA_MAXIMA_MICROS, 3));
+			erros.put(operacao, new AtomicLong());
+		}
+	}
+
+	/** mix no formato operacao:peso separado por virgulas, ex: listar:40,saldo:20,criar:10 */
+	static Map<Operacao, Integer> lerMix(String mix) {
+		Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+		for(String parte : mix.split(",")){
+			String[] operacaoPeso = parte.trim().split(":");
+			pesos.put(Operacao.valueOf(operacaoPeso[0].trim().toUpperCase()), Integer.valueOf(operacaoPeso[1].trim()));
+		}
+		return pesos;
+	}
+
+	/** Autentica os usuarios gerados, que tem todos a mesma senha. */
+	static List<Sessao> autenticar(ClienteHttp cliente, int usuarios) throws IOException {
+		ObjectMapper json = new ObjectMapper();
+		List<Sessao> sessoes = new ArrayList<>(usuarios);
+		for(int i = 0; i < usuarios; i++){
+			String corpo = json.createObjectNode().put("email", GeradorDados.email(i)).put("senha", GeradorDados.SENHA).toString();
+			Resposta resposta = cliente.executar("POST", "/api/usuarios/autenticar", null, corpo, null);
+			if(resposta.status != 200){
+				throw new IllegalStateException("Falha ao autenticar " + GeradorDados.email(i) + ": " + resposta.status + " " + resposta.corpo);
+			}
+			sessoes.add(new Sessao(json.readTree(resposta.corpo).get("id").asLong(), json.readTree(resposta.corpo).get("token").asText()));
+		}
+		return sessoes;
+	}
+
+	ResultadoCarga executar(int taxa, int aquecimentoSegundos, int duracaoSegundos, int threads) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long intervalo = TimeUnit.SECONDS.toNanos(1) / taxa;
+		long inicio = System.nanoTime();
+		long inicioMedicao = inicio + TimeUnit.SECONDS.toNanos(aquecimentoSegundos);
+		long fim = inicioMedicao + TimeUnit.SECONDS.toNanos(duracaoSegundos);
+
+		for(long i = 0; ; i++){
+			long previsto = inicio + i * intervalo;
+			if(previsto >= fim){
+				break;
+			}
+			long espera = previsto - System.nanoTime();
+			if(espera > 0){
+				LockSupport.parkNanos(espera);
+			}
+			Operacao operacao = sortear();
+			Sessao sessao = sessoes.get(ThreadLocalRandom.current().nextInt(sessoes.size()));
+			boolean medir = previsto >= inicioMedicao;
+			executor.execute(() -> executar(operacao, sessao, previsto, medir));
+		}
+
+		executor.shutdown();
+		if(!executor.awaitTermination(2, TimeUnit.MINUTES)){
+			executor.shutdownNow();
+		}
+		return resultado(taxa, duracaoSegundos);
+	}
+
+	private void executar(Operacao operacao, Sessao sessao, long previsto, boolean medir) {
+		boolean sucesso;
+		try {
+			sucesso = operacao.executar(cliente, sessao).status < 400;
+		} catch (IOException | RuntimeException e) {
+			sucesso = false;
+		}
+		if(!medir){
+			return;
+		}
+		long latenciaMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - previsto);
+		latencias.get(operacao).recordValue(Math.min(Math.max(latenciaMicros, 1), LATENCIA_MAXIMA_MICROS));
+		if(!sucesso){
+			erros.get(operacao).incrementAndGet();
+		}
+	}
+
+	private Operacao sortear() {
+		int sorteio = ThreadLocalRandom.current().nextInt(pesoTotal);
+		for(Map.Entry<Operacao, Integer> peso : mix.entrySet()){
+			sorteio -= peso.getValue();
+			if(sorteio < 0){
+				return peso.getKey();
+			}
+		}
+		throw new IllegalStateException("Mix vazio.");
+	}
+
+	private ResultadoCarga resultado(int taxa, int duracaoSegundos) {
+		Map<String, ResultadoCarga.Linha> operacoes = new LinkedHashMap<>();
+		Histogram total = new Histogram(1, LATENCIA_MAXIMA_MICROS, 3);
+		long errosTotal = 0;
+		for(Operacao operacao : mix.keySet()){
+			Histogram histograma = latencias.get(operacao);
+			total.add(histograma);
+			errosTotal += erros.get(operacao).get();
+			operacoes.put(operacao.name().toLowerCase(), ResultadoCarga.Linha.de(histograma, erros.get(operacao).get(), duracaoSegundos));
+		}
+		return new ResultadoCarga(taxa, duracaoSegundos, ResultadoCarga.Linha.de(total, errosTotal, duracaoSegundos), operacoes);
+	}
+
+	/** Um usuario autenticado e os lancamentos que o teste criou para ele. */
+	static final class Sessao {
+
+		private static final int LIMITE_CRIADOS = 1000;
+
+		final long id;
+		final String token;
+		volatile String etagLista;
+		private final ConcurrentLinkedQueue<Long> criados = new ConcurrentLinkedQueue<>();
+
+
+		Sessao(long id, String token) {
+			this.id = id;
+			this.token = token;
+		}
+
+		void registrarCriado(long idLancamento) {
+			if(criados.size() < LIMITE_CRIADOS){
+				criados.add(idLancamento);
+			}
+		}
+
+		Long proximoCriado() {
+			return criados.poll();
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.udsilva.minhasfinancas.carga;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.udsilva.minhasfinancas.carga.VocabularioLancamentos.Item;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+import com.udsilva.minhasfinancas.service.SaldoUsuarioService;
+
+/** Popula o banco da aplicacao (H2 ou Postgres) com usuarios e lancamentos, pelo insert em lote do
+ *  repositorio. Os lancamentos de cada usuario sao distribuidos pelos ultimos {@code meses} meses:
+ *  os meses fechados ficam quase todos efetivados e o mes corrente na maior parte pendente.
+ *  Com a mesma semente os dados gerados sao os mesmos. Usuarios que ja existem (mesmo email) sao
+ *  mantidos sem receber novos lancamentos, para que a geracao possa ser repetida no mesmo banco. */
+final class GeradorDados {
+
+	static final String SENHA = "carga123";
+
+	private static final int TAMANHO_LOTE = 5000;
+
+	private final ApplicationContext contexto;
+	private final Random random;
+	private final int meses;
+
+
+	GeradorDados(ApplicationContext contexto, long semente, int meses) {
+		this.contexto = contexto;
+		this.random = new Random(semente);
+		this.meses = meses;
+	}
+
+	static String email(int indice) {
+		return "usuario" + indice + "@carga.local";
+	}
+
+	/** Retorna os usuarios gerados, na ordem dos indices. */
+	List<Usuario> gerar(int usuarios, int lancamentosPorUsuario) {
+		UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+		LancamentoRepository lancamentoRepository = contexto.getBean(LancamentoRepository.class);
+		String senha = contexto.getBean(PasswordEncoder.class).encode(SENHA);
+
+		long inicio = System.nanoTime();
+		int inseridos = 0;
+		List<Usuario> gerados = new ArrayList<>(usuarios);
+		List<Lancamento> lote = new ArrayList<>(TAMANHO_LOTE);
+		for(int i = 0; i < usuarios; i++){
+			String email = email(i);
+			Usuario existente = usuarioRepository.findByEmail(email).orElse(null);
+			if(existente != null){
+				gerados.add(existente);
+				continue;
+			}
+
+			Usuario usuario = usuarioRepository.save(Usuario.builder().nome("Usuário " + i).email(email).senha(senha).build());
+			gerados.add(usuario);
+			for(int j = 0; j < lancamentosPorUsuario; j++){
+				lote.add(lancamento(usuario));
+				if(lote.size() == TAMANHO_LOTE){
+					inseridos += lancamentoRepository.inserirEmLote(lote);
+					lote.clear();
+				}
+			}
+		}
+		if(!lote.isEmpty()){
+			inseridos += lancamentoRepository.inserirEmLote(lote);
+		}
+
+		// o insert em lote nao passa pelo saldo materializado
+		contexto.getBean(SaldoUsuarioService.class).reconstruir();
+
+		long duracaoMillis = (System.nanoTime() - inicio) / 1_000_000;
+		System.out.printf("Gerados %d lancamentos para %d usuarios em %d ms%n", inseridos, usuarios, duracaoMillis);
+		return gerados;
+	}
+
+	private Lancamento lancamento(Usuario usuario) {
+		YearMonth atual = YearMonth.now();
+		YearMonth mes = atual.minusMonths(random.nextInt(meses));
+		Item item = VocabularioLancamentos.sortear(random);
+		LocalDate hoje = LocalDate.now();
+		LocalDate cadastro = mes.atDay(1 + random.nextInt(mes.lengthOfMonth()));
+
+		return Lancamento.builder()
+				.descricao(item.descricao(random))
+				.ano(mes.getYear())
+				.mes(mes.getMonthValue())
+				.valor(item.valor(random))
+				.tipo(item.tipo)
+				.status(status(mes.equals(atual)))
+				.dataCadastro(cadastro.isAfter(hoje) ? hoje : cadastro)
+				.usuario(usuario)
+				.build();
+	}
+
+	private StatusLancamento status(boolean mesCorrente) {
+		double sorteio = random.nextDouble();
+		if(mesCorrente){
+			return sorteio < 0.60 ? StatusLancamento.PENDENTE : sorteio < 0.98 ? StatusLancamento.EFETIVADO : StatusLancamento.CANCELADO;
+		}
+		return sorteio < 0.92 ? StatusLancamento.EFETIVADO : sorteio < 0.97 ? StatusLancamento.PENDENTE : StatusLancamento.CANCELADO;
+	}
+}
@@ -0,0 +1,122 @@
+package com.udsilva.minhasfinancas.carga;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.time.YearMonth;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udsilva.minhasfinancas.carga.ClienteHttp.Resposta;
+import com.udsilva.minhasfinancas.carga.DriverCarga.Sessao;
+import com.udsilva.minhasfinancas.carga.VocabularioLancamentos.Item;
+
+/** Requisicoes do front-end reproduzidas pelo teste de carga, cada uma como um usuario ja autenticado.
+ *  O nome (em minusculas) e o usado no parametro mix. */
+enum Operacao {
+
+	/** Lista de um mes, a tela principal. */
+	LISTAR {
+		@Override
+		Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException {
+			YearMonth mes = YearMonth.now().minusMonths(ThreadLocalRandom.current().nextInt(12));
+			return cliente.executar("GET", "/api/lancamentos?usuario=" + sessao.id + "&ano=" + mes.getYear()
+					+ "&mes=" + mes.getMonthValue(), sessao.token, null, null);
+		}
+	},
+
+	/** Primeira pagina da listagem por cursor. */
+	PAGINA {
+		@Override
+		Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException {
+			return cliente.executar("GET", "/api/lancamentos?usuario=" + sessao.id + "&limit=50", sessao.token, null, null);
+		}
+	},
+
+	/** Lista completa com o If-None-Match da resposta anterior, como o cache do navegador. */
+	CONDICIONAL {
+		@Override
+		Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException {
+			Resposta resposta = cliente.executar("GET", "/api/lancamentos?usuario=" + sessao.id, sessao.token, null, sessao.etagLista);
+			if(resposta.etag != null){
+				sessao.etagLista = resposta.etag;
+			}
+			return resposta;
+		}
+	},
+
+	SALDO {
+		@Override
+		Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException {
+			return cliente.executar("GET", "/api/usuarios/" + sessao.id + "/saldo", sessao.token, null, null);
+		}
+	},
+
+	SERIE {
+		@Override
+		Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException {
+			return cliente.executar("GET", "/api/usuarios/" + sessao.id + "/saldo/serie", sessao.token, null, null);
+		}
+	},
+
+	/** Busca por prefixo enquanto o usuario digita a descricao. */
+	SUGESTOES {
+		@Override
+		Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			String descricao = VocabularioLancamentos.sortear(random).descricao(random);
+			String termo = descricao.substring(0, Math.min(descricao.length(), 2 + random.nextInt(4)));
+			return cliente.executar("GET", "/api/lancamentos/sugestoes?termo=" + codificar(termo), sessao.token, null, null);
+		}
+	},
+
+	/** Cadastro de um lancamento do mes corrente; o id vai para a fila da operacao STATUS. */
+	CRIAR {
+		@Override
+		Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			Item item = VocabularioLancamentos.sortear(random);
+			YearMonth mes = YearMonth.now();
+			String corpo = JSON.createObjectNode()
+					.put("descricao", item.descricao(random))
+					.put("mes", mes.getMonthValue())
+					.put("ano", mes.getYear())
+					.put("valor", item.valor(random))
+					.put("tipo", item.tipo.name())
+					.put("usuario", sessao.id)
+					.toString();
+			Resposta resposta = cliente.executar("POST", "/api/lancamentos", sessao.token, corpo, null);
+			if(resposta.status == 201){
+				JsonNode criado = JSON.readTree(resposta.corpo);
+				sessao.registrarCriado(criado.get("id").asLong());
+			}
+			return resposta;
+		}
+	},
+
+	/** Efetiva um lancamento criado pelo teste; sem nenhum pendente, cria um. */
+	STATUS {
+		@Override
+		Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException {
+			Long id = sessao.proximoCriado();
+			if(id == null){
+				return CRIAR.executar(cliente, sessao);
+			}
+			return cliente.executar("PUT", "/api/lancamentos/" + id + "/atualiza-status", sessao.token,
+					"{\"status\":\"EFETIVADO\"}", null);
+		}
+	};
+
+	private static final ObjectMapper JSON = new ObjectMapper();
+
+	abstract Resposta executar(ClienteHttp cliente, Sessao sessao) throws IOException;
+
+	private static String codificar(String termo) {
+		try {
+			return URLEncoder.encode(termo, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
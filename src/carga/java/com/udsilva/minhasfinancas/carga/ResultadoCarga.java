@@ -0,0 +1,71 @@
+package com.udsilva.minhasfinancas.carga;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/** Resultado do teste de carga: vazao e percentis de latencia (ms) no total e por operacao,
+ *  gravado em json para comparar uma execucao com a outra. */
+final class ResultadoCarga {
+
+	public final int taxaPedida;
+	public final int duracaoSegundos;
+	public final Linha total;
+	public final Map<String, Linha> operacoes;
+
+
+	ResultadoCarga(int taxaPedida, int duracaoSegundos, Linha total, Map<String, Linha> operacoes) {
+		this.taxaPedida = taxaPedida;
+		this.duracaoSegundos = duracaoSegundos;
+		this.total = total;
+		this.operacoes = operacoes;
+	}
+
+	void imprimir(PrintStream saida) {
+		saida.printf("%nTaxa pedida: %d req/s, medicao de %d s%n", taxaPedida, duracaoSegundos);
+		saida.printf("%-12s %10s %8s %10s %10s %10s %10s %10s%n", "operacao", "requisicoes", "erros", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+		operacoes.forEach((nome, linha) -> linha.imprimir(saida, nome));
+		total.imprimir(saida, "total");
+	}
+
+	static final class Linha {
+
+		public final long requisicoes;
+		public final long erros;
+		public final double vazao;
+		public final double p50;
+		public final double p99;
+		public final double p999;
+		public final double maximo;
+
+
+		private Linha(long requisicoes, long erros, double vazao, double p50, double p99, double p999, double maximo) {
+			this.requisicoes = requisicoes;
+			this.erros = erros;
+			this.vazao = vazao;
+			this.p50 = p50;
+			this.p99 = p99;
+			this.p999 = p999;
+			this.maximo = maximo;
+		}
+
+		// o histograma guarda microssegundos
+		static Linha de(Histogram histograma, long erros, int duracaoSegundos) {
+			long requisicoes = histograma.getTotalCount();
+			return new Linha(requisicoes, erros, (double) requisicoes / duracaoSegundos,
+					millis(histograma.getValueAtPercentile(50)),
+					millis(histograma.getValueAtPercentile(99)),
+					millis(histograma.getValueAtPercentile(99.9)),
+					millis(histograma.getMaxValue()));
+		}
+
+		private static double millis(long micros) {
+			return micros / 1000.0;
+		}
+
+		void imprimir(PrintStream saida, String nome) {
+			saida.printf("%-12s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", nome, requisicoes, erros, vazao, p50, p99, p999, maximo);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.udsilva.minhasfinancas.carga;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+/** Descricoes de lancamentos de uma pessoa fisica, com a frequencia relativa de cada uma e o valor
+ *  tipico (mediana e dispersao de uma distribuicao log-normal). Cerca de 85% dos lancamentos sao despesas. */
+final class VocabularioLancamentos {
+
+	private static final Item[] ITENS = {
+		new Item(TipoLancamento.RECEITA, "Salário", 4.0, 4500, 0.3, "", "empresa", "adiantamento"),
+		new Item(TipoLancamento.RECEITA, "Freelance", 1.0, 1200, 0.6, "", "projeto site", "consultoria"),
+		new Item(TipoLancamento.RECEITA, "Rendimento", 1.5, 35, 0.6, "poupança", "CDB", "tesouro direto"),
+		new Item(TipoLancamento.RECEITA, "Reembolso", 0.8, 150, 0.7, "", "despesas viagem", "plano de saúde"),
+		new Item(TipoLancamento.DESPESA, "Supermercado", 12.0, 180, 0.6, "", "Extra", "Carrefour", "Pão de Açúcar", "Assaí"),
+		new Item(TipoLancamento.DESPESA, "Restaurante", 8.0, 60, 0.5, "", "almoço", "jantar", "delivery"),
+		new Item(TipoLancamento.DESPESA, "Padaria", 6.0, 18, 0.5, ""),
+		new Item(TipoLancamento.DESPESA, "Uber", 5.0, 25, 0.5, "", "aeroporto"),
+		new Item(TipoLancamento.DESPESA, "Combustível", 6.0, 200, 0.3, "", "posto Shell", "posto Ipiranga"),
+		new Item(TipoLancamento.DESPESA, "Farmácia", 4.0, 70, 0.6, "", "Drogasil", "Pague Menos"),
+		new Item(TipoLancamento.DESPESA, "Aluguel", 2.0, 1500, 0.2, "", "apartamento"),
+		new Item(TipoLancamento.DESPESA, "Condomínio", 2.0, 450, 0.2, ""),
+		new Item(TipoLancamento.DESPESA, "Conta de luz", 2.0, 150, 0.3, ""),
+		new Item(TipoLancamento.DESPESA, "Conta de água", 2.0, 80, 0.3, ""),
+		new Item(TipoLancamento.DESPESA, "Internet", 2.0, 100, 0.1, "", "fibra"),
+		new Item(TipoLancamento.DESPESA, "Celular", 2.0, 60, 0.2, "", "plano controle"),
+		new Item(TipoLancamento.DESPESA, "Plano de saúde", 1.5, 450, 0.2, ""),
+		new Item(TipoLancamento.DESPESA, "Academia", 1.5, 100, 0.2, ""),
+		new Item(TipoLancamento.DESPESA, "Streaming", 2.0, 40, 0.3, "Netflix", "Spotify", "Disney+"),
+		new Item(TipoLancamento.DESPESA, "Roupas", 2.0, 200, 0.7, "", "tênis", "Renner"),
+		new Item(TipoLancamento.DESPESA, "Presente", 1.0, 120, 0.7, "", "aniversário", "Natal"),
+		new Item(TipoLancamento.DESPESA, "Manutenção do carro", 0.7, 600, 0.8, "", "revisão", "pneus"),
+		new Item(TipoLancamento.DESPESA, "Cinema", 1.5, 50, 0.3, ""),
+		new Item(TipoLancamento.DESPESA, "Pet shop", 1.5, 120, 0.5, "", "ração", "banho e tosa"),
+		new Item(TipoLancamento.DESPESA, "Escola", 1.0, 900, 0.3, "", "material escolar"),
+		new Item(TipoLancamento.DESPESA, "IPVA", 0.2, 1800, 0.4, ""),
+	};
+
+	private static final double PESO_TOTAL;
+
+	static {
+		double total = 0;
+		for(Item item : ITENS){
+			total += item.peso;
+		}
+		PESO_TOTAL = total;
+	}
+
+	private VocabularioLancamentos() {
+	}
+
+	static Item sortear(Random random) {
+		double sorteio = random.nextDouble() * PESO_TOTAL;
+		for(Item item : ITENS){
+			sorteio -= item.peso;
+			if(sorteio < 0){
+				return item;
+			}
+		}
+		return ITENS[ITENS.length - 1];
+	}
+
+	static final class Item {
+
+		final TipoLancamento tipo;
+		final double peso;
+		private final String descricao;
+		private final double mediana;
+		private final double dispersao;
+		private final String[] complementos;
+
+		Item(TipoLancamento tipo, String descricao, double peso, double mediana, double dispersao, String... complementos) {
+			this.tipo = tipo;
+			this.descricao = descricao;
+			this.peso = peso;
+			this.mediana = mediana;
+			this.dispersao = dispersao;
+			this.complementos = complementos.length == 0 ? new String[] { "" } : complementos;
+		}
+
+		String descricao(Random random) {
+			String complemento = complementos[random.nextInt(complementos.length)];
+			return complemento.isEmpty() ? descricao : descricao + " " + complemento;
+		}
+
+		BigDecimal valor(Random random) {
+			double valor = mediana * Math.exp(dispersao * random.nextGaussian());
+			return BigDecimal.valueOf(Math.max(valor, 0.01)).setScale(2, RoundingMode.HALF_UP);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.udsilva.minhasfinancas.api.resources;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.udsilva.minhasfinancas.benchmark.BaseDados;
+
+/** GET da listagem e do saldo pelo MockMvc (sem rede), com e sem If-None-Match. A resposta
+ *  304 le so o contador de alteracoes na linha de saldo do usuario. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultaCondicionalBenchmark {
+
+	private MockMvc mvc;
+	private String urlLancamentos;
+	private String urlSaldo;
+	private String etagLancamentos;
+	private String etagSaldo;
+
+
+	@Setup(Level.Trial)
+	public void preparar(BaseDados base) throws Exception {
+		mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) base.contexto).build();
+		urlLancamentos = "/api/lancamentos?usuario=" + base.usuario.getId();
+		urlSaldo = "/api/usuarios/" + base.usuario.getId() + "/saldo/serie?de=2015-01&ate=2019-12";
+		etagLancamentos = consultar(urlLancamentos, null).getResponse().getHeader(HttpHeaders.ETAG);
+		etagSaldo = consultar(urlSaldo, null).getResponse().getHeader(HttpHeaders.ETAG);
+		if(etagLancamentos == null || etagSaldo == null){
+			throw new IllegalStateException("As consultas nao retornaram ETag.");
+		}
+	}
+
+	/** Listagem completa do usuario, como o front-end faz a cada troca de tela. */
+	@Benchmark
+	public MvcResult listarLancamentos() throws Exception {
+		return consultar(urlLancamentos, null);
+	}
+
+	@Benchmark
+	public MvcResult listarLancamentosNaoModificados() throws Exception {
+		return consultar(urlLancamentos, etagLancamentos);
+	}
+
+	/** Serie mensal do saldo, calculada pelos lancamentos efetivados. */
+	@Benchmark
+	public MvcResult obterSerieSaldo() throws Exception {
+		return consultar(urlSaldo, null);
+	}
+
+	@Benchmark
+	public MvcResult obterSerieSaldoNaoModificada() throws Exception {
+		return consultar(urlSaldo, etagSaldo);
+	}
+
+	private MvcResult consultar(String url, String etag) throws Exception {
+		return etag == null
+				? mvc.perform(get(url)).andReturn()
+				: mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+	}
+}
@@ -0,0 +1,78 @@
+package com.udsilva.minhasfinancas.api.resources;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.benchmark.Aplicacao;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+/** Conversores do LancamentoResource. A conversao do dto consulta o usuario pelo
+ *  UsuarioService da aplicacao (atendida pelo cache de usuarios). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversaoLancamentoBenchmark {
+
+	private ConfigurableApplicationContext contexto;
+	private LancamentoResource resource;
+	private Lancamento lancamento;
+	private LancamentoDTO dto;
+	
+	
+	@Setup(Level.Trial)
+	public void preparar() {
+		contexto = Aplicacao.iniciar();
+		resource = contexto.getBean(LancamentoResource.class);
+		Usuario usuario = Aplicacao.criarUsuario(contexto, "conversao@benchmark.com");
+		
+		lancamento = Lancamento.builder()
+				.id(1L)
+				.descricao("lancamento")
+				.ano(2019)
+				.mes(1)
+				.valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.RECEITA)
+				.status(StatusLancamento.PENDENTE)
+				.dataCadastro(LocalDate.now())
+				.usuario(usuario)
+				.build();
+		dto = resource.converter(lancamento);
+	}
+	
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		contexto.close();
+	}
+	
+	@Benchmark
+	public LancamentoDTO converterParaDTO() {
+		return resource.converter(lancamento);
+	}
+	
+	@Benchmark
+	public Lancamento converterParaEntidade() {
+		return resource.converter(dto);
+	}
+}
@@ -0,0 +1,43 @@
+package com.udsilva.minhasfinancas.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import com.udsilva.minhasfinancas.MinhasfinancasApplication;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+
+/** Sobe a aplicacao completa com o perfil test (H2 em memoria) para os benchmarks. */
+public final class Aplicacao {
+
+	private Aplicacao() {
+	}
+	
+	public static ConfigurableApplicationContext iniciar() {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		return new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+				// os testes estao no mesmo classpath: as @TestConfiguration deles ficam fora do component scan
+				.initializers(contexto -> contexto.getBeanFactory()
+						.registerSingleton(ExcluirConfiguracoesDeTeste.class.getName(), new ExcluirConfiguracoesDeTeste()))
+				.run();
+	}
+	
+	public static Usuario criarUsuario(ConfigurableApplicationContext contexto, String email) {
+		Usuario usuario = Usuario.builder().nome("benchmark").email(email).senha("senha").build();
+		return contexto.getBean(UsuarioRepository.class).save(usuario);
+	}
+	
+	private static final class ExcluirConfiguracoesDeTeste extends TypeExcludeFilter {
+		
+		@Override
+		public boolean match(MetadataReader leitor, MetadataReaderFactory fabrica) {
+			return leitor.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.udsilva.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.SaldoUsuarioService;
+
+/** H2 em memoria com {@code linhas} lancamentos distribuidos entre {@code usuarios} usuarios,
+ *  em 5 anos (2015 a 2019). Os benchmarks consultam o primeiro usuario.
+ *  Tamanhos maiores (ate 10M) sao informados na linha de comando: -p linhas=10000000 */
+@State(Scope.Benchmark)
+public class BaseDados {
+
+	private static final int TAMANHO_LOTE = 5000;
+	
+	@Param({ "1000", "100000" })
+	public int linhas;
+	
+	@Param({ "10" })
+	public int usuarios;
+	
+	public ConfigurableApplicationContext contexto;
+	
+	public Usuario usuario;
+	
+	
+	@Setup(Level.Trial)
+	public void popular() {
+		contexto = Aplicacao.iniciar();
+		LancamentoRepository repository = contexto.getBean(LancamentoRepository.class);
+		
+		List<Usuario> cadastrados = new ArrayList<>();
+		for(int i = 0; i < usuarios; i++){
+			cadastrados.add(Aplicacao.criarUsuario(contexto, "usuario" + i + "@benchmark.com"));
+		}
+		usuario = cadastrados.get(0);
+		
+		List<Lancamento> lote = new ArrayList<>(TAMANHO_LOTE);
+		for(int i = 0; i < linhas; i++){
+			lote.add(Lancamento.builder()
+					.descricao("lancamento " + (i % 500))
+					.ano(2015 + (i / 12) % 5)
+					.mes(i % 12 + 1)
+					.valor(BigDecimal.valueOf(i % 1000 + 1))
+					.dataCadastro(LocalDate.now())
+					.tipo(i % 3 == 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA)
+					.status(i % 2 == 0 ? StatusLancamento.EFETIVADO : StatusLancamento.PENDENTE)
+					.usuario(cadastrados.get(i % usuarios))
+					.build());
+			if(lote.size() == TAMANHO_LOTE){
+				repository.inserirEmLote(lote);
+				lote.clear();
+			}
+		}
+		if(!lote.isEmpty()){
+			repository.inserirEmLote(lote);
+		}
+		
+		// a carga em lote nao passa pelo saldo materializado
+		contexto.getBean(SaldoUsuarioService.class).reconstruir();
+	}
+	
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		contexto.close();
+	}
+	
+	public <T> T bean(Class<T> tipo) {
+		return contexto.getBean(tipo);
+	}
+}
@@ -0,0 +1,55 @@
+package com.udsilva.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.SaldoUsuarioService;
+
+/** Consultas do LancamentoService sobre a base populada por {@link BaseDados}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoServiceBenchmark {
+
+	/** Busca original por Example (entidades com o usuario) de um mes do usuario. */
+	@Benchmark
+	public List<Lancamento> buscarComExample(BaseDados base) {
+		return base.bean(LancamentoService.class).buscar(filtroDoMes(base));
+	}
+	
+	/** Mesma busca pela projecao em LancamentoDTO usada nas listagens. */
+	@Benchmark
+	public List<LancamentoDTO> listarProjecao(BaseDados base) {
+		return base.bean(LancamentoService.class).listar(filtroDoMes(base));
+	}
+	
+	/** Leitura do saldo materializado. */
+	@Benchmark
+	public BigDecimal obterSaldoPorUsuario(BaseDados base) {
+		return base.bean(LancamentoService.class).obterSaldoPorUsuario(base.usuario.getId());
+	}
+	
+	/** Calculo do saldo pelos lancamentos, usado quando o saldo materializado nao existe. */
+	@Benchmark
+	public BigDecimal calcularSaldo(BaseDados base) {
+		return base.bean(SaldoUsuarioService.class).calcularSaldo(base.usuario.getId());
+	}
+	
+	private Lancamento filtroDoMes(BaseDados base) {
+		return Lancamento.builder().usuario(base.usuario).ano(2017).mes(1).build();
+	}
+}
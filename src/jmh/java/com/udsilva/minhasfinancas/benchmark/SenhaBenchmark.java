@@ -0,0 +1,45 @@
+package com.udsilva.minhasfinancas.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/** Tempo de conferir uma senha no login para cada custo do bcrypt (minhasfinancas.senha.custo).
+ *  Cada ponto a mais dobra o tempo: o custo configurado e o maior que fica dentro do orcamento do login. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SenhaBenchmark {
+
+	@Param({ "8", "10", "11", "12" })
+	public int custo;
+	
+	private BCryptPasswordEncoder encoder;
+	private String hash;
+	
+	
+	@Setup
+	public void preparar() {
+		encoder = new BCryptPasswordEncoder(custo);
+		hash = encoder.encode("senha do usuario");
+	}
+	
+	@Benchmark
+	public boolean conferirSenha() {
+		return encoder.matches("senha do usuario", hash);
+	}
+}
@@ -0,0 +1,83 @@
+package com.udsilva.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.service.analise.AgrupamentoTotais;
+import com.udsilva.minhasfinancas.service.analise.ColunasLancamentos;
+import com.udsilva.minhasfinancas.service.analise.FiltroTotais;
+
+/** Totais sobre as colunas em memoria de um usuario, sem banco: abaixo de 65536 lancamentos a soma
+ *  e feita na thread da consulta, acima disso em tarefas do fork-join. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotaisColunasBenchmark {
+
+	private static final String[] DESCRICOES = { "mercado", "supermercado", "aluguel", "salario", "farmacia",
+			"padaria", "combustivel", "restaurante", "energia", "internet" };
+
+	@Param({ "10000", "1000000" })
+	private int lancamentos;
+
+	private ColunasLancamentos colunas;
+	private FiltroTotais semFiltro;
+	private FiltroTotais despesasDoTermoNoAno;
+
+
+	@Setup
+	public void preparar() {
+		Random aleatorio = new Random(42);
+		colunas = new ColunasLancamentos();
+		for(int i = 0; i < lancamentos; i++){
+			colunas.adicionar(new LancamentoDTO((long) i, DESCRICOES[aleatorio.nextInt(DESCRICOES.length)] + " " + aleatorio.nextInt(50),
+					1 + aleatorio.nextInt(12), 2015 + aleatorio.nextInt(10), BigDecimal.valueOf(aleatorio.nextInt(100_000), 2), 1L,
+					aleatorio.nextInt(4) == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA,
+					StatusLancamento.values()[aleatorio.nextInt(3)], 0L));
+		}
+		semFiltro = new FiltroTotais();
+		despesasDoTermoNoAno = FiltroTotais.builder()
+				.tipo(TipoLancamento.DESPESA)
+				.termo("mercado")
+				.de(YearMonth.of(2020, 1))
+				.ate(YearMonth.of(2020, 12))
+				.build();
+	}
+
+	@Benchmark
+	public List<TotalLancamentosDTO> porTipo() {
+		return colunas.totalizar(semFiltro, AgrupamentoTotais.TIPO);
+	}
+
+	@Benchmark
+	public List<TotalLancamentosDTO> porMes() {
+		return colunas.totalizar(semFiltro, AgrupamentoTotais.MES);
+	}
+
+	@Benchmark
+	public List<TotalLancamentosDTO> porStatusComFiltro() {
+		return colunas.totalizar(despesasDoTermoNoAno, AgrupamentoTotais.STATUS);
+	}
+}
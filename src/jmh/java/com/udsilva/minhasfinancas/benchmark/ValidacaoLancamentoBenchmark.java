@@ -0,0 +1,55 @@
+package com.udsilva.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+/** A validacao nao acessa o banco: o servico e criado sem repositorios. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoLancamentoBenchmark {
+
+	private LancamentoServiceImpl service;
+	private Lancamento lancamento;
+	
+	
+	@Setup
+	public void preparar() {
+		service = new LancamentoServiceImpl(null, null, null, null, null, false);
+		lancamento = Lancamento.builder()
+				.descricao("lancamento valido")
+				.ano(2019)
+				.mes(1)
+				.valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.RECEITA)
+				.dataCadastro(LocalDate.now())
+				.usuario(Usuario.builder().id(1L).build())
+				.build();
+	}
+	
+	@Benchmark
+	public Lancamento validar() {
+		service.validar(lancamento);
+		return lancamento;
+	}
+}
@@ -0,0 +1,22 @@
+package com.udsilva.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Evento do stream /api/usuarios/{id}/eventos. Sem lancamento e com idLancamento o lancamento foi
+ *  excluido; sem os dois varios lancamentos mudaram (lote, importacao) e a lista deve ser recarregada. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlteracaoLancamentoDTO {
+
+	private Long idLancamento;
+	private LancamentoDTO lancamento;
+	private BigDecimal saldo;
+	private Long alteracoes; // o mesmo contador dos ETags das listagens e do saldo
+}
@@ -11,4 +11,7 @@ public class AtualizaStatusDTO {
 
 	private String status;
 	
+	// opcional: o status so e trocado se o lancamento ainda estiver neste status
+	private String statusAtual;
+	
 }
@@ -0,0 +1,19 @@
+package com.udsilva.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConferenciaSaldoDTO {
+
+	private Long usuario;
+	private BigDecimal saldoRegistrado;
+	private BigDecimal saldoCalculado;
+}
@@ -2,6 +2,11 @@ package com.udsilva.minhasfinancas.api.dto;
 
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,4 +26,20 @@ public class LancamentoDTO {
 	private Long usuario;
 	private String tipo;
 	private String status;
+	private Long versao; // a mesma do ETag, enviada de volta no If-Match ao atualizar
+	
+	// somente nas ocorrencias calculadas de uma recorrencia, que nao tem id nem versao
+	@JsonInclude(Include.NON_NULL)
+	private Long recorrencia;
+	@JsonInclude(Include.NON_NULL)
+	private Integer parcela;
+	
+	/** Usado nas consultas de listagem (select new), que leem somente estas colunas. */
+	public LancamentoDTO(Long id, String descricao, Integer mes, Integer ano, BigDecimal valor, Long usuario,
+			TipoLancamento tipo, StatusLancamento status, Long versao) {
+		this(id, descricao, mes, ano, valor, usuario,
+				tipo == null ? null : tipo.name(),
+				status == null ? null : status.name(),
+				versao, null, null);
+	}
 }
@@ -0,0 +1,20 @@
+package com.udsilva.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaLancamentoDTO {
+
+	private List<LancamentoDTO> lancamentos;
+	
+	// cursor a ser enviado no parametro after, nulo na ultima pagina
+	private String proximo;
+}
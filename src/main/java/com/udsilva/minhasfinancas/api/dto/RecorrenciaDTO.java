@@ -0,0 +1,26 @@
+package com.udsilva.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecorrenciaDTO {
+
+	private Long id;
+	private String descricao;
+	private BigDecimal valor;
+	private String tipo;
+	private Integer mes; // mes e ano da primeira ocorrencia
+	private Integer ano;
+	private Integer parcelas; // ou mesFim e anoFim; sem nenhum dos dois a recorrencia nao termina
+	private Integer mesFim;
+	private Integer anoFim;
+	private Long usuario;
+}
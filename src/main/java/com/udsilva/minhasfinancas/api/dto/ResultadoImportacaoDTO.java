@@ -0,0 +1,23 @@
+package com.udsilva.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacaoDTO {
+
+	private Long importados;
+	private Long rejeitados;
+	private Long duracaoMilissegundos;
+	private Long linhasPorSegundo;
+	
+	// somente os primeiros erros, o total esta em rejeitados
+	private List<ErroImportacaoDTO> erros;
+}
@@ -0,0 +1,26 @@
+package com.udsilva.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoMensalDTO {
+
+	private Integer ano;
+	private Integer mes;
+	private BigDecimal receitas;
+	private BigDecimal despesas;
+	private BigDecimal saldo;
+	
+	/** Utilizado pela consulta agrupada por mes, o saldo acumulado e calculado depois. */
+	public SaldoMensalDTO(Integer ano, Integer mes, BigDecimal receitas, BigDecimal despesas) {
+		this(ano, mes, receitas, despesas, null);
+	}
+}
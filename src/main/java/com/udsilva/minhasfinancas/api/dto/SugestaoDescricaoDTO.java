@@ -0,0 +1,17 @@
+package com.udsilva.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugestaoDescricaoDTO {
+
+	private String descricao;
+	private Double relevancia;
+	private Long ocorrencias;
+}
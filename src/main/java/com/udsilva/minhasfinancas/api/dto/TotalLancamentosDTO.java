@@ -0,0 +1,19 @@
+package com.udsilva.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalLancamentosDTO {
+
+	private String grupo; // tipo, status, mes (AAAA-MM), ano ou "total"
+	private long quantidade;
+	private BigDecimal valor;
+}
@@ -0,0 +1,317 @@
+package com.udsilva.minhasfinancas.api.eventos;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udsilva.minhasfinancas.api.dto.AlteracaoLancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.config.replica.UsuarioDaLeitura;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/** Conexoes SSE de /api/usuarios/{id}/eventos. Depois do commit de cada escrita, e somente se o usuario
+ *  tem conexoes abertas, o evento (lancamento e saldo) e montado e serializado uma vez, fora da thread
+ *  da escrita, e entregue ao buffer limitado de cada conexao. Um pool pequeno de threads envia os
+ *  buffers; o cliente cujo buffer enche e desconectado (o EventSource reconecta e recarrega pelo GET
+ *  com ETag). O heartbeat periodico detecta e remove as conexoes que cairam.
+ *
+ *  O send do SseEmitter bloqueia enquanto o cliente nao le o socket. O envio que passa do prazo tem a
+ *  conexao removida, e o pool ganha uma thread no lugar da presa ate o send retornar (o emitter e
+ *  sincronizado, entao so depois disso ele e concluido com erro): os demais clientes continuam recebendo. */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class CentralEventosUsuario {
+
+	static final String NOME_EVENTO = "lancamento";
+
+	private static final int LIMITE_MONTAGENS_PENDENTES = 10000;
+
+	// threads presas compensadas no pool de envio, alem de threads-envio
+	private static final int LIMITE_THREADS_COMPENSADAS = 256;
+
+	private final LancamentoService lancamentoService;
+	private final ObjectMapper objectMapper;
+	private final int tamanhoBuffer;
+	private final int conexoesPorUsuario;
+	private final long timeoutMillis;
+	private final long prazoEnvioMillis;
+	private final int threadsEnvio;
+
+	// poucas conexoes por usuario e muito mais entregas do que conexoes: lista copiada na escrita
+	private final Map<Long, List<ConexaoEventos>> conexoes = new ConcurrentHashMap<>();
+	private final AtomicInteger abertas = new AtomicInteger();
+	private final Counter desconectadasPorBuffer;
+	private final Counter enviosAtrasados;
+	private int threadsPresas;
+
+	private final ThreadPoolExecutor montagem;
+	private final ThreadPoolExecutor envio;
+	private final ScheduledExecutorService heartbeat;
+
+
+	public CentralEventosUsuario(LancamentoService lancamentoService, ObjectMapper objectMapper, MeterRegistry registry,
+			@Value("${minhasfinancas.eventos.buffer:32}") int tamanhoBuffer,
+			@Value("${minhasfinancas.eventos.conexoes-por-usuario:5}") int conexoesPorUsuario,
+			@Value("${minhasfinancas.eventos.timeout-minutos:30}") long timeoutMinutos,
+			@Value("${minhasfinancas.eventos.heartbeat-segundos:20}") long heartbeatSegundos,
+			@Value("${minhasfinancas.eventos.threads-envio:4}") int threadsEnvio,
+			@Value("${minhasfinancas.eventos.prazo-envio-segundos:10}") long prazoEnvioSegundos) {
+		this.lancamentoService = lancamentoService;
+		this.objectMapper = objectMapper;
+		this.tamanhoBuffer = tamanhoBuffer;
+		this.conexoesPorUsuario = conexoesPorUsuario;
+		this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutos);
+		this.prazoEnvioMillis = TimeUnit.SECONDS.toMillis(prazoEnvioSegundos);
+		this.threadsEnvio = threadsEnvio;
+
+		this.montagem = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(LIMITE_MONTAGENS_PENDENTES), threads("eventos-montagem-"));
+		this.envio = new ThreadPoolExecutor(threadsEnvio, threadsEnvio, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), threads("eventos-envio-"));
+		this.heartbeat = Executors.newSingleThreadScheduledExecutor(threads("eventos-heartbeat-"));
+		this.heartbeat.scheduleWithFixedDelay(this::enviarHeartbeat, heartbeatSegundos, heartbeatSegundos, TimeUnit.SECONDS);
+		this.heartbeat.scheduleWithFixedDelay(this::verificarEnvios, 1, 1, TimeUnit.SECONDS);
+
+		Gauge.builder("minhasfinancas.eventos.conexoes", abertas, AtomicInteger::get)
+				.description("Conexoes SSE abertas")
+				.register(registry);
+		this.desconectadasPorBuffer = Counter.builder("minhasfinancas.eventos.desconectadas")
+				.description("Conexoes SSE encerradas porque o buffer de eventos encheu")
+				.register(registry);
+		this.enviosAtrasados = Counter.builder("minhasfinancas.eventos.envios-atrasados")
+				.description("Conexoes SSE encerradas porque um envio passou do prazo")
+				.register(registry);
+	}
+
+
+	/** Abre uma conexao do usuario; acima do limite por usuario a conexao mais antiga e encerrada. */
+	public SseEmitter conectar(Long idUsuario) {
+		SseEmitter emitter = criarEmitter(timeoutMillis);
+		ConexaoEventos conexao = new ConexaoEventos(idUsuario, emitter, tamanhoBuffer);
+		emitter.onCompletion(() -> remover(conexao));
+		emitter.onTimeout(() -> encerrar(conexao));
+		emitter.onError(erro -> remover(conexao));
+
+		List<ConexaoEventos> doUsuario = conexoes.compute(idUsuario, (id, lista) -> {
+			List<ConexaoEventos> atualizada = lista == null ? new CopyOnWriteArrayList<>() : lista;
+			atualizada.add(conexao);
+			return atualizada;
+		});
+		abertas.incrementAndGet();
+		if(doUsuario.size() > conexoesPorUsuario){
+			encerrar(doUsuario.get(0));
+		}
+
+		// o comentario inicial envia os cabecalhos e confirma a conexao para o cliente
+		entregar(conexao, SseEmitter.event().comment("conectado"));
+		return emitter;
+	}
+
+	protected SseEmitter criarEmitter(long timeoutMillis) {
+		return new SseEmitter(timeoutMillis);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void publicar(LancamentoAlteradoEvent evento) {
+		if(!conexoes.containsKey(evento.getIdUsuario())){
+			return;
+		}
+		try {
+			montagem.execute(() -> distribuir(evento));
+		} catch (RejectedExecutionException e) {
+			log.warn("Evento do usuario {} descartado: {} eventos aguardando montagem.", evento.getIdUsuario(), LIMITE_MONTAGENS_PENDENTES);
+		}
+	}
+
+	private void distribuir(LancamentoAlteradoEvent evento) {
+		List<ConexaoEventos> destino = conexoes.get(evento.getIdUsuario());
+		if(destino == null){
+			return;
+		}
+
+		// em nome do usuario: logo depois da escrita as leituras dele vao para o primario, e nao para uma replica
+		AlteracaoLancamentoDTO alteracao = UsuarioDaLeitura.emNomeDe(evento.getIdUsuario(), () -> montar(evento));
+		String json;
+		try {
+			json = objectMapper.writeValueAsString(alteracao);
+		} catch (JsonProcessingException e) {
+			log.error("Falha ao serializar o evento do usuario {}.", evento.getIdUsuario(), e);
+			return;
+		}
+
+		String id = alteracao.getAlteracoes() == null ? null : alteracao.getAlteracoes().toString();
+		for(ConexaoEventos conexao : destino){
+			SseEventBuilder sse = SseEmitter.event().name(NOME_EVENTO).data(json);
+			entregar(conexao, id == null ? sse : sse.id(id));
+		}
+	}
+
+	// leituras pela chave, uma vez por alteracao e nao por conexao
+	private AlteracaoLancamentoDTO montar(LancamentoAlteradoEvent evento) {
+		Long idUsuario = evento.getIdUsuario();
+		LancamentoDTO lancamento = evento.getIdLancamento() == null ? null
+				: lancamentoService.obterPorId(evento.getIdLancamento())
+					.filter(l -> idUsuario.equals(l.getUsuario().getId()))
+					.map(this::converter)
+					.orElse(null);
+
+		return AlteracaoLancamentoDTO.builder()
+				.idLancamento(evento.getIdLancamento())
+				.lancamento(lancamento)
+				.saldo(lancamentoService.obterSaldoPorUsuario(idUsuario))
+				.alteracoes(lancamentoService.obterAlteracoes(idUsuario).orElse(null))
+				.build();
+	}
+
+	private void entregar(ConexaoEventos conexao, SseEventBuilder evento) {
+		if(!conexao.enfileirar(evento)){
+			desconectadasPorBuffer.increment();
+			encerrar(conexao);
+			return;
+		}
+		if(conexao.iniciarEnvio()){
+			try {
+				envio.execute(() -> enviar(conexao));
+			} catch (RejectedExecutionException e) {
+				encerrar(conexao);
+			}
+		}
+	}
+
+	// um evento que entra depois do ultimo poll e antes de liberar o envio e enviado pela mesma thread
+	private void enviar(ConexaoEventos conexao) {
+		try {
+			do {
+				try {
+					conexao.enviarPendentes();
+				} catch (IOException | IllegalStateException e) {
+					// cliente desconectado; o container tambem avisa pelo onError
+					remover(conexao);
+					return;
+				}
+			} while(conexao.iniciarEnvio());
+		} finally {
+			if(conexao.liberarEnvioPreso()){
+				redimensionarEnvio(-1);
+			}
+		}
+	}
+
+	// a conexao sai da distribuicao na hora; a thread presa no send so volta ao pool quando o send retornar
+	private void verificarEnvios() {
+		try {
+			long agora = System.currentTimeMillis();
+			conexoes.values().forEach(lista -> lista.forEach(conexao -> {
+				if(conexao.marcarEnvioPreso(agora, prazoEnvioMillis)){
+					enviosAtrasados.increment();
+					remover(conexao);
+					conexao.concluir(new TimeoutException("O cliente não leu os eventos no prazo."));
+					redimensionarEnvio(1);
+					log.warn("Conexao de eventos do usuario {} encerrada: envio parado ha mais de {} ms.", conexao.getIdUsuario(), prazoEnvioMillis);
+				}
+			}));
+		} catch (RuntimeException e) {
+			log.warn("Falha na verificacao dos envios de eventos.", e);
+		}
+	}
+
+	// o maximo cresce antes do nucleo e diminui depois dele, para o nucleo nunca passar do maximo
+	private synchronized void redimensionarEnvio(int variacao) {
+		threadsPresas += variacao;
+		int tamanho = threadsEnvio + Math.min(threadsPresas, LIMITE_THREADS_COMPENSADAS);
+		if(tamanho > envio.getCorePoolSize()){
+			envio.setMaximumPoolSize(tamanho);
+			envio.setCorePoolSize(tamanho);
+		} else if(tamanho < envio.getCorePoolSize()){
+			envio.setCorePoolSize(tamanho);
+			envio.setMaximumPoolSize(tamanho);
+		}
+	}
+
+	private void enviarHeartbeat() {
+		try {
+			conexoes.values().forEach(lista -> lista.forEach(conexao ->
+					entregar(conexao, SseEmitter.event().comment("heartbeat"))));
+		} catch (RuntimeException e) {
+			log.warn("Falha no heartbeat das conexoes de eventos.", e);
+		}
+	}
+
+	private void encerrar(ConexaoEventos conexao) {
+		if(remover(conexao)){
+			conexao.concluir(null);
+		}
+	}
+
+	private boolean remover(ConexaoEventos conexao) {
+		if(!conexao.encerrar()){
+			return false;
+		}
+		abertas.decrementAndGet();
+		conexoes.computeIfPresent(conexao.getIdUsuario(), (id, lista) -> {
+			lista.remove(conexao);
+			return lista.isEmpty() ? null : lista;
+		});
+		return true;
+	}
+
+	@PreDestroy
+	public void finalizar() {
+		heartbeat.shutdownNow();
+		montagem.shutdownNow();
+		envio.shutdownNow();
+		conexoes.values().forEach(lista -> lista.forEach(this::encerrar));
+	}
+
+	private LancamentoDTO converter(Lancamento lancamento) {
+		return LancamentoDTO.builder()
+				.id(lancamento.getId())
+				.descricao(lancamento.getDescricao())
+				.valor(lancamento.getValor())
+				.mes(lancamento.getMes())
+				.ano(lancamento.getAno())
+				.status(lancamento.getStatus().name())
+				.tipo(lancamento.getTipo().name())
+				.usuario(lancamento.getUsuario().getId())
+				.versao(lancamento.getVersao())
+				.build();
+	}
+
+	private static CustomizableThreadFactory threads(String prefixo) {
+		CustomizableThreadFactory fabrica = new CustomizableThreadFactory(prefixo);
+		fabrica.setDaemon(true);
+		return fabrica;
+	}
+}
@@ -0,0 +1,115 @@
+package com.udsilva.minhasfinancas.api.eventos;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/** Uma conexao SSE aberta, com o buffer limitado dos eventos ainda nao enviados. No maximo
+ *  uma thread envia por vez (enviando), na ordem em que os eventos entraram. O inicio do envio em
+ *  andamento fica registrado para a CentralEventosUsuario encontrar o envio que passou do prazo. */
+final class ConexaoEventos {
+
+	private static final long OCIOSA = 0;
+	private static final long PRESA = -1;
+	private static final long LIBERADA = -2;
+
+	private final Long idUsuario;
+	private final SseEmitter emitter;
+	private final BlockingQueue<SseEventBuilder> pendentes;
+	private final AtomicBoolean enviando = new AtomicBoolean();
+	private final AtomicBoolean encerrada = new AtomicBoolean();
+	// OCIOSA, o inicio (currentTimeMillis) do envio em andamento, PRESA ou LIBERADA
+	private final AtomicLong inicioEnvio = new AtomicLong(OCIOSA);
+	private final AtomicBoolean conclusaoPendente = new AtomicBoolean();
+	private volatile Throwable erroConclusao;
+
+
+	ConexaoEventos(Long idUsuario, SseEmitter emitter, int tamanhoBuffer) {
+		this.idUsuario = idUsuario;
+		this.emitter = emitter;
+		this.pendentes = new ArrayBlockingQueue<>(tamanhoBuffer);
+	}
+
+	Long getIdUsuario() {
+		return idUsuario;
+	}
+
+	/** false quando o buffer esta cheio: o cliente nao esta acompanhando os eventos. */
+	boolean enfileirar(SseEventBuilder evento) {
+		return encerrada.get() || pendentes.offer(evento);
+	}
+
+	/** true se o chamador ficou responsavel por enviar os pendentes. */
+	boolean iniciarEnvio() {
+		return !encerrada.get() && !pendentes.isEmpty() && enviando.compareAndSet(false, true);
+	}
+
+	void enviarPendentes() throws IOException {
+		try {
+			SseEventBuilder evento;
+			while(!encerrada.get() && (evento = pendentes.poll()) != null){
+				long inicio = System.currentTimeMillis();
+				if(!inicioEnvio.compareAndSet(OCIOSA, inicio)){
+					return;
+				}
+				boolean noPrazo;
+				try {
+					emitter.send(evento);
+				} finally {
+					noPrazo = inicioEnvio.compareAndSet(inicio, OCIOSA);
+				}
+				if(!noPrazo){
+					return;
+				}
+			}
+		} finally {
+			enviando.set(false);
+			concluirSeLivre();
+		}
+	}
+
+	/** Conclui o emitter sem esperar o send em andamento, ja que os metodos do emitter sao sincronizados:
+	 *  nesse caso quem conclui e a thread do envio, ao terminar. */
+	void concluir(Throwable erro) {
+		erroConclusao = erro;
+		conclusaoPendente.set(true);
+		concluirSeLivre();
+	}
+
+	// quem conclui fica com o envio para sempre, por isso a conclusao acontece uma vez
+	private void concluirSeLivre() {
+		if(conclusaoPendente.get() && enviando.compareAndSet(false, true)){
+			if(erroConclusao == null){
+				emitter.complete();
+			} else {
+				emitter.completeWithError(erroConclusao);
+			}
+		}
+	}
+
+	/** true somente uma vez, se o envio em andamento comecou ha mais de prazoMillis: a thread
+	 *  que envia passa a ser considerada presa. */
+	boolean marcarEnvioPreso(long agora, long prazoMillis) {
+		long inicio = inicioEnvio.get();
+		return inicio > OCIOSA && agora - inicio > prazoMillis && inicioEnvio.compareAndSet(inicio, PRESA);
+	}
+
+	/** true somente uma vez, quando o envio marcado como preso enfim retornou. */
+	boolean liberarEnvioPreso() {
+		return inicioEnvio.compareAndSet(PRESA, LIBERADA);
+	}
+
+	/** true somente na primeira chamada. */
+	boolean encerrar() {
+		if(!encerrada.compareAndSet(false, true)){
+			return false;
+		}
+		pendentes.clear();
+		return true;
+	}
+}
@@ -0,0 +1,142 @@
+package com.udsilva.minhasfinancas.api.resources;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.udsilva.minhasfinancas.api.dto.ConferenciaSaldoDTO;
+import com.udsilva.minhasfinancas.api.dto.EstatisticaCacheDTO;
+import com.udsilva.minhasfinancas.model.entity.AnoArquivado;
+import com.udsilva.minhasfinancas.service.ArquivamentoService;
+import com.udsilva.minhasfinancas.service.ExpurgoService;
+import com.udsilva.minhasfinancas.service.SaldoUsuarioService;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminResource {
+
+	private final SaldoUsuarioService saldoService;
+	private final ArquivamentoService arquivamentoService;
+	private final ExpurgoService expurgoService;
+	private final CacheManager cacheManager;
+	private final EntityManagerFactory entityManagerFactory;
+	
+	
+	// retorna os usuarios com saldo materializado divergente do calculado pelos lancamentos
+	@GetMapping("/saldos/conferencia")
+	public ResponseEntity conferirSaldos(){
+		List<ConferenciaSaldoDTO> divergencias = saldoService.conferir();
+		return ResponseEntity.ok(divergencias);
+	}
+	
+	// reconstroi todos os saldos e retorna as divergencias encontradas antes da reconstrucao
+	@PostMapping("/saldos/reconstruir")
+	public ResponseEntity reconstruirSaldos(){
+		List<ConferenciaSaldoDTO> divergencias = saldoService.reconstruir();
+		return ResponseEntity.ok(divergencias);
+	}
+	
+	// arquiva os anos fechados ate o informado (ou todos os anos fechados) e retorna os anos arquivados
+	@PostMapping("/lancamentos/arquivamento")
+	public ResponseEntity arquivarLancamentos( @RequestParam(value = "ate", required = false) Integer ate ){
+		try {
+			List<AnoArquivado> arquivados = ate == null
+					? arquivamentoService.arquivarAnosFechados()
+					: arquivamentoService.arquivarAte(ate);
+			return ResponseEntity.ok(arquivados);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	// remove agora os lancamentos da exclusao logica, sem esperar o cron, e retorna a quantidade removida
+	@PostMapping("/lancamentos/expurgo")
+	public ResponseEntity expurgarLancamentos(){
+		return ResponseEntity.ok(expurgoService.expurgarExcluidos());
+	}
+	
+	// acertos, faltas e descartes de cada cache desde o inicio da aplicacao, para dimensiona-los
+	@GetMapping("/caches")
+	public ResponseEntity obterEstatisticasCaches(){
+		Map<String, EstatisticaCacheDTO> estatisticas = new LinkedHashMap<>();
+		for(String nome : cacheManager.getCacheNames()){
+			if(!(cacheManager.getCache(nome) instanceof CaffeineCache)){
+				continue;
+			}
+			CaffeineCache cache = (CaffeineCache) cacheManager.getCache(nome);
+			CacheStats stats = cache.getNativeCache().stats();
+			estatisticas.put(nome, EstatisticaCacheDTO.builder()
+					.tamanho(cache.getNativeCache().estimatedSize())
+					.acertos(stats.hitCount())
+					.faltas(stats.missCount())
+					.taxaAcerto(stats.hitRate())
+					.descartes(stats.evictionCount())
+					.build());
+		}
+		adicionarRegioesHibernate(estatisticas);
+		return ResponseEntity.ok(estatisticas);
+	}
+	
+	// regioes do cache de segundo nivel (hibernate.<regiao>): acertos e faltas das estatisticas do hibernate,
+	// tamanho do caffeine e descartes das estatisticas do jcache (jmx). A regiao de timestamps nao tem acertos
+	private void adicionarRegioesHibernate(Map<String, EstatisticaCacheDTO> estatisticas){
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		if(!(sessionFactory.getCache().getRegionFactory() instanceof JCacheRegionFactory)){
+			return;
+		}
+		javax.cache.CacheManager regioes = ((JCacheRegionFactory) sessionFactory.getCache().getRegionFactory()).getCacheManager();
+		for(String nome : regioes.getCacheNames()){
+			CacheRegionStatistics stats = sessionFactory.getStatistics().getCacheRegionStatistics(nome);
+			long acertos = stats == null ? 0 : stats.getHitCount();
+			long faltas = stats == null ? 0 : stats.getMissCount();
+			estatisticas.put("hibernate." + nome, EstatisticaCacheDTO.builder()
+					.tamanho(regioes.getCache(nome).unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize())
+					.acertos(acertos)
+					.faltas(faltas)
+					.taxaAcerto(acertos + faltas == 0 ? 1.0 : (double) acertos / (acertos + faltas))
+					.descartes(obterDescartes(nome))
+					.build());
+		}
+	}
+	
+	private static long obterDescartes(String regiao){
+		try {
+			MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+			Set<ObjectName> nomes = servidor.queryNames(new ObjectName("javax.cache:type=CacheStatistics,Cache=" + regiao + ",*"), null);
+			long descartes = 0;
+			for(ObjectName nome : nomes){
+				descartes += (Long) servidor.getAttribute(nome, "CacheEvictions");
+			}
+			return descartes;
+		} catch (JMException e) {
+			return 0;
+		}
+	}
+}
@@ -1,39 +1,84 @@
 package com.udsilva.minhasfinancas.api.resources;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.udsilva.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.udsilva.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
 import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.PaginaLancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.ResultadoImportacaoDTO;
+import com.udsilva.minhasfinancas.api.dto.SugestaoDescricaoDTO;
+import com.udsilva.minhasfinancas.config.seguranca.AutenticacaoTokenFilter;
 import com.udsilva.minhasfinancas.model.entity.Lancamento;
 import com.udsilva.minhasfinancas.model.entity.Usuario;
 import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
 import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
+import com.udsilva.minhasfinancas.service.BuscaDescricaoService;
+import com.udsilva.minhasfinancas.service.ConsultaCompartilhadaService;
+import com.udsilva.minhasfinancas.service.ExportacaoService;
+import com.udsilva.minhasfinancas.service.ImportacaoService;
 import com.udsilva.minhasfinancas.service.LancamentoService;
 import com.udsilva.minhasfinancas.service.UsuarioService;
+import com.udsilva.minhasfinancas.service.exceptions.ConflitoAtualizacaoException;
 import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+import com.udsilva.minhasfinancas.service.exportacao.FormatoExportacao;
+import com.udsilva.minhasfinancas.service.importacao.FormatoExtrato;
 
 import lombok.RequiredArgsConstructor;
 
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping("/api/lancamentos")
 @RequiredArgsConstructor
 public class LancamentoResource {
 	
+	private static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+	
+	private static final int LIMITE_MAXIMO_PAGINA = 1000;
+	
+	private static final int TAMANHO_MINIMO_TERMO = 2;
+	
 	private final LancamentoService service;
+	private final ConsultaCompartilhadaService consultaCompartilhadaService;
 	private final UsuarioService usuarioService;
+	private final BuscaDescricaoService buscaDescricaoService;
+	private final ImportacaoService importacaoService;
+	private final ExportacaoService exportacaoService;
+	private final ObjectMapper objectMapper;
 	
 	
 	@GetMapping
@@ -41,40 +86,215 @@ public class LancamentoResource {
 			@RequestParam(value = "descricao", required = false) String descricao,
 			@RequestParam(value = "mes", required = false) Integer mes,
 			@RequestParam(value = "ano", required = false) Integer ano,
-			@RequestParam("usuario") Long idUsuario // somente usuario nao é opcional, é obrigatorio
+			@RequestParam(value = "usuario", required = false) Long idUsuario, // obrigatorio quando a requisicao nao tem token
+			@RequestParam(value = "limit", required = false) Integer limite,
+			@RequestParam(value = "after", required = false) String apos,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest requisicao
 			){
 		
-		Lancamento lancamentoFiltro = new Lancamento();
-		lancamentoFiltro.setDescricao(descricao);
-		lancamentoFiltro.setMes(mes);
-		lancamentoFiltro.setAno(ano);
+		if(limite != null && (limite < 1 || limite > LIMITE_MAXIMO_PAGINA)){
+			return ResponseEntity.badRequest().body("Informe um limit entre 1 e " + LIMITE_MAXIMO_PAGINA + ".");
+		}
+		
+		ChaveLancamento chave;
+		try {
+			chave = apos == null ? null : ChaveLancamento.decodificar(apos);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Cursor inválido.");
+		}
+		
+		// o ETag vem do contador de alteracoes do usuario: If-None-Match igual responde 304 sem consultar os lancamentos.
+		// Sem ano no filtro as recorrencias sem fim sao expandidas ate dezembro do ano corrente, por isso o ano entra no ETag
+		Long idConsultado = idAutenticado != null ? idAutenticado : idUsuario;
+		Optional<Long> alteracoes = idConsultado == null ? Optional.empty() : service.obterAlteracoes(idConsultado);
+		if(alteracoes.isPresent() && requisicao.checkNotModified("lancamentos-" + alteracoes.get() + "-" + Year.now())){
+			return null;
+		}
+		
+		Optional<Lancamento> lancamentoFiltro = criarFiltro(descricao, mes, ano, idUsuario, idAutenticado);
+		if(!lancamentoFiltro.isPresent()){
+			return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o id informado.");
+		}
+		
+		// sem limit a consulta retorna todos os lancamentos, como antes da paginacao. Chamadas simultaneas
+		// iguais (mesmo filtro e mesmo contador do ETag) compartilham a consulta
+		if(limite == null){
+			List<LancamentoDTO> lancamentos = consultaCompartilhadaService.listar(lancamentoFiltro.get(), alteracoes);
+			return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(lancamentos);
+		}
+		
+		// busca um lancamento a mais para saber se existe proxima pagina
+		List<LancamentoDTO> pagina = service.buscarPagina(lancamentoFiltro.get(), chave, limite + 1);
+		String proximo = null;
+		if(pagina.size() > limite){
+			pagina = pagina.subList(0, limite);
+			proximo = ChaveLancamento.de(pagina.get(limite - 1)).codificar();
+		}
+		
+		return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(new PaginaLancamentoDTO(pagina, proximo));
+	}
 	
-		Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
+	
+	// um lancamento json por linha, lido do banco em stream sem carregar a lista inteira em memoria
+	@GetMapping(produces = MEDIA_TYPE_NDJSON)
+	public ResponseEntity<StreamingResponseBody> buscarEmStream(
+			@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado
+			){
+		
+		Optional<Lancamento> lancamentoFiltro = criarFiltro(descricao, mes, ano, idUsuario, idAutenticado);
+		if(!lancamentoFiltro.isPresent()){
+			return respostaInvalida("Não foi possível realizar a consulta. Usuário não encontrado para o id informado.");
+		}
+		
+		StreamingResponseBody corpo = saida -> {
+			JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)
+					.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+					.setRootValueSeparator(null);
+			service.percorrer(lancamentoFiltro.get(), lancamento -> {
+				try {
+					objectMapper.writeValue(gerador, lancamento);
+					gerador.writeRaw('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			gerador.flush();
+		};
+		
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(MEDIA_TYPE_NDJSON)).body(corpo);
+	}
+		
+	
+	// historico completo do usuario (inclusive anos arquivados) em csv ou xlsx, gravado na resposta a medida que e lido
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportar(
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "formato", defaultValue = "csv") String formato,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado
+			){
+		
+		FormatoExportacao formatoExportacao;
+		try {
+			formatoExportacao = FormatoExportacao.valueOf(formato.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return respostaInvalida("Informe um formato (csv ou xlsx) válido.");
+		}
+		if(gzip && formatoExportacao == FormatoExportacao.XLSX){
+			return respostaInvalida("O xlsx já é compactado, use gzip somente com csv.");
+		}
+		
+		Optional<Usuario> usuario = obterUsuario(idUsuario, idAutenticado);
 		if(!usuario.isPresent()){
-			return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o id informado.");
-		}else{
-			lancamentoFiltro.setUsuario(usuario.get());
+			return respostaInvalida("Usuário não encotrado  para o Id informado.");
+		}
+		Long id = usuario.get().getId();
+		
+		String arquivo = "lancamentos." + formatoExportacao.getExtensao() + (gzip ? ".gz" : "");
+		StreamingResponseBody corpo = saida -> exportacaoService.exportar(id, formatoExportacao, gzip, saida);
+		
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(gzip ? "application/gzip" : formatoExportacao.getContentType()))
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment").filename(arquivo).build().toString())
+				.cacheControl(CacheControl.noStore())
+				.body(corpo);
+	}
+	
+	
+	private static ResponseEntity<StreamingResponseBody> respostaInvalida(String mensagem){
+		byte[] corpo = mensagem.getBytes(StandardCharsets.UTF_8);
+		return ResponseEntity.badRequest().contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8)).body(saida -> saida.write(corpo));
+	}
+	
+	
+	// busca enquanto o usuario digita, retorna descricoes distintas ordenadas por relevancia
+	@GetMapping("/sugestoes")
+	public ResponseEntity sugerirDescricoes(
+			@RequestParam("termo") String termo,
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "limite", defaultValue = "10") Integer limite,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado
+			){
+		
+		// as sugestoes nao consultam o usuario, basta o id
+		if(idAutenticado != null){
+			idUsuario = idAutenticado;
+		}
+		
+		if(idUsuario == null){
+			return ResponseEntity.badRequest().body("Informe o usuário.");
+		}
+		
+		if(termo.trim().length() < TAMANHO_MINIMO_TERMO){
+			return ResponseEntity.badRequest().body("Informe ao menos " + TAMANHO_MINIMO_TERMO + " caracteres para a busca.");
+		}
+		
+		if(limite < 1 || limite > LIMITE_MAXIMO_PAGINA){
+			return ResponseEntity.badRequest().body("Informe um limite entre 1 e " + LIMITE_MAXIMO_PAGINA + ".");
 		}
 		
-		List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
-		return ResponseEntity.ok(lancamentos);
+		List<SugestaoDescricaoDTO> sugestoes = buscaDescricaoService.sugerir(idUsuario, termo.trim(), limite);
+		return ResponseEntity.ok(sugestoes);
 	}
+	
+	
+	private Optional<Lancamento> criarFiltro(String descricao, Integer mes, Integer ano, Long idUsuario, Long idAutenticado){
+		return obterUsuario(idUsuario, idAutenticado).map(usuario -> {
+			Lancamento lancamentoFiltro = new Lancamento();
+			lancamentoFiltro.setDescricao(descricao);
+			lancamentoFiltro.setMes(mes);
+			lancamentoFiltro.setAno(ano);
+			lancamentoFiltro.setUsuario(usuario);
+			return lancamentoFiltro;
+		});
+	}
+	
+	
+	// com token o usuario ja foi conferido pela assinatura e nao e consultado; sem token vale o parametro usuario
+	private Optional<Usuario> obterUsuario(Long idUsuario, Long idAutenticado){
+		if(idAutenticado != null){
+			return Optional.of(Usuario.builder().id(idAutenticado).build());
+		}
+		
+		if(idUsuario == null){
+			return Optional.empty();
+		}
 		
+		return usuarioService.obterPorId(idUsuario);
+	}
+	
+	// lancamentos de outro usuario sao tratados como nao encontrados
+	private boolean pertenceAoAutenticado(Lancamento lancamento, Long idAutenticado){
+		return idAutenticado == null || idAutenticado.equals(lancamento.getUsuario().getId());
+	}
+	
 	
 	@GetMapping("{id}")
-	public ResponseEntity obterLancamento( @PathVariable("id") Long id){
+	public ResponseEntity obterLancamento( 
+			@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
 		return service.obterPorId(id)
-				.map( lancamento -> new ResponseEntity(converter(lancamento), HttpStatus.OK))
+				.filter( lancamento -> pertenceAoAutenticado(lancamento, idAutenticado))
+				.map( lancamento -> (ResponseEntity) ResponseEntity.ok()
+						.eTag(lancamento.getVersao().toString())
+						.body(converter(lancamento)))
 				.orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND));
 		
 	}
 	
 	
 	@PostMapping
-	public ResponseEntity salvar(@RequestBody LancamentoDTO dto){
+	public ResponseEntity salvar(
+			@RequestBody LancamentoDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
 		
 		try {
-			Lancamento entidade = converter(dto);
+			Lancamento entidade = converter(dto, idAutenticado);
 			entidade = service.salvar(entidade);
 			return new ResponseEntity(entidade, HttpStatus.CREATED); // retorna 202
 			
@@ -85,61 +305,212 @@ public class LancamentoResource {
 	}
 	
 	
+	// o extrato e enviado no corpo da requisicao e lido em stream, sem multipart
+	@PostMapping("/importacao")
+	public ResponseEntity importar(
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "formato", defaultValue = "CSV") String formato,
+			@RequestParam(value = "charset", defaultValue = "UTF-8") String charset,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado,
+			InputStream extrato
+			){
+		
+		Optional<Usuario> usuario = obterUsuario(idUsuario, idAutenticado);
+		if(!usuario.isPresent()){
+			return ResponseEntity.badRequest().body("Usuário não encotrado  para o Id informado.");
+		}
+		idUsuario = usuario.get().getId();
+		
+		try {
+			FormatoExtrato formatoExtrato = FormatoExtrato.valueOf(formato.toUpperCase());
+			ResultadoImportacaoDTO resultado = importacaoService.importar(idUsuario, formatoExtrato, extrato, Charset.forName(charset));
+			return ResponseEntity.ok(resultado);
+			
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Informe um formato (CSV ou OFX) e um charset válidos.");
+			
+		}
+	}
+	
+	
+	// sem leitura previa: o UPDATE e condicionado ao dono e a versao do If-Match (ou do corpo).
+	// Versao diferente responde 412 (If-Match) ou 409 (versao no corpo); sem versao a escrita e incondicional
 	@PutMapping("{id}")
-	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto){
-		// entity - recebe o lancamento retornando pelo metodo obterPorId
-		return service.obterPorId(id).map(entity -> {
-			try {
-				Lancamento lancamento = converter(dto);
-				lancamento.setId(entity.getId());
-				service.atualizar(lancamento);
-				
-				return ResponseEntity.ok(lancamento);	
-				
-			} catch (RegraNegocioException e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
-				
+	public ResponseEntity atualizar(
+			@PathVariable("id") Long id,
+			@RequestBody LancamentoDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+		
+		try {
+			Long versaoEsperada = ifMatch != null ? lerVersao(ifMatch) : dto.getVersao();
+			Lancamento lancamento = converter(dto, idAutenticado);
+			lancamento.setId(id);
+			lancamento = service.atualizar(lancamento, versaoEsperada);
+			
+			ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+			if(lancamento.getVersao() != null){
+				resposta.eTag(lancamento.getVersao().toString());
 			}
+			return resposta.body(lancamento);
+			
+		} catch (ConflitoAtualizacaoException e) {
+			return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).body(e.getMessage());
 			
-		}).orElseGet(() -> 
-		              new ResponseEntity("Lancamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));  
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Informe a versão do lancamento no If-Match.");
+			
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+			
+		}
 	}
 	
+	// compare-and-set: o status so muda se o lancamento ainda estiver no statusAtual e na versao do If-Match,
+	// quando informados. Com token o dono vem dele; sem token e lido so o id do usuario do lancamento
 	@PutMapping("{id}/atualiza-status")
-	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto ){
-		return service.obterPorId(id).map( entity -> {
-			StatusLancamento statusSelecionando= StatusLancamento.valueOf(dto.getStatus());
+	public ResponseEntity atualizarStatus(
+			@PathVariable("id") Long id,
+			@RequestBody AtualizaStatusDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+		
+		StatusLancamento statusSelecionando;
+		StatusLancamento statusAtual;
+		Long versaoEsperada;
+		try {
+			statusSelecionando = StatusLancamento.valueOf(dto.getStatus());
+			statusAtual = dto.getStatusAtual() == null ? null : StatusLancamento.valueOf(dto.getStatusAtual());
+			versaoEsperada = ifMatch == null ? null : lerVersao(ifMatch);
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lancamento, envie um status válido.");
+		}
+		
+		Optional<Long> idUsuario = idAutenticado != null ? Optional.of(idAutenticado) : service.obterIdUsuario(id);
+		if(!idUsuario.isPresent()){
+			return new ResponseEntity("Lancamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST);
+		}
+		
+		try {
+			service.atualizarStatus(id, idUsuario.get(), statusAtual, statusSelecionando, versaoEsperada);
+			return versaoEsperada == null 
+					? ResponseEntity.noContent().build()
+					: ResponseEntity.noContent().eTag(String.valueOf(versaoEsperada + 1)).build();
 			
-			if(statusSelecionando == null){
-				return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lancamento, envie um status válido.");
+		} catch (ConflitoAtualizacaoException e) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+			
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+			
+		}
+	}
+	
+	
+	// If-Match com a versao do ETag: "3", W/"3" ou * (qualquer versao)
+	private static Long lerVersao(String ifMatch) {
+		String valor = ifMatch.trim();
+		if(valor.equals("*")){
+			return null;
+		}
+		if(valor.startsWith("W/")){
+			valor = valor.substring(2);
+		}
+		return Long.valueOf(valor.replace("\"", ""));
+	}
+	
+	
+	// lote pelos ids ou pelo filtro (usuario, ano, mes, tipo) em um unico UPDATE, retorna a quantidade alterada
+	@PutMapping("/atualiza-status")
+	public ResponseEntity atualizarStatusEmLote(
+			@RequestBody AtualizaStatusLoteDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+		if(dto.getStatus() == null){
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lancamentos, envie um status válido.");
+		}
+		
+		// com token o lote fica restrito aos lancamentos do proprio usuario
+		if(idAutenticado != null){
+			if(dto.getUsuario() != null && !dto.getUsuario().equals(idAutenticado)){
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
 			}
-			try {
-				entity.setStatus(statusSelecionando);
-				service.atualizar(entity);
-				return ResponseEntity.ok(entity);
-				
-			}catch (RegraNegocioException e) {
-					return ResponseEntity.badRequest().body(e.getMessage());
-					
-			}			
-		}).orElseGet(() -> 
-        new ResponseEntity("Lancamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+			dto.setUsuario(idAutenticado);
+		}
+		
+		try {
+			StatusLancamento status = StatusLancamento.valueOf(dto.getStatus());
+			FiltroLancamentoLote filtro = FiltroLancamentoLote.builder()
+					.ids(dto.getIds())
+					.idUsuario(dto.getUsuario())
+					.ano(dto.getAno())
+					.mes(dto.getMes())
+					.tipo(dto.getTipo() == null ? null : TipoLancamento.valueOf(dto.getTipo()))
+					.build();
+			
+			int atualizados = service.atualizarStatus(filtro, status);
+			return ResponseEntity.ok(atualizados);
+			
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lancamentos, envie um status e um tipo válidos.");
+			
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+			
+		}
 	}
 	
 	
+	// uma unica instrucao condicionada ao dono, sem ler o lancamento; sem token o dono vem da chave estrangeira
 	@DeleteMapping("{id}")
-	public ResponseEntity deletar(@PathVariable("id") Long id){
-		return service.obterPorId(id).map( entidade -> {
-			   service.deletar(entidade);
-			   
-			   return new ResponseEntity(HttpStatus.NO_CONTENT);
+	public ResponseEntity deletar(
+			@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+		Optional<Long> idUsuario = idAutenticado != null ? Optional.of(idAutenticado) : service.obterIdUsuario(id);
+		if(!idUsuario.isPresent()){
+			return new ResponseEntity("Lancamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST);
+		}
+		
+		try {
+			service.deletar(id, idUsuario.get());
+			return new ResponseEntity(HttpStatus.NO_CONTENT);
+			
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+			
+		}
+	}
+	
+	
+	// exclui os lancamentos do usuario (do ano e do mes, quando informados) em uma unica instrucao e
+	// retorna a quantidade excluida
+	@DeleteMapping
+	public ResponseEntity deletarEmLote(
+			@RequestParam(value = "usuario", required = false) Long idUsuario, // obrigatorio quando a requisicao nao tem token
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+		
+		// com token o lote fica restrito aos lancamentos do proprio usuario
+		if(idAutenticado != null){
+			if(idUsuario != null && !idUsuario.equals(idAutenticado)){
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
+			idUsuario = idAutenticado;
+		}
+		
+		try {
+			FiltroLancamentoLote filtro = FiltroLancamentoLote.builder().idUsuario(idUsuario).ano(ano).mes(mes).build();
+			return ResponseEntity.ok(service.deletar(filtro));
 			
-		}).orElseGet(() ->
-				new ResponseEntity("Lancamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+			
+		}
 	}
 	
 	
-	private LancamentoDTO converter(Lancamento lancamento){
+	// os conversores sao visiveis no pacote para o benchmark de conversao (src/jmh/java)
+	LancamentoDTO converter(Lancamento lancamento){
 		 return LancamentoDTO.builder()
 				 .id(lancamento.getId())
 				 .descricao(lancamento.getDescricao())
@@ -149,12 +520,21 @@ public class LancamentoResource {
 				 .status(lancamento.getStatus().name())
 				 .tipo(lancamento.getTipo().name())
 				 .usuario(lancamento.getUsuario().getId())
+				 .versao(lancamento.getVersao())
 				 .build();
 	}
 	
 	
 	
-	private Lancamento converter(LancamentoDTO dto){
+	Lancamento converter(LancamentoDTO dto){
+		return converter(dto, null);
+	}
+	
+	Lancamento converter(LancamentoDTO dto, Long idAutenticado){
+		if(idAutenticado != null && dto.getUsuario() != null && !dto.getUsuario().equals(idAutenticado)){
+			throw new RegraNegocioException("O usuário do lancamento não é o usuário autenticado.");
+		}
+		
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
 		lancamento.setDescricao(dto.getDescricao());
@@ -162,8 +542,7 @@ public class LancamentoResource {
 		lancamento.setMes(dto.getMes());
 		lancamento.setValor(dto.getValor());
 		
-		Usuario usuario = usuarioService
-				            .obterPorId(dto.getUsuario())
+		Usuario usuario = obterUsuario(dto.getUsuario(), idAutenticado)
 				            .orElseThrow(() -> new RegraNegocioException("Usuário não encotrado  para o Id informado.") );
 				            		
 		
@@ -0,0 +1,179 @@
+package com.udsilva.minhasfinancas.api.resources;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.RecorrenciaDTO;
+import com.udsilva.minhasfinancas.config.seguranca.AutenticacaoTokenFilter;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Recorrencia;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.RecorrenciaService;
+import com.udsilva.minhasfinancas.service.UsuarioService;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+
+import lombok.RequiredArgsConstructor;
+
+/** Regras de lancamentos mensais e parcelados. As ocorrencias aparecem nas listagens e exportacoes de
+ *  /api/lancamentos sem id, com recorrencia e parcela; a alteracao de uma ocorrencia a grava como lancamento. */
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@RequestMapping("/api/recorrencias")
+@RequiredArgsConstructor
+public class RecorrenciaResource {
+
+	private final RecorrenciaService service;
+	private final LancamentoService lancamentoService;
+	private final UsuarioService usuarioService;
+
+
+	@GetMapping
+	public ResponseEntity buscar(
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+
+		Optional<Usuario> usuario = obterUsuario(idUsuario, idAutenticado);
+		if(!usuario.isPresent()){
+			return ResponseEntity.badRequest().body("Usuário não encotrado  para o Id informado.");
+		}
+
+		List<RecorrenciaDTO> recorrencias = service.buscar(usuario.get().getId()).stream()
+				.map(this::converter)
+				.collect(Collectors.toList());
+		return ResponseEntity.ok(recorrencias);
+	}
+
+
+	@PostMapping
+	public ResponseEntity salvar(
+			@RequestBody RecorrenciaDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+
+		try {
+			Recorrencia recorrencia = service.salvar(converter(dto, idAutenticado));
+			return new ResponseEntity(converter(recorrencia), HttpStatus.CREATED);
+
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Informe um tipo de lancamento válido.");
+
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+
+		}
+	}
+
+
+	// so descricao, valor e status do corpo sao usados; o mes vem da parcela
+	@PostMapping("{id}/ocorrencias/{parcela}")
+	public ResponseEntity alterarOcorrencia(
+			@PathVariable("id") Long id,
+			@PathVariable("parcela") Integer parcela,
+			@RequestBody LancamentoDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+
+		try {
+			Usuario usuario = obterUsuario(dto.getUsuario(), idAutenticado)
+					.orElseThrow(() -> new RegraNegocioException("Usuário não encotrado  para o Id informado."));
+			Lancamento alteracao = Lancamento.builder()
+					.descricao(dto.getDescricao())
+					.valor(dto.getValor())
+					.status(dto.getStatus() == null ? null : StatusLancamento.valueOf(dto.getStatus()))
+					.usuario(usuario)
+					.build();
+
+			Lancamento lancamento = lancamentoService.alterarOcorrencia(id, parcela, alteracao);
+			return new ResponseEntity(lancamento, HttpStatus.CREATED);
+
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Informe um status válido.");
+
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+
+		}
+	}
+
+
+	@DeleteMapping("{id}")
+	public ResponseEntity deletar(
+			@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+		return service.obterPorId(id)
+				.filter(recorrencia -> idAutenticado == null || idAutenticado.equals(recorrencia.getUsuario().getId()))
+				.map(recorrencia -> {
+					service.deletar(recorrencia);
+					return new ResponseEntity(HttpStatus.NO_CONTENT);
+				})
+				.orElseGet(() -> new ResponseEntity("Recorrência não encontrada na base de dados.", HttpStatus.BAD_REQUEST));
+	}
+
+
+	// com token o usuario ja foi conferido pela assinatura e nao e consultado; sem token vale o parametro usuario
+	private Optional<Usuario> obterUsuario(Long idUsuario, Long idAutenticado){
+		if(idAutenticado != null){
+			return Optional.of(Usuario.builder().id(idAutenticado).build());
+		}
+
+		if(idUsuario == null){
+			return Optional.empty();
+		}
+
+		return usuarioService.obterPorId(idUsuario);
+	}
+
+
+	private RecorrenciaDTO converter(Recorrencia recorrencia){
+		return RecorrenciaDTO.builder()
+				.id(recorrencia.getId())
+				.descricao(recorrencia.getDescricao())
+				.valor(recorrencia.getValor())
+				.tipo(recorrencia.getTipo().name())
+				.mes(recorrencia.getMes())
+				.ano(recorrencia.getAno())
+				.parcelas(recorrencia.getParcelas())
+				.mesFim(recorrencia.getMesFim())
+				.anoFim(recorrencia.getAnoFim())
+				.usuario(recorrencia.getUsuario().getId())
+				.build();
+	}
+
+	private Recorrencia converter(RecorrenciaDTO dto, Long idAutenticado){
+		if(idAutenticado != null && dto.getUsuario() != null && !dto.getUsuario().equals(idAutenticado)){
+			throw new RegraNegocioException("O usuário da recorrência não é o usuário autenticado.");
+		}
+
+		Usuario usuario = obterUsuario(dto.getUsuario(), idAutenticado)
+				.orElseThrow(() -> new RegraNegocioException("Usuário não encotrado  para o Id informado."));
+
+		return Recorrencia.builder()
+				.descricao(dto.getDescricao())
+				.valor(dto.getValor())
+				.tipo(dto.getTipo() == null ? null : TipoLancamento.valueOf(dto.getTipo()))
+				.mes(dto.getMes())
+				.ano(dto.getAno())
+				.parcelas(dto.getParcelas())
+				.mesFim(dto.getMesFim())
+				.anoFim(dto.getAnoFim())
+				.usuario(usuario)
+				.build();
+	}
+}
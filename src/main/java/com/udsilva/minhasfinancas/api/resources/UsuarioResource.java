@@ -3,40 +3,74 @@ package com.udsilva.minhasfinancas.api.resources;
 
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.udsilva.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.udsilva.minhasfinancas.api.dto.UsuarioAutenticadoDTO;
 import com.udsilva.minhasfinancas.api.dto.UsuarioDTO;
+import com.udsilva.minhasfinancas.api.eventos.CentralEventosUsuario;
+import com.udsilva.minhasfinancas.config.seguranca.AutenticacaoTokenFilter;
 import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.service.AnaliseLancamentoService;
+import com.udsilva.minhasfinancas.service.ConsultaCompartilhadaService;
 import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.TokenService;
 import com.udsilva.minhasfinancas.service.UsuarioService;
+import com.udsilva.minhasfinancas.service.analise.AgrupamentoTotais;
+import com.udsilva.minhasfinancas.service.analise.FiltroTotais;
 import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
 
 import lombok.RequiredArgsConstructor;
 
 
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping("/api/usuarios")
 @RequiredArgsConstructor
 public class UsuarioResource {
 	
 	private final UsuarioService service;
 	private final LancamentoService lancamentoService; 
+	private final ConsultaCompartilhadaService consultaCompartilhadaService;
+	private final AnaliseLancamentoService analiseService;
+	private final TokenService tokenService;
+	private final CentralEventosUsuario centralEventos;
 	
 	@PostMapping("/autenticar")
 	public ResponseEntity autenticar( @RequestBody UsuarioDTO dto){
 		
 		try {
 		  Usuario usuarioAtenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-		  return ResponseEntity.ok(usuarioAtenticado);
+		  UsuarioAutenticadoDTO autenticado = UsuarioAutenticadoDTO.builder()
+				  .id(usuarioAtenticado.getId())
+				  .nome(usuarioAtenticado.getNome())
+				  .email(usuarioAtenticado.getEmail())
+				  .token(tokenService.gerarToken(usuarioAtenticado))
+				  .build();
+		  return ResponseEntity.ok(autenticado);
 		  
 		} catch (Exception e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
@@ -63,16 +97,135 @@ public class UsuarioResource {
 	}
 	
 	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldo(@PathVariable("id") Long id){
-		Optional<Usuario> usuario = service.obterPorId(id);
+	public ResponseEntity obterSaldo(
+			@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest requisicao){
 		
-		if(!usuario.isPresent()){
-			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		Optional<ResponseEntity> recusa = verificarUsuario(id, idAutenticado);
+		if(recusa.isPresent()){
+			return recusa.get();
 		}
 		
-		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-		return ResponseEntity.ok(saldo);
+		// o mesmo contador do ETag separa as chamadas simultaneas que podem compartilhar a consulta
+		Optional<Long> alteracoes = lancamentoService.obterAlteracoes(id);
+		if(naoModificado(alteracoes, "saldo", requisicao)){
+			return null;
+		}
+		
+		BigDecimal saldo = consultaCompartilhadaService.obterSaldoPorUsuario(id, alteracoes);
+		return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(saldo);
+	}
+	
+	// de e ate no formato YYYY-MM, por padrao os ultimos 12 meses
+	@GetMapping("{id}/saldo/serie")
+	public ResponseEntity obterSerieSaldo(
+			@PathVariable("id") Long id,
+			@RequestParam(value = "de", required = false) String de,
+			@RequestParam(value = "ate", required = false) String ate,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest requisicao){
+		
+		Optional<ResponseEntity> recusa = verificarUsuario(id, idAutenticado);
+		if(recusa.isPresent()){
+			return recusa.get();
+		}
+		
+		try {
+			YearMonth mesFinal = ate == null ? YearMonth.now() : YearMonth.parse(ate);
+			YearMonth mesInicial = de == null ? mesFinal.minusMonths(11) : YearMonth.parse(de);
+			
+			// o periodo padrao depende do mes corrente, por isso os meses resolvidos entram no ETag
+			if(naoModificado(id, "serie-" + mesInicial + "-" + mesFinal, requisicao)){
+				return null;
+			}
+			
+			List<SaldoMensalDTO> serie = lancamentoService.obterSerieSaldoPorUsuario(id, mesInicial, mesFinal);
+			return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(serie);
+			
+		} catch (DateTimeParseException e) {
+			return ResponseEntity.badRequest().body("Informe os meses no formato AAAA-MM.");
+			
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+			
+		}
 	}
 	
+	// quantidade e soma dos lancamentos por tipo, status, mes ou ano (ou so o total), com filtros opcionais
+	// de tipo, status, periodo (AAAA-MM) e termo da descricao
+	@GetMapping("{id}/totais")
+	public ResponseEntity obterTotais(
+			@PathVariable("id") Long id,
+			@RequestParam(value = "agrupar", defaultValue = "total") String agrupar,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "status", required = false) String status,
+			@RequestParam(value = "de", required = false) String de,
+			@RequestParam(value = "ate", required = false) String ate,
+			@RequestParam(value = "termo", required = false) String termo,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+		
+		Optional<ResponseEntity> recusa = verificarUsuario(id, idAutenticado);
+		if(recusa.isPresent()){
+			return recusa.get();
+		}
+		
+		try {
+			AgrupamentoTotais agrupamento = AgrupamentoTotais.valueOf(agrupar.toUpperCase());
+			FiltroTotais filtro = FiltroTotais.builder()
+					.tipo(tipo == null ? null : TipoLancamento.valueOf(tipo.toUpperCase()))
+					.status(status == null ? null : StatusLancamento.valueOf(status.toUpperCase()))
+					.de(de == null ? null : YearMonth.parse(de))
+					.ate(ate == null ? null : YearMonth.parse(ate))
+					.termo(termo == null ? null : termo.trim())
+					.build();
+			
+			List<TotalLancamentosDTO> totais = analiseService.totalizar(id, filtro, agrupamento);
+			return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(totais);
+			
+		} catch (DateTimeParseException e) {
+			return ResponseEntity.badRequest().body("Informe os meses no formato AAAA-MM.");
+			
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Informe um agrupamento (total, tipo, status, mes ou ano), tipo e status válidos.");
+			
+		}
+	}
+	
+	// stream SSE com o lancamento alterado e o novo saldo a cada escrita confirmada, no lugar do polling do saldo
+	@SuppressWarnings("unchecked")
+	@GetMapping(value = "{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> eventos(
+			@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, required = false) Long idAutenticado){
+		
+		Optional<ResponseEntity> recusa = verificarUsuario(id, idAutenticado);
+		if(recusa.isPresent()){
+			return recusa.get();
+		}
+		
+		return ResponseEntity.ok()
+				.header("X-Accel-Buffering", "no") // sem buffer no nginx
+				.body(centralEventos.conectar(id));
+	}
+	
+	// ETag pelo contador de alteracoes do usuario (leitura da linha de saldo pela chave). Quando o
+	// If-None-Match confere a resposta ja fica com 304 e o resource retorna sem consultar os lancamentos
+	private boolean naoModificado(Long id, String representacao, WebRequest requisicao){
+		return naoModificado(lancamentoService.obterAlteracoes(id), representacao, requisicao);
+	}
+	
+	private boolean naoModificado(Optional<Long> alteracoes, String representacao, WebRequest requisicao){
+		return alteracoes.isPresent() && requisicao.checkNotModified(representacao + "-" + alteracoes.get());
+	}
+	
+	// o usuario do token existe (o token so e emitido no login), entao nao e consultado de novo
+	private Optional<ResponseEntity> verificarUsuario(Long id, Long idAutenticado){
+		if(idAutenticado != null){
+			return id.equals(idAutenticado) ? Optional.empty() : Optional.of(new ResponseEntity(HttpStatus.FORBIDDEN));
+		}
+		
+		return service.obterPorId(id).isPresent() ? Optional.empty() : Optional.of(new ResponseEntity(HttpStatus.NOT_FOUND));
+	}
 
 }
@@ -0,0 +1,158 @@
+package com.udsilva.minhasfinancas.api.resources.reativo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.PaginaLancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.reativo.LancamentoReativo;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+import com.udsilva.minhasfinancas.model.repository.reativo.LancamentoReativoRepository;
+import com.udsilva.minhasfinancas.model.repository.reativo.UsuarioReativoRepository;
+import com.udsilva.minhasfinancas.service.RecorrenciaService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/** Leituras de LancamentoResource na pilha reativa (perfil reativo), mesmas urls e respostas. As ocorrencias
+ *  das recorrencias sao calculadas pelo RecorrenciaService (jpa, bloqueante) fora das threads do netty e
+ *  intercaladas com os lancamentos como em LancamentoService.listar e buscarPagina. */
+@RestController
+@RequestMapping("/api/lancamentos")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class LancamentoReativoResource {
+
+	private static final int LIMITE_MAXIMO_PAGINA = 1000;
+	
+	private final LancamentoReativoRepository repository;
+	private final UsuarioReativoRepository usuarioRepository;
+	private final RecorrenciaService recorrenciaService;
+	
+	
+	@GetMapping
+	public Mono<ResponseEntity> buscar(
+			@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam("usuario") Long idUsuario,
+			@RequestParam(value = "limit", required = false) Integer limite,
+			@RequestParam(value = "after", required = false) String apos
+			){
+		
+		if(limite != null && (limite < 1 || limite > LIMITE_MAXIMO_PAGINA)){
+			return Mono.just(ResponseEntity.badRequest().body("Informe um limit entre 1 e " + LIMITE_MAXIMO_PAGINA + "."));
+		}
+		
+		ChaveLancamento chave;
+		try {
+			chave = apos == null ? null : ChaveLancamento.decodificar(apos);
+		} catch (IllegalArgumentException e) {
+			return Mono.just(ResponseEntity.badRequest().body("Cursor inválido."));
+		}
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setDescricao(descricao);
+		filtro.setMes(mes);
+		filtro.setAno(ano);
+		filtro.setUsuario(Usuario.builder().id(idUsuario).build());
+		
+		return usuarioRepository.existsById(idUsuario).flatMap(existe -> {
+			if(!existe){
+				return Mono.just(ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o id informado."));
+			}
+			
+			// sem limit a lista e escrita a medida que as linhas chegam do banco
+			if(limite == null){
+				return expandir(filtro).map(ocorrencias -> ResponseEntity.ok(intercalar(repository.listar(filtro), ocorrencias)));
+			}
+			
+			// busca um lancamento a mais para saber se existe proxima pagina
+			return buscarPagina(filtro, chave, limite + 1).map(pagina -> {
+				String proximo = null;
+				if(pagina.size() > limite){
+					pagina = pagina.subList(0, limite);
+					proximo = ChaveLancamento.de(pagina.get(limite - 1)).codificar();
+				}
+				return ResponseEntity.ok(new PaginaLancamentoDTO(pagina, proximo));
+			});
+		});
+	}
+	
+	
+	@GetMapping("{id}")
+	public Mono<ResponseEntity> obterLancamento(@PathVariable("id") Long id){
+		return repository.obterPorId(id)
+				.map(lancamento -> (ResponseEntity) ResponseEntity.ok()
+						.eTag(String.valueOf(lancamento.getVersao()))
+						.body(converter(lancamento)))
+				.defaultIfEmpty(new ResponseEntity(HttpStatus.NOT_FOUND));
+	}
+	
+	
+	private Mono<List<LancamentoDTO>> expandir(Lancamento filtro) {
+		return Mono.fromCallable(() -> recorrenciaService.expandir(filtro)).subscribeOn(Schedulers.boundedElastic());
+	}
+	
+	// como LancamentoServiceImpl.buscarPagina: cursor em uma ocorrencia ja entregou os lancamentos gravados do mes
+	private Mono<List<LancamentoDTO>> buscarPagina(Lancamento filtro, ChaveLancamento apos, int limite) {
+		ChaveLancamento aposGravados = apos == null || apos.getId() != null ? apos
+				: new ChaveLancamento(apos.getAno(), apos.getMes(), Long.MAX_VALUE);
+		return expandir(filtro).flatMap(ocorrencias -> repository.buscarPagina(filtro, aposGravados, limite).collectList()
+				.map(gravados -> ocorrencias.isEmpty() ? gravados
+						: Stream.concat(gravados.stream(), ocorrencias.stream().filter(o -> apos == null || apos.antecede(o)))
+								.sorted(ChaveLancamento.ORDEM)
+								.limit(limite)
+								.collect(Collectors.toList())));
+	}
+	
+	// cada ocorrencia (ja ordenada) sai antes do primeiro lancamento que vem depois dela
+	private static Flux<LancamentoDTO> intercalar(Flux<LancamentoDTO> lancamentos, List<LancamentoDTO> ocorrencias) {
+		if(ocorrencias.isEmpty()){
+			return lancamentos;
+		}
+		return Flux.defer(() -> {
+			Deque<LancamentoDTO> pendentes = new ArrayDeque<>(ocorrencias);
+			return lancamentos.concatMapIterable(lancamento -> {
+				List<LancamentoDTO> saida = new ArrayList<>();
+				while(!pendentes.isEmpty() && ChaveLancamento.ORDEM.compare(pendentes.peekFirst(), lancamento) < 0){
+					saida.add(pendentes.pollFirst());
+				}
+				saida.add(lancamento);
+				return saida;
+			}).concatWith(Flux.defer(() -> Flux.fromIterable(pendentes)));
+		});
+	}
+	
+	private LancamentoDTO converter(LancamentoReativo lancamento){
+		return LancamentoDTO.builder()
+				.id(lancamento.getId())
+				.descricao(lancamento.getDescricao())
+				.valor(lancamento.getValor())
+				.mes(lancamento.getMes())
+				.ano(lancamento.getAno())
+				.status(lancamento.getStatus())
+				.tipo(lancamento.getTipo())
+				.usuario(lancamento.getIdUsuario())
+				.versao(lancamento.getVersao())
+				.build();
+	}
+}
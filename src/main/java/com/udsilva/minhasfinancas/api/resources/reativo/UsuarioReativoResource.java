@@ -0,0 +1,46 @@
+package com.udsilva.minhasfinancas.api.resources.reativo;
+
+import java.math.BigDecimal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.udsilva.minhasfinancas.model.entity.reativo.SaldoUsuarioReativo;
+import com.udsilva.minhasfinancas.model.repository.reativo.SaldoUsuarioReativoRepository;
+import com.udsilva.minhasfinancas.model.repository.reativo.UsuarioReativoRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/** Leitura do saldo de UsuarioResource na pilha reativa (perfil reativo). */
+@RestController
+@RequestMapping("/api/usuarios")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class UsuarioReativoResource {
+
+	private final UsuarioReativoRepository usuarioRepository;
+	private final SaldoUsuarioReativoRepository saldoRepository;
+	
+	
+	// saldo materializado, ou calculado pelos lancamentos e resumos arquivados quando o usuario ainda nao o possui
+	@GetMapping("{id}/saldo")
+	public Mono<ResponseEntity> obterSaldo(@PathVariable("id") Long id){
+		return usuarioRepository.existsById(id).flatMap(existe -> {
+			if(!existe){
+				return Mono.just(new ResponseEntity(HttpStatus.NOT_FOUND));
+			}
+			return saldoRepository.findById(id)
+					.switchIfEmpty(saldoRepository.calcularSaldo(id))
+					.map(SaldoUsuarioReativo::getSaldo)
+					.defaultIfEmpty(BigDecimal.ZERO)
+					.map(ResponseEntity::ok);
+		});
+	}
+}
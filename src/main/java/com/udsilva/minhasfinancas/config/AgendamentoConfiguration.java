@@ -0,0 +1,11 @@
+package com.udsilva.minhasfinancas.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Tarefas periodicas (@Scheduled), com os horarios definidos no application.properties. */
+@Configuration
+@EnableScheduling
+public class AgendamentoConfiguration {
+
+}
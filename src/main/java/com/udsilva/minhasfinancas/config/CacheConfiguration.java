@@ -0,0 +1,15 @@
+package com.udsilva.minhasfinancas.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/** Os caches e a especificacao do Caffeine (tamanho, expiracao e estatisticas)
+ *  sao definidos em spring.cache.* no application.properties. */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+	public static final String USUARIOS = "usuarios";
+	
+	public static final String USUARIOS_POR_EMAIL = "usuariosPorEmail";
+}
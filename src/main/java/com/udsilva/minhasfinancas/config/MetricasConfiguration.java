@@ -0,0 +1,33 @@
+package com.udsilva.minhasfinancas.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.udsilva.minhasfinancas.config.metricas.InstrucoesPorRequisicaoInterceptor;
+import com.udsilva.minhasfinancas.config.metricas.MetodoHandlerTagsProvider;
+import com.udsilva.minhasfinancas.config.metricas.MetricasRepositorioAspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Metricas proprias da aplicacao. As de http, hibernate e do pool (hikaricp) sao do actuator,
+ *  configuradas em management.* e spring.jpa.properties.hibernate.* no application.properties. */
+@Configuration
+public class MetricasConfiguration {
+
+	@Bean
+	public MetodoHandlerTagsProvider metodoHandlerTagsProvider() {
+		return new MetodoHandlerTagsProvider();
+	}
+	
+	@Bean
+	public InstrucoesPorRequisicaoInterceptor instrucoesPorRequisicaoInterceptor(MeterRegistry registry) {
+		return new InstrucoesPorRequisicaoInterceptor(registry);
+	}
+	
+	@Bean
+	public MetricasRepositorioAspect metricasRepositorioAspect(MeterRegistry registry,
+			@Value("${minhasfinancas.consulta-lenta.limite-ms:500}") long limiteLentaMilissegundos) {
+		return new MetricasRepositorioAspect(registry, limiteLentaMilissegundos);
+	}
+}
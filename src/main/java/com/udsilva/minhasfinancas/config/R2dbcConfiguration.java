@@ -0,0 +1,40 @@
+package com.udsilva.minhasfinancas.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/** Acesso R2DBC da pilha reativa de leitura. O spring boot 2.2 nao configura o r2dbc,
+ *  a url (r2dbc:pool:postgresql://... ou r2dbc:h2:mem:///...) vem de minhasfinancas.r2dbc.* */
+@Configuration
+@Profile("reativo")
+@EnableR2dbcRepositories(basePackages = "com.udsilva.minhasfinancas.model.repository.reativo")
+public class R2dbcConfiguration extends AbstractR2dbcConfiguration {
+
+	@Value("${minhasfinancas.r2dbc.url}")
+	private String url;
+	
+	@Value("${minhasfinancas.r2dbc.username}")
+	private String usuario;
+	
+	@Value("${minhasfinancas.r2dbc.password}")
+	private String senha;
+	
+	
+	@Bean
+	@Override
+	public ConnectionFactory connectionFactory() {
+		ConnectionFactoryOptions opcoes = ConnectionFactoryOptions.parse(url).mutate()
+				.option(ConnectionFactoryOptions.USER, usuario)
+				.option(ConnectionFactoryOptions.PASSWORD, senha)
+				.build();
+		return ConnectionFactories.get(opcoes);
+	}
+}
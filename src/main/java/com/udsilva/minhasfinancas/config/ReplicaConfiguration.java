@@ -0,0 +1,104 @@
+package com.udsilva.minhasfinancas.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.udsilva.minhasfinancas.config.replica.LeituraAposEscrita;
+import com.udsilva.minhasfinancas.config.replica.RoteamentoDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Replicas de leitura, ativadas quando minhasfinancas.replicas.urls tem ao menos uma url: o DataSource
+ *  da aplicacao passa a ser o RoteamentoDataSource, com o primario de spring.datasource.* (e o pool de
+ *  spring.datasource.hikari.*) e um pool somente leitura por replica. Sem replicas o spring boot cria
+ *  o DataSource unico como antes. */
+@Configuration
+@ConditionalOnProperty(name = "minhasfinancas.replicas.urls")
+public class ReplicaConfiguration {
+
+	@Value("${minhasfinancas.replicas.urls}")
+	private String[] urls;
+
+	@Value("${minhasfinancas.replicas.username:${spring.datasource.username}}")
+	private String usuario;
+
+	@Value("${minhasfinancas.replicas.password:${spring.datasource.password}}")
+	private String senha;
+
+	@Value("${minhasfinancas.replicas.tamanho-pool:10}")
+	private int tamanhoPool;
+
+	@Value("${minhasfinancas.replicas.selecao:round-robin}")
+	private String selecao;
+
+	@Value("${minhasfinancas.replicas.janela-leitura-apos-escrita-segundos:5}")
+	private long janelaLeituraAposEscrita;
+
+	// so para as replicas locais (H2), que nao recebem o esquema por replicacao
+	@Value("${minhasfinancas.replicas.migrar:false}")
+	private boolean migrar;
+
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSourcePrimario(DataSourceProperties propriedades) {
+		HikariDataSource primario = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		primario.setPoolName(RoteamentoDataSource.PRIMARIO);
+		return primario;
+	}
+
+	@Bean
+	public LeituraAposEscrita leituraAposEscrita() {
+		return new LeituraAposEscrita(Duration.ofSeconds(janelaLeituraAposEscrita));
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource dataSourcePrimario, DataSourceProperties propriedades,
+			LeituraAposEscrita leituraAposEscrita, ObjectProvider<MeterRegistry> meterRegistry,
+			@Value("${spring.flyway.locations}") String[] locaisMigracoes, @Value("${spring.flyway.schemas}") String[] esquemas) {
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for(String url : urls){
+			HikariDataSource replica = new HikariDataSource();
+			replica.setPoolName(RoteamentoDataSource.chaveReplica(replicas.size()));
+			replica.setJdbcUrl(url.trim());
+			replica.setUsername(usuario);
+			replica.setPassword(senha);
+			replica.setDriverClassName(propriedades.determineDriverClassName());
+			replica.setMaximumPoolSize(tamanhoPool);
+			replica.setReadOnly(true);
+			meterRegistry.ifAvailable(replica::setMetricRegistry);
+			if(migrar){
+				migrar(replica, url.trim(), locaisMigracoes, esquemas);
+			}
+			replicas.add(replica);
+		}
+
+		RoteamentoDataSource roteamento = new RoteamentoDataSource(dataSourcePrimario, replicas,
+				RoteamentoDataSource.Selecao.de(selecao), leituraAposEscrita);
+		return new LazyConnectionDataSourceProxy(roteamento);
+	}
+
+	private static void migrar(DataSource replica, String url, String[] locaisMigracoes, String[] esquemas) {
+		String banco = DatabaseDriver.fromJdbcUrl(url).getId();
+		String[] locais = Arrays.stream(locaisMigracoes).map(local -> local.replace("{vendor}", banco)).toArray(String[]::new);
+		Flyway.configure().dataSource(replica).locations(locais).schemas(esquemas).load().migrate();
+	}
+}
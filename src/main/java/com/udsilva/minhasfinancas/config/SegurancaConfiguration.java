@@ -0,0 +1,35 @@
+package com.udsilva.minhasfinancas.config;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.udsilva.minhasfinancas.config.seguranca.AutenticacaoTokenFilter;
+import com.udsilva.minhasfinancas.service.TokenService;
+
+/** O custo do bcrypt (minhasfinancas.senha.custo) foi escolhido pelo SenhaBenchmark (src/jmh/java):
+ *  cada ponto a mais dobra o tempo do login. */
+@Configuration
+public class SegurancaConfiguration {
+
+	@Bean
+	public PasswordEncoder passwordEncoder(@Value("${minhasfinancas.senha.custo:10}") int custo) {
+		return new BCryptPasswordEncoder(custo);
+	}
+
+	@Bean
+	@ConditionalOnWebApplication(type = Type.SERVLET)
+	public FilterRegistrationBean<AutenticacaoTokenFilter> autenticacaoTokenFilter(TokenService tokenService,
+			@Value("${minhasfinancas.admin.usuarios:}") Set<Long> administradores) {
+		FilterRegistrationBean<AutenticacaoTokenFilter> registro = new FilterRegistrationBean<>(new AutenticacaoTokenFilter(tokenService, administradores));
+		registro.addUrlPatterns("/api/*");
+		return registro;
+	}
+}
@@ -1,19 +1,47 @@
 package com.udsilva.minhasfinancas.config;
 
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.udsilva.minhasfinancas.config.metricas.InstrucoesPorRequisicaoInterceptor;
+
+import lombok.RequiredArgsConstructor;
+
 @EnableWebMvc
 @Configuration
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@RequiredArgsConstructor
 public class WebConfiguration implements WebMvcConfigurer{
 	
+	private final InstrucoesPorRequisicaoInterceptor instrucoesPorRequisicaoInterceptor;
+	
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
 		
 	   // permite o acesso a aplicacao vindo de qualquer servidor, podem ser executados
 		// os metods definidos em .allowedMethods  	
-	   registry.addMapping("/**").allowedMethods("GET", "PUT", "POST", "DELETE", "OPTIONS");
+	   registry.addMapping("/**").allowedMethods("GET", "PUT", "POST", "DELETE", "OPTIONS")
+	   		.exposedHeaders(HttpHeaders.ETAG);
+	}
+	
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		// respostas em stream (ndjson, exportacao) de usuarios com muitos lancamentos passam do timeout padrao
+		// do container. Aqui e nao em spring.mvc.async.request-timeout, ignorada com o @EnableWebMvc
+		configurer.setDefaultTimeout(TimeUnit.MINUTES.toMillis(10));
+	}
+	
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(instrucoesPorRequisicaoInterceptor);
 	}
 }
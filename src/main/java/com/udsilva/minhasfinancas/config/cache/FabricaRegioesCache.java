@@ -0,0 +1,56 @@
+package com.udsilva.minhasfinancas.config.cache;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.Cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+
+/** Regioes do cache de segundo nivel do hibernate, criadas no JCache do Caffeine com o tamanho maximo e a
+ *  expiracao de spring.jpa.properties.minhasfinancas.cache.regioes.&lt;regiao&gt;.* (tamanho e expiracao-minutos).
+ *  Usada com hibernate.javax.cache.missing_cache_strategy=create, que cria as regioes por este metodo. */
+public class FabricaRegioesCache extends JCacheRegionFactory {
+
+	private static final String PREFIXO = "minhasfinancas.cache.regioes.";
+
+	private static final long TAMANHO_PADRAO = 10000;
+
+	private Map<?, ?> propriedades;
+
+
+	@Override
+	protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+		this.propriedades = configValues;
+		super.prepareForUse(settings, configValues);
+	}
+
+	// as entradas sao guardadas por referencia (o hibernate ja guarda copias desmontadas das entidades),
+	// sem a serializacao a cada leitura do padrao do JCache. A regiao de timestamps da consulta em cache
+	// nao pode perder entradas: sem limite e sem expiracao
+	@Override
+	protected Cache<Object, Object> createCache(String regionName) {
+		CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+		configuracao.setStoreByValue(false);
+		configuracao.setStatisticsEnabled(true);
+
+		if(!RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME.equals(regionName)){
+			configuracao.setMaximumSize(OptionalLong.of(obterValor(regionName, "tamanho", TAMANHO_PADRAO)));
+			long expiracao = obterValor(regionName, "expiracao-minutos", 0);
+			if(expiracao > 0){
+				configuracao.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(expiracao)));
+			}
+		}
+		return getCacheManager().createCache(regionName, configuracao);
+	}
+
+	private long obterValor(String regiao, String nome, long padrao) {
+		Object valor = propriedades.get(PREFIXO + regiao + "." + nome);
+		return valor == null ? padrao : Long.parseLong(valor.toString().trim());
+	}
+}
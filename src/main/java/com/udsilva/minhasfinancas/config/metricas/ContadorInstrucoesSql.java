@@ -0,0 +1,28 @@
+package com.udsilva.minhasfinancas.config.metricas;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/** Conta as instrucoes SQL preparadas pelo Hibernate na thread corrente. Instanciado pelo
+ *  proprio Hibernate (hibernate.session_factory.statement_inspector), por isso o estado
+ *  fica em um ThreadLocal estatico. O JdbcTemplate nao passa por aqui. */
+public class ContadorInstrucoesSql implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+	
+	
+	@Override
+	public String inspect(String sql) {
+		CONTADOR.get()[0]++;
+		return sql;
+	}
+	
+	public static void zerar() {
+		CONTADOR.get()[0] = 0;
+	}
+	
+	public static int obter() {
+		return CONTADOR.get()[0];
+	}
+}
@@ -0,0 +1,41 @@
+package com.udsilva.minhasfinancas.config.metricas;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Registra quantas instrucoes SQL o Hibernate executou em cada requisicao, por metodo do resource.
+ *  Respostas em stream terminam em outra thread e registram so o que foi feito antes do retorno. */
+public class InstrucoesPorRequisicaoInterceptor implements HandlerInterceptor {
+
+	private final MeterRegistry registry;
+	
+	
+	public InstrucoesPorRequisicaoInterceptor(MeterRegistry registry) {
+		this.registry = registry;
+	}
+	
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		ContadorInstrucoesSql.zerar();
+		return true;
+	}
+	
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		if(!(handler instanceof HandlerMethod)){
+			return;
+		}
+		DistributionSummary.builder("minhasfinancas.sql.instrucoes")
+				.description("Instrucoes SQL executadas pelo Hibernate por requisicao")
+				.tag("metodo", MetodoHandlerTagsProvider.nomeMetodo((HandlerMethod) handler))
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(registry)
+				.record(ContadorInstrucoesSql.obter());
+	}
+}
@@ -0,0 +1,29 @@
+package com.udsilva.minhasfinancas.config.metricas;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.actuate.metrics.web.servlet.DefaultWebMvcTagsProvider;
+import org.springframework.web.method.HandlerMethod;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+/** Tags padrao do http.server.requests (uri, method, status, outcome, exception) mais
+ *  a tag metodo com o metodo do resource que atendeu a requisicao (ex: LancamentoResource.buscar). */
+public class MetodoHandlerTagsProvider extends DefaultWebMvcTagsProvider {
+
+	private static final String NENHUM = "None";
+	
+	
+	@Override
+	public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Throwable exception) {
+		String metodo = handler instanceof HandlerMethod ? nomeMetodo((HandlerMethod) handler) : NENHUM;
+		return Tags.concat(super.getTags(request, response, handler, exception), "metodo", metodo);
+	}
+	
+	static String nomeMetodo(HandlerMethod handler) {
+		return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+	}
+}
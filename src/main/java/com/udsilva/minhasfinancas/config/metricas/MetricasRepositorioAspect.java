@@ -0,0 +1,62 @@
+package com.udsilva.minhasfinancas.config.metricas;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/** Tempo de cada metodo de LancamentoRepository e UsuarioRepository (inclusive os herdados do
+ *  JpaRepository e os de LancamentoRepositoryCustom), com log das chamadas acima do limite. */
+@Aspect
+@Slf4j
+public class MetricasRepositorioAspect {
+
+	private final MeterRegistry registry;
+	private final long limiteLentaNanos;
+	
+	
+	public MetricasRepositorioAspect(MeterRegistry registry, long limiteLentaMilissegundos) {
+		this.registry = registry;
+		this.limiteLentaNanos = TimeUnit.MILLISECONDS.toNanos(limiteLentaMilissegundos);
+	}
+	
+	@Around("target(com.udsilva.minhasfinancas.model.repository.LancamentoRepository) "
+			+ "|| target(com.udsilva.minhasfinancas.model.repository.UsuarioRepository)")
+	public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+		// o tipo declarante dos metodos herdados seria JpaRepository/CrudRepository
+		String repositorio = joinPoint.getTarget() instanceof LancamentoRepository
+				? LancamentoRepository.class.getSimpleName()
+				: UsuarioRepository.class.getSimpleName();
+		String metodo = joinPoint.getSignature().getName();
+		String excecao = "None";
+		long inicio = System.nanoTime();
+		try {
+			return joinPoint.proceed();
+			
+		} catch (Throwable e) {
+			excecao = e.getClass().getSimpleName();
+			throw e;
+			
+		} finally {
+			long duracao = System.nanoTime() - inicio;
+			Timer.builder("minhasfinancas.repositorio")
+					.description("Tempo dos metodos dos repositorios")
+					.tags("repositorio", repositorio, "metodo", metodo, "exception", excecao)
+					.publishPercentiles(0.5, 0.95, 0.99)
+					.register(registry)
+					.record(duracao, TimeUnit.NANOSECONDS);
+			
+			if(duracao > limiteLentaNanos){
+				log.warn("Consulta lenta: {}.{} levou {} ms", repositorio, metodo, TimeUnit.NANOSECONDS.toMillis(duracao));
+			}
+		}
+	}
+}
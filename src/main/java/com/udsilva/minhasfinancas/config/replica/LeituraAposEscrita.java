@@ -0,0 +1,38 @@
+package com.udsilva.minhasfinancas.config.replica;
+
+import java.time.Duration;
+
+import org.springframework.context.event.EventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+
+/** Usuarios que alteraram lancamentos ha menos que a janela configurada: as leituras deles vao para o
+ *  primario, e nao para uma replica que pode ainda nao ter recebido a alteracao. A janela deve cobrir
+ *  o atraso de replicacao esperado. O registro fica na memoria desta instancia: com varias instancias,
+ *  a leitura que cai em outra instancia nao sabe da escrita e pode ir para uma replica. */
+public class LeituraAposEscrita {
+
+	private final Cache<Long, Boolean> escritasRecentes;
+	
+	
+	public LeituraAposEscrita(Duration janela) {
+		this.escritasRecentes = Caffeine.newBuilder().expireAfterWrite(janela).build();
+	}
+	
+	
+	// publicado dentro da transacao da escrita, antes do commit: a janela comeca um pouco antes
+	@EventListener
+	public void registrar(LancamentoAlteradoEvent evento) {
+		registrarEscrita(evento.getIdUsuario());
+	}
+	
+	public void registrarEscrita(Long idUsuario) {
+		escritasRecentes.put(idUsuario, Boolean.TRUE);
+	}
+	
+	public boolean escreveuRecentemente(Long idUsuario) {
+		return escritasRecentes.getIfPresent(idUsuario) != null;
+	}
+}
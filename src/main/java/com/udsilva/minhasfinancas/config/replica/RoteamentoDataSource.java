@@ -0,0 +1,100 @@
+package com.udsilva.minhasfinancas.config.replica;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/** Envia as transacoes somente leitura para uma das replicas e todo o resto (escritas, acesso fora de
+ *  transacao) para o primario. O usuario que acabou de escrever continua lendo do primario durante a
+ *  janela do LeituraAposEscrita, para nao ver a replica ainda sem a propria escrita.
+ *
+ *  Deve ficar atras de um LazyConnectionDataSourceProxy: a transacao do JPA pede a conexao antes de
+ *  marcar o readOnly, e o proxy so obtem a conexao real no primeiro comando. */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARIO = "primario";
+	
+	public enum Selecao {
+		
+		ROUND_ROBIN, 
+		
+		/** Replica com menos conexoes em uso no pool. */
+		MENOS_CONEXOES;
+		
+		/** Aceita o valor da propriedade: round-robin ou menos-conexoes. */
+		public static Selecao de(String valor) {
+			return valueOf(valor.trim().toUpperCase().replace('-', '_'));
+		}
+	}
+	
+	private final List<HikariDataSource> replicas;
+	private final Selecao selecao;
+	private final LeituraAposEscrita leituraAposEscrita;
+	private final AtomicInteger proxima = new AtomicInteger();
+	
+	
+	public RoteamentoDataSource(HikariDataSource primario, List<HikariDataSource> replicas, Selecao selecao,
+			LeituraAposEscrita leituraAposEscrita) {
+		this.replicas = replicas;
+		this.selecao = selecao;
+		this.leituraAposEscrita = leituraAposEscrita;
+		
+		Map<Object, Object> destinos = new HashMap<>();
+		destinos.put(PRIMARIO, primario);
+		for(int i = 0; i < replicas.size(); i++){
+			destinos.put(chaveReplica(i), replicas.get(i));
+		}
+		setTargetDataSources(destinos);
+		setDefaultTargetDataSource(primario);
+		afterPropertiesSet();
+	}
+	
+	public static String chaveReplica(int indice) {
+		return "replica-" + indice;
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if(replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+			return PRIMARIO;
+		}
+		Long idUsuario = UsuarioDaLeitura.atual();
+		if(idUsuario != null && leituraAposEscrita.escreveuRecentemente(idUsuario)){
+			return PRIMARIO;
+		}
+		return chaveReplica(selecao == Selecao.MENOS_CONEXOES ? menosConexoes() : roundRobin());
+	}
+	
+	private int roundRobin() {
+		return Math.floorMod(proxima.getAndIncrement(), replicas.size());
+	}
+	
+	// em empate fica com a primeira depois da ultima escolhida, para nao concentrar na replica 0
+	private int menosConexoes() {
+		int inicio = roundRobin();
+		int escolhida = inicio;
+		int menor = Integer.MAX_VALUE;
+		for(int i = 0; i < replicas.size(); i++){
+			int indice = (inicio + i) % replicas.size();
+			int ativas = conexoesAtivas(replicas.get(indice));
+			if(ativas < menor){
+				menor = ativas;
+				escolhida = indice;
+			}
+		}
+		return escolhida;
+	}
+	
+	// o pool so existe depois da primeira conexao
+	private static int conexoesAtivas(HikariDataSource replica) {
+		HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+		return pool == null ? 0 : pool.getActiveConnections();
+	}
+}
@@ -0,0 +1,76 @@
+package com.udsilva.minhasfinancas.config.replica;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.udsilva.minhasfinancas.config.seguranca.AutenticacaoTokenFilter;
+
+/** Usuario em nome de quem a leitura e feita, usado pelo RoteamentoDataSource: o informado em emNomeDe,
+ *  o autenticado pelo token ou, nas requisicoes sem token, o do caminho /api/usuarios/{id} ou o do
+ *  parametro usuario. */
+public final class UsuarioDaLeitura {
+
+	private static final ThreadLocal<Long> USUARIO = new ThreadLocal<>();
+	
+	private static final String PADRAO_USUARIO = "/api/usuarios/{id}";
+	
+	private static final String PARAMETRO_USUARIO = "usuario";
+	
+	private UsuarioDaLeitura() {
+	}
+	
+	public static Long atual() {
+		Long usuario = USUARIO.get();
+		if(usuario != null){
+			return usuario;
+		}
+		RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+		if(requisicao == null){
+			return null;
+		}
+		Long autenticado = (Long) requisicao.getAttribute(AutenticacaoTokenFilter.ATRIBUTO_ID_USUARIO, RequestAttributes.SCOPE_REQUEST);
+		if(autenticado != null || !(requisicao instanceof ServletRequestAttributes)){
+			return autenticado;
+		}
+		return informado(((ServletRequestAttributes) requisicao).getRequest());
+	}
+	
+	// nas rotas de lancamentos o {id} do caminho e do lancamento, por isso o caminho so vale em /api/usuarios
+	@SuppressWarnings("unchecked")
+	private static Long informado(HttpServletRequest request) {
+		Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String valor;
+		if(padrao != null && padrao.toString().startsWith(PADRAO_USUARIO)){
+			Map<String, String> variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+			valor = variaveis == null ? null : variaveis.get("id");
+		} else {
+			valor = request.getParameter(PARAMETRO_USUARIO);
+		}
+		try {
+			return valor == null ? null : Long.valueOf(valor);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	public static <T> T emNomeDe(Long idUsuario, Supplier<T> leitura) {
+		Long anterior = USUARIO.get();
+		USUARIO.set(idUsuario);
+		try {
+			return leitura.get();
+		} finally {
+			if(anterior == null){
+				USUARIO.remove();
+			} else {
+				USUARIO.set(anterior);
+			}
+		}
+	}
+}
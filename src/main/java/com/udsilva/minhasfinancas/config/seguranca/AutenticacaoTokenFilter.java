@@ -0,0 +1,86 @@
+package com.udsilva.minhasfinancas.config.seguranca;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.udsilva.minhasfinancas.service.TokenService;
+
+/** Confere o token do cabecalho Authorization (Bearer) so com a chave, sem ir ao banco,
+ *  e deixa o id do usuario na requisicao para os resources. Requisicoes sem token seguem
+ *  como antes, com o usuario informado no parametro, exceto em /api/admin/*: ali o token e
+ *  obrigatorio e o usuario tem que estar entre os administradores. */
+public class AutenticacaoTokenFilter extends OncePerRequestFilter {
+
+	public static final String ATRIBUTO_ID_USUARIO = "idUsuarioAutenticado";
+
+	private static final String PREFIXO_BEARER = "Bearer ";
+
+	private static final String PARAMETRO_USUARIO = "usuario";
+
+	private static final String PREFIXO_ADMINISTRACAO = "/api/admin/";
+
+	private final TokenService tokenService;
+
+	private final Set<Long> administradores;
+
+
+	public AutenticacaoTokenFilter(TokenService tokenService, Set<Long> administradores) {
+		this.tokenService = tokenService;
+		this.administradores = administradores;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		boolean administracao = request.getRequestURI().startsWith(request.getContextPath() + PREFIXO_ADMINISTRACAO);
+		String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if(cabecalho == null || !cabecalho.startsWith(PREFIXO_BEARER)){
+			if(administracao){
+				responder(response, HttpStatus.UNAUTHORIZED, "Informe o token de um administrador.");
+				return;
+			}
+			chain.doFilter(request, response);
+			return;
+		}
+
+		Optional<Long> idUsuario = tokenService.obterIdUsuario(cabecalho.substring(PREFIXO_BEARER.length()).trim());
+		if(!idUsuario.isPresent()){
+			responder(response, HttpStatus.UNAUTHORIZED, "Token inválido ou expirado.");
+			return;
+		}
+		if(administracao && !administradores.contains(idUsuario.get())){
+			responder(response, HttpStatus.FORBIDDEN, "Acesso restrito aos administradores.");
+			return;
+		}
+
+		// com token o parametro usuario, se vier, tem que ser o do proprio token
+		String usuarioInformado = request.getParameter(PARAMETRO_USUARIO);
+		if(usuarioInformado != null && !usuarioInformado.equals(idUsuario.get().toString())){
+			responder(response, HttpStatus.FORBIDDEN, "O usuário informado não é o usuário autenticado.");
+			return;
+		}
+
+		request.setAttribute(ATRIBUTO_ID_USUARIO, idUsuario.get());
+		chain.doFilter(request, response);
+	}
+
+	private void responder(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+		response.setStatus(status.value());
+		response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.getWriter().write(mensagem);
+	}
+}
@@ -0,0 +1,35 @@
+package com.udsilva.minhasfinancas.model.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Ano fechado cujos lancamentos foram movidos para lancamento_arquivado e resumidos por mes
+ *  em resumo_mensal. Os anos sao arquivados em ordem, sem lacunas. */
+@Entity
+@Table(name = "ano_arquivado", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnoArquivado {
+
+	@Id
+	@Column(name = "ano")
+	private Integer ano;
+
+	@Column(name = "lancamentos")
+	private Long lancamentos;
+
+	@Column(name = "data_arquivamento")
+	private LocalDateTime dataArquivamento;
+
+}
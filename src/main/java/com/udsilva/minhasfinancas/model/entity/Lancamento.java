@@ -14,7 +14,11 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Where;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
 import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
@@ -26,7 +30,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity // para o jpa reconhecer com uma entidade de bd
-@Table(name = "lancamento", schema = "financas")
+@Table(name = "lancamento", schema = "financas") // tabela e indices nas migracoes (db/migration)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "lancamento")
+@Where(clause = "data_exclusao is null") // excluidos pela exclusao logica, ate o expurgo; as consultas nativas repetem o filtro
 @Data
 @Builder
 @NoArgsConstructor
@@ -50,7 +56,7 @@ public class Lancamento {
 	@Column(name = "valor")
 	private BigDecimal valor;
 
-	@Column(name = "data_cadastro")
+	@Column(name = "data_cadastro", columnDefinition = "date") // o conversor grava java.util.Date, a coluna e date
 	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class) // para converter automaticamente para o tipo de data do bd
 	private LocalDate dataCadastro;
 
@@ -65,6 +71,18 @@ public class Lancamento {
 	@ManyToOne
 	@JoinColumn(name = "id_usuario")
 	private Usuario usuario;
-
 	
+	// exposta como ETag; as atualizacoes condicionais comparam e incrementam a versao no proprio UPDATE
+	@Version
+	@Column(name = "versao")
+	private Long versao;
+
+	// preenchidos quando o lancamento e uma ocorrencia de recorrencia alterada pelo usuario:
+	// as listagens deixam de calcular essa parcela
+	@Column(name = "id_recorrencia")
+	private Long idRecorrencia;
+
+	@Column(name = "parcela")
+	private Integer parcela;
+
 }
@@ -0,0 +1,69 @@
+package com.udsilva.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Lancamento de um ano arquivado, com as mesmas colunas de Lancamento. Somente leitura: as linhas
+ *  sao copiadas pelo ArquivamentoService e os anos arquivados nao aceitam alteracoes. */
+@Entity
+@Immutable
+@Table(name = "lancamento_arquivado", schema = "financas")
+@Data
+@NoArgsConstructor
+public class LancamentoArquivado {
+
+	@Id
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "descricao")
+	private String descricao;
+
+	@Column(name = "mes")
+	private Integer mes;
+
+	@Column(name = "ano")
+	private Integer ano;
+
+	@Column(name = "valor")
+	private BigDecimal valor;
+
+	@Column(name = "data_cadastro", columnDefinition = "date")
+	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
+	private LocalDate dataCadastro;
+
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+
+	@ManyToOne
+	@JoinColumn(name = "id_usuario")
+	private Usuario usuario;
+
+	@Column(name = "versao")
+	private Long versao;
+
+}
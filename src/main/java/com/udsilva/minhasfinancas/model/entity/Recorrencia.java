@@ -0,0 +1,102 @@
+package com.udsilva.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Lancamento mensal repetido a partir de mes/ano: por um numero de parcelas, ate o mes final ou sem fim.
+ *  As ocorrencias nao sao gravadas, a parcela 1 e o mes inicial. */
+@Entity
+@Table(name = "recorrencia", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Recorrencia {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "descricao")
+	private String descricao;
+
+	@Column(name = "valor")
+	private BigDecimal valor;
+
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+
+	@Column(name = "mes")
+	private Integer mes;
+
+	@Column(name = "ano")
+	private Integer ano;
+
+	@Column(name = "parcelas")
+	private Integer parcelas;
+
+	@Column(name = "mes_fim")
+	private Integer mesFim;
+
+	@Column(name = "ano_fim")
+	private Integer anoFim;
+
+	@Column(name = "data_cadastro", columnDefinition = "date")
+	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
+	private LocalDate dataCadastro;
+
+	@ManyToOne
+	@JoinColumn(name = "id_usuario")
+	private Usuario usuario;
+
+
+	public YearMonth mesInicial() {
+		return YearMonth.of(ano, mes);
+	}
+
+	/** Mes da ultima ocorrencia; vazio quando a recorrencia nao termina. */
+	public Optional<YearMonth> mesFinal() {
+		if(parcelas != null){
+			return Optional.of(mesInicial().plusMonths(parcelas - 1L));
+		}
+		return anoFim == null ? Optional.empty() : Optional.of(YearMonth.of(anoFim, mesFim));
+	}
+
+	public YearMonth mesDaParcela(int parcela) {
+		return mesInicial().plusMonths(parcela - 1L);
+	}
+
+	public int parcelaDoMes(YearMonth mes) {
+		return (int) mesInicial().until(mes, ChronoUnit.MONTHS) + 1;
+	}
+
+	public boolean temParcela(int parcela) {
+		return parcela >= 1 && mesFinal().map(fim -> !mesDaParcela(parcela).isAfter(fim)).orElse(true);
+	}
+}
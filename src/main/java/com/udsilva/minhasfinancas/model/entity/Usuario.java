@@ -7,6 +7,11 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +23,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Entity
 @Table(name = "usuario", schema = "financas") //  o bd é postgres, usando schema
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuario")
 public class Usuario {
 	
 	@Id
@@ -30,6 +36,8 @@ public class Usuario {
 	@Column(name = "email")
 	private String email;
 	
+	// hash bcrypt, nunca vai nas respostas
+	@JsonIgnore
 	@Column(name = "senha")
 	private String senha;
 
@@ -0,0 +1,34 @@
+package com.udsilva.minhasfinancas.model.entity.reativo;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Mapeamento R2DBC (somente leitura) da tabela de Lancamento. Tipo e status sao lidos
+ *  como texto e o usuario como id. */
+@Table("financas.lancamento")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoReativo {
+
+	@Id
+	private Long id;
+	private String descricao;
+	private Integer mes;
+	private Integer ano;
+	private BigDecimal valor;
+	private LocalDate dataCadastro;
+	private String tipo;
+	private String status;
+	private Long idUsuario;
+	private Long versao;
+}
@@ -0,0 +1,24 @@
+package com.udsilva.minhasfinancas.model.entity.reativo;
+
+import java.math.BigDecimal;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Mapeamento R2DBC (somente leitura) do saldo materializado de SaldoUsuario. */
+@Table("financas.saldo_usuario")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuarioReativo {
+
+	@Id
+	private Long idUsuario;
+	private BigDecimal receitas;
+	private BigDecimal despesas;
+	private BigDecimal saldo;
+}
@@ -0,0 +1,21 @@
+package com.udsilva.minhasfinancas.model.entity.reativo;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Mapeamento R2DBC (somente leitura) de Usuario, sem a senha. */
+@Table("financas.usuario")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioReativo {
+
+	@Id
+	private Long id;
+	private String nome;
+	private String email;
+}
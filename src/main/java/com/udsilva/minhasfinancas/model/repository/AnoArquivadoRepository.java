@@ -0,0 +1,48 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.udsilva.minhasfinancas.model.entity.AnoArquivado;
+
+/** Instrucoes do arquivamento de um ano, executadas na mesma transacao e nesta ordem:
+ *  registrarAlteracoes, resumir, copiar e remover. Sem tabelas declaradas, cada instrucao nativa
+ *  descarta todo o cache de segundo nivel, o que so acontece no arquivamento (uma vez por ano fechado). */
+public interface AnoArquivadoRepository extends JpaRepository<AnoArquivado, Integer>, AnoArquivadoRepositoryCustom {
+
+	/** Todos os anos ate o retornado estao arquivados. */
+	@Query( value = " select max(a.ano) from AnoArquivado a " )
+	Optional<Integer> obterUltimoAnoArquivado();
+
+	// as listagens sem ano deixam de trazer os lancamentos do ano: os ETags dos donos mudam
+	@Modifying
+	@Query( nativeQuery = true, value =
+			  " update financas.saldo_usuario set alteracoes = nextval('financas.seq_alteracao_saldo') "
+			+ " where id_usuario in (select l.id_usuario from financas.lancamento l where l.ano = :ano) " )
+	int registrarAlteracoes(@Param("ano") Integer ano);
+
+	@Modifying
+	@Query( nativeQuery = true, value =
+			  " insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, quantidade, valor) "
+			+ " select l.id_usuario, l.ano, l.mes, l.tipo, l.status, count(*), sum(l.valor) "
+			+ " from financas.lancamento l where l.ano = :ano and l.data_exclusao is null "
+			+ " group by l.id_usuario, l.ano, l.mes, l.tipo, l.status " )
+	int resumir(@Param("ano") Integer ano);
+
+	@Modifying
+	@Query( nativeQuery = true, value =
+			  " insert into financas.lancamento_arquivado "
+			+ "   (id, descricao, mes, ano, valor, data_cadastro, tipo, status, id_usuario, versao) "
+			+ " select l.id, l.descricao, l.mes, l.ano, l.valor, l.data_cadastro, l.tipo, l.status, l.id_usuario, l.versao "
+			+ " from financas.lancamento l where l.ano = :ano and l.data_exclusao is null " )
+	int copiar(@Param("ano") Integer ano);
+
+	// remove tambem os excluidos ainda nao expurgados, que nao foram resumidos nem copiados
+	@Modifying
+	@Query( nativeQuery = true, value = " delete from financas.lancamento where ano = :ano " )
+	int remover(@Param("ano") Integer ano);
+}
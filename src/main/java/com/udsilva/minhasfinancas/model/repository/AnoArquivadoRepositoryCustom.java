@@ -0,0 +1,14 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+public interface AnoArquivadoRepositoryCustom {
+
+	/* O particionamento por ano so existe no PostgreSQL: no H2 os dois metodos nao fazem nada. */
+	
+	/** Bloqueia as escritas na tabela lancamento ate o fim da transacao, para nenhum lancamento do ano
+	 *  ser gravado entre a copia e a remocao. As leituras continuam liberadas. */
+	void bloquearEscritas();
+	
+	/** Cria a particao do ano se ela nao existir. Retorna false quando a particao padrao ja tem
+	 *  lancamentos do ano e a particao nao pode ser criada. */
+	boolean garantirParticao(int ano);
+}
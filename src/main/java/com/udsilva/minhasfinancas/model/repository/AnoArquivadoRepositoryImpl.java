@@ -0,0 +1,67 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+public class AnoArquivadoRepositoryImpl implements AnoArquivadoRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final DataSource dataSource;
+	
+	private Boolean postgresql;
+	
+	
+	public AnoArquivadoRepositoryImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+	
+	
+	@Override
+	public void bloquearEscritas() {
+		if(isPostgresql()){
+			entityManager.createNativeQuery(" lock table financas.lancamento in exclusive mode ").executeUpdate();
+		}
+	}
+	
+	@Override
+	public boolean garantirParticao(int ano) {
+		if(!isPostgresql()){
+			return true;
+		}
+		String particao = "financas.lancamento_" + ano;
+		Object existente = entityManager.createNativeQuery(" select cast(to_regclass(:particao) as varchar) ")
+				.setParameter("particao", particao)
+				.getSingleResult();
+		if(existente != null){
+			return true;
+		}
+		
+		// a nova particao nao pode ser criada com linhas do ano na particao padrao
+		boolean naPadrao = !entityManager.createNativeQuery(" select 1 from financas.lancamento_outros where ano = :ano limit 1 ")
+				.setParameter("ano", ano)
+				.getResultList().isEmpty();
+		if(naPadrao){
+			return false;
+		}
+		entityManager.createNativeQuery(" create table " + particao + " partition of financas.lancamento "
+				+ " for values from (" + ano + ") to (" + (ano + 1) + ") ").executeUpdate();
+		return true;
+	}
+	
+	private boolean isPostgresql() {
+		if(postgresql == null){
+			try {
+				postgresql = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName"));
+			} catch (MetaDataAccessException e) {
+				throw new IllegalStateException("Não foi possível identificar o banco de dados.", e);
+			}
+		}
+		return postgresql;
+	}
+}
@@ -0,0 +1,65 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Posicao de um lancamento na ordenacao (ano, mes, id), usada como cursor da paginacao. As ocorrencias
+ *  calculadas de recorrencias (sem id) vem depois dos lancamentos do mes, pelo id da recorrencia. */
+@Data
+@AllArgsConstructor
+public class ChaveLancamento {
+
+	public static final Comparator<LancamentoDTO> ORDEM = Comparator
+			.comparing(LancamentoDTO::getAno)
+			.thenComparing(LancamentoDTO::getMes)
+			.thenComparing(LancamentoDTO::getId, Comparator.nullsLast(Comparator.naturalOrder()))
+			.thenComparing(LancamentoDTO::getRecorrencia, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+	private static final String PREFIXO_RECORRENCIA = "r";
+
+	private Integer ano;
+	private Integer mes;
+	private Long id;
+	private Long recorrencia; // somente na chave de uma ocorrencia calculada
+
+
+	public ChaveLancamento(Integer ano, Integer mes, Long id) {
+		this(ano, mes, id, null);
+	}
+
+	public static ChaveLancamento de(LancamentoDTO lancamento) {
+		return new ChaveLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId(),
+				lancamento.getId() == null ? lancamento.getRecorrencia() : null);
+	}
+
+	/** Se o lancamento vem depois desta chave na ordenacao. */
+	public boolean antecede(LancamentoDTO lancamento) {
+		LancamentoDTO posicao = LancamentoDTO.builder().ano(ano).mes(mes).id(id).recorrencia(recorrencia).build();
+		return ORDEM.compare(posicao, lancamento) < 0;
+	}
+
+	public String codificar() {
+		String chave = ano + ":" + mes + ":" + (id != null ? id.toString() : PREFIXO_RECORRENCIA + recorrencia);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/** Lanca IllegalArgumentException quando o cursor nao foi gerado por {@link #codificar()}. */
+	public static ChaveLancamento decodificar(String cursor) {
+		String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+		if(partes.length != 3){
+			throw new IllegalArgumentException("Cursor inválido.");
+		}
+		Integer ano = Integer.valueOf(partes[0]);
+		Integer mes = Integer.valueOf(partes[1]);
+		if(partes[2].startsWith(PREFIXO_RECORRENCIA)){
+			return new ChaveLancamento(ano, mes, null, Long.valueOf(partes[2].substring(PREFIXO_RECORRENCIA.length())));
+		}
+		return new ChaveLancamento(ano, mes, Long.valueOf(partes[2]));
+	}
+}
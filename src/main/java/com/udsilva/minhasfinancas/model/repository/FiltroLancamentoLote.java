@@ -0,0 +1,57 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Seleciona os lancamentos de uma operacao em lote, pelos ids e/ou pelos atributos preenchidos. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroLancamentoLote {
+
+	private List<Long> ids;
+	private Long idUsuario;
+	private Integer ano;
+	private Integer mes;
+	private TipoLancamento tipo;
+	
+	/** Sem ids e sem usuario o lote alcancaria os lancamentos de todos os usuarios. */
+	public boolean isRestrito() {
+		return idUsuario != null || (ids != null && !ids.isEmpty());
+	}
+	
+	/** Predicado SQL nativo sobre financas.lancamento com o alias informado; os lancamentos excluidos
+	 *  (exclusao logica ainda nao expurgada) nunca entram no lote. */
+	public String predicado(String alias, Map<String, Object> parametros) {
+		StringBuilder sql = new StringBuilder(" ").append(alias).append(".data_exclusao is null ");
+		if(ids != null && !ids.isEmpty()){
+			sql.append(" and ").append(alias).append(".id in (:ids) ");
+			parametros.put("ids", ids);
+		}
+		if(idUsuario != null){
+			sql.append(" and ").append(alias).append(".id_usuario = :idUsuario ");
+			parametros.put("idUsuario", idUsuario);
+		}
+		if(ano != null){
+			sql.append(" and ").append(alias).append(".ano = :ano ");
+			parametros.put("ano", ano);
+		}
+		if(mes != null){
+			sql.append(" and ").append(alias).append(".mes = :mes ");
+			parametros.put("mes", mes);
+		}
+		if(tipo != null){
+			sql.append(" and ").append(alias).append(".tipo = :tipo ");
+			parametros.put("tipo", tipo.name());
+		}
+		return sql.toString();
+	}
+}
@@ -1,16 +1,22 @@
 package com.udsilva.minhasfinancas.model.repository;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO;
 import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.SaldoUsuario;
 import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
 import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
 
 	@Query( value = 
 			  " select sum(l.valor) from Lancamento l join l.usuario u "
@@ -19,5 +25,80 @@ public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
 			@Param("idUsuario") Long idUsuario, 
 			@Param("tipo") TipoLancamento tipo,
 			@Param("status") StatusLancamento status);
-				
+	
+	@Query( value = 
+			  " select new com.udsilva.minhasfinancas.model.entity.SaldoUsuario( u.id, "
+			+ "   sum(case when l.tipo = :receita then l.valor else 0 end), "
+			+ "   sum(case when l.tipo = :despesa then l.valor else 0 end), "
+			+ "   sum(case when l.tipo = :receita then l.valor else 0 end) - sum(case when l.tipo = :despesa then l.valor else 0 end) ) "
+			+ " from Lancamento l join l.usuario u "
+			+ " where l.status = :status group by u.id " )
+	List<SaldoUsuario> calcularSaldosPorUsuario(
+			@Param("receita") TipoLancamento receita,
+			@Param("despesa") TipoLancamento despesa,
+			@Param("status") StatusLancamento status);
+	
+	/** Receitas e despesas efetivadas do usuario por mes, de todo o historico ate o mes informado. */
+	@Query( value = 
+			  " select new com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO( l.ano, l.mes, "
+			+ "   sum(case when l.tipo = :receita then l.valor else 0 end), "
+			+ "   sum(case when l.tipo = :despesa then l.valor else 0 end) ) "
+			+ " from Lancamento l "
+			+ " where l.usuario.id = :idUsuario and l.status = :status "
+			+ "   and (l.ano < :ano or (l.ano = :ano and l.mes <= :mes)) "
+			+ " group by l.ano, l.mes order by l.ano, l.mes " )
+	List<SaldoMensalDTO> obterSaldosMensaisAte(
+			@Param("idUsuario") Long idUsuario,
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
+			@Param("receita") TipoLancamento receita,
+			@Param("despesa") TipoLancamento despesa,
+			@Param("status") StatusLancamento status);
+	
+	/** Saldo dos lancamentos efetivados dos anos arquivados, lido dos resumos mensais. */
+	@Query( nativeQuery = true, value =
+			  " select coalesce(sum(case when r.tipo = 'RECEITA' then r.valor else -r.valor end), 0) "
+			+ " from financas.resumo_mensal r where r.id_usuario = :idUsuario and r.status = 'EFETIVADO' " )
+	BigDecimal obterSaldoArquivado(@Param("idUsuario") Long idUsuario);
+	
+	/** Id do usuario e saldo dos anos arquivados, de cada usuario com resumos efetivados. */
+	@Query( nativeQuery = true, value =
+			  " select r.id_usuario, sum(case when r.tipo = 'RECEITA' then r.valor else -r.valor end) "
+			+ " from financas.resumo_mensal r where r.status = 'EFETIVADO' group by r.id_usuario " )
+	List<Object[]> calcularSaldosArquivadosPorUsuario();
+	
+	@Query( value = " select min(l.ano) from Lancamento l " )
+	Optional<Integer> obterPrimeiroAno();
+	
+	@Query( value = 
+			  " select l.descricao, count(l) from Lancamento l "
+			+ " where l.usuario.id = :idUsuario group by l.descricao " )
+	List<Object[]> contarDescricoesPorUsuario(@Param("idUsuario") Long idUsuario);
+	
+	// as mesmas colunas das listagens, sem carregar a entidade
+	@Query( value = 
+			  " select new com.udsilva.minhasfinancas.api.dto.LancamentoDTO( "
+			+ "   l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.versao) "
+			+ " from Lancamento l where l.id = :id " )
+	Optional<LancamentoDTO> obterDTOPorId(@Param("id") Long id);
+	
+	// dono do lancamento lido da chave estrangeira, sem carregar o lancamento nem o usuario
+	@Query( value = " select l.usuario.id from Lancamento l where l.id = :id " )
+	Optional<Long> obterIdUsuario(@Param("id") Long id);
+	
+	boolean existsByIdAndUsuarioId(Long id, Long idUsuario);
+
+	Optional<Lancamento> findByIdRecorrenciaAndParcela(Long idRecorrencia, Integer parcela);
+
+	/** Id da recorrencia e parcela das ocorrencias do usuario ja gravadas como lancamento. */
+	@Query( value =
+			  " select l.idRecorrencia, l.parcela from Lancamento l "
+			+ " where l.usuario.id = :idUsuario and l.idRecorrencia is not null " )
+	List<Object[]> buscarParcelasGravadas(@Param("idUsuario") Long idUsuario);
+
+	// as ocorrencias ja gravadas continuam como lancamentos comuns quando a recorrencia e excluida
+	@Modifying
+	@Query( value = " update Lancamento l set l.idRecorrencia = null, l.parcela = null where l.idRecorrencia = :idRecorrencia " )
+	int desvincularRecorrencia(@Param("idRecorrencia") Long idRecorrencia);
+
 }
@@ -0,0 +1,78 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.udsilva.minhasfinancas.api.dto.SugestaoDescricaoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+
+public interface LancamentoRepositoryCustom {
+
+	/* As listagens projetam direto em LancamentoDTO: somente as colunas do dto sao lidas,
+	 * o usuario vem como id (sem join) e nada entra no contexto de persistencia.
+	 * Com o ano de um ano arquivado no filtro, leem lancamento_arquivado; nos demais casos, somente
+	 * os lancamentos dos anos nao arquivados. */
+	
+	/** Lancamentos do filtro ordenados por (ano, mes, id). */
+	List<LancamentoDTO> listar(Lancamento filtro);
+	
+	/** Lancamentos do filtro ordenados por (ano, mes, id), a partir da chave informada (exclusive). */
+	List<LancamentoDTO> buscarPagina(Lancamento filtro, ChaveLancamento apos, int limite);
+	
+	/** Deve ser consumido e fechado dentro de uma transacao. */
+	Stream<LancamentoDTO> buscarStream(Lancamento filtro);
+	
+	/** Todos os lancamentos do usuario, dos anos arquivados e dos demais, ordenados por (ano, mes, id).
+	 *  Deve ser consumido e fechado dentro de uma transacao. */
+	Stream<LancamentoDTO> buscarStreamHistorico(Long idUsuario);
+	
+	/** Receitas e despesas efetivadas do usuario por mes nos anos arquivados, ate o mes informado,
+	 *  lidas dos resumos mensais. Mesmo formato de obterSaldosMensaisAte. */
+	List<SaldoMensalDTO> obterSaldosMensaisArquivadosAte(Long idUsuario, Integer ano, Integer mes);
+	
+	/** Busca textual na descricao apoiada no indice do banco: trigramas (pg_trgm) no PostgreSQL. No H2,
+	 *  palavras completas conferidas nas linhas do usuario. */
+	List<SugestaoDescricaoDTO> sugerirDescricoes(Long idUsuario, String termo, int limite);
+	
+	/** Insere os lancamentos em um unico lote JDBC, sem passar pelo contexto de persistencia
+	 *  (os ids gerados nao sao atribuidos as instancias). Retorna a quantidade inserida. */
+	int inserirEmLote(List<Lancamento> lancamentos);
+	
+	/** Altera o status dos lancamentos do lote que ainda nao o possuem, em uma unica instrucao. */
+	int atualizarStatusEmLote(FiltroLancamentoLote filtro, StatusLancamento status);
+	
+	List<Long> buscarUsuariosDoLote(FiltroLancamentoLote filtro);
+	
+	/** Exclui os lancamentos do lote em uma unica instrucao: DELETE ou, com logica, UPDATE da data de exclusao.
+	 *  Retorna a quantidade excluida. */
+	int excluirEmLote(FiltroLancamentoLote filtro, boolean logica);
+	
+	/** Remove ate limite lancamentos excluidos pela exclusao logica. Retorna a quantidade removida. */
+	int removerExcluidos(int limite);
+	
+	/* As atualizacoes individuais sao um unico UPDATE, sem ler a linha antes: o dono, a versao e o
+	 * status esperados entram no where e incrementam a versao. Retornam 0 quando nada foi alterado. */
+	
+	/** Grava descricao, mes, ano, valor, tipo e status (quando informado) do lancamento, se ele for do
+	 *  mesmo usuario e, com versaoEsperada, se ainda estiver nessa versao. */
+	int atualizar(Lancamento lancamento, Long versaoEsperada);
+	
+	/** Troca o status do lancamento do usuario; statusEsperado e versaoEsperada sao opcionais. */
+	int trocarStatus(Long id, Long idUsuario, StatusLancamento statusEsperado, StatusLancamento status, Long versaoEsperada);
+	
+	/** Bloqueia a linha do lancamento (select for update) ate o fim da transacao. */
+	void bloquear(Long id);
+	
+	/** Bloqueia as linhas dos lancamentos do lote, na ordem do id, ate o fim da transacao. */
+	void bloquearLote(FiltroLancamentoLote filtro);
+	
+	/** Exclui o lancamento do usuario (DELETE ou, com logica, UPDATE da data de exclusao). */
+	int excluir(Long id, Long idUsuario, boolean logica);
+	
+	/** Rele do banco a instancia gerenciada pelo contexto de persistencia depois de um UPDATE direto;
+	 *  instancias desanexadas nao sao alteradas. */
+	void sincronizar(Lancamento lancamento);
+}
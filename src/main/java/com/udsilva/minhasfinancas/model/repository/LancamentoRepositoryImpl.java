@@ -0,0 +1,474 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.sql.DataSource;
+
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.udsilva.minhasfinancas.api.dto.SugestaoDescricaoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.LancamentoArquivado;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+
+/** Implementacao das consultas de LancamentoRepository que nao sao atendidas por metodos derivados. */
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+	private static final int TAMANHO_FETCH = 500;
+	
+	// similaridade de trigramas (operador % e similarity do pg_trgm), apoiada pelo indice gin em lower(descricao)
+	private static final String SUGESTAO_POSTGRESQL =
+			  " select l.descricao, count(*) as ocorrencias, "
+			+ "        max(similarity(lower(l.descricao), :termo) "
+			+ "            + case when lower(l.descricao) like :prefixo escape '\\' then 1 else 0 end) as relevancia "
+			+ " from financas.lancamento l "
+			+ " where l.id_usuario = :idUsuario and l.data_exclusao is null "
+			+ "   and (lower(l.descricao) like :contem escape '\\' or lower(l.descricao) % :termo) "
+			+ " group by l.descricao "
+			+ " order by relevancia desc, ocorrencias desc "
+			+ " limit :limite ";
+	
+	// palavras completas do termo (como o full-text nativo, que o H2 so consulta na tabela inteira, de todos
+	// os usuarios) conferidas nas linhas do usuario pelo indice de id_usuario; o prefixo atende a digitacao
+	private static final String SUGESTAO_H2 =
+			  " select l.descricao, count(*) as ocorrencias, "
+			+ "        max(case when regexp_like(l.descricao, :palavras) then 1 else 0 end "
+			+ "            + case when lower(l.descricao) like :prefixo escape '\\' then 1 else 0 end) as relevancia "
+			+ " from financas.lancamento l "
+			+ " where l.id_usuario = :idUsuario and l.data_exclusao is null "
+			+ "   and (regexp_like(l.descricao, :palavras) or lower(l.descricao) like :prefixo escape '\\') "
+			+ " group by l.descricao "
+			+ " order by relevancia desc, ocorrencias desc "
+			+ " limit :limite ";
+	
+	// l.usuario.id e lido da chave estrangeira, sem join com usuario. A entidade e Lancamento ou LancamentoArquivado
+	private static final String PROJECAO_DTO =
+			  " select new com.udsilva.minhasfinancas.api.dto.LancamentoDTO( "
+			+ "        l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.versao) "
+			+ " from %s l where ";
+	
+	private static final String SALDOS_MENSAIS_ARQUIVADOS =
+			  " select r.ano, r.mes, "
+			+ "        sum(case when r.tipo = 'RECEITA' then r.valor else 0 end), "
+			+ "        sum(case when r.tipo = 'DESPESA' then r.valor else 0 end) "
+			+ " from financas.resumo_mensal r "
+			+ " where r.id_usuario = :idUsuario and r.status = 'EFETIVADO' "
+			+ "   and (r.ano < :ano or (r.ano = :ano and r.mes <= :mes)) "
+			+ " group by r.ano, r.mes order by r.ano, r.mes ";
+	
+	// espaco declarado nas alteracoes de um unico lancamento (nenhuma entidade o usa): o hibernate nao descarta
+	// a regiao de Lancamento do cache, e a entrada do lancamento e descartada por descartarDoCache
+	private static final String ESPACO_LINHA = "financas.lancamento#linha";
+	
+	// a exclusao logica libera a parcela da recorrencia no indice unico (id_recorrencia, parcela, ano):
+	// a ocorrencia volta a ser calculada e pode ser alterada de novo, como depois de um DELETE
+	private static final String EXCLUSAO_LOGICA =
+			  " update financas.lancamento %s set data_exclusao = current_timestamp, id_recorrencia = null, parcela = null, "
+			+ " versao = versao + 1 where ";
+	
+	// limit na subconsulta: o PostgreSQL nao aceita limit no DELETE
+	private static final String EXPURGO =
+			  " delete from financas.lancamento where id in ( "
+			+ "   select l.id from financas.lancamento l where l.data_exclusao is not null limit :limite ) ";
+	
+	private static final String INSERCAO =
+			  " insert into financas.lancamento (descricao, mes, ano, valor, data_cadastro, tipo, status, id_usuario) "
+			+ " values (?, ?, ?, ?, ?, ?, ?, ?) ";
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final DataSource dataSource;
+	private final JdbcTemplate jdbcTemplate;
+	
+	private String produtoBanco;
+	
+	
+	public LancamentoRepositoryImpl(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+		this.dataSource = dataSource;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	
+	
+	@Override
+	public List<LancamentoDTO> listar(Lancamento filtro) {
+		List<LancamentoDTO> lancamentos = new ArrayList<>();
+		for(Class<?> entidade : entidades(filtro, null)){
+			lancamentos.addAll(consulta(entidade, filtro, null).getResultList());
+		}
+		return lancamentos;
+	}
+	
+	// a pagina comeca nos anos arquivados e, se nao encher, continua na tabela lancamento
+	@Override
+	public List<LancamentoDTO> buscarPagina(Lancamento filtro, ChaveLancamento apos, int limite) {
+		List<LancamentoDTO> pagina = new ArrayList<>();
+		for(Class<?> entidade : entidades(filtro, apos)){
+			pagina.addAll(consulta(entidade, filtro, apos).setMaxResults(limite - pagina.size()).getResultList());
+			if(pagina.size() == limite){
+				break;
+			}
+		}
+		return pagina;
+	}
+
+	// como em buscarStreamHistorico, a consulta da tabela lancamento so e executada depois que a dos anos
+	// arquivados e lida e fechada pelo flatMap
+	@Override
+	public Stream<LancamentoDTO> buscarStream(Lancamento filtro) {
+		return entidades(filtro, null).stream()
+				.flatMap(entidade -> consulta(entidade, filtro, null)
+						.setHint(QueryHints.FETCH_SIZE, TAMANHO_FETCH)
+						.getResultStream());
+	}
+	
+	// os anos arquivados sao todos anteriores aos da tabela lancamento: a segunda consulta so e executada
+	// depois que a primeira e lida e fechada pelo flatMap
+	@Override
+	public Stream<LancamentoDTO> buscarStreamHistorico(Long idUsuario) {
+		return Stream.of(LancamentoArquivado.class, Lancamento.class)
+				.flatMap(entidade -> entityManager
+						.createQuery(String.format(PROJECAO_DTO, entidade.getSimpleName())
+								+ " l.usuario.id = :idUsuario order by l.ano, l.mes, l.id ", LancamentoDTO.class)
+						.setParameter("idUsuario", idUsuario)
+						.setHint(QueryHints.FETCH_SIZE, TAMANHO_FETCH)
+						.getResultStream());
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<SaldoMensalDTO> obterSaldosMensaisArquivadosAte(Long idUsuario, Integer ano, Integer mes) {
+		List<Object[]> linhas = entityManager.createNativeQuery(SALDOS_MENSAIS_ARQUIVADOS)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("ano", ano)
+				.setParameter("mes", mes)
+				.getResultList();
+		return linhas.stream()
+				.map(linha -> new SaldoMensalDTO(((Number) linha[0]).intValue(), ((Number) linha[1]).intValue(),
+						(BigDecimal) linha[2], (BigDecimal) linha[3]))
+				.collect(Collectors.toList());
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<SugestaoDescricaoDTO> sugerirDescricoes(Long idUsuario, String termo, int limite) {
+		String termoMinusculo = termo.toLowerCase();
+		String termoLike = escaparLike(termoMinusculo);
+		boolean postgresql = "PostgreSQL".equals(obterProdutoBanco());
+		
+		Query query = entityManager.createNativeQuery(postgresql ? SUGESTAO_POSTGRESQL : SUGESTAO_H2)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("prefixo", termoLike + "%")
+				.setParameter("limite", limite);
+		if(postgresql){
+			query.setParameter("termo", termoMinusculo)
+				.setParameter("contem", "%" + termoLike + "%");
+		} else {
+			query.setParameter("palavras", palavrasCompletas(termoMinusculo));
+		}
+		
+		List<Object[]> linhas = query.getResultList();
+		return linhas.stream()
+				.map(linha -> new SugestaoDescricaoDTO((String) linha[0], 
+						((Number) linha[2]).doubleValue(), ((Number) linha[1]).longValue()))
+				.collect(Collectors.toList());
+	}
+	
+	@Override
+	public int inserirEmLote(List<Lancamento> lancamentos) {
+		jdbcTemplate.batchUpdate(INSERCAO, lancamentos, lancamentos.size(), (ps, lancamento) -> {
+			ps.setString(1, lancamento.getDescricao());
+			ps.setInt(2, lancamento.getMes());
+			ps.setInt(3, lancamento.getAno());
+			ps.setBigDecimal(4, lancamento.getValor());
+			ps.setDate(5, lancamento.getDataCadastro() == null ? null : Date.valueOf(lancamento.getDataCadastro()));
+			ps.setString(6, lancamento.getTipo().name());
+			ps.setString(7, lancamento.getStatus().name());
+			ps.setLong(8, lancamento.getUsuario().getId());
+		});
+		return lancamentos.size();
+	}
+	
+	@Override
+	public int atualizarStatusEmLote(FiltroLancamentoLote filtro, StatusLancamento status) {
+		Map<String, Object> parametros = new HashMap<>();
+		String sql = " update financas.lancamento l set status = :status, versao = versao + 1 "
+				+ " where " + filtro.predicado("l", parametros) + " and l.status <> :status ";
+		
+		// o lote pode alterar qualquer lancamento em cache: a regiao de Lancamento e descartada
+		Query query = entityManager.createNativeQuery(sql).setParameter("status", status.name());
+		query.unwrap(NativeQuery.class).addSynchronizedEntityClass(Lancamento.class);
+		parametros.forEach(query::setParameter);
+		return query.executeUpdate();
+	}
+	
+	@Override
+	public int excluirEmLote(FiltroLancamentoLote filtro, boolean logica) {
+		Map<String, Object> parametros = new HashMap<>();
+		String sql = (logica ? String.format(EXCLUSAO_LOGICA, "l") : " delete from financas.lancamento l where ")
+				+ filtro.predicado("l", parametros);
+		
+		Query query = entityManager.createNativeQuery(sql);
+		query.unwrap(NativeQuery.class).addSynchronizedEntityClass(Lancamento.class);
+		parametros.forEach(query::setParameter);
+		return query.executeUpdate();
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Long> buscarUsuariosDoLote(FiltroLancamentoLote filtro) {
+		Map<String, Object> parametros = new HashMap<>();
+		String sql = " select distinct l.id_usuario from financas.lancamento l where " + filtro.predicado("l", parametros);
+		
+		Query query = entityManager.createNativeQuery(sql);
+		parametros.forEach(query::setParameter);
+		List<Number> usuarios = query.getResultList();
+		return usuarios.stream().map(Number::longValue).collect(Collectors.toList());
+	}
+	
+	@Override
+	public int atualizar(Lancamento lancamento, Long versaoEsperada) {
+		StringBuilder sql = new StringBuilder(" update financas.lancamento set ")
+				.append(" descricao = :descricao, mes = :mes, ano = :ano, valor = :valor, tipo = :tipo, ");
+		if(lancamento.getStatus() != null){
+			sql.append(" status = :status, ");
+		}
+		sql.append(" versao = versao + 1 where id = :id and id_usuario = :idUsuario and data_exclusao is null ");
+		if(versaoEsperada != null){
+			sql.append(" and versao = :versao ");
+		}
+		
+		Query query = instrucaoDaLinha(sql.toString(), lancamento.getId())
+				.setParameter("descricao", lancamento.getDescricao())
+				.setParameter("mes", lancamento.getMes())
+				.setParameter("ano", lancamento.getAno())
+				.setParameter("valor", lancamento.getValor())
+				.setParameter("tipo", lancamento.getTipo().name())
+				.setParameter("id", lancamento.getId())
+				.setParameter("idUsuario", lancamento.getUsuario().getId());
+		if(lancamento.getStatus() != null){
+			query.setParameter("status", lancamento.getStatus().name());
+		}
+		if(versaoEsperada != null){
+			query.setParameter("versao", versaoEsperada);
+		}
+		return query.executeUpdate();
+	}
+	
+	@Override
+	public int trocarStatus(Long id, Long idUsuario, StatusLancamento statusEsperado, StatusLancamento status, Long versaoEsperada) {
+		StringBuilder sql = new StringBuilder(" update financas.lancamento set status = :status, versao = versao + 1 ")
+				.append(" where id = :id and id_usuario = :idUsuario and data_exclusao is null ");
+		if(statusEsperado != null){
+			sql.append(" and status = :statusEsperado ");
+		}
+		if(versaoEsperada != null){
+			sql.append(" and versao = :versao ");
+		}
+		
+		Query query = instrucaoDaLinha(sql.toString(), id)
+				.setParameter("status", status.name())
+				.setParameter("id", id)
+				.setParameter("idUsuario", idUsuario);
+		if(statusEsperado != null){
+			query.setParameter("statusEsperado", statusEsperado.name());
+		}
+		if(versaoEsperada != null){
+			query.setParameter("versao", versaoEsperada);
+		}
+		return query.executeUpdate();
+	}
+	
+	// somente leitura da linha: FLUSH_MODE = COMMIT como nas instrucoes de saldo
+	@Override
+	public void bloquear(Long id) {
+		entityManager.createNativeQuery(" select l.id from financas.lancamento l where l.id = :id for update ")
+				.setHint(QueryHints.FLUSH_MODE, "COMMIT")
+				.setParameter("id", id)
+				.getResultList();
+	}
+	
+	@Override
+	public void bloquearLote(FiltroLancamentoLote filtro) {
+		Map<String, Object> parametros = new HashMap<>();
+		Query query = entityManager.createNativeQuery(" select l.id from financas.lancamento l where "
+				+ filtro.predicado("l", parametros) + " order by l.id for update ")
+				.setHint(QueryHints.FLUSH_MODE, "COMMIT");
+		parametros.forEach(query::setParameter);
+		query.getResultList();
+	}
+	
+	@Override
+	public int excluir(Long id, Long idUsuario, boolean logica) {
+		String sql = (logica ? String.format(EXCLUSAO_LOGICA, "") : " delete from financas.lancamento where ")
+				+ " id = :id and id_usuario = :idUsuario and data_exclusao is null ";
+		int excluidos = instrucaoDaLinha(sql, id)
+				.setParameter("id", id)
+				.setParameter("idUsuario", idUsuario)
+				.executeUpdate();
+		
+		// como no remove: a instancia gerenciada deixa o contexto de persistencia
+		SessionImplementor sessao = entityManager.unwrap(SessionImplementor.class);
+		EntityPersister persister = sessao.getFactory().getMetamodel().entityPersister(Lancamento.class);
+		Object gerenciado = sessao.getPersistenceContext().getEntity(sessao.generateEntityKey(id, persister));
+		if(excluidos > 0 && gerenciado != null){
+			entityManager.detach(gerenciado);
+		}
+		return excluidos;
+	}
+	
+	// as linhas expurgadas ja sairam do cache na exclusao logica: o espaco da linha evita descartar a regiao
+	@Override
+	public int removerExcluidos(int limite) {
+		Query query = entityManager.createNativeQuery(EXPURGO).setParameter("limite", limite);
+		query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(ESPACO_LINHA);
+		return query.executeUpdate();
+	}
+	
+	@Override
+	public void sincronizar(Lancamento lancamento) {
+		if(entityManager.contains(lancamento)){
+			entityManager.refresh(lancamento);
+		}
+	}
+	
+	private Query instrucaoDaLinha(String sql, Long id) {
+		descartarDoCache(id);
+		Query query = entityManager.createNativeQuery(sql);
+		query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(ESPACO_LINHA);
+		return query;
+	}
+	
+	// descartada ja, para a propria transacao, e de novo depois do commit: uma leitura concorrente pode ter
+	// gravado no cache o estado anterior a alteracao enquanto a transacao estava aberta
+	private void descartarDoCache(Long id) {
+		Cache cache = entityManager.getEntityManagerFactory().getCache();
+		cache.evict(Lancamento.class, id);
+		if(TransactionSynchronizationManager.isSynchronizationActive()){
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					cache.evict(Lancamento.class, id);
+				}
+			});
+		}
+	}
+	
+	private String obterProdutoBanco() {
+		if(produtoBanco == null){
+			try {
+				produtoBanco = JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName");
+			} catch (MetaDataAccessException e) {
+				throw new IllegalStateException("Não foi possível identificar o banco de dados.", e);
+			}
+		}
+		return produtoBanco;
+	}
+	
+	// todas as palavras do termo, em qualquer ordem, sem fazer parte de outra palavra; sem palavras nada confere
+	private static String palavrasCompletas(String termo) {
+		StringBuilder palavras = new StringBuilder();
+		for(String palavra : termo.split("[^\\p{L}\\p{N}]+")){
+			if(!palavra.isEmpty()){
+				palavras.append("(?=.*(?<![\\p{L}\\p{N}])").append(Pattern.quote(palavra)).append("(?![\\p{L}\\p{N}]))");
+			}
+		}
+		return palavras.length() == 0 ? "(?!)" : "(?isu)^" + palavras;
+	}
+	
+	// % e _ digitados pelo usuario sao procurados literalmente, e nao como curingas
+	private static String escaparLike(String texto) {
+		return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+	
+	/** Com ano no filtro, a entidade do ano. Sem ano, LancamentoArquivado e depois Lancamento: todos os
+	 *  anos arquivados sao anteriores aos da tabela lancamento, entao a ordem (ano, mes, id) se mantem.
+	 *  Cursor ja depois do ultimo ano arquivado dispensa a consulta dos arquivados. */
+	private List<Class<?>> entidades(Lancamento filtro, ChaveLancamento apos) {
+		Integer ultimoArquivado = entityManager
+				.createQuery(" select max(a.ano) from AnoArquivado a ", Integer.class)
+				.getSingleResult();
+		if(ultimoArquivado == null){
+			return Collections.singletonList(Lancamento.class);
+		}
+		if(filtro.getAno() != null){
+			return Collections.singletonList(filtro.getAno() <= ultimoArquivado ? LancamentoArquivado.class : Lancamento.class);
+		}
+		if(apos != null && apos.getAno() > ultimoArquivado){
+			return Collections.singletonList(Lancamento.class);
+		}
+		return Arrays.asList(LancamentoArquivado.class, Lancamento.class);
+	}
+	
+	private TypedQuery<LancamentoDTO> consulta(Class<?> entidade, Lancamento filtro, ChaveLancamento apos) {
+		Map<String, Object> parametros = new HashMap<>();
+		StringBuilder jpql = new StringBuilder(String.format(PROJECAO_DTO, entidade.getSimpleName()));
+		adicionarFiltro(jpql, parametros, filtro);
+		
+		if(apos != null){
+			jpql.append(" and (l.ano > :cursorAno or (l.ano = :cursorAno and (l.mes > :cursorMes ")
+			    .append(" or (l.mes = :cursorMes and l.id > :cursorId)))) ");
+			parametros.put("cursorAno", apos.getAno());
+			parametros.put("cursorMes", apos.getMes());
+			parametros.put("cursorId", apos.getId());
+		}
+		jpql.append(" order by l.ano, l.mes, l.id ");
+		
+		TypedQuery<LancamentoDTO> query = entityManager.createQuery(jpql.toString(), LancamentoDTO.class);
+		parametros.forEach(query::setParameter);
+		return query;
+	}
+	
+	/** Mesmos criterios do Example usado em LancamentoService.buscar: descricao contendo o texto
+	 *  (sem diferenciar caixa) e igualdade nos demais atributos preenchidos. */
+	private void adicionarFiltro(StringBuilder jpql, Map<String, Object> parametros, Lancamento filtro) {
+		jpql.append(" l.usuario.id = :idUsuario ");
+		parametros.put("idUsuario", filtro.getUsuario().getId());
+		
+		if(filtro.getDescricao() != null){
+			jpql.append(" and lower(l.descricao) like :descricao escape '\\' ");
+			parametros.put("descricao", "%" + escaparLike(filtro.getDescricao().toLowerCase()) + "%");
+		}
+		if(filtro.getMes() != null){
+			jpql.append(" and l.mes = :mes ");
+			parametros.put("mes", filtro.getMes());
+		}
+		if(filtro.getAno() != null){
+			jpql.append(" and l.ano = :ano ");
+			parametros.put("ano", filtro.getAno());
+		}
+		if(filtro.getTipo() != null){
+			jpql.append(" and l.tipo = :tipo ");
+			parametros.put("tipo", filtro.getTipo());
+		}
+		if(filtro.getStatus() != null){
+			jpql.append(" and l.status = :status ");
+			parametros.put("status", filtro.getStatus());
+		}
+	}
+}
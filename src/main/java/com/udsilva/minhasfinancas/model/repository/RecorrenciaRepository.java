@@ -0,0 +1,12 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.udsilva.minhasfinancas.model.entity.Recorrencia;
+
+public interface RecorrenciaRepository extends JpaRepository<Recorrencia, Long> {
+
+	List<Recorrencia> findByUsuarioIdOrderById(Long idUsuario);
+}
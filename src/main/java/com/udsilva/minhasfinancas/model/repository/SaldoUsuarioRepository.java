@@ -0,0 +1,27 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.udsilva.minhasfinancas.model.entity.SaldoUsuario;
+
+/** As instrucoes que alteram os saldos estao em SaldoUsuarioRepositoryImpl. */
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+
+	/** Consulta de saldo, guardada na regiao "saldo" do cache de consultas quando ele esta ligado
+	 *  (minhasfinancas.cache.consulta-saldo). Qualquer alteracao em saldo_usuario invalida a regiao inteira. */
+	@QueryHints({ @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+				  @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = "saldo") })
+	@Query( value = " select s.saldo from SaldoUsuario s where s.idUsuario = :idUsuario " )
+	Optional<BigDecimal> obterSaldo(@Param("idUsuario") Long idUsuario);
+
+	@Query( nativeQuery = true, value = " select alteracoes from financas.saldo_usuario where id_usuario = :idUsuario " )
+	Optional<Long> obterAlteracoes(@Param("idUsuario") Long idUsuario);
+}
@@ -0,0 +1,28 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+/** Instrucoes nativas sobre saldo_usuario. Ficam fora do SaldoUsuarioRepository para declarar ao hibernate a
+ *  tabela alterada: uma instrucao nativa sem tabela declarada descarta todo o cache de segundo nivel
+ *  (Lancamento e Usuario de todos os usuarios), e estas sao executadas a cada escrita de lancamento. */
+public interface SaldoUsuarioRepositoryCustom {
+
+	/** Cria a linha de saldo do usuario a partir dos lancamentos efetivados ja existentes
+	 *  e dos resumos dos anos arquivados. */
+	int inicializar(Long idUsuario);
+
+	/** Soma (sinal = 1) ou retira (sinal = -1) do saldo do dono a contribuicao atual do lancamento,
+	 *  lida do proprio lancamento na mesma instrucao. Lancamentos nao efetivados contribuem com zero. */
+	int aplicarContribuicao(Long idLancamento, int sinal);
+
+	/** Equivalente a aplicarContribuicao para todos os lancamentos do lote, em uma unica instrucao. */
+	int aplicarContribuicaoDoLote(FiltroLancamentoLote filtro, int sinal);
+
+	/** Troca o contador de alteracoes do usuario pelo proximo valor da sequence. Linhas novas
+	 *  (inicializar, reconstruirTodos) recebem o valor pelo default da coluna. */
+	int registrarAlteracao(Long idUsuario);
+
+	int removerTodos();
+
+	/** Reconstroi todas as linhas de saldo a partir dos lancamentos efetivados e dos resumos
+	 *  dos anos arquivados. */
+	int reconstruirTodos();
+}
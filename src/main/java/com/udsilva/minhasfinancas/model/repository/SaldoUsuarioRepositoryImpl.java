@@ -0,0 +1,165 @@
+package com.udsilva.minhasfinancas.model.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.sql.DataSource;
+
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import com.udsilva.minhasfinancas.model.entity.SaldoUsuario;
+
+/** As instrucoes de saldo leem o estado do lancamento gravado no banco, por isso as executadas junto com
+ *  a escrita de um lancamento nao disparam o flush de alteracoes pendentes da sessao (FLUSH_MODE = COMMIT). */
+public class SaldoUsuarioRepositoryImpl implements SaldoUsuarioRepositoryCustom {
+
+	private static final String SALDO_INICIAL =
+			  " select cast(:idUsuario as bigint) as id_usuario, "
+			+ "        coalesce(sum(case when l.tipo = 'RECEITA' then l.valor else 0 end), 0) as receitas, "
+			+ "        coalesce(sum(case when l.tipo = 'DESPESA' then l.valor else 0 end), 0) as despesas, "
+			+ "        coalesce(sum(case when l.tipo = 'RECEITA' then l.valor else -l.valor end), 0) as saldo "
+			+ " from ( select tipo, valor from financas.lancamento "
+			+ "        where id_usuario = :idUsuario and status = 'EFETIVADO' and data_exclusao is null "
+			+ "        union all "
+			+ "        select tipo, valor from financas.resumo_mensal "
+			+ "        where id_usuario = :idUsuario and status = 'EFETIVADO' ) l ";
+	
+	// duas primeiras escritas simultaneas do mesmo usuario inicializam a mesma linha: a segunda nao faz nada
+	// (no PostgreSQL uma violacao da chave abortaria a transacao inteira, nao so a instrucao)
+	private static final String INICIALIZACAO_POSTGRESQL =
+			  " insert into financas.saldo_usuario (id_usuario, receitas, despesas, saldo) " + SALDO_INICIAL
+			+ " on conflict (id_usuario) do nothing ";
+	
+	// o merge do H2 nao e atomico entre transacoes: a linha do usuario e bloqueada antes para serializar as inicializacoes
+	private static final String BLOQUEIO_USUARIO =
+			" select u.id from financas.usuario u where u.id = :idUsuario for update ";
+	
+	private static final String INICIALIZACAO_H2 =
+			  " merge into financas.saldo_usuario s using ( " + SALDO_INICIAL + " ) n on (s.id_usuario = n.id_usuario) "
+			+ " when not matched then insert (id_usuario, receitas, despesas, saldo) "
+			+ " values (n.id_usuario, n.receitas, n.despesas, n.saldo) ";
+
+	private static final String CONTRIBUICAO =
+			  " update financas.saldo_usuario set "
+			+ "   receitas = receitas + :sinal * (select coalesce(sum(l.valor), 0) from financas.lancamento l "
+			+ "                where l.id = :idLancamento and l.status = 'EFETIVADO' and l.tipo = 'RECEITA' and l.data_exclusao is null), "
+			+ "   despesas = despesas + :sinal * (select coalesce(sum(l.valor), 0) from financas.lancamento l "
+			+ "                where l.id = :idLancamento and l.status = 'EFETIVADO' and l.tipo = 'DESPESA' and l.data_exclusao is null), "
+			+ "   saldo = saldo + :sinal * (select coalesce(sum(case when l.tipo = 'RECEITA' then l.valor else -l.valor end), 0) "
+			+ "                from financas.lancamento l where l.id = :idLancamento and l.status = 'EFETIVADO' and l.data_exclusao is null) "
+			+ " where id_usuario = (select l.id_usuario from financas.lancamento l where l.id = :idLancamento) ";
+
+	private static final String ALTERACAO =
+			  " update financas.saldo_usuario set alteracoes = nextval('financas.seq_alteracao_saldo') "
+			+ " where id_usuario = :idUsuario ";
+
+	private static final String RECONSTRUCAO =
+			  " insert into financas.saldo_usuario (id_usuario, receitas, despesas, saldo) "
+			+ " select l.id_usuario, "
+			+ "        sum(case when l.tipo = 'RECEITA' then l.valor else 0 end), "
+			+ "        sum(case when l.tipo = 'DESPESA' then l.valor else 0 end), "
+			+ "        sum(case when l.tipo = 'RECEITA' then l.valor else -l.valor end) "
+			+ " from ( select id_usuario, tipo, valor from financas.lancamento where status = 'EFETIVADO' and data_exclusao is null "
+			+ "        union all "
+			+ "        select id_usuario, tipo, valor from financas.resumo_mensal where status = 'EFETIVADO' ) l "
+			+ " group by l.id_usuario ";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final DataSource dataSource;
+	
+	private Boolean postgresql;
+	
+	
+	public SaldoUsuarioRepositoryImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+
+	@Override
+	public int inicializar(Long idUsuario) {
+		if(!isPostgresql()){
+			entityManager.createNativeQuery(BLOQUEIO_USUARIO)
+					.setHint(QueryHints.FLUSH_MODE, "COMMIT")
+					.setParameter("idUsuario", idUsuario)
+					.getResultList();
+		}
+		return instrucao(isPostgresql() ? INICIALIZACAO_POSTGRESQL : INICIALIZACAO_H2)
+				.setHint(QueryHints.FLUSH_MODE, "COMMIT")
+				.setParameter("idUsuario", idUsuario)
+				.executeUpdate();
+	}
+
+	@Override
+	public int aplicarContribuicao(Long idLancamento, int sinal) {
+		return instrucao(CONTRIBUICAO)
+				.setHint(QueryHints.FLUSH_MODE, "COMMIT")
+				.setParameter("idLancamento", idLancamento)
+				.setParameter("sinal", sinal)
+				.executeUpdate();
+	}
+
+	@Override
+	public int aplicarContribuicaoDoLote(FiltroLancamentoLote filtro, int sinal) {
+		Map<String, Object> parametros = new HashMap<>();
+		String predicado = filtro.predicado("l", parametros);
+		
+		String sql = " update financas.saldo_usuario s set "
+				+ "   receitas = s.receitas + :sinal * (select coalesce(sum(l.valor), 0) from financas.lancamento l "
+				+ "                where " + predicado + " and l.id_usuario = s.id_usuario and l.status = 'EFETIVADO' and l.tipo = 'RECEITA'), "
+				+ "   despesas = s.despesas + :sinal * (select coalesce(sum(l.valor), 0) from financas.lancamento l "
+				+ "                where " + predicado + " and l.id_usuario = s.id_usuario and l.status = 'EFETIVADO' and l.tipo = 'DESPESA'), "
+				+ "   saldo = s.saldo + :sinal * (select coalesce(sum(case when l.tipo = 'RECEITA' then l.valor else -l.valor end), 0) "
+				+ "                from financas.lancamento l where " + predicado + " and l.id_usuario = s.id_usuario and l.status = 'EFETIVADO') "
+				+ " where s.id_usuario in (select l.id_usuario from financas.lancamento l where " + predicado + ") ";
+		
+		Query query = instrucao(sql)
+				.setHint(QueryHints.FLUSH_MODE, "COMMIT")
+				.setParameter("sinal", sinal);
+		parametros.forEach(query::setParameter);
+		return query.executeUpdate();
+	}
+
+	@Override
+	public int registrarAlteracao(Long idUsuario) {
+		return instrucao(ALTERACAO)
+				.setHint(QueryHints.FLUSH_MODE, "COMMIT")
+				.setParameter("idUsuario", idUsuario)
+				.executeUpdate();
+	}
+
+	@Override
+	public int removerTodos() {
+		return instrucao(" delete from financas.saldo_usuario ").executeUpdate();
+	}
+
+	@Override
+	public int reconstruirTodos() {
+		return instrucao(RECONSTRUCAO).executeUpdate();
+	}
+
+	private boolean isPostgresql() {
+		if(postgresql == null){
+			try {
+				postgresql = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName"));
+			} catch (MetaDataAccessException e) {
+				throw new IllegalStateException("Não foi possível identificar o banco de dados.", e);
+			}
+		}
+		return postgresql;
+	}
+
+	// so a tabela saldo_usuario e alterada: o hibernate invalida apenas as consultas em cache sobre ela
+	private Query instrucao(String sql) {
+		Query query = entityManager.createNativeQuery(sql);
+		query.unwrap(NativeQuery.class).addSynchronizedEntityClass(SaldoUsuario.class);
+		return query;
+	}
+}
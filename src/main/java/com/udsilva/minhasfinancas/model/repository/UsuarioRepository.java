@@ -2,13 +2,32 @@ package com.udsilva.minhasfinancas.model.repository;
 
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.udsilva.minhasfinancas.config.CacheConfiguration;
 import com.udsilva.minhasfinancas.model.entity.Usuario;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
 	 boolean existsByEmail(String email);
 	 
+	 // emails sem usuario nao sao guardados, para o cadastro seguinte nao ficar invisivel
+	 @Cacheable(value = CacheConfiguration.USUARIOS_POR_EMAIL, unless = "#result == null")
 	 Optional<Usuario> findByEmail(String email);
+	 
+	 // troca so a senha (hash novo no login), tirando o usuario dos dois caches
+	 @Modifying
+	 @Transactional
+	 @Caching(evict = {
+			 @CacheEvict(value = CacheConfiguration.USUARIOS, key = "#p0.id"),
+			 @CacheEvict(value = CacheConfiguration.USUARIOS_POR_EMAIL, key = "#p0.email") })
+	 @Query("update Usuario u set u.senha = :senha where u.id = :#{#usuario.id}")
+	 int atualizarSenha(@Param("usuario") Usuario usuario, @Param("senha") String senha);
 }
@@ -0,0 +1,17 @@
+package com.udsilva.minhasfinancas.model.repository.reativo;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.udsilva.minhasfinancas.model.entity.reativo.LancamentoReativo;
+
+import reactor.core.publisher.Mono;
+
+/** Equivalente R2DBC das consultas de leitura de LancamentoRepository. */
+public interface LancamentoReativoRepository extends ReactiveCrudRepository<LancamentoReativo, Long>, LancamentoReativoRepositoryCustom {
+
+	/** Como findById, sem os lancamentos excluidos ainda nao expurgados (o @Where de Lancamento nao vale aqui). */
+	@Query(" select l.id, l.descricao, l.mes, l.ano, l.valor, l.data_cadastro, l.tipo, l.status, l.id_usuario, l.versao "
+		 + " from financas.lancamento l where l.id = :id and l.data_exclusao is null ")
+	Mono<LancamentoReativo> obterPorId(Long id);
+}
@@ -0,0 +1,16 @@
+package com.udsilva.minhasfinancas.model.repository.reativo;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+
+import reactor.core.publisher.Flux;
+
+public interface LancamentoReativoRepositoryCustom {
+
+	/** Mesmo filtro e ordenacao (ano, mes, id) de LancamentoRepositoryCustom.listar. */
+	Flux<LancamentoDTO> listar(Lancamento filtro);
+	
+	/** Mesmo filtro e cursor de LancamentoRepositoryCustom.buscarPagina. */
+	Flux<LancamentoDTO> buscarPagina(Lancamento filtro, ChaveLancamento apos, int limite);
+}
@@ -0,0 +1,146 @@
+package com.udsilva.minhasfinancas.model.repository.reativo;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+
+public class LancamentoReativoRepositoryImpl implements LancamentoReativoRepositoryCustom {
+
+	private static final String PROJECAO_DTO =
+			  " select l.id, l.descricao, l.mes, l.ano, l.valor, l.id_usuario, l.tipo, l.status, l.versao "
+			+ " from financas.%s l where ";
+	
+	private static final String LANCAMENTO = "lancamento";
+	
+	// os lancamentos arquivados nao tem exclusao logica: o ano so e arquivado sem os excluidos
+	private static final String LANCAMENTO_ARQUIVADO = "lancamento_arquivado";
+	
+	private static final String ULTIMO_ANO_ARQUIVADO = " select max(a.ano) as ano from financas.ano_arquivado a ";
+	
+	private final DatabaseClient databaseClient;
+	
+	
+	public LancamentoReativoRepositoryImpl(DatabaseClient databaseClient) {
+		this.databaseClient = databaseClient;
+	}
+	
+	
+	@Override
+	public Flux<LancamentoDTO> listar(Lancamento filtro) {
+		return tabelas(filtro, null).concatMap(tabela -> consulta(tabela, filtro, null, null));
+	}
+	
+	// a pagina que termina nos arquivados nao chega a consultar a tabela lancamento
+	@Override
+	public Flux<LancamentoDTO> buscarPagina(Lancamento filtro, ChaveLancamento apos, int limite) {
+		return tabelas(filtro, apos).concatMap(tabela -> consulta(tabela, filtro, apos, limite)).take(limite);
+	}
+	
+	/** Mesma escolha de LancamentoRepositoryImpl.entidades: com ano no filtro, a tabela do ano; sem ano,
+	 *  lancamento_arquivado e depois lancamento, e o cursor continua de uma tabela para a outra. */
+	private Flux<String> tabelas(Lancamento filtro, ChaveLancamento apos) {
+		return databaseClient.execute(ULTIMO_ANO_ARQUIVADO)
+				.map((row, metadata) -> Optional.ofNullable(row.get("ano", Integer.class)))
+				.one()
+				.flatMapMany(ultimo -> {
+					if(!ultimo.isPresent()){
+						return Flux.just(LANCAMENTO);
+					}
+					int ultimoArquivado = ultimo.get();
+					if(filtro.getAno() != null){
+						return Flux.just(filtro.getAno() <= ultimoArquivado ? LANCAMENTO_ARQUIVADO : LANCAMENTO);
+					}
+					if(apos != null && apos.getAno() > ultimoArquivado){
+						return Flux.just(LANCAMENTO);
+					}
+					return Flux.just(LANCAMENTO_ARQUIVADO, LANCAMENTO);
+				});
+	}
+	
+	private Flux<LancamentoDTO> consulta(String tabela, Lancamento filtro, ChaveLancamento apos, Integer limite) {
+		Map<String, Object> parametros = new LinkedHashMap<>();
+		StringBuilder sql = new StringBuilder(String.format(PROJECAO_DTO, tabela));
+		if(LANCAMENTO.equals(tabela)){
+			sql.append(" l.data_exclusao is null and ");
+		}
+		adicionarFiltro(sql, parametros, filtro);
+		
+		if(apos != null){
+			sql.append(" and (l.ano > :cursorAno or (l.ano = :cursorAno and (l.mes > :cursorMes ")
+			   .append(" or (l.mes = :cursorMes and l.id > :cursorId)))) ");
+			parametros.put("cursorAno", apos.getAno());
+			parametros.put("cursorMes", apos.getMes());
+			parametros.put("cursorId", apos.getId());
+		}
+		sql.append(" order by l.ano, l.mes, l.id ");
+		if(limite != null){
+			sql.append(" limit :limite ");
+			parametros.put("limite", limite);
+		}
+		return executar(sql.toString(), parametros);
+	}
+	
+	private Flux<LancamentoDTO> executar(String sql, Map<String, Object> parametros) {
+		GenericExecuteSpec execucao = databaseClient.execute(sql);
+		for(Map.Entry<String, Object> parametro : parametros.entrySet()){
+			execucao = execucao.bind(parametro.getKey(), parametro.getValue());
+		}
+		return execucao.map((row, metadata) -> converter(row)).all();
+	}
+	
+	private static LancamentoDTO converter(Row row) {
+		return LancamentoDTO.builder()
+				.id(row.get("id", Long.class))
+				.descricao(row.get("descricao", String.class))
+				.mes(row.get("mes", Integer.class))
+				.ano(row.get("ano", Integer.class))
+				.valor(row.get("valor", BigDecimal.class))
+				.usuario(row.get("id_usuario", Long.class))
+				.tipo(row.get("tipo", String.class))
+				.status(row.get("status", String.class))
+				.versao(row.get("versao", Long.class))
+				.build();
+	}
+	
+	/** Mesmos criterios de LancamentoRepositoryImpl.adicionarFiltro, sobre as colunas. */
+	private void adicionarFiltro(StringBuilder sql, Map<String, Object> parametros, Lancamento filtro) {
+		sql.append(" l.id_usuario = :idUsuario ");
+		parametros.put("idUsuario", filtro.getUsuario().getId());
+		
+		if(filtro.getDescricao() != null){
+			sql.append(" and lower(l.descricao) like :descricao escape '\\' ");
+			parametros.put("descricao", "%" + escaparLike(filtro.getDescricao().toLowerCase()) + "%");
+		}
+		if(filtro.getMes() != null){
+			sql.append(" and l.mes = :mes ");
+			parametros.put("mes", filtro.getMes());
+		}
+		if(filtro.getAno() != null){
+			sql.append(" and l.ano = :ano ");
+			parametros.put("ano", filtro.getAno());
+		}
+		if(filtro.getTipo() != null){
+			sql.append(" and l.tipo = :tipo ");
+			parametros.put("tipo", filtro.getTipo().name());
+		}
+		if(filtro.getStatus() != null){
+			sql.append(" and l.status = :status ");
+			parametros.put("status", filtro.getStatus().name());
+		}
+	}
+	
+	private static String escaparLike(String texto) {
+		return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
@@ -0,0 +1,25 @@
+package com.udsilva.minhasfinancas.model.repository.reativo;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.udsilva.minhasfinancas.model.entity.reativo.SaldoUsuarioReativo;
+
+import reactor.core.publisher.Mono;
+
+public interface SaldoUsuarioReativoRepository extends ReactiveCrudRepository<SaldoUsuarioReativo, Long> {
+
+	/** Saldo pelos lancamentos efetivados e pelos resumos dos anos arquivados, para usuarios ainda sem
+	 *  saldo materializado (como a inicializacao do saldo). Vazio quando o usuario nao tem nenhum dos dois. */
+	@Query(" select l.id_usuario, "
+		 + "        coalesce(sum(case when l.tipo = 'RECEITA' then l.valor end), 0) as receitas, "
+		 + "        coalesce(sum(case when l.tipo = 'DESPESA' then l.valor end), 0) as despesas, "
+		 + "        coalesce(sum(case when l.tipo = 'RECEITA' then l.valor else -l.valor end), 0) as saldo "
+		 + " from ( select id_usuario, tipo, valor from financas.lancamento "
+		 + "        where id_usuario = :idUsuario and status = 'EFETIVADO' and data_exclusao is null "
+		 + "        union all "
+		 + "        select id_usuario, tipo, valor from financas.resumo_mensal "
+		 + "        where id_usuario = :idUsuario and status = 'EFETIVADO' ) l "
+		 + " group by l.id_usuario ")
+	Mono<SaldoUsuarioReativo> calcularSaldo(Long idUsuario);
+}
@@ -0,0 +1,9 @@
+package com.udsilva.minhasfinancas.model.repository.reativo;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.udsilva.minhasfinancas.model.entity.reativo.UsuarioReativo;
+
+public interface UsuarioReativoRepository extends ReactiveCrudRepository<UsuarioReativo, Long> {
+
+}
@@ -0,0 +1,14 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.util.List;
+
+import com.udsilva.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.udsilva.minhasfinancas.service.analise.AgrupamentoTotais;
+import com.udsilva.minhasfinancas.service.analise.FiltroTotais;
+
+public interface AnaliseLancamentoService {
+
+	/** Quantidade e soma dos valores dos lancamentos do usuario (inclusive dos anos arquivados) que
+	 *  atendem ao filtro, por grupo. */
+	List<TotalLancamentosDTO> totalizar(Long idUsuario, FiltroTotais filtro, AgrupamentoTotais agrupamento);
+}
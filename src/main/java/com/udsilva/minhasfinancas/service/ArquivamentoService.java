@@ -0,0 +1,16 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.util.List;
+
+import com.udsilva.minhasfinancas.model.entity.AnoArquivado;
+
+public interface ArquivamentoService {
+
+	/** Arquiva, em ordem, os anos ainda nao arquivados ate o informado: os lancamentos de cada ano
+	 *  sao resumidos por mes e movidos para lancamento_arquivado. Retorna os anos arquivados agora. */
+	List<AnoArquivado> arquivarAte(int ano);
+	
+	/** Arquiva os anos fechados (anteriores aos anos recentes configurados) e, no PostgreSQL, cria as
+	 *  particoes do ano corrente e do proximo. */
+	List<AnoArquivado> arquivarAnosFechados();
+}
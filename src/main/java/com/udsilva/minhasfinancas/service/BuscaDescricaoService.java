@@ -0,0 +1,11 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.util.List;
+
+import com.udsilva.minhasfinancas.api.dto.SugestaoDescricaoDTO;
+
+public interface BuscaDescricaoService {
+
+	/** Descricoes distintas dos lancamentos do usuario que correspondem ao termo, da mais para a menos relevante. */
+	List<SugestaoDescricaoDTO> sugerir(Long idUsuario, String termo, int limite);
+}
@@ -0,0 +1,19 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+
+/** Consultas de saldo e de listagem em que chamadas simultaneas iguais (mesmo usuario, mesmo filtro e mesmo
+ *  contador de alteracoes) compartilham uma unica execucao. O contador e o lido pelo chamador para o ETag
+ *  (LancamentoService.obterAlteracoes): depois de uma escrita ele muda, e a chamada seguinte executa de novo. */
+public interface ConsultaCompartilhadaService {
+
+	BigDecimal obterSaldoPorUsuario(Long idUsuario, Optional<Long> alteracoes);
+
+	/** A lista retornada pode ser a mesma de outras chamadas e nao pode ser alterada. */
+	List<LancamentoDTO> listar(Lancamento lancamentoFiltro, Optional<Long> alteracoes);
+}
@@ -0,0 +1,13 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.udsilva.minhasfinancas.service.exportacao.FormatoExportacao;
+
+public interface ExportacaoService {
+
+	/** Grava na saida todos os lancamentos do usuario, inclusive os dos anos arquivados, compactados
+	 *  com gzip quando pedido. A saida nao e fechada. */
+	void exportar(Long idUsuario, FormatoExportacao formato, boolean gzip, OutputStream saida) throws IOException;
+}
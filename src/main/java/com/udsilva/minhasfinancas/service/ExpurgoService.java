@@ -0,0 +1,8 @@
+package com.udsilva.minhasfinancas.service;
+
+public interface ExpurgoService {
+
+	/** Remove os lancamentos excluidos pela exclusao logica, em lotes de minhasfinancas.exclusao.expurgo.lote,
+	 *  cada um na sua transacao. Retorna a quantidade removida. */
+	int expurgarExcluidos();
+}
@@ -0,0 +1,12 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import com.udsilva.minhasfinancas.api.dto.ResultadoImportacaoDTO;
+import com.udsilva.minhasfinancas.service.importacao.FormatoExtrato;
+
+public interface ImportacaoService {
+
+	ResultadoImportacaoDTO importar(Long idUsuario, FormatoExtrato formato, InputStream entrada, Charset charset);
+}
@@ -1,28 +1,77 @@
 package com.udsilva.minhasfinancas.service;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO;
 import com.udsilva.minhasfinancas.model.entity.Lancamento;
 import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
 
 
 public interface LancamentoService {
 	
 	Lancamento salvar(Lancamento lancamento);
 	
+	/** Grava a ocorrencia da parcela como lancamento, com a descricao, o valor e o status da alteracao
+	 *  (ou os da recorrencia, quando nulos). As demais ocorrencias continuam calculadas. */
+	Lancamento alterarOcorrencia(Long idRecorrencia, Integer parcela, Lancamento alteracao);
+	
 	Lancamento atualizar(Lancamento lancamento);
 	
+	/** Atualiza em um unico UPDATE, sem ler o lancamento antes. Com versaoEsperada a escrita so acontece
+	 *  se ele ainda estiver nessa versao (ConflitoAtualizacaoException caso contrario). */
+	Lancamento atualizar(Lancamento lancamento, Long versaoEsperada);
+	
 	void deletar(Lancamento lancamento);
 	
+	/** Exclui em uma unica instrucao, sem ler o lancamento antes; RegraNegocioException se ele nao existir
+	 *  ou for de outro usuario. Com minhasfinancas.exclusao.logica a linha so e marcada e o expurgo a remove. */
+	void deletar(Long id, Long idUsuario);
+	
+	/** Exclui os lancamentos do lote em uma unica instrucao e retorna a quantidade excluida. */
+	int deletar(FiltroLancamentoLote filtro);
+	
 	List<Lancamento> buscar(Lancamento lancamentoFiltro);
 	
+	/* As listagens trazem, junto dos lancamentos gravados, as ocorrencias calculadas das recorrencias
+	 * do usuario (RecorrenciaService.expandir), na ordem de ChaveLancamento. */
+	
+	List<LancamentoDTO> listar(Lancamento lancamentoFiltro);
+	
+	List<LancamentoDTO> buscarPagina(Lancamento lancamentoFiltro, ChaveLancamento apos, int limite);
+	
+	void percorrer(Lancamento lancamentoFiltro, Consumer<LancamentoDTO> consumidor);
+	
+	/** Entrega ao consumidor todos os lancamentos do usuario, inclusive os dos anos arquivados, lidos em stream,
+	 *  e as ocorrencias das recorrencias. */
+	void percorrerHistorico(Long idUsuario, Consumer<LancamentoDTO> consumidor);
+	
 	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 	
+	/** Troca o status com compare-and-set: statusEsperado e versaoEsperada, quando informados, entram no where. */
+	void atualizarStatus(Long id, Long idUsuario, StatusLancamento statusEsperado, StatusLancamento status, Long versaoEsperada);
+	
+	int atualizarStatus(FiltroLancamentoLote filtro, StatusLancamento status);
+	
 	void validar(Lancamento lancamento);
 	
 	Optional<Lancamento> obterPorId(Long id);
 	
+	Optional<Long> obterIdUsuario(Long idLancamento);
+	
 	BigDecimal obterSaldoPorUsuario(Long id);
+	
+	/** Os anos ate o retornado estao arquivados: nao aceitam novos lancamentos nem alteracoes. */
+	Optional<Integer> obterUltimoAnoArquivado();
+	
+	/** Contador de alteracoes dos lancamentos do usuario, lido sem consultar os lancamentos. */
+	Optional<Long> obterAlteracoes(Long idUsuario);
+	
+	List<SaldoMensalDTO> obterSerieSaldoPorUsuario(Long id, YearMonth de, YearMonth ate);
 }
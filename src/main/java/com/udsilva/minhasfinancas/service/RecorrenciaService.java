@@ -0,0 +1,28 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Recorrencia;
+
+public interface RecorrenciaService {
+
+	Recorrencia salvar(Recorrencia recorrencia);
+
+	/** As ocorrencias ja gravadas como lancamento continuam, sem a recorrencia. */
+	void deletar(Recorrencia recorrencia);
+
+	void validar(Recorrencia recorrencia);
+
+	Optional<Recorrencia> obterPorId(Long id);
+
+	List<Recorrencia> buscar(Long idUsuario);
+
+	/** Ocorrencias das recorrencias do usuario que atendem ao filtro (descricao, mes, ano, tipo e status
+	 *  dos lancamentos), calculadas sem gravar lancamentos e ordenadas como as listagens (ChaveLancamento.ORDEM).
+	 *  Ficam de fora os anos arquivados e as parcelas ja gravadas como lancamento; sem ano no filtro, as
+	 *  recorrencias sem fim vao ate dezembro do ano corrente. Todas as ocorrencias sao pendentes. */
+	List<LancamentoDTO> expandir(Lancamento filtro);
+}
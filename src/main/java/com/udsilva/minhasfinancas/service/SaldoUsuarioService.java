@@ -0,0 +1,38 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import com.udsilva.minhasfinancas.api.dto.ConferenciaSaldoDTO;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+
+public interface SaldoUsuarioService {
+
+	void garantirSaldo(Long idUsuario);
+	
+	void somarLancamento(Long idLancamento);
+	
+	/** Deve ser chamado antes da escrita do lancamento: a linha fica bloqueada ate o fim da transacao. */
+	void retirarLancamento(Long idLancamento);
+	
+	void somarLote(FiltroLancamentoLote filtro);
+	
+	/** Como retirarLancamento, para as linhas do lote. */
+	void retirarLote(FiltroLancamentoLote filtro);
+	
+	BigDecimal obterSaldo(Long idUsuario);
+	
+	/** Muda a cada escrita nos lancamentos do usuario e nunca repete um valor anterior. Vazio
+	 *  para usuarios ainda sem linha de saldo. */
+	Optional<Long> obterAlteracoes(Long idUsuario);
+	
+	void registrarAlteracao(LancamentoAlteradoEvent evento);
+	
+	BigDecimal calcularSaldo(Long idUsuario);
+	
+	List<ConferenciaSaldoDTO> conferir();
+	
+	List<ConferenciaSaldoDTO> reconstruir();
+}
@@ -0,0 +1,14 @@
+package com.udsilva.minhasfinancas.service;
+
+import java.util.Optional;
+
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+
+public interface TokenService {
+
+	String gerarToken(Usuario usuario);
+
+	// vazio quando o token nao confere com a assinatura ou ja expirou
+	Optional<Long> obterIdUsuario(String token);
+
+}
@@ -0,0 +1,9 @@
+package com.udsilva.minhasfinancas.service.analise;
+
+public enum AgrupamentoTotais {
+	TOTAL,
+	TIPO,
+	STATUS,
+	MES,
+	ANO
+}
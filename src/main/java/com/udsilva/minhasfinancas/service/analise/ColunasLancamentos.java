@@ -0,0 +1,384 @@
+package com.udsilva.minhasfinancas.service.analise;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+/** Lancamentos de um usuario em colunas de arrays primitivos (cerca de 26 bytes por lancamento): id, valor
+ *  em centavos, periodo (ano * 12 + mes - 1), tipo e status pelo ordinal e a descricao pelo codigo em um
+ *  dicionario das descricoes distintas em minusculas. As escritas acham a linha do id por um indice de
+ *  enderecamento aberto com a posicao de cada linha (de 8 a 16 bytes por lancamento). Os totais percorrem as colunas sem criar objetos
+ *  por linha, divididos em tarefas do fork-join quando o usuario tem muitos lancamentos.
+ *  As consultas compartilham a trava de leitura; as escritas usam a de escrita. */
+public class ColunasLancamentos {
+
+	static final int LINHAS_POR_TAREFA = 1 << 16;
+
+	private static final int CAPACIDADE_INICIAL = 64;
+	private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+	private static final StatusLancamento[] STATUS = StatusLancamento.values();
+
+	private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+	private long[] ids = new long[CAPACIDADE_INICIAL];
+	private long[] centavos = new long[CAPACIDADE_INICIAL];
+	private int[] periodos = new int[CAPACIDADE_INICIAL];
+	private byte[] tipos = new byte[CAPACIDADE_INICIAL];
+	private byte[] situacoes = new byte[CAPACIDADE_INICIAL];
+	private int[] descricoes = new int[CAPACIDADE_INICIAL];
+	private int tamanho;
+
+	// posicao + 1 da linha de cada id, 0 nas casas livres; sondagem linear com no maximo metade ocupada
+	private int[] indice = new int[CAPACIDADE_INICIAL * 2];
+
+	// os periodos so aumentam o intervalo, mesmo quando o lancamento da ponta e removido
+	private int periodoMinimo = Integer.MAX_VALUE;
+	private int periodoMaximo = Integer.MIN_VALUE;
+
+	private final List<String> dicionario = new ArrayList<>();
+	private final Map<String, Integer> codigos = new HashMap<>();
+
+
+	/** Acrescenta sem procurar o id: usado na carga, em que cada lancamento aparece uma vez. */
+	public void adicionar(LancamentoDTO lancamento) {
+		trava.writeLock().lock();
+		try {
+			gravarNaPosicao(novaPosicao(lancamento.getId()), lancamento);
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	/** Inclui ou substitui o lancamento pelo id, procurado no indice. */
+	public void gravar(LancamentoDTO lancamento) {
+		trava.writeLock().lock();
+		try {
+			int posicao = posicao(lancamento.getId());
+			gravarNaPosicao(posicao >= 0 ? posicao : novaPosicao(lancamento.getId()), lancamento);
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	/** O ultimo lancamento ocupa a posicao do removido, a ordem das linhas nao importa para os totais. */
+	public boolean remover(Long id) {
+		trava.writeLock().lock();
+		try {
+			int casa = casa(id);
+			if(casa < 0){
+				return false;
+			}
+			int posicao = indice[casa] - 1;
+			liberar(casa);
+			int ultima = --tamanho;
+			if(posicao == ultima){
+				return true;
+			}
+			indice[casa(ids[ultima])] = posicao + 1;
+			ids[posicao] = ids[ultima];
+			centavos[posicao] = centavos[ultima];
+			periodos[posicao] = periodos[ultima];
+			tipos[posicao] = tipos[ultima];
+			situacoes[posicao] = situacoes[ultima];
+			descricoes[posicao] = descricoes[ultima];
+			return true;
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	public int getTamanho() {
+		trava.readLock().lock();
+		try {
+			return tamanho;
+		} finally {
+			trava.readLock().unlock();
+		}
+	}
+
+	/** Quantidade e soma dos valores dos lancamentos do filtro em cada grupo, na ordem dos grupos
+	 *  (tipo e status pela ordem do enum, meses e anos em ordem crescente). Grupos vazios nao aparecem. */
+	public List<TotalLancamentosDTO> totalizar(FiltroTotais filtro, AgrupamentoTotais agrupamento) {
+		trava.readLock().lock();
+		try {
+			Consulta consulta = new Consulta(filtro, agrupamento);
+			if(consulta.vazia()){
+				return new ArrayList<>();
+			}
+			// as tarefas leem as colunas publicadas antes do fork; as escritas esperam a trava desta thread
+			long[] acumulado = tamanho > LINHAS_POR_TAREFA
+					? ForkJoinPool.commonPool().invoke(new Soma(consulta, 0, tamanho))
+					: consulta.somar(0, tamanho);
+			return consulta.resultado(acumulado);
+		} finally {
+			trava.readLock().unlock();
+		}
+	}
+
+	private int posicao(Long id) {
+		int casa = casa(id);
+		return casa < 0 ? -1 : indice[casa] - 1;
+	}
+
+	// casa do indice ocupada pelo id, ou -1
+	private int casa(long id) {
+		int mascara = indice.length - 1;
+		for(int casa = inicio(id, mascara); indice[casa] != 0; casa = (casa + 1) & mascara){
+			if(ids[indice[casa] - 1] == id){
+				return casa;
+			}
+		}
+		return -1;
+	}
+
+	private void indexar(int posicao) {
+		int mascara = indice.length - 1;
+		int casa = inicio(ids[posicao], mascara);
+		while(indice[casa] != 0){
+			casa = (casa + 1) & mascara;
+		}
+		indice[casa] = posicao + 1;
+	}
+
+	// recua as linhas seguintes da sondagem que podem ocupar a casa liberada, sem deixar buracos no caminho
+	private void liberar(int casa) {
+		int mascara = indice.length - 1;
+		int livre = casa;
+		for(int seguinte = (casa + 1) & mascara; indice[seguinte] != 0; seguinte = (seguinte + 1) & mascara){
+			int inicio = inicio(ids[indice[seguinte] - 1], mascara);
+			if(((seguinte - inicio) & mascara) >= ((seguinte - livre) & mascara)){
+				indice[livre] = indice[seguinte];
+				livre = seguinte;
+			}
+		}
+		indice[livre] = 0;
+	}
+
+	private static int inicio(long id, int mascara) {
+		int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mascara;
+	}
+
+	private int novaPosicao(Long id) {
+		if(tamanho == ids.length){
+			int capacidade = tamanho + (tamanho >> 1);
+			ids = Arrays.copyOf(ids, capacidade);
+			centavos = Arrays.copyOf(centavos, capacidade);
+			periodos = Arrays.copyOf(periodos, capacidade);
+			tipos = Arrays.copyOf(tipos, capacidade);
+			situacoes = Arrays.copyOf(situacoes, capacidade);
+			descricoes = Arrays.copyOf(descricoes, capacidade);
+		}
+		ids[tamanho] = id;
+		int posicao = tamanho++;
+		if(tamanho * 2 > indice.length){
+			indice = new int[indice.length * 2];
+			for(int i = 0; i < tamanho; i++){
+				indexar(i);
+			}
+		} else {
+			indexar(posicao);
+		}
+		return posicao;
+	}
+
+	private void gravarNaPosicao(int posicao, LancamentoDTO lancamento) {
+		int periodo = lancamento.getAno() * 12 + lancamento.getMes() - 1;
+		centavos[posicao] = lancamento.getValor().movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+		periodos[posicao] = periodo;
+		tipos[posicao] = (byte) TipoLancamento.valueOf(lancamento.getTipo()).ordinal();
+		situacoes[posicao] = (byte) StatusLancamento.valueOf(lancamento.getStatus()).ordinal();
+		descricoes[posicao] = codigo(lancamento.getDescricao());
+		periodoMinimo = Math.min(periodoMinimo, periodo);
+		periodoMaximo = Math.max(periodoMaximo, periodo);
+	}
+
+	private int codigo(String descricao) {
+		String minuscula = descricao == null ? "" : descricao.toLowerCase(Locale.ROOT);
+		Integer codigo = codigos.get(minuscula);
+		if(codigo == null){
+			codigo = dicionario.size();
+			dicionario.add(minuscula);
+			codigos.put(minuscula, codigo);
+		}
+		return codigo;
+	}
+
+
+	/** Filtro e agrupamento resolvidos em primitivos antes da varredura: periodos inicial e final, tipo e
+	 *  status pelo ordinal (-1 sem filtro), as descricoes que contem o termo marcadas pelo codigo e o
+	 *  deslocamento e a quantidade de grupos. O acumulado tem a soma e a quantidade de cada grupo. */
+	private final class Consulta {
+
+		private final AgrupamentoTotais agrupamento;
+		private final int de;
+		private final int ate;
+		private final int tipo;
+		private final int status;
+		private final boolean[] descricoesDoTermo;
+		private final int base;
+		private final int grupos;
+
+
+		Consulta(FiltroTotais filtro, AgrupamentoTotais agrupamento) {
+			this.agrupamento = agrupamento;
+			this.de = filtro.getDe() == null ? periodoMinimo : Math.max(periodoMinimo, periodo(filtro.getDe()));
+			this.ate = filtro.getAte() == null ? periodoMaximo : Math.min(periodoMaximo, periodo(filtro.getAte()));
+			this.tipo = filtro.getTipo() == null ? -1 : filtro.getTipo().ordinal();
+			this.status = filtro.getStatus() == null ? -1 : filtro.getStatus().ordinal();
+
+			if(filtro.getTermo() == null || filtro.getTermo().isEmpty()){
+				this.descricoesDoTermo = null;
+			} else {
+				String termo = filtro.getTermo().toLowerCase(Locale.ROOT);
+				this.descricoesDoTermo = new boolean[dicionario.size()];
+				for(int codigo = 0; codigo < descricoesDoTermo.length; codigo++){
+					descricoesDoTermo[codigo] = dicionario.get(codigo).contains(termo);
+				}
+			}
+
+			switch (agrupamento) {
+			case TIPO:
+				base = 0;
+				grupos = TIPOS.length;
+				break;
+			case STATUS:
+				base = 0;
+				grupos = STATUS.length;
+				break;
+			case MES:
+				base = de;
+				grupos = Math.max(ate - de + 1, 0);
+				break;
+			case ANO:
+				base = de / 12;
+				grupos = Math.max(ate / 12 - de / 12 + 1, 0);
+				break;
+			default:
+				base = 0;
+				grupos = 1;
+			}
+		}
+
+		boolean vazia() {
+			return tamanho == 0 || de > ate;
+		}
+
+		long[] somar(int inicio, int fim) {
+			long[] centavos = ColunasLancamentos.this.centavos;
+			int[] periodos = ColunasLancamentos.this.periodos;
+			byte[] tipos = ColunasLancamentos.this.tipos;
+			byte[] situacoes = ColunasLancamentos.this.situacoes;
+			int[] descricoes = ColunasLancamentos.this.descricoes;
+			long[] acumulado = new long[grupos * 2];
+			for(int i = inicio; i < fim; i++){
+				int periodo = periodos[i];
+				if(periodo < de || periodo > ate
+						|| (tipo >= 0 && tipos[i] != tipo)
+						|| (status >= 0 && situacoes[i] != status)
+						|| (descricoesDoTermo != null && !descricoesDoTermo[descricoes[i]])){
+					continue;
+				}
+				int grupo;
+				switch (agrupamento) {
+				case TIPO:
+					grupo = tipos[i];
+					break;
+				case STATUS:
+					grupo = situacoes[i];
+					break;
+				case MES:
+					grupo = periodo - base;
+					break;
+				case ANO:
+					grupo = periodo / 12 - base;
+					break;
+				default:
+					grupo = 0;
+				}
+				acumulado[grupo * 2] += centavos[i];
+				acumulado[grupo * 2 + 1]++;
+			}
+			return acumulado;
+		}
+
+		List<TotalLancamentosDTO> resultado(long[] acumulado) {
+			List<TotalLancamentosDTO> totais = new ArrayList<>();
+			for(int grupo = 0; grupo < grupos; grupo++){
+				long quantidade = acumulado[grupo * 2 + 1];
+				if(quantidade > 0){
+					totais.add(new TotalLancamentosDTO(nome(grupo), quantidade, BigDecimal.valueOf(acumulado[grupo * 2], 2)));
+				}
+			}
+			return totais;
+		}
+
+		private String nome(int grupo) {
+			switch (agrupamento) {
+			case TIPO:
+				return TIPOS[grupo].name();
+			case STATUS:
+				return STATUS[grupo].name();
+			case MES:
+				int periodo = base + grupo;
+				return YearMonth.of(periodo / 12, periodo % 12 + 1).toString();
+			case ANO:
+				return String.valueOf(base + grupo);
+			default:
+				return "total";
+			}
+		}
+
+		private int periodo(YearMonth mes) {
+			return mes.getYear() * 12 + mes.getMonthValue() - 1;
+		}
+	}
+
+
+	private static final class Soma extends RecursiveTask<long[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Consulta consulta;
+		private final int inicio;
+		private final int fim;
+
+
+		Soma(Consulta consulta, int inicio, int fim) {
+			this.consulta = consulta;
+			this.inicio = inicio;
+			this.fim = fim;
+		}
+
+		@Override
+		protected long[] compute() {
+			if(fim - inicio <= LINHAS_POR_TAREFA){
+				return consulta.somar(inicio, fim);
+			}
+			int meio = (inicio + fim) >>> 1;
+			Soma esquerda = new Soma(consulta, inicio, meio);
+			esquerda.fork();
+			long[] direita = new Soma(consulta, meio, fim).compute();
+			long[] acumulado = esquerda.join();
+			for(int i = 0; i < acumulado.length; i++){
+				acumulado[i] += direita[i];
+			}
+			return acumulado;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.udsilva.minhasfinancas.service.analise;
+
+import java.time.YearMonth;
+
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Criterios dos totais: os atributos nulos nao filtram. O termo e procurado em qualquer posicao
+ *  da descricao, sem diferenciar caixa. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroTotais {
+
+	private TipoLancamento tipo;
+	private StatusLancamento status;
+	private YearMonth de;
+	private YearMonth ate;
+	private String termo;
+}
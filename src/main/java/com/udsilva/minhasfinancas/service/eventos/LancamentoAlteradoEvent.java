@@ -0,0 +1,21 @@
+package com.udsilva.minhasfinancas.service.eventos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Publicado pelas operacoes de escrita de lancamento. Os ouvintes que mantem dados
+ *  derivados em memoria devem usar @TransactionalEventListener, para reagir somente apos o commit. */
+@Data
+@AllArgsConstructor
+public class LancamentoAlteradoEvent {
+
+	private Long idUsuario;
+	
+	// o lancamento criado, alterado ou excluido; nulo nas escritas de varios lancamentos (lote, importacao)
+	private Long idLancamento;
+	
+	
+	public LancamentoAlteradoEvent(Long idUsuario) {
+		this(idUsuario, null);
+	}
+}
@@ -0,0 +1,9 @@
+package com.udsilva.minhasfinancas.service.exceptions;
+
+/** O registro mudou desde a versao (ou o status) informada na atualizacao. */
+public class ConflitoAtualizacaoException extends RuntimeException {
+
+	public ConflitoAtualizacaoException(String msg){
+		super(msg);
+	}
+}
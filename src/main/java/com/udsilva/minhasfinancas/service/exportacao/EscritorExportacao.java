@@ -0,0 +1,31 @@
+package com.udsilva.minhasfinancas.service.exportacao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+
+/** Grava os lancamentos um a um a medida que sao lidos, sem manter a lista em memoria. As colunas sao
+ *  id, ano, mes, descricao, valor, tipo e status. */
+public interface EscritorExportacao extends Closeable {
+
+	void escrever(LancamentoDTO lancamento) throws IOException;
+
+	/** Termina o arquivo na saida, depois do ultimo lancamento. */
+	void concluir() throws IOException;
+
+	/** Libera os recursos do escritor (arquivos temporarios), sem fechar a saida. */
+	@Override
+	void close() throws IOException;
+
+
+	static EscritorExportacao de(FormatoExportacao formato, OutputStream saida) {
+		switch (formato) {
+		case XLSX:
+			return new EscritorExportacaoXlsx(saida);
+		default:
+			return new EscritorExportacaoCsv(saida);
+		}
+	}
+}
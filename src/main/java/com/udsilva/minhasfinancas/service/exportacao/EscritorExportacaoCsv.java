@@ -0,0 +1,75 @@
+package com.udsilva.minhasfinancas.service.exportacao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+
+/** CSV em UTF-8 (com BOM, para o Excel reconhecer os acentos) separado por ',' e com ponto decimal,
+ *  no formato aceito por LeitorExtratoCsv: o arquivo exportado pode ser importado de volta. */
+public class EscritorExportacaoCsv implements EscritorExportacao {
+
+	private static final String CABECALHO = "\uFEFFid,ano,mes,descricao,valor,tipo,status\r\n";
+
+	private final Writer escritor;
+	private boolean iniciado;
+
+
+	public EscritorExportacaoCsv(OutputStream saida) {
+		this.escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+	}
+
+
+	@Override
+	public void escrever(LancamentoDTO lancamento) throws IOException {
+		iniciar();
+		if(lancamento.getId() != null){ // ocorrencias de recorrencias nao tem id
+			escritor.write(lancamento.getId().toString());
+		}
+		escritor.write(',');
+		escritor.write(String.valueOf(lancamento.getAno()));
+		escritor.write(',');
+		escritor.write(String.valueOf(lancamento.getMes()));
+		escritor.write(',');
+		escritor.write(campo(lancamento.getDescricao()));
+		escritor.write(',');
+		escritor.write(lancamento.getValor().toPlainString());
+		escritor.write(',');
+		escritor.write(lancamento.getTipo());
+		escritor.write(',');
+		escritor.write(lancamento.getStatus());
+		escritor.write("\r\n");
+	}
+
+	@Override
+	public void concluir() throws IOException {
+		iniciar();
+		escritor.flush();
+	}
+
+	@Override
+	public void close() {
+	}
+
+	private void iniciar() throws IOException {
+		if(!iniciado){
+			escritor.write(CABECALHO);
+			iniciado = true;
+		}
+	}
+
+	// entre aspas quando tem separador, aspas ou quebra de linha, com as aspas duplicadas
+	private static String campo(String texto) {
+		if(texto == null){
+			return "";
+		}
+		if(texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0){
+			return texto;
+		}
+		return '"' + texto.replace("\"", "\"\"") + '"';
+	}
+}
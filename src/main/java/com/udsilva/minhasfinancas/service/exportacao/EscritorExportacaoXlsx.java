@@ -0,0 +1,89 @@
+package com.udsilva.minhasfinancas.service.exportacao;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+
+/** Planilha xlsx gravada com o SXSSF: so as ultimas linhas ficam em memoria, as anteriores vao para um
+ *  arquivo temporario compactado. Passando do limite de linhas do Excel os lancamentos continuam em
+ *  outra aba. A planilha so vai para a saida em concluir, quando ja foi toda lida. */
+public class EscritorExportacaoXlsx implements EscritorExportacao {
+
+	private static final int LINHAS_EM_MEMORIA = 100;
+	private static final int ULTIMA_LINHA = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+	private static final String[] COLUNAS = { "id", "ano", "mes", "descricao", "valor", "tipo", "status" };
+
+	private final OutputStream saida;
+	private final SXSSFWorkbook planilha;
+	private final CellStyle estiloCabecalho;
+	private final CellStyle estiloValor;
+
+	private SXSSFSheet aba;
+	private int linha;
+
+
+	public EscritorExportacaoXlsx(OutputStream saida) {
+		this.saida = saida;
+		this.planilha = new SXSSFWorkbook(LINHAS_EM_MEMORIA);
+		planilha.setCompressTempFiles(true);
+
+		Font negrito = planilha.createFont();
+		negrito.setBold(true);
+		estiloCabecalho = planilha.createCellStyle();
+		estiloCabecalho.setFont(negrito);
+		estiloValor = planilha.createCellStyle();
+		estiloValor.setDataFormat(planilha.createDataFormat().getFormat("#,##0.00"));
+
+		novaAba();
+	}
+
+
+	@Override
+	public void escrever(LancamentoDTO lancamento) {
+		if(linha > ULTIMA_LINHA){
+			novaAba();
+		}
+		Row row = aba.createRow(linha++);
+		if(lancamento.getId() != null){ // ocorrencias de recorrencias nao tem id
+			row.createCell(0).setCellValue(lancamento.getId());
+		}
+		row.createCell(1).setCellValue(lancamento.getAno());
+		row.createCell(2).setCellValue(lancamento.getMes());
+		row.createCell(3).setCellValue(lancamento.getDescricao());
+		row.createCell(4).setCellValue(lancamento.getValor().doubleValue());
+		row.getCell(4).setCellStyle(estiloValor);
+		row.createCell(5).setCellValue(lancamento.getTipo());
+		row.createCell(6).setCellValue(lancamento.getStatus());
+	}
+
+	@Override
+	public void concluir() throws IOException {
+		planilha.write(saida);
+		saida.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		planilha.dispose();
+		planilha.close();
+	}
+
+	private void novaAba() {
+		int numero = planilha.getNumberOfSheets() + 1;
+		aba = planilha.createSheet(numero == 1 ? "lancamentos" : "lancamentos " + numero);
+		Row cabecalho = aba.createRow(0);
+		for(int i = 0; i < COLUNAS.length; i++){
+			cabecalho.createCell(i).setCellValue(COLUNAS[i]);
+			cabecalho.getCell(i).setCellStyle(estiloCabecalho);
+		}
+		linha = 1;
+	}
+}
@@ -0,0 +1,22 @@
+package com.udsilva.minhasfinancas.service.exportacao;
+
+public enum FormatoExportacao {
+	CSV("text/csv;charset=UTF-8", "csv"),
+	XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+	private final String contentType;
+	private final String extensao;
+
+	FormatoExportacao(String contentType, String extensao) {
+		this.contentType = contentType;
+		this.extensao = extensao;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public String getExtensao() {
+		return extensao;
+	}
+}
@@ -0,0 +1,124 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.AnaliseLancamentoService;
+import com.udsilva.minhasfinancas.service.analise.AgrupamentoTotais;
+import com.udsilva.minhasfinancas.service.analise.ColunasLancamentos;
+import com.udsilva.minhasfinancas.service.analise.FiltroTotais;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+
+
+/** Totais calculados sobre as colunas em memoria dos usuarios consultados mais recentemente. As colunas
+ *  do usuario sao carregadas na primeira consulta e acompanham as escritas de lancamento depois do commit;
+ *  o total de linhas em memoria e limitado descartando os usuarios consultados ha mais tempo. */
+@Service
+public class AnaliseLancamentoServiceImpl implements AnaliseLancamentoService {
+
+	private static final int FAIXAS_ALTERACOES = 256;
+
+	private LancamentoRepository repository;
+
+	private final long linhasEmMemoria;
+
+	private final Map<Long, ColunasLancamentos> colunas = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true));
+
+	// alteracoes por faixa de usuarios: colunas carregadas durante uma escrita do usuario (ou de outro
+	// usuario da mesma faixa) nao sao guardadas
+	private final AtomicLongArray alteracoes = new AtomicLongArray(FAIXAS_ALTERACOES);
+
+
+	public AnaliseLancamentoServiceImpl(LancamentoRepository repository,
+			@Value("${minhasfinancas.analise.linhas-em-memoria:2000000}") long linhasEmMemoria) {
+		this.repository = repository;
+		this.linhasEmMemoria = linhasEmMemoria;
+	}
+
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<TotalLancamentosDTO> totalizar(Long idUsuario, FiltroTotais filtro, AgrupamentoTotais agrupamento) {
+		ColunasLancamentos colunasUsuario = colunas.get(idUsuario);
+		if(colunasUsuario == null){
+			long alteracoesAntes = alteracoes.get(faixa(idUsuario));
+			colunasUsuario = carregar(idUsuario);
+			guardar(idUsuario, colunasUsuario, alteracoesAntes);
+		}
+		return colunasUsuario.totalizar(filtro, agrupamento);
+	}
+
+	// depois do commit a leitura ainda usa a conexao da escrita (o primario), ja com o lancamento gravado.
+	// As escritas de varios lancamentos (lote, importacao) nao informam o lancamento: as colunas sao descartadas
+	@TransactionalEventListener
+	public void sincronizar(LancamentoAlteradoEvent evento) {
+		Long idUsuario = evento.getIdUsuario();
+		ColunasLancamentos colunasUsuario;
+		synchronized (colunas) {
+			alteracoes.incrementAndGet(faixa(idUsuario));
+			colunasUsuario = colunas.get(idUsuario);
+		}
+		if(colunasUsuario == null){
+			return;
+		}
+		if(evento.getIdLancamento() == null){
+			colunas.remove(idUsuario);
+			return;
+		}
+
+		Optional<LancamentoDTO> lancamento = repository.obterDTOPorId(evento.getIdLancamento())
+				.filter(l -> idUsuario.equals(l.getUsuario()));
+		if(lancamento.isPresent()){
+			colunasUsuario.gravar(lancamento.get());
+		} else {
+			colunasUsuario.remover(evento.getIdLancamento());
+		}
+	}
+
+	private ColunasLancamentos carregar(Long idUsuario) {
+		ColunasLancamentos novas = new ColunasLancamentos();
+		try(Stream<LancamentoDTO> lancamentos = repository.buscarStreamHistorico(idUsuario)){
+			lancamentos.forEach(novas::adicionar);
+		}
+		return novas;
+	}
+
+	// sob a mesma trava de sincronizar: ou a escrita ja encontra as colunas guardadas, ou elas nao sao guardadas.
+	// Um usuario maior que o limite e totalizado sem ficar em memoria
+	private void guardar(Long idUsuario, ColunasLancamentos novas, long alteracoesAntes) {
+		if(novas.getTamanho() > linhasEmMemoria){
+			return;
+		}
+		synchronized (colunas) {
+			if(alteracoes.get(faixa(idUsuario)) != alteracoesAntes){
+				return;
+			}
+			colunas.put(idUsuario, novas);
+			long linhas = colunas.values().stream().mapToLong(ColunasLancamentos::getTamanho).sum();
+			Iterator<ColunasLancamentos> maisAntigas = colunas.values().iterator();
+			while(linhas > linhasEmMemoria){
+				ColunasLancamentos descartadas = maisAntigas.next();
+				linhas -= descartadas.getTamanho();
+				maisAntigas.remove();
+			}
+		}
+	}
+
+	private static int faixa(Long idUsuario) {
+		return (int) Math.floorMod(idUsuario, (long) FAIXAS_ALTERACOES);
+	}
+}
@@ -0,0 +1,86 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.udsilva.minhasfinancas.model.entity.AnoArquivado;
+import com.udsilva.minhasfinancas.model.repository.AnoArquivadoRepository;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.ArquivamentoService;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/** Quase todo o acesso e aos lancamentos do ano corrente e do anterior: os anos fechados saem da
+ *  tabela lancamento e o saldo e a serie mensal passam a le-los dos resumos mensais. O saldo
+ *  materializado nao muda, pois os lancamentos continuam os mesmos. */
+@Slf4j
+@Service
+public class ArquivamentoServiceImpl implements ArquivamentoService {
+
+	private AnoArquivadoRepository repository;
+	private LancamentoRepository lancamentoRepository;
+	private int anosRecentes;
+	
+	
+	public ArquivamentoServiceImpl(AnoArquivadoRepository repository, LancamentoRepository lancamentoRepository,
+			@Value("${minhasfinancas.arquivo.anos-recentes:2}") int anosRecentes) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.anosRecentes = anosRecentes;
+	}
+	
+	
+	// as escritas ficam bloqueadas ate o commit: o arquivamento deve rodar fora do horario de uso
+	@Override
+	@Transactional
+	public List<AnoArquivado> arquivarAte(int ano) {
+		int ultimoFechado = Year.now().getValue() - anosRecentes;
+		if(ano > ultimoFechado) {
+			throw new RegraNegocioException("Somente os anos até " + ultimoFechado + " podem ser arquivados.");
+		}
+		
+		repository.bloquearEscritas();
+		Integer ultimoArquivado = repository.obterUltimoAnoArquivado().orElse(null);
+		int inicio = ultimoArquivado != null
+				? ultimoArquivado + 1
+				: Math.min(lancamentoRepository.obterPrimeiroAno().orElse(ano), ano);
+		
+		List<AnoArquivado> arquivados = new ArrayList<>();
+		for(int atual = inicio; atual <= ano; atual++) {
+			repository.registrarAlteracoes(atual);
+			repository.resumir(atual);
+			int copiados = repository.copiar(atual);
+			repository.remover(atual);
+			arquivados.add(repository.save(new AnoArquivado(atual, (long) copiados, LocalDateTime.now())));
+			log.info("Ano {} arquivado: {} lancamentos", atual, copiados);
+		}
+		return arquivados;
+	}
+	
+	@Override
+	@Transactional
+	@Scheduled(cron = "${minhasfinancas.arquivo.cron}")
+	public List<AnoArquivado> arquivarAnosFechados() {
+		int anoCorrente = Year.now().getValue();
+		for(int ano = anoCorrente; ano <= anoCorrente + 1; ano++) {
+			if(!repository.garantirParticao(ano)) {
+				log.warn("A particao de {} nao foi criada: a particao padrao ja tem lancamentos do ano", ano);
+			}
+		}
+		
+		int ultimoFechado = anoCorrente - anosRecentes;
+		Integer ultimoArquivado = repository.obterUltimoAnoArquivado().orElse(null);
+		Integer primeiroAno = lancamentoRepository.obterPrimeiroAno().orElse(null);
+		boolean pendente = ultimoArquivado != null ? ultimoArquivado < ultimoFechado
+				: primeiroAno != null && primeiroAno <= ultimoFechado;
+		return pendente ? arquivarAte(ultimoFechado) : new ArrayList<>();
+	}
+}
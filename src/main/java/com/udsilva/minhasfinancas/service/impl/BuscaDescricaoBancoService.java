@@ -0,0 +1,33 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.udsilva.minhasfinancas.api.dto.SugestaoDescricaoDTO;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.BuscaDescricaoService;
+
+
+/** Busca pelas descricoes no indice textual do banco (pg_trgm no PostgreSQL, palavras completas no H2). */
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.busca.descricao.indice", havingValue = "banco", matchIfMissing = true)
+public class BuscaDescricaoBancoService implements BuscaDescricaoService {
+
+	private LancamentoRepository repository;
+	
+	
+	public BuscaDescricaoBancoService(LancamentoRepository repository) {
+		this.repository = repository;
+	}
+	
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<SugestaoDescricaoDTO> sugerir(Long idUsuario, String termo, int limite) {
+		return repository.sugerirDescricoes(idUsuario, termo, limite);
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.udsilva.minhasfinancas.api.dto.SugestaoDescricaoDTO;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.BuscaDescricaoService;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+
+
+/** Busca pelas descricoes em um indice de trigramas mantido em memoria para os usuarios
+ *  mais recentes. O indice do usuario e descartado quando seus lancamentos sao alterados
+ *  e reconstruido na proxima busca. */
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.busca.descricao.indice", havingValue = "memoria")
+public class BuscaDescricaoMemoriaService implements BuscaDescricaoService {
+
+	private LancamentoRepository repository;
+	
+	private final Map<Long, IndiceNgram> indices;
+	
+	// incrementado a cada descarte, evita guardar um indice construido antes de uma alteracao
+	private final AtomicLong descartes = new AtomicLong();
+	
+	
+	public BuscaDescricaoMemoriaService(LancamentoRepository repository,
+			@Value("${minhasfinancas.busca.descricao.usuarios-em-memoria:1000}") int usuariosEmMemoria) {
+		this.repository = repository;
+		this.indices = Collections.synchronizedMap(new LinkedHashMap<Long, IndiceNgram>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, IndiceNgram> eldest) {
+				return size() > usuariosEmMemoria;
+			}
+		});
+	}
+	
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<SugestaoDescricaoDTO> sugerir(Long idUsuario, String termo, int limite) {
+		IndiceNgram indice = indices.get(idUsuario);
+		if(indice == null){
+			long descartesAntes = descartes.get();
+			indice = construirIndice(idUsuario);
+			if(descartes.get() == descartesAntes){
+				indices.put(idUsuario, indice);
+			}
+		}
+		return indice.sugerir(termo, limite);
+	}
+	
+	@TransactionalEventListener
+	public void descartarIndice(LancamentoAlteradoEvent evento) {
+		descartes.incrementAndGet();
+		indices.remove(evento.getIdUsuario());
+	}
+	
+	private IndiceNgram construirIndice(Long idUsuario) {
+		Map<String, Long> ocorrencias = new HashMap<>();
+		for(Object[] linha : repository.contarDescricoesPorUsuario(idUsuario)){
+			if(linha[0] != null){
+				ocorrencias.put((String) linha[0], (Long) linha[1]);
+			}
+		}
+		return new IndiceNgram(ocorrencias);
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.service.ConsultaCompartilhadaService;
+import com.udsilva.minhasfinancas.service.LancamentoService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+
+/** A primeira chamada de uma chave executa a consulta e as que chegam enquanto ela esta em andamento aguardam
+ *  o mesmo resultado. A chave sai do mapa assim que a consulta termina: o resultado nao fica guardado.
+ *  Executadas e compartilhadas sao contadas em minhasfinancas.consultas (tags consulta e resultado). */
+@Service
+public class ConsultaCompartilhadaServiceImpl implements ConsultaCompartilhadaService {
+
+	private static final String SALDO = "saldo";
+	private static final String LISTAGEM = "listagem";
+
+	private LancamentoService lancamentoService;
+
+	private final Map<ChaveConsulta, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+	private final Map<String, Counter> executadas = new ConcurrentHashMap<>();
+	private final Map<String, Counter> compartilhadas = new ConcurrentHashMap<>();
+
+
+	public ConsultaCompartilhadaServiceImpl(LancamentoService lancamentoService, MeterRegistry registry) {
+		this.lancamentoService = lancamentoService;
+		for(String consulta : new String[] { SALDO, LISTAGEM }){
+			executadas.put(consulta, contador(registry, consulta, "executada"));
+			compartilhadas.put(consulta, contador(registry, consulta, "compartilhada"));
+		}
+	}
+
+
+	@Override
+	public BigDecimal obterSaldoPorUsuario(Long idUsuario, Optional<Long> alteracoes) {
+		ChaveConsulta chave = new ChaveConsulta(SALDO, idUsuario, alteracoes.orElse(null), null, null, null, null, null);
+		return executar(chave, () -> lancamentoService.obterSaldoPorUsuario(idUsuario));
+	}
+
+	// a descricao e comparada sem diferenciar caixa: "Aluguel" e "aluguel" sao a mesma consulta
+	@Override
+	public List<LancamentoDTO> listar(Lancamento filtro, Optional<Long> alteracoes) {
+		ChaveConsulta chave = new ChaveConsulta(LISTAGEM, filtro.getUsuario().getId(), alteracoes.orElse(null),
+				filtro.getDescricao() == null ? null : filtro.getDescricao().toLowerCase(),
+				filtro.getMes(), filtro.getAno(), filtro.getTipo(), filtro.getStatus());
+		return executar(chave, () -> Collections.unmodifiableList(lancamentoService.listar(filtro)));
+	}
+
+	// dentro de uma transacao a consulta precisa ver as escritas ainda sem commit dela, e nao e compartilhada
+	@SuppressWarnings("unchecked")
+	private <T> T executar(ChaveConsulta chave, Supplier<T> consulta) {
+		if(TransactionSynchronizationManager.isActualTransactionActive()){
+			return consulta.get();
+		}
+
+		CompletableFuture<Object> nova = new CompletableFuture<>();
+		CompletableFuture<Object> existente = emAndamento.putIfAbsent(chave, nova);
+		if(existente != null){
+			compartilhadas.get(chave.getConsulta()).increment();
+			return (T) aguardar(existente);
+		}
+
+		executadas.get(chave.getConsulta()).increment();
+		try {
+			T resultado = consulta.get();
+			emAndamento.remove(chave, nova);
+			nova.complete(resultado);
+			return resultado;
+		} catch (RuntimeException | Error e) {
+			emAndamento.remove(chave, nova);
+			nova.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	// quem aguarda recebe a mesma excecao da chamada que executou a consulta
+	private static Object aguardar(CompletableFuture<Object> consulta) {
+		try {
+			return consulta.join();
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}
+			if(e.getCause() instanceof Error){
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private static Counter contador(MeterRegistry registry, String consulta, String resultado) {
+		return Counter.builder("minhasfinancas.consultas")
+				.description("Consultas de saldo e listagem executadas ou compartilhadas com uma chamada igual em andamento")
+				.tag("consulta", consulta)
+				.tag("resultado", resultado)
+				.register(registry);
+	}
+
+	@Value
+	private static class ChaveConsulta {
+		String consulta;
+		Long idUsuario;
+		Long alteracoes;
+		String descricao;
+		Integer mes;
+		Integer ano;
+		TipoLancamento tipo;
+		StatusLancamento status;
+	}
+}
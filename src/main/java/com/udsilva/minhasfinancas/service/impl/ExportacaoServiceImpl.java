@@ -0,0 +1,53 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Service;
+
+import com.udsilva.minhasfinancas.service.ExportacaoService;
+import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.exportacao.EscritorExportacao;
+import com.udsilva.minhasfinancas.service.exportacao.FormatoExportacao;
+
+
+@Service
+public class ExportacaoServiceImpl implements ExportacaoService {
+
+	private static final int TAMANHO_BUFFER_GZIP = 8192;
+
+	private LancamentoService lancamentoService;
+
+
+	public ExportacaoServiceImpl(LancamentoService lancamentoService) {
+		this.lancamentoService = lancamentoService;
+	}
+
+
+	/** Sem transacao aqui: a conexao fica aberta so enquanto percorrerHistorico le o stream (transacao
+	 *  readOnly, que vai para a replica quando houver). No csv cada linha segue para a saida assim que e
+	 *  lida; no xlsx as linhas vao para o arquivo temporario do SXSSF e a planilha e enviada depois que
+	 *  a conexao ja voltou ao pool. */
+	@Override
+	public void exportar(Long idUsuario, FormatoExportacao formato, boolean gzip, OutputStream saida) throws IOException {
+		GZIPOutputStream compactada = gzip ? new GZIPOutputStream(saida, TAMANHO_BUFFER_GZIP) : null;
+		try(EscritorExportacao escritor = EscritorExportacao.de(formato, compactada != null ? compactada : saida)){
+			lancamentoService.percorrerHistorico(idUsuario, lancamento -> {
+				try {
+					escritor.escrever(lancamento);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			escritor.concluir();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		if(compactada != null){
+			compactada.finish();
+		}
+	}
+}
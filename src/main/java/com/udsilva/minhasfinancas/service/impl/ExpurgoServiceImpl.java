@@ -0,0 +1,49 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.ExpurgoService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/** A exclusao do usuario (logica) e um UPDATE por lancamento ou por lote; a remocao das linhas fica para
+ *  o expurgo, em transacoes curtas de ate um lote cada: uma exclusao grande nao segura bloqueios nem
+ *  acumula uma transacao longa. Saldo, listagens e ETags ja refletem a exclusao, o expurgo nao os altera. */
+@Slf4j
+@Service
+public class ExpurgoServiceImpl implements ExpurgoService {
+
+	private LancamentoRepository repository;
+	private TransactionTemplate transacao;
+	private int tamanhoLote;
+	
+	
+	public ExpurgoServiceImpl(LancamentoRepository repository, PlatformTransactionManager transactionManager,
+			@Value("${minhasfinancas.exclusao.expurgo.lote:1000}") int tamanhoLote) {
+		this.repository = repository;
+		this.transacao = new TransactionTemplate(transactionManager);
+		this.tamanhoLote = tamanhoLote;
+	}
+	
+	
+	@Override
+	@Scheduled(cron = "${minhasfinancas.exclusao.expurgo.cron:-}")
+	public int expurgarExcluidos() {
+		int total = 0;
+		int removidos;
+		do {
+			removidos = transacao.execute(status -> repository.removerExcluidos(tamanhoLote));
+			total += removidos;
+		} while(removidos == tamanhoLote);
+		
+		if(total > 0) {
+			log.info("Expurgo: {} lancamentos excluidos removidos", total);
+		}
+		return total;
+	}
+}
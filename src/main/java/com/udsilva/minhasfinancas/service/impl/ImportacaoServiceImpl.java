@@ -0,0 +1,136 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.udsilva.minhasfinancas.api.dto.ErroImportacaoDTO;
+import com.udsilva.minhasfinancas.api.dto.ResultadoImportacaoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.ImportacaoService;
+import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+import com.udsilva.minhasfinancas.service.importacao.FormatoExtrato;
+import com.udsilva.minhasfinancas.service.importacao.LeitorExtrato;
+
+
+@Service
+public class ImportacaoServiceImpl implements ImportacaoService {
+
+	static final int TAMANHO_LOTE = 500;
+	static final int MAXIMO_ERROS_DETALHADOS = 1000;
+	
+	// limites das colunas descricao varchar(255) e valor numeric(19,2)
+	static final int TAMANHO_DESCRICAO = 255;
+	static final int DIGITOS_INTEIROS_VALOR = 17;
+	static final int CASAS_DECIMAIS_VALOR = 2;
+	
+	private LancamentoRepository repository;
+	private LancamentoService lancamentoService;
+	private ApplicationEventPublisher eventPublisher;
+	
+	
+	public ImportacaoServiceImpl(LancamentoRepository repository, LancamentoService lancamentoService,
+			ApplicationEventPublisher eventPublisher) {
+		this.repository = repository;
+		this.lancamentoService = lancamentoService;
+		this.eventPublisher = eventPublisher;
+	}
+	
+	
+	/** Os lancamentos validos sao inseridos em lotes JDBC a medida que o extrato e lido, todos como
+	 *  PENDENTE (como em LancamentoService.salvar), por isso o saldo do usuario nao muda. */
+	@Override
+	@Transactional
+	public ResultadoImportacaoDTO importar(Long idUsuario, FormatoExtrato formato, InputStream entrada, Charset charset) {
+		long inicio = System.nanoTime();
+		Usuario usuario = Usuario.builder().id(idUsuario).build();
+		LocalDate dataCadastro = LocalDate.now();
+		Integer ultimoAnoArquivado = lancamentoService.obterUltimoAnoArquivado().orElse(null);
+		
+		List<Lancamento> lote = new ArrayList<>(TAMANHO_LOTE);
+		List<ErroImportacaoDTO> erros = new ArrayList<>();
+		long[] contadores = new long[2]; // importados, rejeitados
+		
+		LeitorExtrato.Consumidor consumidor = new LeitorExtrato.Consumidor() {
+			
+			@Override
+			public void lancamento(int linha, Lancamento lancamento) {
+				lancamento.setUsuario(usuario);
+				try {
+					lancamentoService.validar(lancamento);
+					validar(lancamento);
+				} catch (RegraNegocioException e) {
+					erro(linha, e.getMessage());
+					return;
+				}
+				if(ultimoAnoArquivado != null && lancamento.getAno() <= ultimoAnoArquivado){
+					erro(linha, "O ano " + lancamento.getAno() + " está arquivado.");
+					return;
+				}
+				lancamento.setStatus(StatusLancamento.PENDENTE);
+				lancamento.setDataCadastro(dataCadastro);
+				lote.add(lancamento);
+				if(lote.size() == TAMANHO_LOTE){
+					contadores[0] += repository.inserirEmLote(lote);
+					lote.clear();
+				}
+			}
+			
+			@Override
+			public void erro(int linha, String mensagem) {
+				contadores[1]++;
+				if(erros.size() < MAXIMO_ERROS_DETALHADOS){
+					erros.add(new ErroImportacaoDTO(linha, mensagem));
+				}
+			}
+		};
+		
+		try {
+			LeitorExtrato.de(formato).ler(new InputStreamReader(entrada, charset), consumidor);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if(!lote.isEmpty()){
+			contadores[0] += repository.inserirEmLote(lote);
+		}
+		
+		if(contadores[0] > 0){
+			eventPublisher.publishEvent(new LancamentoAlteradoEvent(idUsuario));
+		}
+		
+		long duracaoNanos = System.nanoTime() - inicio;
+		long linhasPorSegundo = duracaoNanos == 0 ? 0 : (contadores[0] + contadores[1]) * 1_000_000_000L / duracaoNanos;
+		return new ResultadoImportacaoDTO(contadores[0], contadores[1], duracaoNanos / 1_000_000, linhasPorSegundo, erros);
+	}
+	
+	/** Uma linha fora dos limites das colunas falharia no insert do lote inteiro: ela e rejeitada aqui,
+	 *  como as demais linhas invalidas. */
+	private void validar(Lancamento lancamento) {
+		if(lancamento.getDescricao().length() > TAMANHO_DESCRICAO){
+			throw new RegraNegocioException("A descrição deve ter no máximo " + TAMANHO_DESCRICAO + " caracteres.");
+		}
+		BigDecimal valor = lancamento.getValor();
+		if(valor.precision() - valor.scale() > DIGITOS_INTEIROS_VALOR){
+			throw new RegraNegocioException("O valor deve ter no máximo " + DIGITOS_INTEIROS_VALOR + " dígitos inteiros.");
+		}
+		if(valor.stripTrailingZeros().scale() > CASAS_DECIMAIS_VALOR){
+			throw new RegraNegocioException("O valor deve ter no máximo " + CASAS_DECIMAIS_VALOR + " casas decimais.");
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.udsilva.minhasfinancas.api.dto.SugestaoDescricaoDTO;
+
+/** Indice invertido de trigramas das descricoes de um usuario. Imutavel depois de construido. */
+class IndiceNgram {
+
+	private static final int N = 3;
+	
+	private final Map<String, Long> ocorrencias;
+	private final Map<String, String> minusculas;
+	private final Map<String, List<String>> descricoesPorTrigrama = new HashMap<>();
+	
+	
+	IndiceNgram(Map<String, Long> ocorrenciasPorDescricao) {
+		this.ocorrencias = ocorrenciasPorDescricao;
+		this.minusculas = new HashMap<>();
+		for(String descricao : ocorrenciasPorDescricao.keySet()){
+			String minuscula = descricao.toLowerCase(Locale.ROOT);
+			minusculas.put(descricao, minuscula);
+			for(String trigrama : trigramas(minuscula)){
+				descricoesPorTrigrama.computeIfAbsent(trigrama, t -> new ArrayList<>()).add(descricao);
+			}
+		}
+	}
+	
+	
+	/** Descricoes que contem o termo: prefixo da descricao, prefixo de palavra e depois qualquer posicao,
+	 *  desempatando pela quantidade de lancamentos com a descricao. */
+	List<SugestaoDescricaoDTO> sugerir(String termo, int limite) {
+		String termoMinusculo = termo.toLowerCase(Locale.ROOT);
+		
+		return candidatos(termoMinusculo).stream()
+				.filter(descricao -> minusculas.get(descricao).contains(termoMinusculo))
+				.map(descricao -> new SugestaoDescricaoDTO(descricao, 
+						relevancia(minusculas.get(descricao), termoMinusculo), ocorrencias.get(descricao)))
+				.sorted(Comparator.comparing(SugestaoDescricaoDTO::getRelevancia).reversed()
+						.thenComparing(Comparator.comparing(SugestaoDescricaoDTO::getOcorrencias).reversed()))
+				.limit(limite)
+				.collect(Collectors.toList());
+	}
+	
+	// a menor lista de postings dentre os trigramas do termo ja contem todos os candidatos
+	private Collection<String> candidatos(String termo) {
+		if(termo.length() < N){
+			return ocorrencias.keySet();
+		}
+		
+		Collection<String> menor = null;
+		for(String trigrama : trigramas(termo)){
+			List<String> descricoes = descricoesPorTrigrama.get(trigrama);
+			if(descricoes == null){
+				return new HashSet<>();
+			}
+			if(menor == null || descricoes.size() < menor.size()){
+				menor = descricoes;
+			}
+		}
+		return menor;
+	}
+	
+	private static double relevancia(String descricao, String termo) {
+		if(descricao.startsWith(termo)){
+			return 3;
+		}
+		if(descricao.contains(" " + termo)){
+			return 2;
+		}
+		return 1;
+	}
+	
+	private static Set<String> trigramas(String texto) {
+		Set<String> trigramas = new HashSet<>();
+		for(int i = 0; i + N <= texto.length(); i++){
+			trigramas.add(texto.substring(i, i + N));
+		}
+		return trigramas;
+	}
+}
@@ -1,57 +1,171 @@
 package com.udsilva.minhasfinancas.service.impl;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.ExampleMatcher.StringMatcher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO;
 import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Recorrencia;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
 import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
 import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.AnoArquivadoRepository;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
 import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
 import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.RecorrenciaService;
+import com.udsilva.minhasfinancas.service.SaldoUsuarioService;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+import com.udsilva.minhasfinancas.service.exceptions.ConflitoAtualizacaoException;
 import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
 
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
 
+	private static final int LIMITE_IDS_LOTE = 1000;
+
 	private LancamentoRepository repository;
+	private SaldoUsuarioService saldoService;
+	private AnoArquivadoRepository anoArquivadoRepository;
+	private ApplicationEventPublisher eventPublisher;
+	private RecorrenciaService recorrenciaService;
+	private boolean exclusaoLogica;
 	
 	
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoService,
+			AnoArquivadoRepository anoArquivadoRepository, ApplicationEventPublisher eventPublisher,
+			RecorrenciaService recorrenciaService,
+			@Value("${minhasfinancas.exclusao.logica:false}") boolean exclusaoLogica) {
 	  this.repository = repository;
+	  this.saldoService = saldoService;
+	  this.anoArquivadoRepository = anoArquivadoRepository;
+	  this.eventPublisher = eventPublisher;
+	  this.recorrenciaService = recorrenciaService;
+	  this.exclusaoLogica = exclusaoLogica;
 	}
 	
 	
+	// o saldo materializado e atualizado na mesma transacao: a contribuicao anterior
+	// do lancamento e retirada antes da escrita e a nova e somada depois dela
 	@Override 
 	@Transactional
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
+		validarAnoAberto(lancamento.getAno());
 		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		saldoService.garantirSaldo(lancamento.getUsuario().getId());
+		Lancamento lancamentoSalvo = repository.saveAndFlush(lancamento);
+		saldoService.somarLancamento(lancamentoSalvo.getId());
+		eventPublisher.publishEvent(new LancamentoAlteradoEvent(lancamento.getUsuario().getId(), lancamentoSalvo.getId()));
+		return lancamentoSalvo;
+	}
+	
+	// a ocorrencia gravada segue o caminho de um lancamento novo (saldo, eventos); o indice unico
+	// (id_recorrencia, parcela, ano) impede gravar a mesma parcela duas vezes
+	@Override
+	@Transactional
+	public Lancamento alterarOcorrencia(Long idRecorrencia, Integer parcela, Lancamento alteracao) {
+		Long idUsuario = alteracao.getUsuario().getId();
+		Recorrencia recorrencia = recorrenciaService.obterPorId(idRecorrencia)
+				.filter(r -> r.getUsuario().getId().equals(idUsuario))
+				.orElseThrow(() -> new RegraNegocioException("Recorrência não encontrada na base de dados."));
+		if(parcela == null || !recorrencia.temParcela(parcela)){
+			throw new RegraNegocioException("Informe uma parcela da recorrência.");
+		}
+		Optional<Lancamento> gravada = repository.findByIdRecorrenciaAndParcela(idRecorrencia, parcela);
+		if(gravada.isPresent()){
+			throw new RegraNegocioException("A parcela já foi alterada, altere o lancamento " + gravada.get().getId() + ".");
+		}
+		
+		YearMonth mes = recorrencia.mesDaParcela(parcela);
+		Lancamento ocorrencia = salvar(Lancamento.builder()
+				.descricao(alteracao.getDescricao() != null ? alteracao.getDescricao() : recorrencia.getDescricao())
+				.valor(alteracao.getValor() != null ? alteracao.getValor() : recorrencia.getValor())
+				.tipo(recorrencia.getTipo())
+				.mes(mes.getMonthValue())
+				.ano(mes.getYear())
+				.usuario(alteracao.getUsuario())
+				.dataCadastro(LocalDate.now())
+				.idRecorrencia(idRecorrencia)
+				.parcela(parcela)
+				.build());
+		if(alteracao.getStatus() != null && alteracao.getStatus() != StatusLancamento.PENDENTE){
+			atualizarStatus(ocorrencia, alteracao.getStatus());
+		}
+		return ocorrencia;
 	}
 
 	@Override
 	@Transactional
 	public Lancamento atualizar(Lancamento lancamento) {
+		return atualizar(lancamento, lancamento.getVersao());
+	}
+	
+	// sem merge: o UPDATE grava direto na linha, condicionado ao dono e a versao. Se nada for alterado
+	// a contribuicao retirada do saldo e devolvida antes do erro
+	@Override
+	@Transactional
+	public Lancamento atualizar(Lancamento lancamento, Long versaoEsperada) {
 		Objects.requireNonNull(lancamento.getId());
 		validar(lancamento);
-		return repository.save(lancamento);
+		validarAnoAberto(lancamento.getAno());
+		Long idUsuario = lancamento.getUsuario().getId();
+		saldoService.garantirSaldo(idUsuario);
+		saldoService.retirarLancamento(lancamento.getId());
+		if(repository.atualizar(lancamento, versaoEsperada) == 0){
+			saldoService.somarLancamento(lancamento.getId());
+			throw falhaNaAtualizacao(lancamento.getId(), idUsuario);
+		}
+		saldoService.somarLancamento(lancamento.getId());
+		
+		// desanexado: a nova versao so e conhecida quando a esperada foi informada
+		lancamento.setVersao(versaoEsperada == null ? null : versaoEsperada + 1);
+		repository.sincronizar(lancamento);
+		eventPublisher.publishEvent(new LancamentoAlteradoEvent(idUsuario, lancamento.getId()));
+		return lancamento;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
-		repository.delete(lancamento);
-		
+		deletar(lancamento.getId(), lancamento.getUsuario().getId());
+	}
+	
+	// como na atualizacao: a contribuicao e retirada antes da instrucao e devolvida se nada foi excluido.
+	// Na exclusao logica o saldo ja fica sem o lancamento; o expurgo nao muda saldo nem listagens
+	@Override
+	@Transactional
+	public void deletar(Long id, Long idUsuario) {
+		saldoService.garantirSaldo(idUsuario);
+		saldoService.retirarLancamento(id);
+		if(repository.excluir(id, idUsuario, exclusaoLogica) == 0){
+			saldoService.somarLancamento(id);
+			throw new RegraNegocioException("Lancamento não encontrado na base de dados.");
+		}
+		eventPublisher.publishEvent(new LancamentoAlteradoEvent(idUsuario, id));
 	}
 
 	@Override
@@ -66,6 +180,70 @@ public class LancamentoServiceImpl implements LancamentoService {
 		return repository.findAll(example);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoDTO> listar(Lancamento lancamentoFiltro) {
+		List<LancamentoDTO> lancamentos = repository.listar(lancamentoFiltro);
+		List<LancamentoDTO> ocorrencias = recorrenciaService.expandir(lancamentoFiltro);
+		if(ocorrencias.isEmpty()){
+			return lancamentos;
+		}
+		List<LancamentoDTO> todos = new ArrayList<>(lancamentos);
+		todos.addAll(ocorrencias);
+		todos.sort(ChaveLancamento.ORDEM);
+		return todos;
+	}
+
+	// a pagina tem os primeiros entre os lancamentos gravados da pagina e as ocorrencias depois do cursor.
+	// Cursor em uma ocorrencia: os lancamentos gravados do mesmo mes ja foram entregues
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoDTO> buscarPagina(Lancamento lancamentoFiltro, ChaveLancamento apos, int limite) {
+		ChaveLancamento aposGravados = apos == null || apos.getId() != null ? apos
+				: new ChaveLancamento(apos.getAno(), apos.getMes(), Long.MAX_VALUE);
+		List<LancamentoDTO> gravados = repository.buscarPagina(lancamentoFiltro, aposGravados, limite);
+		List<LancamentoDTO> ocorrencias = recorrenciaService.expandir(lancamentoFiltro);
+		if(ocorrencias.isEmpty()){
+			return gravados;
+		}
+		return Stream.concat(gravados.stream(), ocorrencias.stream().filter(o -> apos == null || apos.antecede(o)))
+				.sorted(ChaveLancamento.ORDEM)
+				.limit(limite)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void percorrer(Lancamento lancamentoFiltro, Consumer<LancamentoDTO> consumidor) {
+		List<LancamentoDTO> ocorrencias = recorrenciaService.expandir(lancamentoFiltro);
+		try(Stream<LancamentoDTO> lancamentos = repository.buscarStream(lancamentoFiltro)){
+			intercalar(lancamentos, ocorrencias, consumidor);
+		}
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public void percorrerHistorico(Long idUsuario, Consumer<LancamentoDTO> consumidor) {
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(idUsuario).build()).build();
+		List<LancamentoDTO> ocorrencias = recorrenciaService.expandir(filtro);
+		try(Stream<LancamentoDTO> lancamentos = repository.buscarStreamHistorico(idUsuario)){
+			intercalar(lancamentos, ocorrencias, consumidor);
+		}
+	}
+	
+	// os lancamentos continuam em stream: cada ocorrencia (ja ordenada) e entregue antes do primeiro
+	// lancamento que vem depois dela. Com forEach, pois o iterator do flatMap le a consulta inteira no Java 8
+	private static void intercalar(Stream<LancamentoDTO> lancamentos, List<LancamentoDTO> ocorrencias, Consumer<LancamentoDTO> consumidor) {
+		Deque<LancamentoDTO> pendentes = new ArrayDeque<>(ocorrencias);
+		lancamentos.forEach(lancamento -> {
+			while(!pendentes.isEmpty() && ChaveLancamento.ORDEM.compare(pendentes.peekFirst(), lancamento) < 0){
+				consumidor.accept(pendentes.pollFirst());
+			}
+			consumidor.accept(lancamento);
+		});
+		pendentes.forEach(consumidor);
+	}
+
 
 
 
@@ -107,10 +285,99 @@ public class LancamentoServiceImpl implements LancamentoService {
 	
 
 	@Override
+	@Transactional
 	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
-        lancamento.setStatus(status);
-        atualizar(lancamento);
+		atualizarStatus(lancamento.getId(), lancamento.getUsuario().getId(), null, status, lancamento.getVersao());
+		repository.sincronizar(lancamento);
+	}
+	
+	@Override
+	@Transactional
+	public void atualizarStatus(Long id, Long idUsuario, StatusLancamento statusEsperado, StatusLancamento status, Long versaoEsperada) {
+		if(status == null) {
+			throw new RegraNegocioException("Informe um Status válido.");
+		}
+		
+		saldoService.garantirSaldo(idUsuario);
+		saldoService.retirarLancamento(id);
+		if(repository.trocarStatus(id, idUsuario, statusEsperado, status, versaoEsperada) == 0){
+			saldoService.somarLancamento(id);
+			throw falhaNaAtualizacao(id, idUsuario);
+		}
+		saldoService.somarLancamento(id);
+		eventPublisher.publishEvent(new LancamentoAlteradoEvent(idUsuario, id));
+	}
+	
+	// os lancamentos dos anos arquivados ja estao nos resumos mensais e nao mudam mais
+	private void validarAnoAberto(Integer ano) {
+		Optional<Integer> ultimoArquivado = obterUltimoAnoArquivado();
+		if(ultimoArquivado.isPresent() && ano <= ultimoArquivado.get()) {
+			throw new RegraNegocioException("Os lancamentos até " + ultimoArquivado.get() + " estão arquivados e não podem ser alterados.");
+		}
+	}
+	
+	// so depois de um UPDATE sem efeito: distingue o lancamento inexistente (ou de outro usuario) do alterado
+	private RuntimeException falhaNaAtualizacao(Long id, Long idUsuario) {
+		if(!repository.existsByIdAndUsuarioId(id, idUsuario)) {
+			return new RegraNegocioException("Lancamento não encontrado na base de dados.");
+		}
+		return new ConflitoAtualizacaoException("O lancamento foi alterado por outra operação. Obtenha a versão atual e tente novamente.");
+	}
+	
+	// os lancamentos do lote nao mudam de usuario, ano, mes ou tipo, entao o filtro
+	// seleciona as mesmas linhas antes e depois do UPDATE: a contribuicao delas e
+	// retirada do saldo antes e somada de novo depois, como na escrita individual
+	@Override
+	@Transactional
+	public int atualizarStatus(FiltroLancamentoLote filtro, StatusLancamento status) {
+		if(status == null) {
+			throw new RegraNegocioException("Informe um Status válido.");
+		}
+		if(!filtro.isRestrito()) {
+			throw new RegraNegocioException("Informe os lancamentos ou o usuário da atualização em lote.");
+		}
+		if(filtro.getIds() != null && filtro.getIds().size() > LIMITE_IDS_LOTE) {
+			throw new RegraNegocioException("Informe no máximo " + LIMITE_IDS_LOTE + " lancamentos por lote.");
+		}
+		
+		List<Long> usuarios = filtro.getIdUsuario() != null
+				? Collections.singletonList(filtro.getIdUsuario())
+				: repository.buscarUsuariosDoLote(filtro);
+		usuarios.forEach(saldoService::garantirSaldo);
+		
+		saldoService.retirarLote(filtro);
+		int atualizados = repository.atualizarStatusEmLote(filtro, status);
+		saldoService.somarLote(filtro);
+		
+		if(atualizados > 0) {
+			usuarios.forEach(usuario -> eventPublisher.publishEvent(new LancamentoAlteradoEvent(usuario)));
+		}
+		return atualizados;
+	}
+
+
+	@Override
+	@Transactional
+	public int deletar(FiltroLancamentoLote filtro) {
+		if(!filtro.isRestrito()) {
+			throw new RegraNegocioException("Informe os lancamentos ou o usuário da exclusão em lote.");
+		}
+		if(filtro.getIds() != null && filtro.getIds().size() > LIMITE_IDS_LOTE) {
+			throw new RegraNegocioException("Informe no máximo " + LIMITE_IDS_LOTE + " lancamentos por lote.");
+		}
 		
+		List<Long> usuarios = filtro.getIdUsuario() != null
+				? Collections.singletonList(filtro.getIdUsuario())
+				: repository.buscarUsuariosDoLote(filtro);
+		usuarios.forEach(saldoService::garantirSaldo);
+		
+		saldoService.retirarLote(filtro);
+		int excluidos = repository.excluirEmLote(filtro, exclusaoLogica);
+		
+		if(excluidos > 0) {
+			usuarios.forEach(usuario -> eventPublisher.publishEvent(new LancamentoAlteradoEvent(usuario)));
+		}
+		return excluidos;
 	}
 
 
@@ -119,22 +386,52 @@ public class LancamentoServiceImpl implements LancamentoService {
 		return repository.findById(id);
 	}
 
+	@Override
+	public Optional<Long> obterIdUsuario(Long idLancamento) {
+		return repository.obterIdUsuario(idLancamento);
+	}
+
 
 	@Override
 	@Transactional(readOnly=true)
 	public BigDecimal obterSaldoPorUsuario(Long id) {
-       BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-       BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
-        
-       if(receitas == null){
-    	   receitas = BigDecimal.ZERO;
-       }
-       
-       if(despesas == null){
-    	   despesas = BigDecimal.ZERO;
-       }
-       
-       return receitas.subtract(despesas);
+       return saldoService.obterSaldo(id);
+	}
+
+	@Override
+	public Optional<Integer> obterUltimoAnoArquivado() {
+		return anoArquivadoRepository.obterUltimoAnoArquivado();
+	}
+
+	@Override
+	public Optional<Long> obterAlteracoes(Long idUsuario) {
+		return saldoService.obterAlteracoes(idUsuario);
+	}
+
+
+	@Override
+	@Transactional(readOnly=true)
+	public List<SaldoMensalDTO> obterSerieSaldoPorUsuario(Long id, YearMonth de, YearMonth ate) {
+		if(de.isAfter(ate)){
+			throw new RegraNegocioException("O mês inicial deve ser anterior ao mês final.");
+		}
+		
+		// os anos arquivados vem dos resumos e sao todos anteriores aos da tabela de lancamentos
+		List<SaldoMensalDTO> meses = new ArrayList<>(repository.obterSaldosMensaisArquivadosAte(id, ate.getYear(), ate.getMonthValue()));
+		meses.addAll(repository.obterSaldosMensaisAte(id, ate.getYear(), ate.getMonthValue(),
+				TipoLancamento.RECEITA, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO));
+		
+		// os meses anteriores ao periodo entram somente no saldo acumulado
+		List<SaldoMensalDTO> serie = new ArrayList<>();
+		BigDecimal saldo = BigDecimal.ZERO;
+		for(SaldoMensalDTO mes : meses){
+			saldo = saldo.add(mes.getReceitas()).subtract(mes.getDespesas());
+			if(!YearMonth.of(mes.getAno(), mes.getMes()).isBefore(de)){
+				mes.setSaldo(saldo);
+				serie.add(mes);
+			}
+		}
+		return serie;
 	}
 	
 	
@@ -0,0 +1,211 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Recorrencia;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.repository.AnoArquivadoRepository;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.model.repository.RecorrenciaRepository;
+import com.udsilva.minhasfinancas.service.RecorrenciaService;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+
+
+/** As recorrencias sao poucas por usuario: as ocorrencias sao calculadas a cada listagem a partir
+ *  delas, no lugar de uma linha de lancamento por mes. Criar ou excluir uma recorrencia muda as
+ *  listagens do usuario, por isso publica LancamentoAlteradoEvent (ETags, eventos, dados em memoria). */
+@Service
+public class RecorrenciaServiceImpl implements RecorrenciaService {
+
+	private RecorrenciaRepository repository;
+	private LancamentoRepository lancamentoRepository;
+	private AnoArquivadoRepository anoArquivadoRepository;
+	private ApplicationEventPublisher eventPublisher;
+
+
+	public RecorrenciaServiceImpl(RecorrenciaRepository repository, LancamentoRepository lancamentoRepository,
+			AnoArquivadoRepository anoArquivadoRepository, ApplicationEventPublisher eventPublisher) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.anoArquivadoRepository = anoArquivadoRepository;
+		this.eventPublisher = eventPublisher;
+	}
+
+
+	@Override
+	@Transactional
+	public Recorrencia salvar(Recorrencia recorrencia) {
+		validar(recorrencia);
+		recorrencia.setDataCadastro(LocalDate.now());
+		Recorrencia recorrenciaSalva = repository.save(recorrencia);
+		eventPublisher.publishEvent(new LancamentoAlteradoEvent(recorrencia.getUsuario().getId()));
+		return recorrenciaSalva;
+	}
+
+	@Override
+	@Transactional
+	public void deletar(Recorrencia recorrencia) {
+		lancamentoRepository.desvincularRecorrencia(recorrencia.getId());
+		repository.delete(recorrencia);
+		eventPublisher.publishEvent(new LancamentoAlteradoEvent(recorrencia.getUsuario().getId()));
+	}
+
+	@Override
+	public void validar(Recorrencia recorrencia) {
+
+		if(recorrencia.getDescricao() == null || recorrencia.getDescricao().trim().equals("")){
+			throw new RegraNegocioException("Informe uma descricao válida.");
+		}
+
+		if(!mesValido(recorrencia.getMes())){
+			throw new RegraNegocioException("Informe um mês válido.");
+		}
+
+		if(recorrencia.getAno() == null || recorrencia.getAno().toString().length() != 4){
+			throw new RegraNegocioException("Informe um ano válido.");
+		}
+
+		if(recorrencia.getUsuario() == null || recorrencia.getUsuario().getId() == null){
+			throw new RegraNegocioException("Informe um usuário.");
+		}
+
+		if(recorrencia.getValor() == null || recorrencia.getValor().compareTo(BigDecimal.ZERO) < 1){
+			throw new RegraNegocioException("Informe um valor válido.");
+		}
+
+		if(recorrencia.getTipo() == null){
+			throw new RegraNegocioException("Informe um tipo de lancamento.");
+		}
+
+		// termina pelas parcelas ou pelo mes final, nunca pelos dois
+		boolean temFim = recorrencia.getMesFim() != null || recorrencia.getAnoFim() != null;
+		if(recorrencia.getParcelas() != null && temFim){
+			throw new RegraNegocioException("Informe o número de parcelas ou o mês final, não os dois.");
+		}
+
+		if(recorrencia.getParcelas() != null && recorrencia.getParcelas() < 1){
+			throw new RegraNegocioException("Informe um número de parcelas válido.");
+		}
+
+		if(temFim && (!mesValido(recorrencia.getMesFim()) || recorrencia.getAnoFim() == null
+				|| recorrencia.mesFinal().get().isBefore(recorrencia.mesInicial()))){
+			throw new RegraNegocioException("Informe um mês final a partir do mês inicial.");
+		}
+
+		Optional<Integer> ultimoArquivado = anoArquivadoRepository.obterUltimoAnoArquivado();
+		if(ultimoArquivado.isPresent() && recorrencia.getAno() <= ultimoArquivado.get()) {
+			throw new RegraNegocioException("Os lancamentos até " + ultimoArquivado.get() + " estão arquivados e não podem ser alterados.");
+		}
+	}
+
+	@Override
+	public Optional<Recorrencia> obterPorId(Long id) {
+		return repository.findById(id);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Recorrencia> buscar(Long idUsuario) {
+		return repository.findByUsuarioIdOrderById(idUsuario);
+	}
+
+	// sem recorrencias (o caso comum) a listagem paga so a consulta pelo indice do usuario
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoDTO> expandir(Lancamento filtro) {
+		if(filtro.getStatus() != null && filtro.getStatus() != StatusLancamento.PENDENTE){
+			return Collections.emptyList();
+		}
+		Long idUsuario = filtro.getUsuario().getId();
+		List<Recorrencia> recorrencias = repository.findByUsuarioIdOrderById(idUsuario);
+		if(recorrencias.isEmpty()){
+			return Collections.emptyList();
+		}
+
+		Optional<YearMonth> primeiroMesAberto = anoArquivadoRepository.obterUltimoAnoArquivado().map(ano -> YearMonth.of(ano + 1, 1));
+		YearMonth limiteSemFim = YearMonth.of(filtro.getAno() != null ? filtro.getAno() : Year.now().getValue(), 12);
+		String descricao = filtro.getDescricao() == null ? null : filtro.getDescricao().toLowerCase();
+		Map<Long, Set<Integer>> gravadas = buscarParcelasGravadas(idUsuario);
+
+		List<LancamentoDTO> ocorrencias = new ArrayList<>();
+		for(Recorrencia recorrencia : recorrencias){
+			if((filtro.getTipo() != null && filtro.getTipo() != recorrencia.getTipo())
+					|| (descricao != null && !recorrencia.getDescricao().toLowerCase().contains(descricao))){
+				continue;
+			}
+
+			YearMonth inicio = recorrencia.mesInicial();
+			YearMonth fim = recorrencia.mesFinal().orElse(limiteSemFim);
+			if(filtro.getAno() != null){
+				inicio = maior(inicio, YearMonth.of(filtro.getAno(), 1));
+				fim = menor(fim, YearMonth.of(filtro.getAno(), 12));
+			}
+			if(primeiroMesAberto.isPresent()){
+				inicio = maior(inicio, primeiroMesAberto.get());
+			}
+
+			Set<Integer> parcelasGravadas = gravadas.getOrDefault(recorrencia.getId(), Collections.emptySet());
+			for(YearMonth mes = inicio; !mes.isAfter(fim); mes = mes.plusMonths(1)){
+				int parcela = recorrencia.parcelaDoMes(mes);
+				if((filtro.getMes() == null || filtro.getMes() == mes.getMonthValue()) && !parcelasGravadas.contains(parcela)){
+					ocorrencias.add(ocorrencia(recorrencia, mes, parcela));
+				}
+			}
+		}
+		ocorrencias.sort(ChaveLancamento.ORDEM);
+		return ocorrencias;
+	}
+
+	private Map<Long, Set<Integer>> buscarParcelasGravadas(Long idUsuario) {
+		Map<Long, Set<Integer>> gravadas = new HashMap<>();
+		for(Object[] linha : lancamentoRepository.buscarParcelasGravadas(idUsuario)){
+			gravadas.computeIfAbsent((Long) linha[0], id -> new HashSet<>()).add((Integer) linha[1]);
+		}
+		return gravadas;
+	}
+
+	private static LancamentoDTO ocorrencia(Recorrencia recorrencia, YearMonth mes, int parcela) {
+		return LancamentoDTO.builder()
+				.descricao(recorrencia.getDescricao())
+				.mes(mes.getMonthValue())
+				.ano(mes.getYear())
+				.valor(recorrencia.getValor())
+				.usuario(recorrencia.getUsuario().getId())
+				.tipo(recorrencia.getTipo().name())
+				.status(StatusLancamento.PENDENTE.name())
+				.recorrencia(recorrencia.getId())
+				.parcela(parcela)
+				.build();
+	}
+
+	private static boolean mesValido(Integer mes) {
+		return mes != null && mes >= 1 && mes <= 12;
+	}
+
+	private static YearMonth maior(YearMonth um, YearMonth outro) {
+		return um.isAfter(outro) ? um : outro;
+	}
+
+	private static YearMonth menor(YearMonth um, YearMonth outro) {
+		return um.isBefore(outro) ? um : outro;
+	}
+}
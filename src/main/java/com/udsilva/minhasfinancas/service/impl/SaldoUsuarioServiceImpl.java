@@ -0,0 +1,152 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.udsilva.minhasfinancas.api.dto.ConferenciaSaldoDTO;
+import com.udsilva.minhasfinancas.model.entity.SaldoUsuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.udsilva.minhasfinancas.service.SaldoUsuarioService;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+
+
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+	private SaldoUsuarioRepository repository;
+	private LancamentoRepository lancamentoRepository;
+	
+	
+	public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+	}
+	
+	
+	/** Deve ser chamado antes de alterar os lancamentos do usuario, pois a linha 
+	 *  de saldo e criada com a soma dos lancamentos efetivados ate o momento. */
+	@Override
+	@Transactional
+	public void garantirSaldo(Long idUsuario) {
+		if(!repository.existsById(idUsuario)){
+			repository.inicializar(idUsuario);
+		}
+	}
+
+	@Override
+	@Transactional
+	public void somarLancamento(Long idLancamento) {
+		repository.aplicarContribuicao(idLancamento, 1);
+	}
+
+	// a contribuicao e lida do lancamento dentro da instrucao: sem o bloqueio, duas escritas simultaneas do
+	// mesmo lancamento retirariam as duas o valor anterior (READ COMMITTED) e o saldo ficaria divergente.
+	// A segunda espera o commit da primeira e le o valor que ela gravou
+	@Override
+	@Transactional
+	public void retirarLancamento(Long idLancamento) {
+		lancamentoRepository.bloquear(idLancamento);
+		repository.aplicarContribuicao(idLancamento, -1);
+	}
+	
+	@Override
+	@Transactional
+	public void somarLote(FiltroLancamentoLote filtro) {
+		repository.aplicarContribuicaoDoLote(filtro, 1);
+	}
+	
+	@Override
+	@Transactional
+	public void retirarLote(FiltroLancamentoLote filtro) {
+		lancamentoRepository.bloquearLote(filtro);
+		repository.aplicarContribuicaoDoLote(filtro, -1);
+	}
+
+	/** Usuarios sem linha de saldo (cadastrados antes do saldo materializado e ainda
+	 *  sem escritas) tem o saldo calculado a partir dos lancamentos. */
+	@Override
+	@Transactional(readOnly = true)
+	public BigDecimal obterSaldo(Long idUsuario) {
+		return repository.obterSaldo(idUsuario)
+				.orElseGet(() -> calcularSaldo(idUsuario));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Long> obterAlteracoes(Long idUsuario) {
+		return repository.obterAlteracoes(idUsuario);
+	}
+	
+	// na mesma transacao da escrita (nao e um dado em memoria): o ETag so muda junto com o commit.
+	// Sem linha de saldo (ex: exclusao antes de qualquer outra escrita) a linha e criada, ja com um valor novo
+	@Override
+	@EventListener
+	@Transactional
+	public void registrarAlteracao(LancamentoAlteradoEvent evento) {
+		if(repository.registrarAlteracao(evento.getIdUsuario()) == 0){
+			garantirSaldo(evento.getIdUsuario());
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public BigDecimal calcularSaldo(Long idUsuario) {
+       BigDecimal receitas = lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+       BigDecimal despesas = lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+        
+       if(receitas == null){
+    	   receitas = BigDecimal.ZERO;
+       }
+       
+       if(despesas == null){
+    	   despesas = BigDecimal.ZERO;
+       }
+       
+       return receitas.subtract(despesas).add(lancamentoRepository.obterSaldoArquivado(idUsuario));
+	}
+
+	/** Retorna os usuarios cujo saldo registrado diverge do calculado a partir dos lancamentos
+	 *  e dos resumos dos anos arquivados. */
+	@Override
+	@Transactional(readOnly = true)
+	public List<ConferenciaSaldoDTO> conferir() {
+		Map<Long, BigDecimal> calculados = new HashMap<>();
+		lancamentoRepository
+			.calcularSaldosPorUsuario(TipoLancamento.RECEITA, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO)
+			.forEach(saldo -> calculados.put(saldo.getIdUsuario(), saldo.getSaldo()));
+		for(Object[] arquivado : lancamentoRepository.calcularSaldosArquivadosPorUsuario()){
+			calculados.merge(((Number) arquivado[0]).longValue(), (BigDecimal) arquivado[1], BigDecimal::add);
+		}
+		
+		List<ConferenciaSaldoDTO> divergencias = new ArrayList<>();
+		for(SaldoUsuario registrado : repository.findAll()){
+			BigDecimal calculado = calculados.getOrDefault(registrado.getIdUsuario(), BigDecimal.ZERO);
+			if(registrado.getSaldo().compareTo(calculado) != 0){
+				divergencias.add(new ConferenciaSaldoDTO(registrado.getIdUsuario(), registrado.getSaldo(), calculado));
+			}
+		}
+		return divergencias;
+	}
+
+	@Override
+	@Transactional
+	public List<ConferenciaSaldoDTO> reconstruir() {
+		List<ConferenciaSaldoDTO> divergencias = conferir();
+		repository.removerTodos();
+		repository.reconstruirTodos();
+		return divergencias;
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.udsilva.minhasfinancas.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.service.TokenService;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/** Token jwt assinado com hmac (HS256): o id do usuario vai no subject e a validacao
+ *  e feita so com a chave, sem consultar o banco. */
+@Service
+public class TokenServiceImpl implements TokenService {
+
+	// o HS256 exige chave de ao menos 256 bits
+	static final int BYTES_MINIMOS_CHAVE = 32;
+
+	private final SecretKey chave;
+	private final Duration expiracao;
+	private final Clock relogio;
+
+	@Autowired
+	public TokenServiceImpl(
+			@Value("${minhasfinancas.token.chave}") String chave,
+			@Value("${minhasfinancas.token.expiracao-minutos}") long expiracaoMinutos) {
+		this(Keys.hmacShaKeyFor(decodificarChave(chave)), Duration.ofMinutes(expiracaoMinutos), Clock.systemUTC());
+	}
+
+	/** Usado nos testes para controlar o relogio da expiracao. */
+	public TokenServiceImpl(SecretKey chave, Duration expiracao, Clock relogio) {
+		this.chave = chave;
+		this.expiracao = expiracao;
+		this.relogio = relogio;
+	}
+
+
+	/** Sem chave padrao: a aplicacao nao sobe sem MINHASFINANCAS_TOKEN_CHAVE ou com uma chave curta. */
+	private static byte[] decodificarChave(String chave) {
+		if(chave == null || chave.trim().isEmpty()){
+			throw new IllegalStateException("Informe a chave do token em MINHASFINANCAS_TOKEN_CHAVE (minhasfinancas.token.chave).");
+		}
+		byte[] bytes;
+		try {
+			bytes = Base64.getDecoder().decode(chave.trim());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException("A chave do token deve estar em base64.", e);
+		}
+		if(bytes.length < BYTES_MINIMOS_CHAVE){
+			throw new IllegalStateException("A chave do token deve ter ao menos " + (BYTES_MINIMOS_CHAVE * 8) + " bits.");
+		}
+		return bytes;
+	}
+
+
+	@Override
+	public String gerarToken(Usuario usuario) {
+		Instant agora = relogio.instant();
+		return Jwts.builder()
+				.setSubject(usuario.getId().toString())
+				.setIssuedAt(Date.from(agora))
+				.setExpiration(Date.from(agora.plus(expiracao)))
+				.signWith(chave, SignatureAlgorithm.HS256)
+				.compact();
+	}
+
+	@Override
+	public Optional<Long> obterIdUsuario(String token) {
+		try {
+			String subject = Jwts.parser()
+					.setSigningKey(chave)
+					.setClock(() -> Date.from(relogio.instant()))
+					.parseClaimsJws(token)
+					.getBody()
+					.getSubject();
+			return Optional.of(Long.valueOf(subject));
+
+		} catch (JwtException | IllegalArgumentException e) {
+			return Optional.empty();
+
+		}
+	}
+
+}
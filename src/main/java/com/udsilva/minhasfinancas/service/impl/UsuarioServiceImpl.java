@@ -1,10 +1,17 @@
 package com.udsilva.minhasfinancas.service.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.udsilva.minhasfinancas.config.CacheConfiguration;
 import com.udsilva.minhasfinancas.model.entity.Usuario;
 import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
 import com.udsilva.minhasfinancas.service.UsuarioService;
@@ -15,13 +22,18 @@ import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
 
+	// prefixo dos hashes bcrypt ($2a$, $2b$, $2y$); o que nao comeca assim e senha legada em texto puro
+	private static final String PREFIXO_BCRYPT = "$2";
+	
 	private UsuarioRepository repository;
+	private PasswordEncoder encoder;
 	
 	/** Esse metodo sera necessário para uso do mockito nos testes unitarios
 	 *  na simulação do repository */	
-	public UsuarioServiceImpl(UsuarioRepository repository) {
+	public UsuarioServiceImpl(UsuarioRepository repository, PasswordEncoder encoder) {
 		super();
 		this.repository = repository;
+		this.encoder = encoder;
 	}
 	
 
@@ -33,17 +45,39 @@ public class UsuarioServiceImpl implements UsuarioService {
     	  throw new ErroAutenticacao("Usuário não encontrado para o email informado.");
       }
       
-      if(!usuario.get().getSenha().equals(senha)){
+      String senhaGravada = usuario.get().getSenha();
+      boolean legada = senhaGravada == null || !senhaGravada.startsWith(PREFIXO_BCRYPT);
+      
+      boolean confere = legada ? confereSenhaLegada(senha, senhaGravada) : encoder.matches(senha, senhaGravada);
+      if(!confere){
     	  throw new ErroAutenticacao("Senha inválida.");
       }
       
+      // senha em texto puro ou hash com custo menor que o configurado: grava o hash novo
+      if(legada || encoder.upgradeEncoding(senhaGravada)){
+    	  repository.atualizarSenha(usuario.get(), encoder.encode(senha));
+      }
+      
       return usuario.get();
 	}
+	
+	private boolean confereSenhaLegada(String senha, String senhaGravada) {
+		if(senha == null || senhaGravada == null){
+			return false;
+		}
+		return MessageDigest.isEqual(senha.getBytes(StandardCharsets.UTF_8), senhaGravada.getBytes(StandardCharsets.UTF_8));
+	}
 
 	@Override
+	@Caching(evict = {
+			@CacheEvict(value = CacheConfiguration.USUARIOS, key = "#result.id"),
+			@CacheEvict(value = CacheConfiguration.USUARIOS_POR_EMAIL, key = "#result.email") })
 	@Transactional // abre a transação, salva o usuario, comita e fecha a transacao 
 	public Usuario salvarUsuario(Usuario usuario) {
         validarEmail(usuario.getEmail());
+        if(usuario.getSenha() != null){
+        	usuario.setSenha(encoder.encode(usuario.getSenha()));
+        }
 		return repository.save(usuario);
 	}
 
@@ -57,7 +91,9 @@ public class UsuarioServiceImpl implements UsuarioService {
 	}
 
 
+	// o Optional vazio nao e guardado: o id pode ser cadastrado depois
 	@Override
+	@Cacheable(value = CacheConfiguration.USUARIOS, unless = "#result == null")
 	public Optional<Usuario> obterPorId(Long id) {
 		return repository.findById(id);
 	}
@@ -0,0 +1,6 @@
+package com.udsilva.minhasfinancas.service.importacao;
+
+public enum FormatoExtrato {
+	CSV,
+	OFX
+}
@@ -0,0 +1,29 @@
+package com.udsilva.minhasfinancas.service.importacao;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+
+/** Le um extrato em stream, entregando cada transacao assim que ela e lida, sem carregar o arquivo em memoria. */
+public interface LeitorExtrato {
+
+	void ler(Reader entrada, Consumidor consumidor) throws IOException;
+	
+	
+	interface Consumidor {
+		
+		void lancamento(int linha, Lancamento lancamento);
+		
+		void erro(int linha, String mensagem);
+	}
+	
+	static LeitorExtrato de(FormatoExtrato formato) {
+		switch (formato) {
+		case OFX:
+			return new LeitorExtratoOfx();
+		default:
+			return new LeitorExtratoCsv();
+		}
+	}
+}
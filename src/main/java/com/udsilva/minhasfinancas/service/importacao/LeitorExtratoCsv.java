@@ -0,0 +1,113 @@
+package com.udsilva.minhasfinancas.service.importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+/** CSV com cabecalho contendo as colunas descricao, mes, ano, valor e (opcional) tipo, separadas por
+ *  ';' ou ','. Sem a coluna tipo, valores negativos sao despesas. Com o separador ';' a virgula
+ *  e aceita como separador decimal. */
+public class LeitorExtratoCsv implements LeitorExtrato {
+
+	private static final String[] COLUNAS_OBRIGATORIAS = { "descricao", "mes", "ano", "valor" };
+	
+	
+	@Override
+	public void ler(Reader entrada, Consumidor consumidor) throws IOException {
+		BufferedReader leitor = new BufferedReader(entrada);
+		String cabecalho = leitor.readLine();
+		if(cabecalho == null){
+			return;
+		}
+		
+		char separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+		Map<String, Integer> colunas = new HashMap<>();
+		List<String> nomes = dividir(removerBom(cabecalho), separador);
+		for(int i = 0; i < nomes.size(); i++){
+			colunas.put(nomes.get(i).trim().toLowerCase(Locale.ROOT), i);
+		}
+		for(String coluna : COLUNAS_OBRIGATORIAS){
+			if(!colunas.containsKey(coluna)){
+				consumidor.erro(1, "Coluna obrigatória ausente no cabeçalho: " + coluna + ".");
+				return;
+			}
+		}
+		
+		int numero = 1;
+		String linha;
+		while((linha = leitor.readLine()) != null){
+			numero++;
+			if(linha.trim().isEmpty()){
+				continue;
+			}
+			try {
+				consumidor.lancamento(numero, converter(dividir(linha, separador), colunas, separador));
+			} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+				consumidor.erro(numero, "Linha inválida: " + e.getMessage());
+			}
+		}
+	}
+	
+	private Lancamento converter(List<String> campos, Map<String, Integer> colunas, char separador) {
+		String valorTexto = campo(campos, colunas, "valor");
+		if(separador == ';'){
+			valorTexto = valorTexto.replace(".", "").replace(',', '.');
+		}
+		BigDecimal valor = new BigDecimal(valorTexto);
+		
+		String tipoTexto = colunas.containsKey("tipo") ? campo(campos, colunas, "tipo") : "";
+		TipoLancamento tipo = tipoTexto.isEmpty()
+				? (valor.signum() < 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA)
+				: TipoLancamento.valueOf(tipoTexto.toUpperCase(Locale.ROOT));
+		
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(campo(campos, colunas, "descricao"));
+		lancamento.setMes(Integer.valueOf(campo(campos, colunas, "mes")));
+		lancamento.setAno(Integer.valueOf(campo(campos, colunas, "ano")));
+		lancamento.setValor(valor.abs());
+		lancamento.setTipo(tipo);
+		return lancamento;
+	}
+	
+	private static String campo(List<String> campos, Map<String, Integer> colunas, String nome) {
+		return campos.get(colunas.get(nome)).trim();
+	}
+	
+	// aceita campos entre aspas, com o separador e aspas duplicadas ("") dentro deles
+	private static List<String> dividir(String linha, char separador) {
+		List<String> campos = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean entreAspas = false;
+		for(int i = 0; i < linha.length(); i++){
+			char c = linha.charAt(i);
+			if(c == '"'){
+				if(entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"'){
+					campo.append('"');
+					i++;
+				} else {
+					entreAspas = !entreAspas;
+				}
+			} else if(c == separador && !entreAspas){
+				campos.add(campo.toString());
+				campo.setLength(0);
+			} else {
+				campo.append(c);
+			}
+		}
+		campos.add(campo.toString());
+		return campos;
+	}
+	
+	private static String removerBom(String texto) {
+		return texto.startsWith("\uFEFF") ? texto.substring(1) : texto;
+	}
+}
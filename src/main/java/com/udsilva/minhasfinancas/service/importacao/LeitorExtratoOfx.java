@@ -0,0 +1,71 @@
+package com.udsilva.minhasfinancas.service.importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+
+/** Le as transacoes (STMTTRN) de arquivos OFX 1.x (SGML, sem tags de fechamento) ou 2.x (XML).
+ *  O valor negativo (TRNAMT) indica despesa, o mes e o ano vem de DTPOSTED e a descricao de MEMO ou NAME.
+ *  O numero informado nos erros e o da transacao no arquivo. */
+public class LeitorExtratoOfx implements LeitorExtrato {
+
+	@Override
+	public void ler(Reader entrada, Consumidor consumidor) throws IOException {
+		BufferedReader leitor = new BufferedReader(entrada);
+		Map<String, String> transacao = null;
+		int numero = 0;
+		
+		int c = leitor.read();
+		while(c != -1){
+			if(c != '<'){
+				c = leitor.read();
+				continue;
+			}
+			
+			StringBuilder tag = new StringBuilder();
+			while((c = leitor.read()) != -1 && c != '>'){
+				tag.append((char) c);
+			}
+			StringBuilder valor = new StringBuilder();
+			while((c = leitor.read()) != -1 && c != '<'){
+				valor.append((char) c);
+			}
+			
+			String nome = tag.toString().trim().toUpperCase(Locale.ROOT);
+			if(nome.equals("STMTTRN")){
+				transacao = new HashMap<>();
+				numero++;
+			} else if(nome.equals("/STMTTRN") && transacao != null){
+				try {
+					consumidor.lancamento(numero, converter(transacao));
+				} catch (IllegalArgumentException | NullPointerException | IndexOutOfBoundsException e) {
+					consumidor.erro(numero, "Transação inválida: " + e.getMessage());
+				}
+				transacao = null;
+			} else if(transacao != null && !nome.startsWith("/")){
+				transacao.put(nome, valor.toString().trim());
+			}
+		}
+	}
+	
+	private Lancamento converter(Map<String, String> transacao) {
+		BigDecimal valor = new BigDecimal(transacao.get("TRNAMT").replace(',', '.'));
+		String data = transacao.get("DTPOSTED");
+		String descricao = transacao.getOrDefault("MEMO", transacao.get("NAME"));
+		
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(descricao);
+		lancamento.setAno(Integer.valueOf(data.substring(0, 4)));
+		lancamento.setMes(Integer.valueOf(data.substring(4, 6)));
+		lancamento.setValor(valor.abs());
+		lancamento.setTipo(valor.signum() < 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA);
+		return lancamento;
+	}
+}
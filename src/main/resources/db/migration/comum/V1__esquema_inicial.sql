@@ -0,0 +1,30 @@
+-- esquema financas como era gerado a partir das entidades antes das migracoes;
+-- "if not exists" para os bancos que ja tinham as tabelas
+create schema if not exists financas;
+
+create table if not exists financas.usuario (
+	id bigserial not null primary key,
+	nome varchar(255),
+	email varchar(255),
+	senha varchar(255)
+);
+
+create table if not exists financas.lancamento (
+	id bigserial not null primary key,
+	descricao varchar(255),
+	mes integer,
+	ano integer,
+	valor numeric(19,2),
+	data_cadastro date,
+	tipo varchar(255),
+	status varchar(255),
+	id_usuario bigint references financas.usuario (id)
+);
+
+-- saldo materializado por usuario, mantido pelas escritas de lancamento
+create table if not exists financas.saldo_usuario (
+	id_usuario bigint not null primary key,
+	receitas numeric(19,2),
+	despesas numeric(19,2),
+	saldo numeric(19,2)
+);
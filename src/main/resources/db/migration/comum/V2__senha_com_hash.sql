@@ -0,0 +1,2 @@
+-- o hash bcrypt tem 60 caracteres; bancos criados por scripts antigos tinham a senha em varchar(20)
+alter table financas.usuario alter column senha set data type varchar(255);
@@ -0,0 +1,8 @@
+-- saldo por usuario, tipo e status: o valor vai no indice para as somas nao lerem a tabela
+create index if not exists idx_lancamento_usuario_tipo_status on financas.lancamento (id_usuario, tipo, status, valor);
+
+-- listagem, paginacao e filtros do usuario por periodo (tambem atende as buscas so por id_usuario)
+create index if not exists idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes);
+
+-- login e validacao do cadastro por email
+create unique index if not exists uk_usuario_email on financas.usuario (email);
@@ -0,0 +1,2 @@
+-- versao para as atualizacoes condicionais (ETag / If-Match) e o controle otimista do hibernate
+alter table financas.lancamento add column versao bigint default 0 not null;
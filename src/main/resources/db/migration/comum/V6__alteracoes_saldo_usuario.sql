@@ -0,0 +1,5 @@
+-- contador de alteracoes dos lancamentos de cada usuario, usado nos ETags das listagens e do saldo.
+-- os valores vem de uma sequence para nunca se repetirem, nem quando o saldo e reconstruido
+create sequence if not exists financas.seq_alteracao_saldo;
+
+alter table financas.saldo_usuario add column alteracoes bigint default nextval('financas.seq_alteracao_saldo') not null;
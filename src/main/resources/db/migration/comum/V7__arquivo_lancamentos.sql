@@ -0,0 +1,36 @@
+-- anos fechados ja arquivados: todos os anos ate o maior desta tabela estao fora da tabela lancamento
+-- e nao recebem novos lancamentos
+create table if not exists financas.ano_arquivado (
+	ano integer not null primary key,
+	lancamentos bigint not null,
+	data_arquivamento timestamp not null
+);
+
+-- lancamentos dos anos arquivados, lidos somente pelas listagens que pedem um desses anos
+create table if not exists financas.lancamento_arquivado (
+	id bigint not null primary key,
+	descricao varchar(255),
+	mes integer,
+	ano integer,
+	valor numeric(19,2),
+	data_cadastro date,
+	tipo varchar(255),
+	status varchar(255),
+	id_usuario bigint references financas.usuario (id),
+	versao bigint default 0 not null
+);
+
+create index if not exists idx_lancamento_arquivado_usuario_ano_mes on financas.lancamento_arquivado (id_usuario, ano, mes);
+
+-- totais por usuario, mes, tipo e status dos anos arquivados: entram no saldo e na serie mensal
+-- no lugar dos lancamentos
+create table if not exists financas.resumo_mensal (
+	id_usuario bigint not null references financas.usuario (id),
+	ano integer not null,
+	mes integer not null,
+	tipo varchar(255) not null,
+	status varchar(255) not null,
+	quantidade bigint not null,
+	valor numeric(19,2) not null,
+	primary key (id_usuario, ano, mes, tipo, status)
+);
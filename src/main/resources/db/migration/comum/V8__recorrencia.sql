@@ -0,0 +1,26 @@
+-- lancamentos que se repetem todo mes (aluguel, salario) ou parcelados: a regra e gravada uma vez e as
+-- ocorrencias sao calculadas nas listagens e exportacoes, sem linhas em lancamento. A regra termina depois
+-- das parcelas ou no mes final; sem nenhum dos dois nao termina
+create table if not exists financas.recorrencia (
+	id bigserial not null primary key,
+	descricao varchar(255),
+	valor numeric(19,2),
+	tipo varchar(255),
+	mes integer not null,
+	ano integer not null,
+	parcelas integer,
+	mes_fim integer,
+	ano_fim integer,
+	data_cadastro date,
+	id_usuario bigint not null references financas.usuario (id)
+);
+
+create index if not exists idx_recorrencia_usuario on financas.recorrencia (id_usuario);
+
+-- a ocorrencia alterada (efetivada, outro valor) e gravada como lancamento com a recorrencia e a parcela,
+-- e as listagens deixam de calcula-la
+alter table financas.lancamento add column if not exists id_recorrencia bigint references financas.recorrencia (id);
+alter table financas.lancamento add column if not exists parcela integer;
+
+-- o ano entra no indice por causa do particionamento no PostgreSQL; a parcela ja determina o ano
+create unique index if not exists idx_lancamento_recorrencia_parcela on financas.lancamento (id_recorrencia, parcela, ano);
@@ -0,0 +1,3 @@
+-- exclusao logica (minhasfinancas.exclusao.logica): o lancamento excluido continua na tabela com a data da
+-- exclusao ate o expurgo, que o remove em lotes. Todas as consultas de lancamento ignoram as linhas com data
+alter table financas.lancamento add column if not exists data_exclusao timestamp;
@@ -0,0 +1,7 @@
+-- indice full-text nativo do H2 sobre a descricao do lancamento
+-- as funcoes FT_* ficam no esquema PUBLIC, onde as consultas as procuram (o flyway executa no esquema financas)
+SET SCHEMA PUBLIC;
+CREATE ALIAS IF NOT EXISTS FT_INIT FOR "org.h2.fulltext.FullText.init";
+CALL FT_INIT();
+CALL FT_DROP_INDEX('FINANCAS', 'LANCAMENTO');
+CALL FT_CREATE_INDEX('FINANCAS', 'LANCAMENTO', 'DESCRICAO');
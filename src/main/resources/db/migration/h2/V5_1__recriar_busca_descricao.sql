@@ -0,0 +1,5 @@
+-- o trigger do full-text do H2 guarda as colunas da tabela na criacao e nao ve a coluna versao (V5):
+-- o indice e recriado sobre a tabela nova
+SET SCHEMA PUBLIC;
+CALL FT_DROP_INDEX('FINANCAS', 'LANCAMENTO');
+CALL FT_CREATE_INDEX('FINANCAS', 'LANCAMENTO', 'DESCRICAO');
@@ -0,0 +1,4 @@
+-- como na V5_1: o trigger do full-text do H2 nao ve as colunas novas de lancamento (V8), o indice e recriado
+SET SCHEMA PUBLIC;
+CALL FT_DROP_INDEX('FINANCAS', 'LANCAMENTO');
+CALL FT_CREATE_INDEX('FINANCAS', 'LANCAMENTO', 'DESCRICAO');
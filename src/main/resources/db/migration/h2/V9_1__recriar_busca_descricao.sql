@@ -0,0 +1,6 @@
+-- como na V5_1: o trigger do full-text do H2 nao ve a coluna nova de lancamento (V9), o indice e recriado.
+-- Sem indice parcial no H2, o indice do expurgo tem todas as linhas
+create index if not exists idx_lancamento_exclusao on financas.lancamento (data_exclusao);
+SET SCHEMA PUBLIC;
+CALL FT_DROP_INDEX('FINANCAS', 'LANCAMENTO');
+CALL FT_CREATE_INDEX('FINANCAS', 'LANCAMENTO', 'DESCRICAO');
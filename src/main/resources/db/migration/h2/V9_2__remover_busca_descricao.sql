@@ -0,0 +1,4 @@
+-- as sugestoes do H2 conferem as palavras nas linhas do usuario, sem o full-text (que consulta a tabela inteira):
+-- o indice e os triggers deixam de pesar nas escritas de lancamento
+SET SCHEMA PUBLIC;
+CALL FT_DROP_INDEX('FINANCAS', 'LANCAMENTO');
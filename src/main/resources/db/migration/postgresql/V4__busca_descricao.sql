@@ -0,0 +1,3 @@
+-- indice de trigramas para as buscas por trecho da descricao (like '%termo%' e similaridade)
+create extension if not exists pg_trgm;
+create index if not exists idx_lancamento_descricao_trgm on financas.lancamento using gin (lower(descricao) gin_trgm_ops);
@@ -0,0 +1,47 @@
+-- lancamento particionado por ano (PostgreSQL 11+): as consultas com ano leem so a particao do ano e os
+-- indices de cada particao crescem com o ano, nao com o historico. Uma particao por ano dos ultimos 20
+-- anos ate o proximo; os demais anos ficam na particao lancamento_outros. As particoes dos anos seguintes
+-- sao criadas pelo ArquivamentoService. O id continua vindo da mesma sequence; a chave primaria inclui o
+-- ano, exigencia do particionamento
+alter table financas.lancamento rename to lancamento_anterior;
+alter sequence financas.lancamento_id_seq owned by none;
+
+create table financas.lancamento (
+	id bigint not null default nextval('financas.lancamento_id_seq'),
+	descricao varchar(255),
+	mes integer,
+	ano integer not null,
+	valor numeric(19,2),
+	data_cadastro date,
+	tipo varchar(255),
+	status varchar(255),
+	id_usuario bigint references financas.usuario (id),
+	versao bigint default 0 not null,
+	primary key (id, ano)
+) partition by range (ano);
+
+create table financas.lancamento_outros partition of financas.lancamento default;
+
+do $$
+declare
+	ultimo integer := extract(year from current_date)::integer + 1;
+	primeiro integer;
+begin
+	select greatest(coalesce(min(ano), ultimo - 1), ultimo - 21) into primeiro from financas.lancamento_anterior;
+	for ano in primeiro .. ultimo loop
+		execute format('create table financas.lancamento_%s partition of financas.lancamento for values from (%s) to (%s)',
+				ano, ano, ano + 1);
+	end loop;
+end $$;
+
+insert into financas.lancamento (id, descricao, mes, ano, valor, data_cadastro, tipo, status, id_usuario, versao)
+select id, descricao, mes, ano, valor, data_cadastro, tipo, status, id_usuario, versao
+from financas.lancamento_anterior;
+
+drop table financas.lancamento_anterior;
+alter sequence financas.lancamento_id_seq owned by financas.lancamento.id;
+
+-- mesmos indices da tabela anterior (V3 e V4), criados em cada particao
+create index idx_lancamento_usuario_tipo_status on financas.lancamento (id_usuario, tipo, status, valor);
+create index idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes);
+create index idx_lancamento_descricao_trgm on financas.lancamento using gin (lower(descricao) gin_trgm_ops);
@@ -0,0 +1,2 @@
+-- o expurgo le so as linhas excluidas: o indice parcial fica vazio enquanto nao ha exclusao logica
+create index if not exists idx_lancamento_exclusao on financas.lancamento (data_exclusao) where data_exclusao is not null;
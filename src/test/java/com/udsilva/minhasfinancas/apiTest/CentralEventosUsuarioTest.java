@@ -0,0 +1,116 @@
+package com.udsilva.minhasfinancas.apiTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udsilva.minhasfinancas.api.eventos.CentralEventosUsuario;
+import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/** Sem contexto do spring nem container: os emitters gravam o que recebem, e o do cliente que nao le
+ *  fica preso no send ate o teste liberar. Uma so thread de envio e prazo de 1 segundo. */
+public class CentralEventosUsuarioTest {
+
+	SimpleMeterRegistry registry;
+	BlockingQueue<SseEmitter> emitters;
+	CentralEventosUsuario central;
+	CountDownLatch liberar;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		emitters = new LinkedBlockingQueue<>();
+		liberar = new CountDownLatch(1);
+		central = new CentralEventosUsuario(Mockito.mock(LancamentoService.class), new ObjectMapper(), registry,
+				32, 5, 30, 3600, 1, 1) {
+			@Override
+			protected SseEmitter criarEmitter(long timeoutMillis) {
+				return emitters.remove();
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		liberar.countDown();
+		central.finalizar();
+	}
+
+	@Test
+	public void deveEntregarAosDemaisQuandoUmClienteNaoLe() throws Exception {
+		// cenario - o envio do cliente parado ocupa a unica thread de envio
+		EmitterParado parado = new EmitterParado();
+		EmitterGravado gravado = new EmitterGravado();
+		emitters.add(parado);
+		emitters.add(gravado);
+		central.conectar(1L);
+		assertThat(parado.iniciado.await(5, TimeUnit.SECONDS)).isTrue();
+		central.conectar(2L);
+
+		// acao
+		central.publicar(new LancamentoAlteradoEvent(2L));
+
+		// verificacao
+		assertThat(gravado.recebidos.poll(10, TimeUnit.SECONDS)).contains("conectado");
+		assertThat(gravado.recebidos.poll(10, TimeUnit.SECONDS)).contains("event:lancamento");
+		assertThat(registry.get("minhasfinancas.eventos.envios-atrasados").counter().count()).isEqualTo(1);
+		assertThat(registry.get("minhasfinancas.eventos.conexoes").gauge().value()).isEqualTo(1);
+
+		// o emitter parado so e concluido quando o send retorna
+		assertThat(parado.erro).isNull();
+		liberar.countDown();
+		assertThat(parado.concluido.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(parado.erro).isNotNull();
+	}
+
+	private static class EmitterGravado extends SseEmitter {
+
+		final BlockingQueue<String> recebidos = new LinkedBlockingQueue<>();
+
+		@Override
+		public void send(SseEventBuilder evento) throws IOException {
+			recebidos.add(evento.build().stream().map(dado -> dado.getData().toString()).collect(Collectors.joining()));
+		}
+	}
+
+	// os metodos do SseEmitter sao sincronizados: o completeWithError espera o send, como no container
+	private class EmitterParado extends SseEmitter {
+
+		final CountDownLatch iniciado = new CountDownLatch(1);
+		final CountDownLatch concluido = new CountDownLatch(1);
+		volatile Throwable erro;
+
+		@Override
+		public synchronized void send(SseEventBuilder evento) throws IOException {
+			iniciado.countDown();
+			try {
+				liberar.await();
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+		}
+
+		@Override
+		public synchronized void completeWithError(Throwable ex) {
+			erro = ex;
+			concluido.countDown();
+			super.completeWithError(ex);
+		}
+	}
+}
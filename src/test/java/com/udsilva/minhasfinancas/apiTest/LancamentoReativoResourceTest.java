@@ -0,0 +1,131 @@
+package com.udsilva.minhasfinancas.apiTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.PaginaLancamentoDTO;
+import com.udsilva.minhasfinancas.api.resources.reativo.LancamentoReativoResource;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Recorrencia;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.model.repository.RecorrenciaRepository;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+import com.udsilva.minhasfinancas.model.repository.reativo.LancamentoReativoRepository;
+import com.udsilva.minhasfinancas.model.repository.reativo.UsuarioReativoRepository;
+import com.udsilva.minhasfinancas.service.RecorrenciaService;
+
+import reactor.core.publisher.Flux;
+
+/** Mesmo contexto de LancamentoReativoRepositoryTest (sem servidor): o resource e criado no teste.
+ *  Cada linha e descrita pelo mes e por "l" (lancamento gravado) ou "r" (ocorrencia calculada). */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.NONE, properties = "spring.main.web-application-type=none")
+@ActiveProfiles({ "reativo", "test" })
+public class LancamentoReativoResourceTest {
+
+	private static final int ANO = Year.now().getValue();
+
+	@Autowired
+	LancamentoReativoRepository repository;
+
+	@Autowired
+	UsuarioReativoRepository usuarioReativoRepository;
+
+	@Autowired
+	RecorrenciaService recorrenciaService;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	RecorrenciaRepository recorrenciaRepository;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	LancamentoReativoResource resource;
+	Usuario usuario;
+
+	@Before
+	public void setUp(){
+		resource = new LancamentoReativoResource(repository, usuarioReativoRepository, recorrenciaService);
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("reativo@email.com").senha("senha").build());
+		// tres parcelas de janeiro a marco, e lancamentos gravados em fevereiro e abril
+		recorrenciaService.salvar(Recorrencia.builder().descricao("curso").valor(new BigDecimal("100"))
+				.tipo(TipoLancamento.DESPESA).mes(1).ano(ANO).parcelas(3).usuario(usuario).build());
+		salvarLancamento(2);
+		salvarLancamento(4);
+	}
+
+	@After
+	public void limpar(){
+		lancamentoRepository.deleteAll(lancamentoRepository.findAll());
+		recorrenciaRepository.deleteAll();
+		usuarioRepository.delete(usuario);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deveListarAsOcorrenciasComOsLancamentos(){
+		// acao
+		ResponseEntity resposta = resource.buscar(null, null, ANO, usuario.getId(), null, null).block();
+
+		// verificacao
+		List<LancamentoDTO> lancamentos = ((Flux<LancamentoDTO>) resposta.getBody()).collectList().block();
+		assertThat(lancamentos).extracting(LancamentoReativoResourceTest::linha).containsExactly("1r", "2l", "2r", "3r", "4l");
+	}
+
+	@Test
+	public void devePaginarPassandoPelasOcorrencias(){
+		// acao
+		PaginaLancamentoDTO primeira = pagina(null);
+		PaginaLancamentoDTO segunda = pagina(primeira.getProximo());
+		PaginaLancamentoDTO terceira = pagina(segunda.getProximo());
+
+		// verificacao - a segunda pagina termina em uma ocorrencia
+		assertThat(primeira.getLancamentos()).extracting(LancamentoReativoResourceTest::linha).containsExactly("1r", "2l");
+		assertThat(segunda.getLancamentos()).extracting(LancamentoReativoResourceTest::linha).containsExactly("2r", "3r");
+		assertThat(terceira.getLancamentos()).extracting(LancamentoReativoResourceTest::linha).containsExactly("4l");
+		assertThat(terceira.getProximo()).isNull();
+	}
+
+	private PaginaLancamentoDTO pagina(String apos) {
+		return (PaginaLancamentoDTO) resource.buscar(null, null, ANO, usuario.getId(), 2, apos).block().getBody();
+	}
+
+	private static String linha(LancamentoDTO lancamento) {
+		return lancamento.getMes() + (lancamento.getId() == null ? "r" : "l");
+	}
+
+	private void salvarLancamento(int mes) {
+		lancamentoRepository.save(Lancamento.builder()
+				.ano(ANO)
+				.mes(mes)
+				.descricao("lancamento qualquer")
+				.valor(BigDecimal.valueOf(100))
+				.tipo(TipoLancamento.RECEITA)
+				.status(StatusLancamento.PENDENTE)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build());
+	}
+}
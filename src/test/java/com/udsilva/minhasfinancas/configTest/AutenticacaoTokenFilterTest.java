@@ -0,0 +1,79 @@
+package com.udsilva.minhasfinancas.configTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.udsilva.minhasfinancas.config.seguranca.AutenticacaoTokenFilter;
+import com.udsilva.minhasfinancas.service.TokenService;
+
+/** Sem contexto do spring: o token "admin" e do usuario 1 (administrador) e o "comum" do usuario 2. */
+public class AutenticacaoTokenFilterTest {
+
+	TokenService tokenService;
+	AutenticacaoTokenFilter filter;
+
+	@Before
+	public void setUp() {
+		tokenService = Mockito.mock(TokenService.class);
+		Mockito.when(tokenService.obterIdUsuario(Mockito.anyString())).thenReturn(Optional.empty());
+		Mockito.when(tokenService.obterIdUsuario("admin")).thenReturn(Optional.of(1L));
+		Mockito.when(tokenService.obterIdUsuario("comum")).thenReturn(Optional.of(2L));
+		filter = new AutenticacaoTokenFilter(tokenService, Collections.singleton(1L));
+	}
+
+	@Test
+	public void deveExigirTokenNaAdministracao() throws Exception {
+		// acao
+		MockHttpServletResponse resposta = filtrar("POST", "/api/admin/saldos/reconstruir", null);
+
+		// verificacao
+		assertThat(resposta.getStatus()).isEqualTo(401);
+	}
+
+	@Test
+	public void deveRecusarNaAdministracaoOTokenDeQuemNaoEAdministrador() throws Exception {
+		// acao
+		MockHttpServletResponse resposta = filtrar("POST", "/api/admin/lancamentos/expurgo", "comum");
+
+		// verificacao
+		assertThat(resposta.getStatus()).isEqualTo(403);
+	}
+
+	@Test
+	public void deveLiberarAAdministracaoParaOAdministrador() throws Exception {
+		// acao
+		MockHttpServletResponse resposta = filtrar("GET", "/api/admin/caches", "admin");
+
+		// verificacao
+		assertThat(resposta.getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	public void deveManterAsDemaisRotasSemToken() throws Exception {
+		// acao
+		MockHttpServletResponse resposta = filtrar("GET", "/api/lancamentos", null);
+
+		// verificacao
+		assertThat(resposta.getStatus()).isEqualTo(200);
+	}
+
+	private MockHttpServletResponse filtrar(String metodo, String uri, String token) throws Exception {
+		MockHttpServletRequest requisicao = new MockHttpServletRequest(metodo, uri);
+		if(token != null){
+			requisicao.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		}
+		MockHttpServletResponse resposta = new MockHttpServletResponse();
+		filter.doFilter(requisicao, resposta, new MockFilterChain());
+		return resposta;
+	}
+}
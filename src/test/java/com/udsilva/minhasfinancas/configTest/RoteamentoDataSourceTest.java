@@ -0,0 +1,163 @@
+package com.udsilva.minhasfinancas.configTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.udsilva.minhasfinancas.config.replica.LeituraAposEscrita;
+import com.udsilva.minhasfinancas.config.replica.RoteamentoDataSource;
+import com.udsilva.minhasfinancas.config.replica.RoteamentoDataSource.Selecao;
+import com.udsilva.minhasfinancas.config.replica.UsuarioDaLeitura;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+import com.zaxxer.hikari.HikariDataSource;
+
+/** Primario e replicas sao bancos H2 separados, cada um com uma tabela que diz qual banco respondeu. */
+public class RoteamentoDataSourceTest {
+
+	private final List<HikariDataSource> pools = new ArrayList<>();
+
+	private final LeituraAposEscrita leituraAposEscrita = new LeituraAposEscrita(Duration.ofMinutes(1));
+
+	@After
+	public void fecharPools() {
+		pools.forEach(HikariDataSource::close);
+	}
+
+	@Test
+	public void deveLerDaReplicaNaTransacaoSomenteLeitura(){
+		// cenario
+		DataSource dataSource = criarRoteamento(Selecao.ROUND_ROBIN, 1);
+
+		// acao / verificacao
+		assertThat(lerBanco(dataSource, true)).isEqualTo("replica-0");
+		assertThat(lerBanco(dataSource, false)).isEqualTo("primario");
+		assertThat(new JdbcTemplate(dataSource).queryForObject("select nome from banco", String.class)).isEqualTo("primario");
+	}
+
+	@Test
+	public void deveAlternarEntreAsReplicas(){
+		// cenario
+		DataSource dataSource = criarRoteamento(Selecao.ROUND_ROBIN, 2);
+
+		// acao / verificacao
+		assertThat(Arrays.asList(lerBanco(dataSource, true), lerBanco(dataSource, true), lerBanco(dataSource, true)))
+				.containsExactly("replica-0", "replica-1", "replica-0");
+	}
+
+	@Test
+	public void deveEscolherAReplicaComMenosConexoesEmUso() throws Exception {
+		// cenario - uma conexao da replica 0 em uso
+		DataSource dataSource = criarRoteamento(Selecao.MENOS_CONEXOES, 2);
+		lerBanco(dataSource, true);
+		lerBanco(dataSource, true);
+
+		try(Connection emUso = pools.get(1).getConnection()){
+			// acao / verificacao
+			assertThat(lerBanco(dataSource, true)).isEqualTo("replica-1");
+			assertThat(lerBanco(dataSource, true)).isEqualTo("replica-1");
+		}
+	}
+
+	@Test
+	public void deveLerDoPrimarioLogoDepoisDaEscritaDoUsuario(){
+		// cenario
+		DataSource dataSource = criarRoteamento(Selecao.ROUND_ROBIN, 1);
+		leituraAposEscrita.registrarEscrita(7L);
+
+		// acao / verificacao
+		assertThat(UsuarioDaLeitura.emNomeDe(7L, () -> lerBanco(dataSource, true))).isEqualTo("primario");
+		assertThat(UsuarioDaLeitura.emNomeDe(8L, () -> lerBanco(dataSource, true))).isEqualTo("replica-0");
+	}
+
+	@Test
+	public void deveLerDoPrimarioDepoisDaEscritaDoClienteSemToken(){
+		// cenario - a escrita registrada pelo evento, com o usuario do lancamento
+		DataSource dataSource = criarRoteamento(Selecao.ROUND_ROBIN, 1);
+		leituraAposEscrita.registrar(new LancamentoAlteradoEvent(7L, 1L));
+
+		// acao / verificacao - GET /api/lancamentos?usuario=7 e GET /api/usuarios/7/saldo, sem token
+		MockHttpServletRequest listagem = new MockHttpServletRequest("GET", "/api/lancamentos");
+		listagem.addParameter("usuario", "7");
+		assertThat(lerNaRequisicao(listagem, dataSource)).isEqualTo("primario");
+
+		MockHttpServletRequest saldo = new MockHttpServletRequest("GET", "/api/usuarios/7/saldo");
+		saldo.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/usuarios/{id}/saldo");
+		saldo.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Collections.singletonMap("id", "7"));
+		assertThat(lerNaRequisicao(saldo, dataSource)).isEqualTo("primario");
+
+		// o {id} das rotas de lancamentos e do lancamento, e nao do usuario
+		MockHttpServletRequest lancamento = new MockHttpServletRequest("GET", "/api/lancamentos/7");
+		lancamento.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/lancamentos/{id}");
+		lancamento.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Collections.singletonMap("id", "7"));
+		assertThat(lerNaRequisicao(lancamento, dataSource)).isEqualTo("replica-0");
+	}
+
+	@Test
+	public void deveVoltarParaAReplicaDepoisDaJanela() throws Exception {
+		// cenario
+		LeituraAposEscrita janelaCurta = new LeituraAposEscrita(Duration.ofMillis(50));
+		DataSource dataSource = new LazyConnectionDataSourceProxy(new RoteamentoDataSource(
+				criarBanco("primario"), Arrays.asList(criarBanco("replica-0")), Selecao.ROUND_ROBIN, janelaCurta));
+		janelaCurta.registrarEscrita(7L);
+
+		// acao
+		Thread.sleep(100);
+
+		// verificacao
+		assertThat(UsuarioDaLeitura.emNomeDe(7L, () -> lerBanco(dataSource, true))).isEqualTo("replica-0");
+	}
+
+	private static String lerNaRequisicao(MockHttpServletRequest request, DataSource dataSource) {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		try {
+			return lerBanco(dataSource, true);
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	private DataSource criarRoteamento(Selecao selecao, int replicas) {
+		HikariDataSource primario = criarBanco("primario");
+		List<HikariDataSource> listaReplicas = new ArrayList<>();
+		for(int i = 0; i < replicas; i++){
+			listaReplicas.add(criarBanco(RoteamentoDataSource.chaveReplica(i)));
+		}
+		return new LazyConnectionDataSourceProxy(new RoteamentoDataSource(primario, listaReplicas, selecao, leituraAposEscrita));
+	}
+
+	private HikariDataSource criarBanco(String nome) {
+		HikariDataSource pool = new HikariDataSource();
+		pool.setJdbcUrl("jdbc:h2:mem:roteamento-" + nome + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+		pool.setMaximumPoolSize(2);
+		pools.add(pool);
+		JdbcTemplate jdbc = new JdbcTemplate(pool);
+		jdbc.execute("create table banco (nome varchar(20))");
+		jdbc.update("insert into banco values (?)", nome);
+		return pool;
+	}
+
+	// a transacao e aberta antes do primeiro comando, como no JpaTransactionManager
+	private static String lerBanco(DataSource dataSource, boolean somenteLeitura) {
+		TransactionTemplate transacao = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transacao.setReadOnly(somenteLeitura);
+		return transacao.execute(status -> new JdbcTemplate(dataSource).queryForObject("select nome from banco", String.class));
+	}
+}
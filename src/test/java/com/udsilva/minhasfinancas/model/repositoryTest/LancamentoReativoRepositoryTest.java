@@ -0,0 +1,190 @@
+package com.udsilva.minhasfinancas.model.repositoryTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+import com.udsilva.minhasfinancas.model.repository.reativo.LancamentoReativoRepository;
+import com.udsilva.minhasfinancas.model.repository.reativo.SaldoUsuarioReativoRepository;
+import com.udsilva.minhasfinancas.model.repository.reativo.UsuarioReativoRepository;
+import com.udsilva.minhasfinancas.service.ArquivamentoService;
+
+import reactor.test.StepVerifier;
+
+/** Os repositorios R2DBC leem o mesmo H2 em memoria que o JPA, os dados sao gravados
+ *  (e commitados) pelos repositorios JPA e removidos ao final de cada teste.
+ *  O perfil reativo define a aplicacao como web reativa, aqui sem servidor. */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.NONE, properties = "spring.main.web-application-type=none")
+@ActiveProfiles({ "reativo", "test" })
+public class LancamentoReativoRepositoryTest {
+
+	private static final int ANO_FECHADO = Year.now().getValue() - 3;
+
+	@Autowired
+	LancamentoReativoRepository repository;
+	
+	@Autowired
+	UsuarioReativoRepository usuarioReativoRepository;
+	
+	@Autowired
+	SaldoUsuarioReativoRepository saldoRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	ArquivamentoService arquivamentoService;
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	Usuario usuario;
+	
+	@Before
+	public void criarUsuario(){
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("reativo@email.com").senha("senha").build());
+	}
+	
+	@After
+	public void limpar(){
+		jdbcTemplate.update(" delete from financas.lancamento_arquivado ");
+		jdbcTemplate.update(" delete from financas.resumo_mensal ");
+		jdbcTemplate.update(" delete from financas.ano_arquivado ");
+		lancamentoRepository.deleteAll(lancamentoRepository.findAll());
+		usuarioRepository.delete(usuario);
+	}
+	
+	@Test
+	public void deveListarOsLancamentosDoUsuarioOrdenados(){
+		// cenario
+		salvarLancamento(2019, 3, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		salvarLancamento(2018, 12, TipoLancamento.DESPESA, StatusLancamento.PENDENTE);
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(usuario.getId()).build()).build();
+		
+		// acao / verificacao
+		StepVerifier.create(repository.listar(filtro).map(LancamentoDTO::getAno))
+				.expectNext(2018, 2019)
+				.verifyComplete();
+	}
+	
+	@Test
+	public void deveBuscarAPaginaSeguinteAoCursor(){
+		// cenario
+		Lancamento primeiro = salvarLancamento(2019, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		salvarLancamento(2019, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		salvarLancamento(2019, 3, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(usuario.getId()).build()).build();
+		ChaveLancamento cursor = new ChaveLancamento(primeiro.getAno(), primeiro.getMes(), primeiro.getId());
+		
+		// acao / verificacao
+		StepVerifier.create(repository.buscarPagina(filtro, cursor, 1).map(LancamentoDTO::getMes))
+				.expectNext(2)
+				.verifyComplete();
+	}
+	
+	@Test
+	public void deveObterOLancamentoEOUsuarioPorId(){
+		// cenario
+		Lancamento lancamento = salvarLancamento(2019, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+		
+		// acao / verificacao
+		StepVerifier.create(repository.findById(lancamento.getId()))
+				.expectNextMatches(l -> l.getIdUsuario().equals(usuario.getId()) && "DESPESA".equals(l.getTipo()))
+				.verifyComplete();
+		StepVerifier.create(usuarioReativoRepository.existsById(usuario.getId()))
+				.expectNext(true)
+				.verifyComplete();
+	}
+	
+	@Test
+	public void deveCalcularOSaldoPelosLancamentosEfetivados(){
+		// cenario
+		salvarLancamento(2019, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		salvarLancamento(2019, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+		salvarLancamento(2019, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE);
+		
+		// acao / verificacao - receita 100, despesa efetivada 100
+		StepVerifier.create(saldoRepository.calcularSaldo(usuario.getId()))
+				.expectNextMatches(saldo -> saldo.getReceitas().compareTo(BigDecimal.valueOf(100)) == 0
+						&& saldo.getSaldo().compareTo(BigDecimal.ZERO) == 0)
+				.verifyComplete();
+	}
+	
+	@Test
+	public void deveCalcularOSaldoComOsResumosDosAnosArquivados(){
+		// cenario - receita efetivada de 100 arquivada e despesa efetivada de 100 no ano corrente
+		salvarLancamento(ANO_FECHADO, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		salvarLancamento(ANO_FECHADO, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		salvarLancamento(Year.now().getValue(), 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+		arquivamentoService.arquivarAte(ANO_FECHADO);
+		
+		// acao / verificacao
+		StepVerifier.create(saldoRepository.calcularSaldo(usuario.getId()))
+				.expectNextMatches(saldo -> saldo.getReceitas().compareTo(BigDecimal.valueOf(100)) == 0
+						&& saldo.getDespesas().compareTo(BigDecimal.valueOf(100)) == 0
+						&& saldo.getSaldo().compareTo(BigDecimal.ZERO) == 0)
+				.verifyComplete();
+	}
+	
+	@Test
+	public void deveListarEPaginarSemAnoPassandoDosAnosArquivadosParaOsCorrentes(){
+		// cenario - dois lancamentos no ano arquivado e dois no ano corrente
+		Lancamento arquivado = salvarLancamento(ANO_FECHADO, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		salvarLancamento(ANO_FECHADO, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		salvarLancamento(Year.now().getValue(), 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		salvarLancamento(Year.now().getValue(), 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+		arquivamentoService.arquivarAte(ANO_FECHADO);
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(usuario.getId()).build()).build();
+		ChaveLancamento cursor = new ChaveLancamento(arquivado.getAno(), arquivado.getMes(), arquivado.getId());
+		
+		// acao / verificacao - a pagina apos o primeiro arquivado junta o outro arquivado e o ano corrente
+		StepVerifier.create(repository.listar(filtro).map(LancamentoDTO::getAno))
+				.expectNext(ANO_FECHADO, ANO_FECHADO, Year.now().getValue(), Year.now().getValue())
+				.verifyComplete();
+		StepVerifier.create(repository.buscarPagina(filtro, cursor, 2).map(lancamento -> lancamento.getAno() * 100 + lancamento.getMes()))
+				.expectNext(ANO_FECHADO * 100 + 2, Year.now().getValue() * 100 + 1)
+				.verifyComplete();
+		StepVerifier.create(repository.buscarPagina(filtro, null, 1).map(LancamentoDTO::getId))
+				.expectNext(arquivado.getId())
+				.verifyComplete();
+		StepVerifier.create(repository.listar(Lancamento.builder().usuario(filtro.getUsuario()).ano(ANO_FECHADO).build()))
+				.expectNextCount(2)
+				.verifyComplete();
+	}
+	
+	private Lancamento salvarLancamento(int ano, int mes, TipoLancamento tipo, StatusLancamento status) {
+		return lancamentoRepository.save(Lancamento.builder()
+				.ano(ano)
+				.mes(mes)
+				.descricao("lancamento qualquer")
+				.valor(BigDecimal.valueOf(100))
+				.tipo(tipo)
+				.status(status)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build());
+	}
+}
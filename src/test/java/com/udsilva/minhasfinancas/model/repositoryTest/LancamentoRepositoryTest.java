@@ -4,8 +4,12 @@ import static org.assertj.core.api.Assertions.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.Session;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +20,12 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
 import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
 import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
 import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
 import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
 
 @RunWith(SpringRunner.class)
@@ -87,6 +94,102 @@ public class LancamentoRepositoryTest {
 		assertThat(lancamentoEncontrado.isPresent()).isTrue();
 	}
 	
+	@Test
+	public void deveBuscarPaginasOrdenadasPorAnoMesEId(){
+		// cenario - cinco lancamentos do usuario fora de ordem e um de outro usuario
+		Usuario usuario = criarEPersistirUmUsuario("usuario@email.com");
+		Usuario outroUsuario = criarEPersistirUmUsuario("outro@email.com");
+		persistirLancamento(usuario, 2019, 3);
+		persistirLancamento(usuario, 2018, 12);
+		persistirLancamento(usuario, 2019, 1);
+		persistirLancamento(usuario, 2019, 1);
+		persistirLancamento(usuario, 2020, 1);
+		persistirLancamento(outroUsuario, 2019, 2);
+		Lancamento filtro = Lancamento.builder().usuario(usuario).build();
+		
+		// acao
+		List<LancamentoDTO> primeiraPagina = repository.buscarPagina(filtro, null, 3);
+		ChaveLancamento cursor = ChaveLancamento.decodificar(ChaveLancamento.de(primeiraPagina.get(2)).codificar());
+		List<LancamentoDTO> segundaPagina = repository.buscarPagina(filtro, cursor, 3);
+		
+		// verificacao
+		assertThat(primeiraPagina).extracting(LancamentoDTO::getAno).containsExactly(2018, 2019, 2019);
+		assertThat(primeiraPagina.get(1).getId()).isLessThan(primeiraPagina.get(2).getId());
+		assertThat(segundaPagina).extracting(LancamentoDTO::getMes).containsExactly(3, 1);
+		assertThat(segundaPagina).extracting(LancamentoDTO::getAno).containsExactly(2019, 2020);
+	}
+	
+	@Test
+	public void deveBuscarEmStreamAplicandoOFiltro(){
+		// cenario
+		Usuario usuario = criarEPersistirUmUsuario("usuario@email.com");
+		persistirLancamento(usuario, 2019, 1);
+		persistirLancamento(usuario, 2019, 2);
+		persistirLancamento(usuario, 2020, 1);
+		Lancamento filtro = Lancamento.builder().usuario(usuario).ano(2019).descricao("QUALQUER").build();
+		
+		// acao
+		List<LancamentoDTO> lancamentos;
+		try(Stream<LancamentoDTO> stream = repository.buscarStream(filtro)){
+			lancamentos = stream.collect(Collectors.toList());
+		}
+		
+		// verificacao
+		assertThat(lancamentos).extracting(LancamentoDTO::getMes).containsExactly(1, 2);
+	}
+	
+	@Test
+	public void deveListarProjetandoSomenteAsColunasDoDTO(){
+		// cenario
+		Usuario usuario = criarEPersistirUmUsuario("usuario@email.com");
+		Lancamento lancamento = persistirLancamento(usuario, 2019, 1);
+		entityManager.flush();
+		entityManager.clear();
+		
+		// acao
+		List<LancamentoDTO> lancamentos = repository.listar(Lancamento.builder().usuario(usuario).build());
+		
+		// verificacao
+		assertThat(lancamentos).hasSize(1);
+		LancamentoDTO dto = lancamentos.get(0);
+		assertThat(dto.getId()).isEqualTo(lancamento.getId());
+		assertThat(dto.getUsuario()).isEqualTo(usuario.getId());
+		assertThat(dto.getTipo()).isEqualTo(lancamento.getTipo().name());
+		assertThat(dto.getStatus()).isEqualTo(lancamento.getStatus().name());
+		// nenhuma entidade (lancamento ou usuario) foi carregada no contexto de persistencia
+		assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+	}
+	
+	@Test
+	public void deveProcurarCuringasDaDescricaoLiteralmente(){
+		// cenario
+		Usuario usuario = criarEPersistirUmUsuario("usuario@email.com");
+		Lancamento desconto = persistirLancamento(usuario, 2019, 1);
+		desconto.setDescricao("desconto 10% a_vista");
+		persistirLancamento(usuario, 2019, 2).setDescricao("desconto 10 reais avista");
+		entityManager.flush();
+
+		// acao
+		List<LancamentoDTO> porcentagem = repository.listar(Lancamento.builder().usuario(usuario).descricao("10%").build());
+		List<LancamentoDTO> sublinhado = repository.listar(Lancamento.builder().usuario(usuario).descricao("a_v").build());
+
+		// verificacao
+		assertThat(porcentagem).extracting(LancamentoDTO::getId).containsExactly(desconto.getId());
+		assertThat(sublinhado).extracting(LancamentoDTO::getId).containsExactly(desconto.getId());
+	}
+
+	private Usuario criarEPersistirUmUsuario(String email) {
+		return entityManager.persist(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+	}
+	
+	private Lancamento persistirLancamento(Usuario usuario, int ano, int mes) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setAno(ano);
+		lancamento.setMes(mes);
+		return entityManager.persist(lancamento);
+	}
+	
 	private Lancamento criarEPersistirUmLancamento() {
 		Lancamento lancamento = criarLancamento();
 		entityManager.persist(lancamento);
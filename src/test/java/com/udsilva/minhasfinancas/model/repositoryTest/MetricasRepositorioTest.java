@@ -0,0 +1,80 @@
+package com.udsilva.minhasfinancas.model.repositoryTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.config.metricas.ContadorInstrucoesSql;
+import com.udsilva.minhasfinancas.config.metricas.MetricasRepositorioAspect;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+public class MetricasRepositorioTest {
+
+	@TestConfiguration
+	static class Configuracao {
+		
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+		
+		@Bean
+		MetricasRepositorioAspect metricasRepositorioAspect(MeterRegistry registry) {
+			return new MetricasRepositorioAspect(registry, 500);
+		}
+	}
+	
+	@Autowired
+	UsuarioRepository repository;
+	
+	@Autowired
+	MeterRegistry registry;
+	
+	@Test
+	public void deveMedirOTempoDosMetodosDoRepositorio(){
+		// acao
+		repository.existsByEmail("usuario@email.com");
+		repository.findById(1L);
+		
+		// verificacao - inclusive o metodo herdado do JpaRepository
+		Timer existe = registry.find("minhasfinancas.repositorio")
+				.tags("repositorio", "UsuarioRepository", "metodo", "existsByEmail").timer();
+		Timer porId = registry.find("minhasfinancas.repositorio")
+				.tags("repositorio", "UsuarioRepository", "metodo", "findById").timer();
+		assertThat(existe.count()).isEqualTo(1);
+		assertThat(porId.count()).isEqualTo(1);
+	}
+	
+	@Test
+	public void deveContarAsInstrucoesSqlDaThread(){
+		// cenario
+		ContadorInstrucoesSql.zerar();
+		
+		// acao
+		repository.existsByEmail("usuario@email.com");
+		repository.existsByEmail("outro@email.com");
+		
+		// verificacao
+		assertThat(ContadorInstrucoesSql.obter()).isEqualTo(2);
+	}
+}
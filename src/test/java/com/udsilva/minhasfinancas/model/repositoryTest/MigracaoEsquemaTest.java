@@ -0,0 +1,79 @@
+package com.udsilva.minhasfinancas.model.repositoryTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/** O esquema do H2 de teste vem das migracoes (comum + h2); os planos sao os do EXPLAIN do H2. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class MigracaoEsquemaTest {
+
+	@Autowired
+	Flyway flyway;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveAplicarAsMigracoesComunsEAsDoH2(){
+		// acao
+		MigrationInfo[] aplicadas = flyway.info().applied();
+		
+		// verificacao
+		assertThat(Arrays.stream(aplicadas)
+				.filter(migracao -> migracao.getVersion() != null) // a criacao do esquema entra no historico sem versao
+				.map(migracao -> migracao.getVersion().getVersion()))
+				.contains("1", "2", "3", "4", "5", "6", "7", "8", "9");
+		assertThat(flyway.info().pending()).isEmpty();
+	}
+	
+	@Test
+	public void deveUsarOIndiceComValorNaConsultaDeSaldo(){
+		// acao - mesmo sql gerado para LancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus
+		String plano = explicar(
+				"select sum(l.valor) from financas.lancamento l inner join financas.usuario u on l.id_usuario = u.id "
+				+ "where u.id = 1 and l.tipo = 'RECEITA' and l.status = 'EFETIVADO' group by u.id");
+		
+		// verificacao
+		assertThat(plano).containsIgnoringCase("IDX_LANCAMENTO_USUARIO_TIPO_STATUS");
+		assertThat(plano).doesNotContain("tableScan");
+	}
+	
+	@Test
+	public void deveUsarOIndiceDoUsuarioNaBuscaPorPeriodo(){
+		// acao
+		String plano = explicar(
+				"select l.id from financas.lancamento l where l.id_usuario = 1 and l.ano = 2019 and l.mes = 1");
+		
+		// verificacao
+		assertThat(plano).containsIgnoringCase("IDX_LANCAMENTO_USUARIO_ANO_MES");
+	}
+	
+	@Test
+	public void deveUsarOIndiceUnicoNaBuscaPorEmail(){
+		// acao
+		String plano = explicar("select u.id from financas.usuario u where u.email = 'usuario@email.com'");
+		
+		// verificacao
+		assertThat(plano).containsIgnoringCase("UK_USUARIO_EMAIL");
+	}
+	
+	private String explicar(String sql) {
+		return entityManager.getEntityManager().createNativeQuery("explain " + sql).getSingleResult().toString();
+	}
+}
@@ -0,0 +1,136 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.analise.AgrupamentoTotais;
+import com.udsilva.minhasfinancas.service.analise.FiltroTotais;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+import com.udsilva.minhasfinancas.service.impl.AnaliseLancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.ArquivamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+/** A transacao do teste nao e confirmada: os eventos de alteracao sao entregues chamando sincronizar. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import({ AnaliseLancamentoServiceImpl.class, LancamentoServiceImpl.class, RecorrenciaServiceImpl.class, SaldoUsuarioServiceImpl.class, ArquivamentoServiceImpl.class })
+public class AnaliseLancamentoServiceTest {
+
+	private static final int ANO_FECHADO = Year.now().getValue() - 3;
+	private static final int ANO_CORRENTE = Year.now().getValue();
+
+	private final FiltroTotais semFiltro = new FiltroTotais();
+
+	@Autowired
+	AnaliseLancamentoServiceImpl service;
+
+	@Autowired
+	LancamentoServiceImpl lancamentoService;
+
+	@Autowired
+	ArquivamentoServiceImpl arquivamentoService;
+
+	@Autowired
+	LancamentoRepository repository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveTotalizarComOsAnosArquivados(){
+		// cenario
+		Usuario usuario = criarUsuario("usuario@email.com");
+		salvar(usuario, "salario", 100, TipoLancamento.RECEITA, ANO_FECHADO);
+		salvar(usuario, "mercado", 40, TipoLancamento.DESPESA, ANO_CORRENTE);
+		arquivamentoService.arquivarAte(ANO_FECHADO);
+
+		// acao
+		List<TotalLancamentosDTO> totais = service.totalizar(usuario.getId(), semFiltro, AgrupamentoTotais.ANO);
+
+		// verificacao
+		assertThat(totais).extracting(TotalLancamentosDTO::getGrupo)
+				.containsExactly(String.valueOf(ANO_FECHADO), String.valueOf(ANO_CORRENTE));
+	}
+
+	@Test
+	public void deveAcompanharAsEscritasDoUsuarioCarregado(){
+		// cenario
+		Usuario usuario = criarUsuario("usuario@email.com");
+		Lancamento mercado = salvar(usuario, "mercado", 40, TipoLancamento.DESPESA, ANO_CORRENTE);
+		service.totalizar(usuario.getId(), semFiltro, AgrupamentoTotais.TOTAL);
+
+		// acao
+		Lancamento salario = salvar(usuario, "salario", 100, TipoLancamento.RECEITA, ANO_CORRENTE);
+		lancamentoService.atualizarStatus(salario, StatusLancamento.EFETIVADO);
+		lancamentoService.deletar(mercado);
+		entityManager.flush();
+		service.sincronizar(new LancamentoAlteradoEvent(usuario.getId(), salario.getId()));
+		service.sincronizar(new LancamentoAlteradoEvent(usuario.getId(), mercado.getId()));
+
+		// verificacao
+		List<TotalLancamentosDTO> totais = service.totalizar(usuario.getId(), semFiltro, AgrupamentoTotais.STATUS);
+		assertThat(totais).containsExactly(new TotalLancamentosDTO("EFETIVADO", 1, new BigDecimal("100.00")));
+	}
+
+	@Test
+	public void deveDescartarOsUsuariosConsultadosHaMaisTempo(){
+		// cenario - limite de 2 lancamentos em memoria
+		AnaliseLancamentoServiceImpl limitado = new AnaliseLancamentoServiceImpl(repository, 2);
+		Usuario antigo = criarUsuario("antigo@email.com");
+		Usuario recente = criarUsuario("recente@email.com");
+		salvar(antigo, "mercado", 10, TipoLancamento.DESPESA, ANO_CORRENTE);
+		salvar(recente, "mercado", 20, TipoLancamento.DESPESA, ANO_CORRENTE);
+		salvar(recente, "padaria", 5, TipoLancamento.DESPESA, ANO_CORRENTE);
+		limitado.totalizar(antigo.getId(), semFiltro, AgrupamentoTotais.TOTAL);
+		limitado.totalizar(recente.getId(), semFiltro, AgrupamentoTotais.TOTAL);
+
+		// acao - lancamentos gravados sem evento so aparecem quando o usuario e carregado de novo
+		salvar(antigo, "padaria", 7, TipoLancamento.DESPESA, ANO_CORRENTE);
+		salvar(recente, "padaria", 7, TipoLancamento.DESPESA, ANO_CORRENTE);
+
+		// verificacao - o recente continua em memoria, o antigo foi descartado e e carregado de novo
+		assertThat(limitado.totalizar(recente.getId(), semFiltro, AgrupamentoTotais.TOTAL).get(0).getQuantidade()).isEqualTo(2);
+		assertThat(limitado.totalizar(antigo.getId(), semFiltro, AgrupamentoTotais.TOTAL).get(0).getQuantidade()).isEqualTo(2);
+	}
+
+	private Usuario criarUsuario(String email) {
+		return entityManager.persist(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+	}
+
+	private Lancamento salvar(Usuario usuario, String descricao, int valor, TipoLancamento tipo, int ano) {
+		return lancamentoService.salvar(Lancamento.builder()
+				.ano(ano)
+				.mes(1)
+				.descricao(descricao)
+				.valor(BigDecimal.valueOf(valor))
+				.tipo(tipo)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build());
+	}
+}
@@ -0,0 +1,197 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.udsilva.minhasfinancas.model.entity.AnoArquivado;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.SaldoUsuario;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+import com.udsilva.minhasfinancas.service.impl.ArquivamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+/** Arquivamento dos anos fechados: saldo, serie e listagens combinando a tabela de lancamentos
+ *  com os resumos e os lancamentos arquivados. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import({ ArquivamentoServiceImpl.class, LancamentoServiceImpl.class, RecorrenciaServiceImpl.class, SaldoUsuarioServiceImpl.class })
+public class ArquivamentoServiceTest {
+
+	private static final int ANO_FECHADO = Year.now().getValue() - 3;
+	private static final int ANO_CORRENTE = Year.now().getValue();
+
+	@Autowired
+	ArquivamentoServiceImpl service;
+
+	@Autowired
+	LancamentoServiceImpl lancamentoService;
+
+	@Autowired
+	SaldoUsuarioServiceImpl saldoService;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveMoverOAnoFechadoMantendoOSaldo(){
+		// cenario
+		Usuario usuario = criarUsuarioComLancamentos();
+
+		// acao
+		List<AnoArquivado> arquivados = service.arquivarAte(ANO_FECHADO);
+
+		// verificacao
+		assertThat(arquivados).extracting(AnoArquivado::getAno).containsExactly(ANO_FECHADO);
+		assertThat(arquivados.get(0).getLancamentos()).isEqualTo(3);
+		assertThat(listar(usuario, null)).extracting(LancamentoDTO::getAno)
+				.containsExactly(ANO_FECHADO, ANO_FECHADO, ANO_FECHADO, ANO_CORRENTE, ANO_CORRENTE);
+		assertThat(listar(usuario, ANO_FECHADO)).hasSize(3);
+		assertThat(listar(usuario, ANO_CORRENTE)).hasSize(2);
+		assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("70");
+		assertThat(saldoService.calcularSaldo(usuario.getId())).isEqualByComparingTo("70");
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+
+	@Test
+	public void devePaginarSemAnoPassandoDosAnosArquivadosParaOsCorrentes(){
+		// cenario
+		Usuario usuario = criarUsuarioComLancamentos();
+		service.arquivarAte(ANO_FECHADO);
+		Lancamento filtro = Lancamento.builder().usuario(usuario).descricao("QUALQUER").build();
+
+		// acao - a primeira pagina fica nos arquivados, a segunda junta o ultimo arquivado e o ano corrente
+		List<LancamentoDTO> primeira = lancamentoService.buscarPagina(filtro, null, 2);
+		List<LancamentoDTO> segunda = lancamentoService.buscarPagina(filtro, ChaveLancamento.de(primeira.get(1)), 2);
+		List<LancamentoDTO> terceira = lancamentoService.buscarPagina(filtro, ChaveLancamento.de(segunda.get(1)), 2);
+		List<LancamentoDTO> streamed = new ArrayList<>();
+		lancamentoService.percorrer(filtro, streamed::add);
+
+		// verificacao
+		assertThat(primeira).extracting(LancamentoDTO::getAno, LancamentoDTO::getMes)
+				.containsExactly(tuple(ANO_FECHADO, 1), tuple(ANO_FECHADO, 3));
+		assertThat(segunda).extracting(LancamentoDTO::getAno, LancamentoDTO::getMes)
+				.containsExactly(tuple(ANO_FECHADO, 3), tuple(ANO_CORRENTE, 1));
+		assertThat(terceira).extracting(LancamentoDTO::getAno, LancamentoDTO::getMes)
+				.containsExactly(tuple(ANO_CORRENTE, 1));
+		assertThat(streamed).extracting(LancamentoDTO::getId)
+				.containsExactlyElementsOf(listar(usuario, null).stream().map(LancamentoDTO::getId).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void deveReconstruirOSaldoComOsResumosDosAnosArquivados(){
+		// cenario
+		Usuario usuario = criarUsuarioComLancamentos();
+		service.arquivarAte(ANO_FECHADO);
+
+		// acao
+		saldoService.reconstruir();
+
+		// verificacao
+		SaldoUsuario saldo = entityManager.find(SaldoUsuario.class, usuario.getId());
+		entityManager.refresh(saldo);
+		assertThat(saldo.getReceitas()).isEqualByComparingTo("150");
+		assertThat(saldo.getDespesas()).isEqualByComparingTo("80");
+	}
+
+	@Test
+	public void deveCalcularASerieComOsMesesArquivados(){
+		// cenario
+		Usuario usuario = criarUsuarioComLancamentos();
+		service.arquivarAte(ANO_FECHADO);
+
+		// acao
+		List<SaldoMensalDTO> serie = lancamentoService.obterSerieSaldoPorUsuario(usuario.getId(),
+				YearMonth.of(ANO_FECHADO, 1), YearMonth.of(ANO_CORRENTE, 12));
+
+		// verificacao
+		assertThat(serie).extracting(SaldoMensalDTO::getAno).containsExactly(ANO_FECHADO, ANO_FECHADO, ANO_CORRENTE);
+		assertThat(serie.get(0).getSaldo()).isEqualByComparingTo("100");
+		assertThat(serie.get(1).getSaldo()).isEqualByComparingTo("80");
+		assertThat(serie.get(2).getSaldo()).isEqualByComparingTo("70");
+	}
+
+	@Test
+	public void naoDeveAceitarLancamentosNoAnoArquivado(){
+		// cenario
+		Usuario usuario = criarUsuarioComLancamentos();
+		service.arquivarAte(ANO_FECHADO);
+
+		// acao
+		Throwable erro = catchThrowable(() -> lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 10, ANO_FECHADO, 5)));
+
+		// verificacao
+		assertThat(erro).isInstanceOf(RegraNegocioException.class);
+		assertThat(lancamentoService.obterUltimoAnoArquivado()).contains(ANO_FECHADO);
+	}
+
+	@Test
+	public void naoDeveArquivarOsAnosRecentes(){
+		// acao
+		Throwable erro = catchThrowable(() -> service.arquivarAte(ANO_CORRENTE - 1));
+
+		// verificacao
+		assertThat(erro).isInstanceOf(RegraNegocioException.class);
+	}
+
+	// ano fechado: receita de 100 em janeiro, despesa efetivada de 20 e pendente de 999 em marco;
+	// ano corrente: receita de 50 e despesa de 60
+	private Usuario criarUsuarioComLancamentos() {
+		Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+		efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 100, ANO_FECHADO, 1));
+		efetivar(criarLancamento(usuario, TipoLancamento.DESPESA, 20, ANO_FECHADO, 3));
+		lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 999, ANO_FECHADO, 3));
+		efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 50, ANO_CORRENTE, 1));
+		efetivar(criarLancamento(usuario, TipoLancamento.DESPESA, 60, ANO_CORRENTE, 1));
+		entityManager.flush();
+		entityManager.clear();
+		return usuario;
+	}
+
+	private List<LancamentoDTO> listar(Usuario usuario, Integer ano) {
+		return lancamentoService.listar(Lancamento.builder().usuario(usuario).ano(ano).build());
+	}
+
+	private void efetivar(Lancamento lancamento) {
+		lancamentoService.atualizarStatus(lancamentoService.salvar(lancamento), StatusLancamento.EFETIVADO);
+	}
+
+	private Lancamento criarLancamento(Usuario usuario, TipoLancamento tipo, int valor, int ano, int mes) {
+		return Lancamento.builder()
+				.ano(ano)
+				.mes(mes)
+				.descricao("lancamento qualquer")
+				.valor(BigDecimal.valueOf(valor))
+				.tipo(tipo)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build();
+	}
+}
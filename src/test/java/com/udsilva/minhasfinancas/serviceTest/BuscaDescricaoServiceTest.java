@@ -0,0 +1,121 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.api.dto.SugestaoDescricaoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.eventos.LancamentoAlteradoEvent;
+import com.udsilva.minhasfinancas.service.impl.BuscaDescricaoBancoService;
+import com.udsilva.minhasfinancas.service.impl.BuscaDescricaoMemoriaService;
+
+/** Testes das buscas de descricao pelo indice full-text do H2 e pelo indice de trigramas em memoria. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import(BuscaDescricaoBancoService.class)
+public class BuscaDescricaoServiceTest {
+
+	@Autowired
+	BuscaDescricaoBancoService buscaBanco;
+	
+	@Autowired
+	LancamentoRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	Usuario usuario;
+	
+	@Before
+	public void setUp(){
+		usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+		Usuario outroUsuario = entityManager.persist(Usuario.builder().nome("outro").email("outro@email.com").senha("senha").build());
+		persistirLancamento(usuario, "Aluguel apartamento");
+		persistirLancamento(usuario, "Aluguel apartamento");
+		persistirLancamento(usuario, "Conta de luz");
+		persistirLancamento(usuario, "Seguro do carro alugado");
+		persistirLancamento(outroUsuario, "Aluguel sala");
+		entityManager.flush();
+	}
+	
+	@Test
+	public void deveSugerirDescricoesPeloPrefixoNoBanco(){
+		List<SugestaoDescricaoDTO> sugestoes = buscaBanco.sugerir(usuario.getId(), "Alug", 10);
+		
+		assertThat(sugestoes).extracting(SugestaoDescricaoDTO::getDescricao).containsExactly("Aluguel apartamento");
+		assertThat(sugestoes.get(0).getOcorrencias()).isEqualTo(2);
+	}
+	
+	@Test
+	public void deveSugerirDescricoesPorPalavraCompletaNoBanco(){
+		List<SugestaoDescricaoDTO> sugestoes = buscaBanco.sugerir(usuario.getId(), "luz", 10);
+		
+		assertThat(sugestoes).extracting(SugestaoDescricaoDTO::getDescricao).containsExactly("Conta de luz");
+	}
+
+	@Test
+	public void deveSugerirPorTodasAsPalavrasCompletasSomenteDoUsuarioNoBanco(){
+		assertThat(buscaBanco.sugerir(usuario.getId(), "carro, SEGURO", 10))
+			.extracting(SugestaoDescricaoDTO::getDescricao).containsExactly("Seguro do carro alugado");
+		assertThat(buscaBanco.sugerir(usuario.getId(), "carro luz", 10)).isEmpty();
+		assertThat(buscaBanco.sugerir(usuario.getId(), "sala", 10)).isEmpty();
+		assertThat(buscaBanco.sugerir(usuario.getId(), "%.*", 10)).isEmpty();
+	}
+	
+	@Test
+	public void deveSugerirDescricoesPorTrechoEmMemoriaPriorizandoOPrefixo(){
+		BuscaDescricaoMemoriaService buscaMemoria = new BuscaDescricaoMemoriaService(repository, 10);
+		
+		List<SugestaoDescricaoDTO> sugestoes = buscaMemoria.sugerir(usuario.getId(), "alug", 10);
+		
+		assertThat(sugestoes).extracting(SugestaoDescricaoDTO::getDescricao)
+			.containsExactly("Aluguel apartamento", "Seguro do carro alugado");
+		assertThat(buscaMemoria.sugerir(usuario.getId(), "xyz", 10)).isEmpty();
+	}
+	
+	@Test
+	public void deveReconstruirOIndiceEmMemoriaAposAlteracao(){
+		BuscaDescricaoMemoriaService buscaMemoria = new BuscaDescricaoMemoriaService(repository, 10);
+		assertThat(buscaMemoria.sugerir(usuario.getId(), "internet", 10)).isEmpty();
+		
+		persistirLancamento(usuario, "Internet");
+		entityManager.flush();
+		buscaMemoria.descartarIndice(new LancamentoAlteradoEvent(usuario.getId()));
+		
+		assertThat(buscaMemoria.sugerir(usuario.getId(), "internet", 10)).hasSize(1);
+	}
+	
+	private void persistirLancamento(Usuario usuario, String descricao) {
+		entityManager.persist(Lancamento.builder()
+				.ano(2019)
+				.mes(1)
+				.descricao(descricao)
+				.valor(BigDecimal.valueOf(10))
+				.tipo(TipoLancamento.DESPESA)
+				.status(StatusLancamento.PENDENTE)
+				.dataCadastro(LocalDate.now())
+				.usuario(usuario)
+				.build());
+	}
+}
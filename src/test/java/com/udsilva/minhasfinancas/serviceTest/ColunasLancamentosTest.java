@@ -0,0 +1,144 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.service.analise.AgrupamentoTotais;
+import com.udsilva.minhasfinancas.service.analise.ColunasLancamentos;
+import com.udsilva.minhasfinancas.service.analise.FiltroTotais;
+
+public class ColunasLancamentosTest {
+
+	private final FiltroTotais semFiltro = new FiltroTotais();
+
+	@Test
+	public void deveTotalizarPorTipoEStatus(){
+		// cenario
+		ColunasLancamentos colunas = criarColunas();
+
+		// acao
+		List<TotalLancamentosDTO> porTipo = colunas.totalizar(semFiltro, AgrupamentoTotais.TIPO);
+		List<TotalLancamentosDTO> porStatus = colunas.totalizar(semFiltro, AgrupamentoTotais.STATUS);
+
+		// verificacao
+		assertThat(porTipo).containsExactly(total("RECEITA", 2, "1500.00"), total("DESPESA", 3, "230.75"));
+		assertThat(porStatus).containsExactly(total("PENDENTE", 2, "1030.00"), total("EFETIVADO", 3, "700.75"));
+	}
+
+	@Test
+	public void deveTotalizarPorMesEAnoDentroDoPeriodo(){
+		// cenario
+		ColunasLancamentos colunas = criarColunas();
+		FiltroTotais periodo = FiltroTotais.builder().de(YearMonth.of(2020, 2)).ate(YearMonth.of(2021, 12)).build();
+
+		// acao
+		List<TotalLancamentosDTO> porMes = colunas.totalizar(periodo, AgrupamentoTotais.MES);
+		List<TotalLancamentosDTO> porAno = colunas.totalizar(semFiltro, AgrupamentoTotais.ANO);
+
+		// verificacao
+		assertThat(porMes).containsExactly(total("2020-12", 2, "1030.00"), total("2021-01", 1, "0.75"));
+		assertThat(porAno).containsExactly(total("2020", 4, "1730.00"), total("2021", 1, "0.75"));
+	}
+
+	@Test
+	public void deveFiltrarPeloTermoDaDescricaoEPeloTipo(){
+		// cenario
+		ColunasLancamentos colunas = criarColunas();
+		FiltroTotais filtro = FiltroTotais.builder().termo("MERCADO").tipo(TipoLancamento.DESPESA).build();
+
+		// acao
+		List<TotalLancamentosDTO> totais = colunas.totalizar(filtro, AgrupamentoTotais.TOTAL);
+
+		// verificacao
+		assertThat(totais).containsExactly(total("total", 2, "230.00"));
+	}
+
+	@Test
+	public void deveSubstituirERemoverPeloId(){
+		// cenario
+		ColunasLancamentos colunas = criarColunas();
+
+		// acao
+		colunas.gravar(lancamento(2L, "mercado do bairro", "10.00", TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 2020, 12));
+		colunas.gravar(lancamento(6L, "bonus", "50.00", TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 2021, 3));
+		colunas.remover(1L);
+
+		// verificacao
+		assertThat(colunas.getTamanho()).isEqualTo(5);
+		assertThat(colunas.totalizar(semFiltro, AgrupamentoTotais.TIPO))
+				.containsExactly(total("RECEITA", 2, "550.00"), total("DESPESA", 3, "210.75"));
+	}
+
+	@Test
+	public void deveAcharPeloIdDepoisDeRemocoesQueMovemAsLinhas(){
+		// cenario - ids espalhados para colidir no indice, que cresce varias vezes
+		ColunasLancamentos colunas = new ColunasLancamentos();
+		int linhas = 10_000;
+		for(int i = 0; i < linhas; i++){
+			colunas.gravar(lancamento(i * 1024L, "lancamento", "1.00", TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 2020, 1));
+		}
+
+		// acao - remove os pares e regrava os impares como despesa
+		for(int i = 0; i < linhas; i += 2){
+			assertThat(colunas.remover(i * 1024L)).isTrue();
+		}
+		for(int i = 1; i < linhas; i += 2){
+			colunas.gravar(lancamento(i * 1024L, "lancamento", "2.00", TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 2020, 1));
+		}
+
+		// verificacao
+		assertThat(colunas.remover(0L)).isFalse();
+		assertThat(colunas.getTamanho()).isEqualTo(linhas / 2);
+		assertThat(colunas.totalizar(semFiltro, AgrupamentoTotais.TIPO))
+				.containsExactly(total("DESPESA", linhas / 2, "10000.00"));
+	}
+
+	@Test
+	public void deveSomarEmParaleloComOMesmoResultado(){
+		// cenario - mais linhas que uma tarefa do fork-join
+		ColunasLancamentos colunas = new ColunasLancamentos();
+		int linhas = 200_000;
+		for(int i = 0; i < linhas; i++){
+			colunas.adicionar(lancamento((long) i, "lancamento " + (i % 100), "1.01",
+					i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 2020 + i % 3, i % 12 + 1));
+		}
+
+		// acao
+		List<TotalLancamentosDTO> porTipo = colunas.totalizar(semFiltro, AgrupamentoTotais.TIPO);
+		List<TotalLancamentosDTO> porMes = colunas.totalizar(semFiltro, AgrupamentoTotais.MES);
+
+		// verificacao
+		assertThat(porTipo).containsExactly(total("RECEITA", linhas / 2, "101000.00"), total("DESPESA", linhas / 2, "101000.00"));
+		assertThat(porMes.stream().mapToLong(TotalLancamentosDTO::getQuantidade).sum()).isEqualTo(linhas);
+	}
+
+	// 2020: receita pendente de 1000 e despesa pendente de 30 em dezembro, receita efetivada de 500
+	// e despesa efetivada de 200 em janeiro; 2021: despesa efetivada de 0,75 em janeiro
+	private ColunasLancamentos criarColunas() {
+		ColunasLancamentos colunas = new ColunasLancamentos();
+		colunas.adicionar(lancamento(1L, "salario", "1000.00", TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 2020, 12));
+		colunas.adicionar(lancamento(2L, "Mercado do bairro", "30.00", TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 2020, 12));
+		colunas.adicionar(lancamento(3L, "salario", "500.00", TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 2020, 1));
+		colunas.adicionar(lancamento(4L, "supermercado", "200.00", TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 2020, 1));
+		colunas.adicionar(lancamento(5L, "tarifa", "0.75", TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 2021, 1));
+		return colunas;
+	}
+
+	private static LancamentoDTO lancamento(Long id, String descricao, String valor, TipoLancamento tipo,
+			StatusLancamento status, int ano, int mes) {
+		return new LancamentoDTO(id, descricao, mes, ano, new BigDecimal(valor), 1L, tipo, status, 0L);
+	}
+
+	private static TotalLancamentosDTO total(String grupo, long quantidade, String valor) {
+		return new TotalLancamentosDTO(grupo, quantidade, new BigDecimal(valor));
+	}
+}
@@ -0,0 +1,149 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.udsilva.minhasfinancas.service.LancamentoService;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+import com.udsilva.minhasfinancas.service.impl.ConsultaCompartilhadaServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/** Sem contexto do spring: a consulta do LancamentoService e um mock que fica presa ate o teste liberar,
+ *  para a segunda chamada chegar com a primeira ainda em andamento. */
+public class ConsultaCompartilhadaServiceTest {
+
+	private static final Long ID_USUARIO = 1L;
+
+	LancamentoService lancamentoService;
+	SimpleMeterRegistry registry;
+	ConsultaCompartilhadaServiceImpl service;
+	ExecutorService executor;
+	CountDownLatch liberar;
+	CountDownLatch iniciada;
+
+	@Before
+	public void setUp() {
+		lancamentoService = Mockito.mock(LancamentoService.class);
+		registry = new SimpleMeterRegistry();
+		service = new ConsultaCompartilhadaServiceImpl(lancamentoService, registry);
+		executor = Executors.newFixedThreadPool(2);
+		liberar = new CountDownLatch(1);
+		iniciada = new CountDownLatch(1);
+	}
+
+	@After
+	public void tearDown() {
+		liberar.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void deveCompartilharOSaldoEntreChamadasSimultaneasIguais() throws Exception {
+		// cenario
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(ID_USUARIO)).thenAnswer(i -> aguardarLiberacao(new BigDecimal("100")));
+		CompletableFuture<BigDecimal> primeira = obterSaldo(5L);
+		assertThat(iniciada.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// acao
+		CompletableFuture<BigDecimal> segunda = obterSaldo(5L);
+		aguardarCompartilhadas(1);
+		liberar.countDown();
+
+		// verificacao
+		assertThat(primeira.get(5, TimeUnit.SECONDS)).isEqualByComparingTo("100");
+		assertThat(segunda.get(5, TimeUnit.SECONDS)).isEqualByComparingTo("100");
+		Mockito.verify(lancamentoService, Mockito.times(1)).obterSaldoPorUsuario(ID_USUARIO);
+		assertThat(contador("executada")).isEqualTo(1);
+		assertThat(contador("compartilhada")).isEqualTo(1);
+	}
+
+	@Test
+	public void naoDeveCompartilharAConsultaIniciadaAntesDeUmaEscrita() throws Exception {
+		// cenario - a primeira chamada leu o contador 5, a segunda ja ve o 6
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(ID_USUARIO))
+				.thenAnswer(i -> aguardarLiberacao(new BigDecimal("100")))
+				.thenReturn(new BigDecimal("250"));
+		CompletableFuture<BigDecimal> antes = obterSaldo(5L);
+		assertThat(iniciada.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// acao
+		BigDecimal depois = service.obterSaldoPorUsuario(ID_USUARIO, Optional.of(6L));
+		liberar.countDown();
+
+		// verificacao
+		assertThat(depois).isEqualByComparingTo("250");
+		assertThat(antes.get(5, TimeUnit.SECONDS)).isEqualByComparingTo("100");
+		Mockito.verify(lancamentoService, Mockito.times(2)).obterSaldoPorUsuario(ID_USUARIO);
+		assertThat(contador("executada")).isEqualTo(2);
+		assertThat(contador("compartilhada")).isZero();
+	}
+
+	@Test
+	public void deveExecutarDeNovoDepoisQueAConsultaTermina() {
+		// cenario
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(ID_USUARIO)).thenReturn(BigDecimal.TEN);
+
+		// acao
+		service.obterSaldoPorUsuario(ID_USUARIO, Optional.of(5L));
+		service.obterSaldoPorUsuario(ID_USUARIO, Optional.of(5L));
+
+		// verificacao - o resultado nao fica guardado
+		Mockito.verify(lancamentoService, Mockito.times(2)).obterSaldoPorUsuario(ID_USUARIO);
+		assertThat(contador("executada")).isEqualTo(2);
+	}
+
+	@Test
+	public void deveRepassarAExcecaoParaQuemAguarda() throws Exception {
+		// cenario
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(ID_USUARIO)).thenAnswer(i -> {
+			aguardarLiberacao(null);
+			throw new RegraNegocioException("erro");
+		});
+		CompletableFuture<BigDecimal> primeira = obterSaldo(5L);
+		assertThat(iniciada.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// acao
+		CompletableFuture<BigDecimal> segunda = obterSaldo(5L);
+		aguardarCompartilhadas(1);
+		liberar.countDown();
+
+		// verificacao
+		assertThatThrownBy(() -> primeira.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(RegraNegocioException.class);
+		assertThatThrownBy(() -> segunda.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(RegraNegocioException.class);
+		Mockito.verify(lancamentoService, Mockito.times(1)).obterSaldoPorUsuario(ID_USUARIO);
+	}
+
+	private CompletableFuture<BigDecimal> obterSaldo(Long alteracoes) {
+		return CompletableFuture.supplyAsync(() -> service.obterSaldoPorUsuario(ID_USUARIO, Optional.of(alteracoes)), executor);
+	}
+
+	private <T> T aguardarLiberacao(T resultado) throws InterruptedException {
+		iniciada.countDown();
+		liberar.await(5, TimeUnit.SECONDS);
+		return resultado;
+	}
+
+	private void aguardarCompartilhadas(long quantidade) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 5000;
+		while(contador("compartilhada") < quantidade && System.currentTimeMillis() < limite){
+			Thread.sleep(10);
+		}
+	}
+
+	private double contador(String resultado) {
+		return registry.get("minhasfinancas.consultas").tag("consulta", "saldo").tag("resultado", resultado).counter().count();
+	}
+}
@@ -0,0 +1,152 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.StreamUtils;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.service.exportacao.FormatoExportacao;
+import com.udsilva.minhasfinancas.service.impl.ArquivamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.ExportacaoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import({ ExportacaoServiceImpl.class, LancamentoServiceImpl.class, RecorrenciaServiceImpl.class, SaldoUsuarioServiceImpl.class, ArquivamentoServiceImpl.class })
+public class ExportacaoServiceTest {
+
+	private static final int ANO_FECHADO = Year.now().getValue() - 3;
+	private static final int ANO_CORRENTE = Year.now().getValue();
+
+	@Autowired
+	ExportacaoServiceImpl service;
+
+	@Autowired
+	LancamentoServiceImpl lancamentoService;
+
+	@Autowired
+	ArquivamentoServiceImpl arquivamentoService;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveExportarOHistoricoEmCsvComOsAnosArquivados() throws Exception {
+		// cenario
+		Usuario usuario = criarUsuarioComLancamentos();
+		arquivamentoService.arquivarAte(ANO_FECHADO);
+
+		// acao
+		List<String> linhas = Arrays.asList(new String(exportar(usuario, FormatoExportacao.CSV, false), StandardCharsets.UTF_8).split("\r\n"));
+
+		// verificacao
+		assertThat(linhas).hasSize(4);
+		assertThat(linhas.get(0)).isEqualTo("\uFEFFid,ano,mes,descricao,valor,tipo,status");
+		assertThat(linhas.get(1)).endsWith("," + ANO_FECHADO + ",1,salario,100.00,RECEITA,PENDENTE");
+		assertThat(linhas.get(2)).endsWith("," + ANO_CORRENTE + ",2,\"mercado, \"\"feira\"\"\",20.50,DESPESA,PENDENTE");
+		assertThat(linhas.get(3)).endsWith("," + ANO_CORRENTE + ",3,aluguel,900.00,DESPESA,PENDENTE");
+	}
+
+	@Test
+	public void deveCompactarOCsvComGzip() throws Exception {
+		// cenario
+		Usuario usuario = criarUsuarioComLancamentos();
+		byte[] csv = exportar(usuario, FormatoExportacao.CSV, false);
+
+		// acao
+		byte[] compactado = exportar(usuario, FormatoExportacao.CSV, true);
+
+		// verificacao
+		try(InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(compactado))){
+			assertThat(StreamUtils.copyToByteArray(entrada)).isEqualTo(csv);
+		}
+	}
+
+	@Test
+	public void deveExportarOHistoricoEmXlsx() throws Exception {
+		// cenario
+		Usuario usuario = criarUsuarioComLancamentos();
+
+		// acao
+		byte[] xlsx = exportar(usuario, FormatoExportacao.XLSX, false);
+
+		// verificacao
+		try(XSSFWorkbook planilha = new XSSFWorkbook(new ByteArrayInputStream(xlsx))){
+			Sheet aba = planilha.getSheet("lancamentos");
+			assertThat(aba.getLastRowNum()).isEqualTo(3);
+			assertThat(aba.getRow(0).getCell(3).getStringCellValue()).isEqualTo("descricao");
+			assertThat(aba.getRow(2).getCell(3).getStringCellValue()).isEqualTo("mercado, \"feira\"");
+			assertThat(aba.getRow(2).getCell(4).getNumericCellValue()).isEqualTo(20.5);
+			assertThat(aba.getRow(3).getCell(5).getStringCellValue()).isEqualTo("DESPESA");
+		}
+	}
+
+	@Test
+	public void deveExportarSomenteOCabecalhoParaUsuarioSemLancamentos() throws Exception {
+		// cenario
+		Usuario usuario = entityManager.persist(Usuario.builder().nome("vazio").email("vazio@email.com").senha("senha").build());
+
+		// acao
+		String csv = new String(exportar(usuario, FormatoExportacao.CSV, false), StandardCharsets.UTF_8);
+
+		// verificacao
+		assertThat(csv).isEqualTo("\uFEFFid,ano,mes,descricao,valor,tipo,status\r\n");
+	}
+
+	private byte[] exportar(Usuario usuario, FormatoExportacao formato, boolean gzip) throws Exception {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream();
+		service.exportar(usuario.getId(), formato, gzip, saida);
+		return saida.toByteArray();
+	}
+
+	private Usuario criarUsuarioComLancamentos() {
+		Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+		lancamentoService.salvar(criarLancamento(usuario, "aluguel", "900.00", TipoLancamento.DESPESA, ANO_CORRENTE, 3));
+		lancamentoService.salvar(criarLancamento(usuario, "mercado, \"feira\"", "20.50", TipoLancamento.DESPESA, ANO_CORRENTE, 2));
+		lancamentoService.salvar(criarLancamento(usuario, "salario", "100.00", TipoLancamento.RECEITA, ANO_FECHADO, 1));
+		entityManager.flush();
+		entityManager.clear();
+		return usuario;
+	}
+
+	private Lancamento criarLancamento(Usuario usuario, String descricao, String valor, TipoLancamento tipo, int ano, int mes) {
+		return Lancamento.builder()
+				.ano(ano)
+				.mes(mes)
+				.descricao(descricao)
+				.valor(new BigDecimal(valor))
+				.tipo(tipo)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build();
+	}
+}
@@ -0,0 +1,150 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Recorrencia;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
+import com.udsilva.minhasfinancas.service.impl.ExpurgoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+/** Exclusao logica: os lancamentos excluidos somem das consultas e do saldo na exclusao e saem da tabela
+ *  no expurgo, em lotes de 2. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "minhasfinancas.exclusao.logica=true", "minhasfinancas.exclusao.expurgo.lote=2" })
+@Import({ ExpurgoServiceImpl.class, LancamentoServiceImpl.class, RecorrenciaServiceImpl.class, SaldoUsuarioServiceImpl.class })
+public class ExpurgoServiceTest {
+
+	private static final int ANO = Year.now().getValue();
+
+	@Autowired
+	ExpurgoServiceImpl service;
+
+	@Autowired
+	LancamentoServiceImpl lancamentoService;
+
+	@Autowired
+	RecorrenciaServiceImpl recorrenciaService;
+
+	@Autowired
+	SaldoUsuarioServiceImpl saldoService;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveOcultarOLancamentoExcluidoAteOExpurgo(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Lancamento receita = efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 100, 1));
+		Lancamento despesa = efetivar(criarLancamento(usuario, TipoLancamento.DESPESA, 30, 1));
+
+		// acao
+		lancamentoService.deletar(despesa);
+		entityManager.clear();
+
+		// verificacao
+		assertThat(lancamentoService.obterPorId(despesa.getId())).isEmpty();
+		assertThat(lancamentoService.listar(Lancamento.builder().usuario(usuario).build()))
+				.extracting("id").containsExactly(receita.getId());
+		assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+		assertThat(saldoService.calcularSaldo(usuario.getId())).isEqualByComparingTo("100");
+		assertThat(contarLinhas(usuario)).isEqualTo(2);
+
+		assertThat(service.expurgarExcluidos()).isEqualTo(1);
+		assertThat(contarLinhas(usuario)).isEqualTo(1);
+		assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+	}
+
+	@Test
+	public void deveExpurgarEmLotesOsExcluidosDaExclusaoEmLote(){
+		// cenario - 5 lancamentos em fevereiro, removidos em 3 lotes
+		Usuario usuario = criarUsuario();
+		efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 100, 1));
+		for(int i = 0; i < 5; i++){
+			efetivar(criarLancamento(usuario, TipoLancamento.DESPESA, 10, 2));
+		}
+
+		// acao
+		int excluidos = lancamentoService.deletar(FiltroLancamentoLote.builder().idUsuario(usuario.getId()).mes(2).build());
+		int expurgados = service.expurgarExcluidos();
+
+		// verificacao
+		assertThat(excluidos).isEqualTo(5);
+		assertThat(expurgados).isEqualTo(5);
+		assertThat(contarLinhas(usuario)).isEqualTo(1);
+		assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+
+	@Test
+	public void deveAlterarDeNovoAOcorrenciaExcluida(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Recorrencia aluguel = recorrenciaService.salvar(Recorrencia.builder().descricao("aluguel").valor(new BigDecimal("100"))
+				.tipo(TipoLancamento.DESPESA).mes(1).ano(ANO).usuario(usuario).build());
+		Lancamento alteracao = Lancamento.builder().valor(new BigDecimal("120")).usuario(usuario).build();
+		Lancamento ocorrencia = lancamentoService.alterarOcorrencia(aluguel.getId(), 2, alteracao);
+
+		// acao
+		lancamentoService.deletar(ocorrencia);
+		Lancamento novaOcorrencia = lancamentoService.alterarOcorrencia(aluguel.getId(), 2, alteracao);
+
+		// verificacao
+		assertThat(novaOcorrencia.getId()).isNotEqualTo(ocorrencia.getId());
+		assertThat(novaOcorrencia.getParcela()).isEqualTo(2);
+	}
+
+	private long contarLinhas(Usuario usuario) {
+		return ((Number) entityManager.getEntityManager()
+				.createNativeQuery(" select count(*) from financas.lancamento where id_usuario = :idUsuario ")
+				.setParameter("idUsuario", usuario.getId())
+				.getSingleResult()).longValue();
+	}
+
+	private Lancamento efetivar(Lancamento lancamento) {
+		Lancamento salvo = lancamentoService.salvar(lancamento);
+		lancamentoService.atualizarStatus(salvo, StatusLancamento.EFETIVADO);
+		return salvo;
+	}
+
+	private Usuario criarUsuario() {
+		return entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+	}
+
+	private static Lancamento criarLancamento(Usuario usuario, TipoLancamento tipo, int valor, int mes) {
+		return Lancamento.builder()
+				.descricao("lancamento")
+				.mes(mes)
+				.ano(ANO)
+				.valor(BigDecimal.valueOf(valor))
+				.tipo(tipo)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build();
+	}
+}
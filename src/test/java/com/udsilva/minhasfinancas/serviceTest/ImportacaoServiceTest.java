@@ -0,0 +1,150 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.api.dto.ResultadoImportacaoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.impl.ImportacaoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+import com.udsilva.minhasfinancas.service.importacao.FormatoExtrato;
+
+/** Testes de integração da importação de extratos em lote. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import({ ImportacaoServiceImpl.class, LancamentoServiceImpl.class, RecorrenciaServiceImpl.class, SaldoUsuarioServiceImpl.class })
+public class ImportacaoServiceTest {
+
+	@Autowired
+	ImportacaoServiceImpl service;
+	
+	@Autowired
+	LancamentoRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveImportarUmCsvRejeitandoAsLinhasInvalidas(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		String csv = "descricao;mes;ano;valor;tipo\n"
+				+ "\"Aluguel; apto\";1;2019;1.500,00;DESPESA\n"
+				+ "Salario;1;2019;3000;\n"
+				+ "Mercado;1;2019;-250,10;\n"
+				+ ";2;2019;10;DESPESA\n"
+				+ "Luz;13;2019;10;DESPESA\n"
+				+ "Agua;2;2019;abc;DESPESA\n";
+		
+		// acao
+		ResultadoImportacaoDTO resultado = service.importar(usuario.getId(), FormatoExtrato.CSV, entrada(csv), StandardCharsets.UTF_8);
+		
+		// verificacao
+		assertThat(resultado.getImportados()).isEqualTo(3);
+		assertThat(resultado.getRejeitados()).isEqualTo(3);
+		assertThat(resultado.getErros()).extracting("linha").containsExactly(5, 6, 7);
+		
+		List<Lancamento> lancamentos = repository.findAll();
+		assertThat(lancamentos).extracting(Lancamento::getDescricao).containsExactlyInAnyOrder("Aluguel; apto", "Salario", "Mercado");
+		assertThat(lancamentos).allMatch(l -> l.getStatus() == StatusLancamento.PENDENTE && l.getUsuario().getId().equals(usuario.getId()));
+		Lancamento mercado = lancamentos.stream().filter(l -> l.getDescricao().equals("Mercado")).findFirst().get();
+		assertThat(mercado.getTipo()).isEqualTo(TipoLancamento.DESPESA);
+		assertThat(mercado.getValor()).isEqualByComparingTo("250.10");
+	}
+	
+	@Test
+	public void deveImportarAsTransacoesDeUmOfx(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+				+ "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20190305120000[-3:BRT]\n<TRNAMT>-42.50\n<MEMO>Farmacia\n</STMTTRN>\n"
+				+ "<STMTTRN><TRNTYPE>CREDIT</TRNTYPE><DTPOSTED>20190310</DTPOSTED><TRNAMT>1000.00</TRNAMT><NAME>Salario</NAME></STMTTRN>\n"
+				+ "<STMTTRN>\n<TRNTYPE>DEBIT\n<TRNAMT>-1.00\n<MEMO>Sem data\n</STMTTRN>\n"
+				+ "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+		
+		// acao
+		ResultadoImportacaoDTO resultado = service.importar(usuario.getId(), FormatoExtrato.OFX, entrada(ofx), StandardCharsets.UTF_8);
+		
+		// verificacao
+		assertThat(resultado.getImportados()).isEqualTo(2);
+		assertThat(resultado.getRejeitados()).isEqualTo(1);
+		assertThat(repository.findAll())
+			.extracting(Lancamento::getDescricao, Lancamento::getMes, Lancamento::getTipo)
+			.containsExactlyInAnyOrder(tuple("Farmacia", 3, TipoLancamento.DESPESA), tuple("Salario", 3, TipoLancamento.RECEITA));
+	}
+	
+	@Test
+	public void deveRejeitarALinhaComDescricaoMaiorQueAColuna(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		String csv = "descricao;mes;ano;valor;tipo\n"
+				+ repetir('x', 256) + ";1;2019;10;DESPESA\n"
+				+ repetir('y', 255) + ";1;2019;10;DESPESA\n";
+		
+		// acao
+		ResultadoImportacaoDTO resultado = service.importar(usuario.getId(), FormatoExtrato.CSV, entrada(csv), StandardCharsets.UTF_8);
+		
+		// verificacao
+		assertThat(resultado.getImportados()).isEqualTo(1);
+		assertThat(resultado.getRejeitados()).isEqualTo(1);
+		assertThat(resultado.getErros()).extracting("linha").containsExactly(2);
+		assertThat(repository.findAll()).extracting(Lancamento::getDescricao).containsExactly(repetir('y', 255));
+	}
+	
+	@Test
+	public void deveRejeitarALinhaComValorForaDaPrecisaoDaColuna(){
+		// cenario - 18 digitos inteiros e 3 casas decimais nao cabem em numeric(19,2)
+		Usuario usuario = criarEPersistirUsuario();
+		String csv = "descricao;mes;ano;valor;tipo\n"
+				+ "Grande;1;2019;123456789012345678;DESPESA\n"
+				+ "Fracionado;1;2019;10,125;DESPESA\n"
+				+ "Limite;1;2019;12345678901234567,10;DESPESA\n";
+		
+		// acao
+		ResultadoImportacaoDTO resultado = service.importar(usuario.getId(), FormatoExtrato.CSV, entrada(csv), StandardCharsets.UTF_8);
+		
+		// verificacao
+		assertThat(resultado.getImportados()).isEqualTo(1);
+		assertThat(resultado.getRejeitados()).isEqualTo(2);
+		assertThat(resultado.getErros()).extracting("linha").containsExactly(2, 3);
+		assertThat(repository.findAll()).extracting(Lancamento::getDescricao).containsExactly("Limite");
+	}
+	
+	private static String repetir(char caractere, int vezes) {
+		char[] texto = new char[vezes];
+		Arrays.fill(texto, caractere);
+		return new String(texto);
+	}
+	
+	private InputStream entrada(String conteudo) {
+		return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private Usuario criarEPersistirUsuario() {
+		return entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+	}
+}
@@ -0,0 +1,217 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+/** Testes de integração do cache de segundo nivel (Lancamento e Usuario) e do cache da consulta de saldo.
+ *  Sem transacao no teste: cada chamada ao servico e uma transacao, lida por uma sessao nova. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "minhasfinancas.cache.consulta-saldo=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ LancamentoServiceImpl.class, RecorrenciaServiceImpl.class, SaldoUsuarioServiceImpl.class })
+public class LancamentoCacheTest {
+
+	@Autowired
+	LancamentoServiceImpl service;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	SaldoUsuarioRepository saldoRepository;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@After
+	public void removerDados() {
+		lancamentoRepository.deleteAll();
+		saldoRepository.deleteAll();
+		usuarioRepository.deleteAll();
+	}
+
+	// com id identity o hibernate nao guarda no cache o lancamento inserido: a primeira leitura vai ao banco
+	@Test
+	public void deveLerOLancamentoDoCacheSemConsultarOBanco(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, 100));
+		long acertos = regiao("lancamento").getHitCount();
+		long faltas = regiao("lancamento").getMissCount();
+
+		// acao
+		service.obterPorId(lancamento.getId());
+		service.obterPorId(lancamento.getId());
+		service.obterPorId(lancamento.getId());
+
+		// verificacao
+		assertThat(regiao("lancamento").getMissCount()).isEqualTo(faltas + 1);
+		assertThat(regiao("lancamento").getHitCount()).isEqualTo(acertos + 2);
+	}
+
+	@Test
+	public void deveLerDoBancoOLancamentoAlteradoPorInstrucaoNativa(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, 100));
+		service.obterPorId(lancamento.getId());
+
+		// acao
+		lancamento.setValor(new BigDecimal("250"));
+		service.atualizar(lancamento);
+		Lancamento atualizado = service.obterPorId(lancamento.getId()).get();
+		service.atualizarStatus(lancamento.getId(), usuario.getId(), StatusLancamento.PENDENTE, StatusLancamento.CANCELADO, null);
+		Lancamento cancelado = service.obterPorId(lancamento.getId()).get();
+
+		// verificacao
+		assertThat(atualizado.getValor()).isEqualByComparingTo("250");
+		assertThat(atualizado.getVersao()).isEqualTo(1L);
+		assertThat(cancelado.getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+		assertThat(cancelado.getVersao()).isEqualTo(2L);
+	}
+
+	@Test
+	public void deveManterNoCacheOsLancamentosForaDaAlteracaoDeUmaLinha(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Lancamento alterado = service.salvar(criarLancamento(usuario, 100));
+		Lancamento outro = service.salvar(criarLancamento(usuario, 200));
+		service.obterPorId(outro.getId());
+
+		// acao
+		service.atualizarStatus(alterado.getId(), usuario.getId(), null, StatusLancamento.EFETIVADO, null);
+		long acertos = regiao("lancamento").getHitCount();
+		service.obterPorId(outro.getId());
+
+		// verificacao
+		assertThat(regiao("lancamento").getHitCount()).isEqualTo(acertos + 1);
+	}
+
+	@Test
+	public void deveLerDoBancoOsLancamentosDaAtualizacaoEmLote(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Lancamento primeiro = service.salvar(criarLancamento(usuario, 100));
+		Lancamento segundo = service.salvar(criarLancamento(usuario, 200));
+		service.obterPorId(primeiro.getId());
+		service.obterPorId(segundo.getId());
+
+		// acao
+		service.atualizarStatus(FiltroLancamentoLote.builder().idUsuario(usuario.getId()).build(), StatusLancamento.EFETIVADO);
+
+		// verificacao
+		assertThat(service.obterPorId(primeiro.getId()).get().getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+		assertThat(service.obterPorId(segundo.getId()).get().getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("300");
+	}
+
+	@Test
+	public void naoDeveEncontrarOLancamentoExcluido(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, 100));
+		service.obterPorId(lancamento.getId());
+
+		// acao
+		service.deletar(lancamento);
+
+		// verificacao
+		assertThat(service.obterPorId(lancamento.getId())).isEmpty();
+	}
+
+	@Test
+	public void deveLerDoBancoOUsuarioComASenhaTrocada(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		usuarioRepository.findById(usuario.getId());
+
+		// acao
+		usuarioRepository.atualizarSenha(usuario, "nova");
+
+		// verificacao
+		assertThat(usuarioRepository.findById(usuario.getId()).get().getSenha()).isEqualTo("nova");
+	}
+
+	@Test
+	public void deveGuardarOSaldoNoCacheDeConsultasAteAProximaEscrita(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, 100));
+		service.atualizarStatus(lancamento.getId(), usuario.getId(), null, StatusLancamento.EFETIVADO, null);
+		long acertos = sessionFactory().getStatistics().getQueryRegionStatistics("saldo").getHitCount();
+
+		// acao
+		BigDecimal saldo = service.obterSaldoPorUsuario(usuario.getId());
+		BigDecimal saldoEmCache = service.obterSaldoPorUsuario(usuario.getId());
+		service.atualizarStatus(lancamento.getId(), usuario.getId(), null, StatusLancamento.CANCELADO, null);
+
+		// verificacao
+		assertThat(saldo).isEqualByComparingTo("100");
+		assertThat(saldoEmCache).isEqualByComparingTo("100");
+		assertThat(sessionFactory().getStatistics().getQueryRegionStatistics("saldo").getHitCount()).isEqualTo(acertos + 1);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+	}
+
+	private Usuario criarUsuario() {
+		return usuarioRepository.save(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+	}
+
+	private static Lancamento criarLancamento(Usuario usuario, int valor) {
+		return Lancamento.builder()
+				.descricao("lancamento")
+				.mes(1)
+				.ano(LocalDate.now().getYear())
+				.valor(new BigDecimal(valor))
+				.tipo(TipoLancamento.RECEITA)
+				.status(StatusLancamento.PENDENTE)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build();
+	}
+
+	private SessionFactory sessionFactory() {
+		return entityManagerFactory.unwrap(SessionFactory.class);
+	}
+
+	private CacheRegionStatistics regiao(String nome) {
+		return sessionFactory().getStatistics().getDomainDataRegionStatistics(nome);
+	}
+}
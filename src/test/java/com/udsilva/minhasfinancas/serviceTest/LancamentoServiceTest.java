@@ -0,0 +1,347 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.SaldoUsuario;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
+import com.udsilva.minhasfinancas.service.exceptions.ConflitoAtualizacaoException;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+/** Testes de integração do LancamentoService com o saldo materializado do usuario. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import({ LancamentoServiceImpl.class, RecorrenciaServiceImpl.class, SaldoUsuarioServiceImpl.class })
+public class LancamentoServiceTest {
+
+	@Autowired
+	LancamentoServiceImpl service;
+	
+	@Autowired
+	SaldoUsuarioServiceImpl saldoService;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveAtualizarOSaldoAoEfetivarUmLancamento(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Lancamento receita = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+		Lancamento despesa = service.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 30));
+		
+		// acao
+		service.atualizarStatus(receita, StatusLancamento.EFETIVADO);
+		service.atualizarStatus(despesa, StatusLancamento.EFETIVADO);
+		
+		// verificacao
+		SaldoUsuario saldo = entityManager.find(SaldoUsuario.class, usuario.getId());
+		entityManager.refresh(saldo);
+		assertThat(saldo.getReceitas()).isEqualByComparingTo("100");
+		assertThat(saldo.getDespesas()).isEqualByComparingTo("30");
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("70");
+		assertThat(saldoService.calcularSaldo(usuario.getId())).isEqualByComparingTo("70");
+	}
+	
+	@Test
+	public void deveRetirarDoSaldoAoCancelarOuDeletarUmLancamento(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Lancamento receita = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+		Lancamento outraReceita = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 50));
+		service.atualizarStatus(receita, StatusLancamento.EFETIVADO);
+		service.atualizarStatus(outraReceita, StatusLancamento.EFETIVADO);
+		
+		// acao
+		service.atualizarStatus(receita, StatusLancamento.CANCELADO);
+		service.deletar(outraReceita);
+		
+		// verificacao
+		entityManager.flush();
+		entityManager.clear();
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+	
+	@Test
+	public void deveReconstruirOSaldoDivergente(){
+		// cenario - saldo registrado divergente dos lancamentos
+		Usuario usuario = criarEPersistirUsuario();
+		Lancamento receita = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+		service.atualizarStatus(receita, StatusLancamento.EFETIVADO);
+		entityManager.persistAndFlush(new SaldoUsuario(usuario.getId() + 1000, BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE));
+		
+		// acao
+		assertThat(saldoService.reconstruir()).hasSize(1);
+		
+		// verificacao
+		entityManager.flush();
+		entityManager.clear();
+		assertThat(saldoService.conferir()).isEmpty();
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+	}
+	
+	@Test
+	public void deveCalcularASerieMensalComSaldoAcumulado(){
+		// cenario - um mes antes do periodo, dois meses dentro do periodo
+		Usuario usuario = criarEPersistirUsuario();
+		efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 100, 2018, 12));
+		efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 50, 2019, 1));
+		efetivar(criarLancamento(usuario, TipoLancamento.DESPESA, 20, 2019, 1));
+		efetivar(criarLancamento(usuario, TipoLancamento.DESPESA, 10, 2019, 3));
+		service.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 999, 2019, 3));
+		
+		// acao
+		List<SaldoMensalDTO> serie = service.obterSerieSaldoPorUsuario(usuario.getId(), YearMonth.of(2019, 1), YearMonth.of(2019, 12));
+		
+		// verificacao
+		assertThat(serie).hasSize(2);
+		assertThat(serie.get(0).getMes()).isEqualTo(1);
+		assertThat(serie.get(0).getReceitas()).isEqualByComparingTo("50");
+		assertThat(serie.get(0).getDespesas()).isEqualByComparingTo("20");
+		assertThat(serie.get(0).getSaldo()).isEqualByComparingTo("130");
+		assertThat(serie.get(1).getMes()).isEqualTo(3);
+		assertThat(serie.get(1).getSaldo()).isEqualByComparingTo("120");
+	}
+	
+	@Test
+	public void deveEfetivarOsLancamentosDoMesEmLote(){
+		// cenario - um lancamento ja efetivado, dois pendentes no mes e um fora do mes
+		Usuario usuario = criarEPersistirUsuario();
+		efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 100, 2019, 1));
+		service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 50, 2019, 1));
+		service.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 20, 2019, 1));
+		service.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 999, 2019, 2));
+		entityManager.flush();
+		entityManager.clear();
+		
+		// acao
+		FiltroLancamentoLote filtro = FiltroLancamentoLote.builder().idUsuario(usuario.getId()).ano(2019).mes(1).build();
+		int atualizados = service.atualizarStatus(filtro, StatusLancamento.EFETIVADO);
+		
+		// verificacao
+		assertThat(atualizados).isEqualTo(2);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("130");
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+	
+	@Test
+	public void deveCancelarEmLotePelosIds(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Lancamento receita = criarLancamento(usuario, TipoLancamento.RECEITA, 100);
+		Lancamento despesa = criarLancamento(usuario, TipoLancamento.DESPESA, 30);
+		efetivar(receita);
+		efetivar(despesa);
+		efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 10));
+		entityManager.flush();
+		entityManager.clear();
+		
+		// acao
+		FiltroLancamentoLote filtro = FiltroLancamentoLote.builder().ids(Arrays.asList(receita.getId(), despesa.getId())).build();
+		int atualizados = service.atualizarStatus(filtro, StatusLancamento.CANCELADO);
+		
+		// verificacao
+		assertThat(atualizados).isEqualTo(2);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("10");
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+	
+	@Test
+	public void deveAtualizarNaVersaoEsperadaEIncrementarAVersao(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+		Long versao = lancamento.getVersao();
+		
+		// acao
+		Lancamento alterado = criarLancamento(usuario, TipoLancamento.RECEITA, 150);
+		alterado.setId(lancamento.getId());
+		alterado.setStatus(StatusLancamento.EFETIVADO);
+		service.atualizar(alterado, versao);
+		
+		// verificacao
+		Lancamento atual = entityManager.find(Lancamento.class, lancamento.getId());
+		entityManager.refresh(atual);
+		assertThat(atual.getVersao()).isEqualTo(versao + 1);
+		assertThat(atual.getValor()).isEqualByComparingTo("150");
+		assertThat(atual.getDataCadastro()).isNotNull();
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("150");
+	}
+	
+	@Test
+	public void deveRecusarAtualizacaoComVersaoDesatualizadaSemAlterarOSaldo(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+		Long versaoLida = lancamento.getVersao();
+		service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO);
+		
+		// acao
+		Lancamento alterado = criarLancamento(usuario, TipoLancamento.RECEITA, 500);
+		alterado.setId(lancamento.getId());
+		alterado.setStatus(StatusLancamento.EFETIVADO);
+		Throwable erro = catchThrowable(() -> service.atualizar(alterado, versaoLida));
+		
+		// verificacao
+		assertThat(erro).isInstanceOf(ConflitoAtualizacaoException.class);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+	
+	@Test
+	public void deveRecusarTrocaDeStatusQuandoOStatusAtualJaMudou(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 40));
+		service.atualizarStatus(lancamento, StatusLancamento.CANCELADO);
+		
+		// acao
+		Throwable erro = catchThrowable(() -> service.atualizarStatus(lancamento.getId(), usuario.getId(), 
+				StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO, null));
+		
+		// verificacao
+		assertThat(erro).isInstanceOf(ConflitoAtualizacaoException.class);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+	}
+	
+	@Test
+	public void deveTratarLancamentoDeOutroUsuarioComoNaoEncontrado(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Usuario outro = entityManager.persist(Usuario.builder().nome("outro").email("outro@email.com").senha("senha").build());
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+		
+		// acao
+		Throwable erro = catchThrowable(() -> service.atualizarStatus(lancamento.getId(), outro.getId(), 
+				null, StatusLancamento.EFETIVADO, null));
+		
+		// verificacao
+		assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Lancamento não encontrado na base de dados.");
+	}
+	
+	@Test
+	public void deveMudarOContadorDeAlteracoesACadaEscritaSemRepetirValores(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+		Set<Long> valores = new HashSet<>();
+		valores.add(service.obterAlteracoes(usuario.getId()).get());
+		
+		// acao
+		service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO);
+		valores.add(service.obterAlteracoes(usuario.getId()).get());
+		service.atualizarStatus(FiltroLancamentoLote.builder().idUsuario(usuario.getId()).build(), StatusLancamento.CANCELADO);
+		valores.add(service.obterAlteracoes(usuario.getId()).get());
+		saldoService.reconstruir();
+		Long aposReconstruir = service.obterAlteracoes(usuario.getId()).orElse(null);
+		entityManager.refresh(lancamento); // o lote nao atualiza a versao da instancia
+		service.deletar(lancamento);
+		valores.add(service.obterAlteracoes(usuario.getId()).get());
+		
+		// verificacao
+		assertThat(valores).hasSize(4);
+		assertThat(aposReconstruir).isNull(); // sem lancamentos efetivados a linha de saldo nao e recriada
+	}
+	
+	@Test
+	public void deveExcluirOsLancamentosDoMesEmLoteERetirarDoSaldo(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		efetivar(criarLancamento(usuario, TipoLancamento.RECEITA, 100, 2019, 1));
+		efetivar(criarLancamento(usuario, TipoLancamento.DESPESA, 30, 2019, 2));
+		efetivar(criarLancamento(usuario, TipoLancamento.DESPESA, 20, 2019, 2));
+		Long alteracoes = service.obterAlteracoes(usuario.getId()).get();
+		
+		// acao
+		int excluidos = service.deletar(FiltroLancamentoLote.builder().idUsuario(usuario.getId()).ano(2019).mes(2).build());
+		
+		// verificacao
+		entityManager.flush();
+		entityManager.clear();
+		assertThat(excluidos).isEqualTo(2);
+		assertThat(service.listar(Lancamento.builder().usuario(usuario).build())).extracting("mes").containsExactly(1);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+		assertThat(saldoService.conferir()).isEmpty();
+		assertThat(service.obterAlteracoes(usuario.getId()).get()).isNotEqualTo(alteracoes);
+	}
+	
+	@Test
+	public void deveLancarErroAoDeletarLancamentoDeOutroUsuario(){
+		// cenario
+		Usuario usuario = criarEPersistirUsuario();
+		Usuario outro = entityManager.persist(Usuario.builder().nome("outro").email("outro@email.com").senha("senha").build());
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+		service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO);
+		
+		// acao e verificacao
+		assertThatThrownBy(() -> service.deletar(lancamento.getId(), outro.getId())).isInstanceOf(RegraNegocioException.class);
+		assertThat(service.obterPorId(lancamento.getId())).isPresent();
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+	}
+	
+	@Test(expected = RegraNegocioException.class)
+	public void deveLancarErroAoExcluirLoteSemIdsNemUsuario(){
+		// acao
+		service.deletar(FiltroLancamentoLote.builder().ano(2019).mes(2).build());
+	}
+	
+	@Test(expected = RegraNegocioException.class)
+	public void deveLancarErroAoAtualizarLoteSemIdsNemUsuario(){
+		// acao
+		service.atualizarStatus(FiltroLancamentoLote.builder().ano(2019).build(), StatusLancamento.EFETIVADO);
+	}
+	
+	private void efetivar(Lancamento lancamento) {
+		service.atualizarStatus(service.salvar(lancamento), StatusLancamento.EFETIVADO);
+	}
+	
+	private Usuario criarEPersistirUsuario() {
+		Usuario usuario = Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build();
+		return entityManager.persist(usuario);
+	}
+	
+	private Lancamento criarLancamento(Usuario usuario, TipoLancamento tipo, int valor) {
+		return criarLancamento(usuario, tipo, valor, 2019, 1);
+	}
+	
+	private Lancamento criarLancamento(Usuario usuario, TipoLancamento tipo, int valor, int ano, int mes) {
+		return Lancamento.builder()
+				.ano(ano)
+				.mes(mes)
+				.descricao("lancamento qualquer")
+				.valor(BigDecimal.valueOf(valor))
+				.tipo(tipo)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build();
+	}
+}
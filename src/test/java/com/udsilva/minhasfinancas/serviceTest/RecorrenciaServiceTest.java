@@ -0,0 +1,167 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.udsilva.minhasfinancas.api.dto.LancamentoDTO;
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Recorrencia;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.ChaveLancamento;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.service.exceptions.RegraNegocioException;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import({ RecorrenciaServiceImpl.class, LancamentoServiceImpl.class, SaldoUsuarioServiceImpl.class })
+public class RecorrenciaServiceTest {
+
+	private static final int ANO = Year.now().getValue();
+
+	@Autowired
+	RecorrenciaServiceImpl service;
+
+	@Autowired
+	LancamentoServiceImpl lancamentoService;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveCalcularAsParcelasDoAnoSemGravarLancamentos(){
+		// cenario - 12 parcelas a partir de novembro
+		Usuario usuario = criarUsuario();
+		service.salvar(recorrencia(usuario, "notebook", 11).parcelas(12).build());
+
+		// acao
+		List<LancamentoDTO> anoCorrente = lancamentoService.listar(filtro(usuario, ANO, null));
+		List<LancamentoDTO> anoSeguinte = lancamentoService.listar(filtro(usuario, ANO + 1, null));
+
+		// verificacao
+		assertThat(anoCorrente).extracting(LancamentoDTO::getParcela).containsExactly(1, 2);
+		assertThat(anoSeguinte).extracting(LancamentoDTO::getParcela).containsExactly(3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+		assertThat(anoSeguinte).allMatch(o -> o.getId() == null && StatusLancamento.PENDENTE.name().equals(o.getStatus()));
+		assertThat(lancamentoRepository.count()).isZero();
+	}
+
+	@Test
+	public void deveListarAOcorrenciaAlteradaNoLugarDaCalculada(){
+		// cenario - salario sem fim a partir de janeiro
+		Usuario usuario = criarUsuario();
+		Recorrencia salario = service.salvar(recorrencia(usuario, "salario", 1).tipo(TipoLancamento.RECEITA).build());
+
+		// acao
+		Lancamento alteracao = Lancamento.builder().valor(new BigDecimal("120")).status(StatusLancamento.EFETIVADO).usuario(usuario).build();
+		Lancamento efetivado = lancamentoService.alterarOcorrencia(salario.getId(), 2, alteracao);
+
+		// verificacao
+		List<LancamentoDTO> ano = lancamentoService.listar(filtro(usuario, ANO, null));
+		assertThat(ano).hasSize(12);
+		assertThat(ano.get(1).getId()).isEqualTo(efetivado.getId());
+		assertThat(ano.get(1).getStatus()).isEqualTo(StatusLancamento.EFETIVADO.name());
+		assertThat(ano).filteredOn(o -> o.getId() == null).extracting(LancamentoDTO::getParcela).doesNotContain(2);
+		assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("120");
+		assertThatThrownBy(() -> lancamentoService.alterarOcorrencia(salario.getId(), 2, alteracao))
+				.isInstanceOf(RegraNegocioException.class);
+	}
+
+	@Test
+	public void devePaginarEPercorrerComAsOcorrenciasNaOrdemDaListagem(){
+		// cenario - um lancamento gravado em marco e um aluguel de fevereiro a maio
+		Usuario usuario = criarUsuario();
+		service.salvar(recorrencia(usuario, "aluguel", 2).mesFim(5).anoFim(ANO).build());
+		lancamentoService.salvar(Lancamento.builder().descricao("mercado").mes(3).ano(ANO).valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.DESPESA).usuario(usuario).dataCadastro(LocalDate.now()).build());
+		Lancamento filtro = filtro(usuario, ANO, null);
+
+		// acao - paginas de 2
+		List<LancamentoDTO> paginas = new ArrayList<>();
+		ChaveLancamento cursor = null;
+		List<LancamentoDTO> pagina;
+		do {
+			pagina = lancamentoService.buscarPagina(filtro, cursor, 2);
+			paginas.addAll(pagina);
+			cursor = pagina.isEmpty() ? null : ChaveLancamento.decodificar(ChaveLancamento.de(pagina.get(pagina.size() - 1)).codificar());
+		} while(pagina.size() == 2);
+		List<LancamentoDTO> percorridos = new ArrayList<>();
+		lancamentoService.percorrer(filtro, percorridos::add);
+
+		// verificacao
+		List<LancamentoDTO> listados = lancamentoService.listar(filtro);
+		assertThat(listados).extracting(LancamentoDTO::getDescricao)
+				.containsExactly("aluguel", "mercado", "aluguel", "aluguel", "aluguel");
+		assertThat(paginas).isEqualTo(listados);
+		assertThat(percorridos).isEqualTo(listados);
+	}
+
+	@Test
+	public void deveFiltrarAsOcorrenciasPeloMesEPelaDescricao(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		service.salvar(recorrencia(usuario, "Aluguel", 1).build());
+		service.salvar(recorrencia(usuario, "academia", 1).build());
+		Lancamento filtro = filtro(usuario, null, 6);
+		filtro.setDescricao("alug");
+
+		// acao
+		List<LancamentoDTO> ocorrencias = service.expandir(filtro);
+
+		// verificacao
+		assertThat(ocorrencias).extracting(LancamentoDTO::getDescricao, LancamentoDTO::getAno, LancamentoDTO::getParcela)
+				.containsExactly(tuple("Aluguel", ANO, 6));
+	}
+
+	@Test
+	public void naoDeveAceitarParcelasEMesFinalJuntos(){
+		// cenario
+		Usuario usuario = criarUsuario();
+		Recorrencia recorrencia = recorrencia(usuario, "aluguel", 1).parcelas(3).mesFim(12).anoFim(ANO).build();
+
+		// acao e verificacao
+		assertThatThrownBy(() -> service.salvar(recorrencia)).isInstanceOf(RegraNegocioException.class);
+	}
+
+	private Usuario criarUsuario() {
+		return entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+	}
+
+	private static Recorrencia.RecorrenciaBuilder recorrencia(Usuario usuario, String descricao, int mes) {
+		return Recorrencia.builder()
+				.descricao(descricao)
+				.valor(new BigDecimal("100"))
+				.tipo(TipoLancamento.DESPESA)
+				.mes(mes)
+				.ano(ANO)
+				.usuario(usuario);
+	}
+
+	private static Lancamento filtro(Usuario usuario, Integer ano, Integer mes) {
+		return Lancamento.builder().usuario(usuario).ano(ano).mes(mes).build();
+	}
+}
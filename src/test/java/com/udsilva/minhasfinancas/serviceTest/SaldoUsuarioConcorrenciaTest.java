@@ -0,0 +1,198 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.udsilva.minhasfinancas.model.entity.Lancamento;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.entity.enums.StatusLancamento;
+import com.udsilva.minhasfinancas.model.entity.enums.TipoLancamento;
+import com.udsilva.minhasfinancas.model.repository.FiltroLancamentoLote;
+import com.udsilva.minhasfinancas.model.repository.LancamentoRepository;
+import com.udsilva.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+import com.udsilva.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+import com.udsilva.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+/** Escritas simultaneas de um mesmo usuario: cada thread tem a sua transacao, por isso o teste nao e transacional. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ LancamentoServiceImpl.class, RecorrenciaServiceImpl.class, SaldoUsuarioServiceImpl.class })
+public class SaldoUsuarioConcorrenciaTest {
+
+	private static final int THREADS = 4;
+
+	@Autowired
+	LancamentoServiceImpl service;
+
+	@Autowired
+	SaldoUsuarioServiceImpl saldoService;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	SaldoUsuarioRepository saldoRepository;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@After
+	public void removerDados() {
+		lancamentoRepository.deleteAll();
+		saldoRepository.deleteAll();
+		usuarioRepository.deleteAll();
+	}
+
+	@Test
+	public void deveCriarOSaldoUmaVezNasPrimeirasEscritasSimultaneas() throws Exception {
+		// cenario - usuario sem linha de saldo
+		Usuario usuario = criarUsuario();
+
+		// acao
+		executarJuntas(() -> service.salvar(criarLancamento(usuario, 10)));
+
+		// verificacao
+		assertThat(saldoRepository.existsById(usuario.getId())).isTrue();
+		assertThat(lancamentoRepository.count()).isEqualTo(THREADS);
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+
+	@Test
+	public void deveManterOSaldoNasAtualizacoesSimultaneasDoMesmoLancamento() throws Exception {
+		// cenario
+		Usuario usuario = criarUsuario();
+		Lancamento lancamento = service.salvar(criarLancamento(usuario, 100));
+		service.atualizarStatus(lancamento.getId(), usuario.getId(), null, StatusLancamento.EFETIVADO, null);
+
+		// acao - cada thread grava um valor diferente varias vezes
+		int[] valor = { 0 };
+		executarJuntas(() -> {
+			for(int i = 0; i < 10; i++){
+				Lancamento alteracao = criarLancamento(usuario, 100 + nextValor(valor));
+				alteracao.setId(lancamento.getId());
+				service.atualizar(alteracao, null);
+			}
+			return null;
+		});
+
+		// verificacao
+		BigDecimal gravado = lancamentoRepository.findById(lancamento.getId()).get().getValor();
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo(gravado);
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+
+	@Test
+	public void deveCriarOSaldoSemOLancamentoExcluidoJuntoComAsPrimeirasInclusoes() throws Exception {
+		// cenario - lancamento efetivado gravado direto no repositorio: o usuario fica sem linha de saldo
+		Usuario usuario = criarUsuario();
+		Lancamento excluido = lancamentoRepository.save(criarLancamento(usuario, 1000));
+
+		// acao - a primeira thread exclui e as demais incluem lancamentos pendentes
+		int[] ordem = { 0 };
+		executarJuntas(() -> {
+			if(nextValor(ordem) == 1){
+				service.deletar(excluido.getId(), usuario.getId());
+				return null;
+			}
+			return service.salvar(criarLancamento(usuario, 10));
+		});
+
+		// verificacao
+		assertThat(lancamentoRepository.count()).isEqualTo(THREADS - 1);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isZero();
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+
+	@Test
+	public void deveCriarOSaldoSemOLoteExcluidoJuntoComAsPrimeirasInclusoes() throws Exception {
+		// cenario - como na exclusao de um lancamento, agora pela exclusao em lote do mes
+		Usuario usuario = criarUsuario();
+		Lancamento excluido = criarLancamento(usuario, 1000);
+		excluido.setMes(2);
+		lancamentoRepository.save(excluido);
+
+		// acao
+		int[] ordem = { 0 };
+		executarJuntas(() -> {
+			if(nextValor(ordem) == 1){
+				return service.deletar(FiltroLancamentoLote.builder().idUsuario(usuario.getId()).ano(excluido.getAno()).mes(2).build());
+			}
+			return service.salvar(criarLancamento(usuario, 10));
+		});
+
+		// verificacao
+		assertThat(lancamentoRepository.count()).isEqualTo(THREADS - 1);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isZero();
+		assertThat(saldoService.conferir()).isEmpty();
+	}
+
+	private static synchronized int nextValor(int[] valor) {
+		return ++valor[0];
+	}
+
+	// as threads comecam juntas e o teste falha com a primeira excecao
+	private void executarJuntas(Callable<?> tarefa) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch largada = new CountDownLatch(1);
+		try {
+			List<Future<?>> resultados = new ArrayList<>();
+			for(int i = 0; i < THREADS; i++){
+				resultados.add(executor.submit(() -> {
+					largada.await();
+					return tarefa.call();
+				}));
+			}
+			largada.countDown();
+			for(Future<?> resultado : resultados){
+				resultado.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Usuario criarUsuario() {
+		return usuarioRepository.save(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+	}
+
+	private static Lancamento criarLancamento(Usuario usuario, int valor) {
+		return Lancamento.builder()
+				.descricao("lancamento")
+				.mes(1)
+				.ano(LocalDate.now().getYear())
+				.valor(new BigDecimal(valor))
+				.tipo(TipoLancamento.RECEITA)
+				.status(StatusLancamento.EFETIVADO)
+				.usuario(usuario)
+				.dataCadastro(LocalDate.now())
+				.build();
+	}
+}
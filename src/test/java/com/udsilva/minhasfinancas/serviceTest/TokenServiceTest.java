@@ -0,0 +1,78 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import javax.crypto.SecretKey;
+
+import org.junit.Test;
+
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.service.TokenService;
+import com.udsilva.minhasfinancas.service.impl.TokenServiceImpl;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/** O token e conferido so com a chave, sem banco nem contexto do spring. */
+public class TokenServiceTest {
+
+	private static final SecretKey CHAVE = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+	
+	private static final Instant AGORA = Instant.parse("2019-11-20T10:00:00Z");
+	
+	@Test
+	public void deveObterOUsuarioDoTokenGerado(){
+		// cenario
+		TokenService service = criarService(AGORA);
+		String token = service.gerarToken(Usuario.builder().id(7L).build());
+		
+		// acao / verificacao
+		assertThat(service.obterIdUsuario(token)).contains(7L);
+	}
+	
+	@Test
+	public void naoDeveAceitarTokenExpirado(){
+		// cenario
+		String token = criarService(AGORA).gerarToken(Usuario.builder().id(7L).build());
+		
+		// acao / verificacao
+		assertThat(criarService(AGORA.plus(Duration.ofMinutes(31))).obterIdUsuario(token)).isNotPresent();
+	}
+	
+	@Test
+	public void naoDeveAceitarTokenAlteradoOuDeOutraChave(){
+		// cenario
+		TokenService service = criarService(AGORA);
+		String token = service.gerarToken(Usuario.builder().id(7L).build());
+		TokenService outraChave = new TokenServiceImpl(Keys.secretKeyFor(SignatureAlgorithm.HS256), Duration.ofMinutes(30), Clock.fixed(AGORA, ZoneOffset.UTC));
+		
+		// acao / verificacao
+		assertThat(service.obterIdUsuario(token.substring(0, token.length() - 2) + "xx")).isNotPresent();
+		assertThat(outraChave.obterIdUsuario(token)).isNotPresent();
+		assertThat(service.obterIdUsuario("nao-e-um-token")).isNotPresent();
+	}
+	
+	@Test
+	public void naoDeveSubirSemChaveOuComChaveMenorQue256Bits(){
+		// cenario
+		String chave128Bits = Base64.getEncoder().encodeToString(new byte[16]);
+		String chave256Bits = Base64.getEncoder().encodeToString(new byte[32]);
+
+		// acao / verificacao
+		assertThatThrownBy(() -> new TokenServiceImpl("", 30)).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> new TokenServiceImpl("nao e base64", 30)).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> new TokenServiceImpl(chave128Bits, 30)).isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("256 bits");
+		assertThat(new TokenServiceImpl(chave256Bits, 30).gerarToken(Usuario.builder().id(7L).build())).isNotEmpty();
+	}
+
+	private TokenService criarService(Instant agora) {
+		return new TokenServiceImpl(CHAVE, Duration.ofMinutes(30), Clock.fixed(agora, ZoneOffset.UTC));
+	}
+}
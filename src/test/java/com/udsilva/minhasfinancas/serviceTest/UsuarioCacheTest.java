@@ -0,0 +1,118 @@
+package com.udsilva.minhasfinancas.serviceTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Optional;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.udsilva.minhasfinancas.config.CacheConfiguration;
+import com.udsilva.minhasfinancas.config.SegurancaConfiguration;
+import com.udsilva.minhasfinancas.model.entity.Usuario;
+import com.udsilva.minhasfinancas.model.repository.UsuarioRepository;
+import com.udsilva.minhasfinancas.service.UsuarioService;
+import com.udsilva.minhasfinancas.service.impl.UsuarioServiceImpl;
+
+/** Testes de integração do cache de usuarios (Caffeine) na frente do UsuarioService. */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@ActiveProfiles("test")
+@Import({ UsuarioServiceImpl.class, CacheConfiguration.class, SegurancaConfiguration.class })
+public class UsuarioCacheTest {
+
+	@Autowired
+	UsuarioService service;
+	
+	@Autowired
+	UsuarioRepository repository;
+	
+	@Autowired
+	CacheManager cacheManager;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveObterOUsuarioDoCacheNaSegundaConsulta(){
+		// cenario
+		Usuario usuario = entityManager.persistAndFlush(criarUsuario("usuario@email.com"));
+		
+		// acao
+		service.obterPorId(usuario.getId());
+		Optional<Usuario> resultado = service.obterPorId(usuario.getId());
+		
+		// verificacao
+		assertThat(resultado).isPresent();
+		assertThat(cacheNativo(CacheConfiguration.USUARIOS).stats().hitCount()).isGreaterThanOrEqualTo(1);
+		assertThat(cacheManager.getCache(CacheConfiguration.USUARIOS).get(usuario.getId())).isNotNull();
+	}
+	
+	@Test
+	public void naoDeveGuardarNoCacheUsuarioInexistente(){
+		// acao
+		assertThat(service.obterPorId(-1L)).isNotPresent();
+		assertThat(repository.findByEmail("inexistente@email.com")).isNotPresent();
+		
+		// verificacao
+		assertThat(cacheManager.getCache(CacheConfiguration.USUARIOS).get(-1L)).isNull();
+		assertThat(cacheManager.getCache(CacheConfiguration.USUARIOS_POR_EMAIL).get("inexistente@email.com")).isNull();
+	}
+	
+	@Test
+	public void deveDescartarDoCacheAoSalvarOUsuario(){
+		// cenario
+		Usuario usuario = entityManager.persistAndFlush(criarUsuario("outro@email.com"));
+		service.obterPorId(usuario.getId());
+		repository.findByEmail(usuario.getEmail());
+		entityManager.detach(usuario);
+		
+		// acao
+		usuario.setEmail("novo@email.com");
+		service.salvarUsuario(usuario);
+		
+		// verificacao
+		assertThat(cacheManager.getCache(CacheConfiguration.USUARIOS).get(usuario.getId())).isNull();
+		assertThat(service.obterPorId(usuario.getId()).get().getEmail()).isEqualTo("novo@email.com");
+	}
+	
+	@Test
+	public void deveDescartarDoCacheAoTrocarASenhaLegadaPeloHash(){
+		// cenario - senha em texto puro, usuario nos dois caches
+		Usuario usuario = entityManager.persistAndFlush(criarUsuario("legado@email.com"));
+		service.obterPorId(usuario.getId());
+		repository.findByEmail(usuario.getEmail());
+		
+		// acao
+		service.autenticar("legado@email.com", "senha");
+		
+		// verificacao
+		assertThat(cacheManager.getCache(CacheConfiguration.USUARIOS).get(usuario.getId())).isNull();
+		assertThat(cacheManager.getCache(CacheConfiguration.USUARIOS_POR_EMAIL).get("legado@email.com")).isNull();
+		entityManager.clear();
+		assertThat(entityManager.find(Usuario.class, usuario.getId()).getSenha()).startsWith("$2a$");
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Cache<Object, Object> cacheNativo(String nome) {
+		return (Cache<Object, Object>) cacheManager.getCache(nome).getNativeCache();
+	}
+	
+	private Usuario criarUsuario(String email) {
+		return Usuario.builder().nome("usuario").email(email).senha("senha").build();
+	}
+}
@@ -6,8 +6,13 @@ import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -31,6 +36,19 @@ public class UsuarioServiceTest {
 		
 	@MockBean // cria uma instancia real de UsuarioRepository acessada no contexto do spring
 	UsuarioRepository repository;
+	
+	@Autowired
+	PasswordEncoder encoder;
+	
+	// o UsuarioServiceImpl recebe o encoder no construtor; custo minimo para o teste ser rapido
+	@TestConfiguration
+	static class EncoderConfiguration {
+		
+		@Bean
+		public PasswordEncoder passwordEncoder() {
+			return new BCryptPasswordEncoder(4);
+		}
+	}
 		
 	@Test(expected = Test.None.class)
 	public void deveSalvarUmUsuario(){
@@ -59,6 +77,21 @@ public class UsuarioServiceTest {
 						
 	}
 	
+	@Test
+	public void deveGravarOHashDaSenhaAoSalvarUmUsuario(){
+		// cenario
+		Mockito.doNothing().when(service).validarEmail(Mockito.anyString());
+		Usuario usuario = Usuario.builder().nome("nome").email("email@email.com").senha("senha").build();
+		Mockito.when( repository.save(Mockito.any(Usuario.class) )).thenAnswer(invocacao -> invocacao.getArgument(0));
+		
+		// acao
+		Usuario usuarioSalvo = service.salvarUsuario(usuario);
+		
+		// verificacao
+		Assertions.assertThat(usuarioSalvo.getSenha()).isNotEqualTo("senha").startsWith("$2a$04$");
+		Assertions.assertThat(encoder.matches("senha", usuarioSalvo.getSenha())).isTrue();
+	}
+	
 	@Test(expected = RegraNegocioException.class)
 	public void naoDeveSalvarUmUsuarioComEmailJaCadastrado(){
 		// cenario
@@ -110,6 +143,49 @@ public class UsuarioServiceTest {
 		Assertions.assertThat(result).isNotNull();
 	}
 	
+	@Test
+	public void deveAutenticarComASenhaEmHashSemRegravarASenha(){
+		// cenario
+		String email = "email@email.com";
+		Usuario usuario = Usuario.builder().email(email).senha(encoder.encode("senha")).id(1l).build();
+		Mockito.when( repository.findByEmail(email) ).thenReturn(Optional.of(usuario));
+		
+		// acao
+		Usuario result = service.autenticar(email, "senha");
+		
+		// verificacao
+		Assertions.assertThat(result).isSameAs(usuario);
+		Mockito.verify(repository, Mockito.never()).atualizarSenha(Mockito.any(Usuario.class), Mockito.anyString());
+	}
+	
+	@Test
+	public void deveTrocarASenhaLegadaPeloHashAoAutenticar(){
+		// cenario - senha gravada em texto puro, antes do bcrypt
+		String email = "email@email.com";
+		Usuario usuario = Usuario.builder().email(email).senha("senha").id(1l).build();
+		Mockito.when( repository.findByEmail(email) ).thenReturn(Optional.of(usuario));
+		
+		// acao
+		service.autenticar(email, "senha");
+		
+		// verificacao
+		Mockito.verify(repository).atualizarSenha(Mockito.eq(usuario), Mockito.argThat(hash -> encoder.matches("senha", hash)));
+	}
+	
+	@Test
+	public void deveLancarErroQuandoSenhaNaoBaterComOHash(){
+		// cenario
+		Usuario usuario = Usuario.builder().email("email@email.com").senha(encoder.encode("senha")).build();
+		Mockito.when( repository.findByEmail(Mockito.anyString()) ).thenReturn(Optional.of(usuario));
+		
+		// acao
+		Throwable exception = Assertions.catchThrowable( () ->  service.autenticar("email@email.com", "123") );
+		
+		// verificacao
+		Assertions.assertThat(exception).isInstanceOf(ErroAutenticacao.class).hasMessage("Senha inválida.");
+		Mockito.verify(repository, Mockito.never()).atualizarSenha(Mockito.any(Usuario.class), Mockito.anyString());
+	}
+	
 	@Test
 	public void deveLancarErroQuandoNaoEncontrarUsuarioCadastradoComOEmailInformado(){
 		// cenario